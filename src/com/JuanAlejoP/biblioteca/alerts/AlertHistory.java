@@ -1,34 +1,205 @@
 package com.JuanAlejoP.biblioteca.alerts;
 
-import java.util.List;
+import com.JuanAlejoP.biblioteca.manager.Pagina;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.List;
+import java.util.Set;
 
 /**
- * Clase que mantiene un historial sincronizado de entradas de notificaciones.
- * Utiliza una lista sincronizada para asegurar la seguridad en concurrencia.
+ * Clase que mantiene el historial reciente de entradas de notificaciones.
+ * <p>
+ * Las entradas se guardan en un historial circular acotado y sin bloqueos: registrar una
+ * notificación nunca toma un cerrojo global y, al completarse la capacidad, las entradas
+ * más antiguas se descartan y se cuentan como desbordadas. El historial se almacena por
+ * columnas de tipos primitivos y diccionarios, y las lecturas por página o de las últimas
+ * entradas sólo reconstruyen los elementos pedidos.
+ * </p>
+ * <p>
+ * La capacidad se toma de la propiedad del sistema {@code biblioteca.alertas.capacidad}
+ * (por defecto {@value #CAPACIDAD_PREDETERMINADA}) y se redondea a la siguiente potencia de dos.
+ * </p>
+ * <p>
+ * Si se configura un {@link RegistroAlertas}, el historial en memoria pasa a ser la cola reciente
+ * de ese registro persistente: cada entrada se encola también para escribirse en disco y las
+ * búsquedas que abarcan fechas anteriores a las retenidas se resuelven sobre sus segmentos.
+ * </p>
+ * <p>
+ * Las entradas retenidas se indexan por usuario y por tipo, ordenadas por fecha, de modo que las
+ * búsquedas en memoria no recorren el historial completo.
+ * </p>
  */
 public class AlertHistory {
     /**
-     * Lista sincronizada que almacena las entradas de notificación.
+     * Capacidad del historial si no se configura otra.
+     */
+    public static final int CAPACIDAD_PREDETERMINADA = 16_384;
+
+    /**
+     * Historial circular por columnas que almacena las entradas de notificación.
+     */
+    private static volatile HistorialColumnar history =
+            new HistorialColumnar(Integer.getInteger("biblioteca.alertas.capacidad", CAPACIDAD_PREDETERMINADA));
+
+    /**
+     * Cada cuántas entradas un productor intenta, sin esperar, poner al día el índice.
+     */
+    private static final int INTERVALO_INDEXACION = 1024;
+
+    /**
+     * Índices por usuario y tipo de las entradas retenidas en el historial.
+     */
+    private static volatile IndiceAlertas indice = new IndiceAlertas(history);
+
+    /**
+     * Registro persistente de las entradas, o {@code null} si el historial sólo vive en memoria.
      */
-    private static final List<NotificacionEntry> history = Collections.synchronizedList(new ArrayList<>());
+    private static volatile RegistroAlertas registro;
 
     /**
-     * Agrega una nueva entrada al historial de notificaciones.
+     * Agrega una nueva entrada al historial de notificaciones, descartando la más antigua si está lleno.
      *
      * @param entry instancia de NotificacionEntry que se desea registrar en el historial
      */
     public static void addEntry(NotificacionEntry entry) {
-        history.add(entry);
+        long secuencia = history.agregar(entry);
+        if (secuencia % INTERVALO_INDEXACION == 0) {
+            indice.indexarSiLibre();
+        }
+        RegistroAlertas actual = registro;
+        if (actual != null) {
+            actual.agregar(entry);
+        }
+    }
+
+    /**
+     * Configura el registro persistente donde se escriben las nuevas entradas.
+     *
+     * @param log registro de alertas, o {@code null} para mantener el historial sólo en memoria
+     */
+    public static void setLog(RegistroAlertas log) {
+        registro = log;
+    }
+
+    /**
+     * Busca entradas por usuario, tipo y rango de fechas, de la más antigua a la más reciente.
+     * <p>
+     * Si el rango comienza dentro del historial retenido en memoria, la búsqueda usa sus índices;
+     * si comienza antes y hay un registro persistente configurado, se resuelve sobre los segmentos
+     * del registro cuyo rango de fechas se superpone con el pedido.
+     * </p>
+     *
+     * @param usuarioId identificador del usuario, o {@code null} para todos
+     * @param tipos     tipos de alerta buscados; {@code null} o vacío para todos
+     * @param desde     inicio del rango, inclusive; {@code null} para no acotar
+     * @param hasta     fin del rango, exclusive; {@code null} para no acotar
+     * @param limite    cantidad máxima de entradas a devolver
+     * @return entradas que cumplen los criterios
+     * @throws IOException si no se puede leer el registro persistente
+     */
+    public static List<NotificacionEntry> search(String usuarioId, Set<AlertType> tipos, LocalDateTime desde,
+                                                 LocalDateTime hasta, int limite) throws IOException {
+        RegistroAlertas actual = registro;
+        if (actual != null) {
+            LocalDateTime primera = indice.primeraFecha();
+            if (desde == null || primera == null || desde.isBefore(primera)) {
+                return actual.consultar(usuarioId, tipos, desde, hasta, limite);
+            }
+        }
+        return query(usuarioId, tipos, desde, hasta, limite);
     }
 
     /**
-     * Recupera el historial completo de notificaciones.
+     * Busca entre las entradas retenidas en memoria por usuario, tipo y rango de fechas, usando los
+     * índices del historial; el costo depende de la cantidad de resultados y no del tamaño del historial.
      *
-     * @return nueva lista que contiene todas las entradas de notificación registradas
+     * @param usuarioId identificador del usuario, o {@code null} para todos
+     * @param tipos     tipos de alerta buscados; {@code null} o vacío para todos
+     * @param desde     inicio del rango, inclusive; {@code null} para no acotar
+     * @param hasta     fin del rango, exclusive; {@code null} para no acotar
+     * @param limite    cantidad máxima de entradas a devolver
+     * @return entradas retenidas que cumplen los criterios, de la más antigua a la más reciente
+     */
+    public static List<NotificacionEntry> query(String usuarioId, Set<AlertType> tipos, LocalDateTime desde,
+                                                LocalDateTime hasta, int limite) {
+        return indice.consultar(usuarioId, tipos, desde, hasta, limite);
+    }
+
+    /**
+     * Recupera todas las entradas retenidas en el historial, de la más antigua a la más reciente.
+     *
+     * @return nueva lista que contiene las entradas de notificación retenidas
      */
     public static List<NotificacionEntry> getHistory() {
-        return new ArrayList<>(history);
+        HistorialColumnar actual = history;
+        return actual.ultimos(actual.capacidad());
+    }
+
+    /**
+     * Recupera las últimas entradas registradas.
+     *
+     * @param cantidad cantidad máxima de entradas
+     * @return entradas más recientes, de la más antigua a la más reciente
+     */
+    public static List<NotificacionEntry> getLatest(int cantidad) {
+        return history.ultimos(cantidad);
+    }
+
+    /**
+     * Recupera una página del historial en orden de registro.
+     * <p>
+     * El cursor identifica la posición de la siguiente entrada; si las entradas que señala
+     * se descartaron entre una página y otra, la lectura continúa desde la más antigua retenida.
+     * </p>
+     *
+     * @param cursor cursor devuelto por la página anterior, o {@code null} para comenzar desde la más antigua
+     * @param limite cantidad máxima de entradas en la página
+     * @return página de entradas con el cursor de la siguiente
+     * @throws IllegalArgumentException si el cursor no es válido
+     */
+    public static Pagina<NotificacionEntry> getPage(String cursor, int limite) {
+        HistorialColumnar actual = history;
+        long desde;
+        try {
+            desde = cursor == null ? 0 : Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor inválido: " + cursor, e);
+        }
+        List<NotificacionEntry> entradas = new ArrayList<>(Math.min(limite, actual.capacidad()));
+        long siguiente = actual.leer(desde, limite, entradas);
+        return new Pagina<>(entradas, siguiente < actual.totalAgregados() ? Long.toString(siguiente) : null);
+    }
+
+    /**
+     * Obtiene la cantidad de entradas descartadas por haberse superado la capacidad del historial.
+     *
+     * @return cantidad de entradas desbordadas
+     */
+    public static long getOverflowCount() {
+        return history.desbordados();
+    }
+
+    /**
+     * Obtiene la capacidad efectiva del historial.
+     *
+     * @return cantidad máxima de entradas retenidas
+     */
+    public static int getCapacity() {
+        return history.capacidad();
+    }
+
+    /**
+     * Reemplaza el historial por uno vacío con la capacidad indicada.
+     * Pensado para configurar el historial al iniciar la aplicación: las entradas previas se descartan.
+     *
+     * @param capacidad capacidad mínima del nuevo historial
+     * @throws IllegalArgumentException si la capacidad no es válida
+     */
+    public static void setCapacity(int capacidad) {
+        HistorialColumnar nuevo = new HistorialColumnar(capacidad);
+        history = nuevo;
+        indice = new IndiceAlertas(nuevo);
     }
-}
\ No newline at end of file
+}
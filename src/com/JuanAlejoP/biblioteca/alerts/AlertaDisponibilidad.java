@@ -2,26 +2,62 @@ package com.JuanAlejoP.biblioteca.alerts;
 
 import com.JuanAlejoP.biblioteca.manager.GestorRecursos;
 import com.JuanAlejoP.biblioteca.manager.GestorUsuarios;
+import com.JuanAlejoP.biblioteca.manager.ResultadoOperacion;
 import com.JuanAlejoP.biblioteca.model.EstadoRecurso;
 import com.JuanAlejoP.biblioteca.model.RecursoDigital;
 import com.JuanAlejoP.biblioteca.model.Reserva;
 import com.JuanAlejoP.biblioteca.model.Usuario;
 import com.JuanAlejoP.biblioteca.service.ServicioNotificaciones;
 
-import java.util.Queue;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * La clase {@code AlertaDisponibilidad} se encarga de revisar la disponibilidad de recursos digitales
  * y gestionar las notificaciones a los usuarios en cola de reservas.
+ * <p>
+ * Un recurso retenido sólo puede prestarse a quien encabeza su cola, por lo que su turno vence si no
+ * lo retira dentro del plazo de retiro contado desde el primer aviso, y pasa a la reserva siguiente.
+ * Los avisos se recuerdan sólo en memoria: al reiniciar la aplicación el plazo vuelve a contarse.
+ * </p>
  */
 public class AlertaDisponibilidad {
+    /** Plazo de retiro por omisión de un recurso retenido, contado desde el primer aviso. */
+    public static final Duration PLAZO_RETIRO = Duration.ofHours(48);
+
     /** Gestor de recursos digitales que ofrece métodos para listar y prestar recursos. */
     private GestorRecursos resourceManager;
     /** Gestor de usuarios que maneja la información de los usuarios del sistema. */
     private GestorUsuarios userManager;
     /** Servicio encargado de enviar notificaciones a los usuarios. */
     private ServicioNotificaciones notifications;
+    /** Plazo que tiene quien encabeza la cola para retirar el recurso retenido. */
+    private final Duration plazoRetiro;
+    /** Primer aviso enviado por cada recurso retenido, por ID de recurso. */
+    private final Map<String, Aviso> avisos = new ConcurrentHashMap<>();
+
+    /**
+     * Primer aviso de disponibilidad enviado a quien encabeza la cola de un recurso.
+     */
+    private static final class Aviso {
+        /** Reserva notificada. */
+        private final Reserva reserva;
+        /** Fecha y hora del primer aviso. */
+        private final LocalDateTime fecha;
+
+        /**
+         * @param reserva reserva notificada
+         * @param fecha   fecha y hora del aviso
+         */
+        private Aviso(Reserva reserva, LocalDateTime fecha) {
+            this.reserva = reserva;
+            this.fecha = fecha;
+        }
+    }
 
     /**
      * Crea una instancia de {@code AlertaDisponibilidad} con los gestores y servicios necesarios.
@@ -33,45 +69,91 @@ public class AlertaDisponibilidad {
     public AlertaDisponibilidad(GestorRecursos resourceManager,
                                 GestorUsuarios userManager,
                                 ServicioNotificaciones notifications) {
+        this(resourceManager, userManager, notifications, PLAZO_RETIRO);
+    }
+
+    /**
+     * Crea una instancia de {@code AlertaDisponibilidad} con un plazo de retiro propio.
+     *
+     * @param resourceManager gestor de recursos digitales
+     * @param userManager     gestor de usuarios
+     * @param notifications   servicio para enviar notificaciones a usuarios
+     * @param plazoRetiro     plazo para retirar un recurso retenido, contado desde el primer aviso
+     */
+    public AlertaDisponibilidad(GestorRecursos resourceManager,
+                                GestorUsuarios userManager,
+                                ServicioNotificaciones notifications,
+                                Duration plazoRetiro) {
         this.resourceManager = resourceManager;
         this.userManager = userManager;
         this.notifications = notifications;
+        this.plazoRetiro = plazoRetiro;
     }
 
     /**
-     * Revisa todos los recursos digitales y, para cada recurso disponible, verifica si existe
-     * una cola de reservas. Si la cola no está vacía, notifica al primer usuario en espera.
+     * Revisa los recursos libres (disponibles o retenidos como reservados tras su devolución)
+     * que tienen reservas pendientes, según el conjunto que mantiene el gestor, sin recorrer
+     * el resto del catálogo. Para cada uno notifica al primer usuario en espera; si ya se le
+     * avisó y venció su plazo de retiro, antes cede su turno y notifica al siguiente.
      * Luego solicita confirmación para realizar el préstamo al usuario y, en caso afirmativo,
-     * ejecuta la operación de préstamo.
+     * ejecuta la operación de préstamo, que consume su reserva.
      */
     public void revisarDisponibilidad() {
-        for (RecursoDigital recurso : resourceManager.listAllResources()) {
-            String id = recurso.getIdentificador();
-            if (recurso.getEstado() == EstadoRecurso.DISPONIBLE) {
-                Queue<Reserva> cola = resourceManager.getReservas(id);
-                if (!cola.isEmpty()) {
-                    Reserva reserva = cola.peek();
-                    Usuario usuario = reserva.getUsuario();
-                    String mensaje = "✅ Recurso disponible: " + id;
+        Set<String> listos = resourceManager.getRecursosListosParaNotificar();
+        for (String id : listos) {
+            RecursoDigital recurso = resourceManager.buscarRecurso(id).orElse(null);
+            Reserva reserva = resourceManager.getPrimeraReserva(id);
+            if (recurso == null || reserva == null || recurso.getEstado() == EstadoRecurso.PRESTADO) {
+                continue;
+            }
+            LocalDateTime ahora = LocalDateTime.now();
+            Aviso aviso = avisos.get(id);
+            if (aviso != null && aviso.reserva == reserva && !ahora.isBefore(aviso.fecha.plus(plazoRetiro))) {
+                vencerTurno(id, reserva);
+                reserva = resourceManager.getPrimeraReserva(id);
+                if (reserva == null || recurso.getEstado() == EstadoRecurso.PRESTADO) {
+                    avisos.remove(id);
+                    continue;
+                }
+            }
+            if (aviso == null || aviso.reserva != reserva) {
+                avisos.put(id, new Aviso(reserva, ahora));
+            }
+            Usuario usuario = reserva.getUsuario();
+            String mensaje = "✅ Recurso disponible: " + id;
 
-                    // Envío de notificación al usuario que encabeza la cola
-                    notifications.enviarNotificacion(mensaje, usuario);
-                    System.out.println(mensaje + " (Usuario ID: " + usuario.getId() + ")");
+            // Envío de notificación al usuario que encabeza la cola
+            notifications.enviarNotificacion(mensaje, usuario);
+            System.out.println(mensaje + " (Usuario ID: " + usuario.getId() + ")");
 
-                    // Solicita al usuario si desea tomar el recurso
-                    System.out.print("¿Desea tomar el recurso ahora? (s/n): ");
-                    Scanner sc = new Scanner(System.in);
-                    if (sc.nextLine().equalsIgnoreCase("s")) {
-                        try {
-                            resourceManager.prestarRecurso(id, usuario);
-                            cola.poll();
-                            System.out.println("Préstamo registrado con éxito.");
-                        } catch (Exception e) {
-                            System.out.println("No se pudo prestar: " + e.getMessage());
-                        }
-                    }
+            // Solicita al usuario si desea tomar el recurso
+            System.out.print("¿Desea tomar el recurso ahora? (s/n): ");
+            Scanner sc = new Scanner(System.in);
+            if (sc.nextLine().equalsIgnoreCase("s")) {
+                try {
+                    resourceManager.prestarRecurso(id, usuario);
+                    System.out.println("Préstamo registrado con éxito.");
+                } catch (Exception e) {
+                    System.out.println("No se pudo prestar: " + e.getMessage());
                 }
             }
         }
+        // Se olvidan los avisos de los recursos que ya no están retenidos
+        avisos.keySet().retainAll(listos);
+    }
+
+    /**
+     * Cede el turno de una reserva cuyo plazo de retiro venció y se lo notifica a su usuario.
+     *
+     * @param id      ID del recurso retenido
+     * @param reserva reserva que encabeza la cola
+     */
+    private void vencerTurno(String id, Reserva reserva) {
+        Usuario usuario = reserva.getUsuario();
+        if (resourceManager.intentarCederReserva(id, usuario) == ResultadoOperacion.EXITO) {
+            String mensaje = "⌛ Venció el plazo para retirar el recurso reservado: " + id;
+            notifications.enviarNotificacion(mensaje, usuario);
+            System.out.println(mensaje + " (Usuario ID: " + usuario.getId() + ")");
+        }
     }
-}
\ No newline at end of file
+}
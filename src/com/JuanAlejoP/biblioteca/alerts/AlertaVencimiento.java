@@ -7,7 +7,7 @@ import com.JuanAlejoP.biblioteca.model.Prestamo;
 import com.JuanAlejoP.biblioteca.model.Usuario;
 import com.JuanAlejoP.biblioteca.service.ServicioNotificaciones;
 
-import java.time.LocalDateTime;
+import java.time.LocalDate;
 import java.util.Collection;
 import java.util.Scanner;
 
@@ -37,7 +37,8 @@ public class AlertaVencimiento {
     }
 
     /**
-     * Revisa todos los préstamos y:
+     * Revisa los préstamos que vencen hoy o mañana, obtenidos del índice de vencimientos
+     * del gestor mediante una consulta por rango, y:
      * <ul>
      *     <li>Si un préstamo vence mañana, envía una notificación de alerta.</li>
      *     <li>Si un préstamo vence hoy, envía una notificación y, si el recurso es renovable,
@@ -45,37 +46,33 @@ public class AlertaVencimiento {
      * </ul>
      */
     public void revisarVencimientos() {
-        Collection<Prestamo> prestamos = resourceManager.getTodosLosPrestamos();
-        LocalDateTime ahora = LocalDateTime.now();
+        LocalDate hoy = LocalDate.now();
+        Collection<Prestamo> prestamos = resourceManager.getPrestamosQueVencenEntre(
+                hoy.atStartOfDay(), hoy.plusDays(2).atStartOfDay()
+        );
         for (Prestamo prestamo : prestamos) {
-            LocalDateTime devolucion = prestamo.getFechaDevolucion();
-            long dias = java.time.Duration.between(
-                    ahora.toLocalDate().atStartOfDay(),
-                    devolucion.toLocalDate().atStartOfDay()
-            ).toDays();
-            if (dias == 1 || dias == 0) {
-                Usuario usuario = prestamo.getUsuario();
-                String mensaje = (dias == 1 ? "⚠️ Su préstamo vence mañana: "
-                        : "⚠️ Su préstamo vence hoy: ")
-                        + prestamo.getRecurso().getIdentificador();
-                notifications.enviarNotificacion(mensaje, usuario);
-                System.out.println(mensaje + " (Usuario ID: " + usuario.getId() + ")");
-                // Si vence hoy y es renovable, ofrecer renovación
-                if (dias == 0 && prestamo.getRecurso() instanceof Renovable) {
-                    System.out.print("¿Desea renovar ahora? (s/n): ");
-                    Scanner sc = new Scanner(System.in);
-                    if (sc.nextLine().equalsIgnoreCase("s")) {
-                        try {
-                            resourceManager.renovarRecurso(
-                                    prestamo.getRecurso().getIdentificador(), usuario
-                            );
-                            System.out.println("Recurso renovado con éxito.");
-                        } catch (Exception e) {
-                            System.out.println("No se pudo renovar: " + e.getMessage());
-                        }
+            boolean venceHoy = prestamo.getFechaDevolucion().toLocalDate().equals(hoy);
+            Usuario usuario = prestamo.getUsuario();
+            String mensaje = (venceHoy ? "⚠️ Su préstamo vence hoy: "
+                    : "⚠️ Su préstamo vence mañana: ")
+                    + prestamo.getRecurso().getIdentificador();
+            notifications.enviarNotificacion(mensaje, usuario);
+            System.out.println(mensaje + " (Usuario ID: " + usuario.getId() + ")");
+            // Si vence hoy y es renovable, ofrecer renovación
+            if (venceHoy && prestamo.getRecurso() instanceof Renovable) {
+                System.out.print("¿Desea renovar ahora? (s/n): ");
+                Scanner sc = new Scanner(System.in);
+                if (sc.nextLine().equalsIgnoreCase("s")) {
+                    try {
+                        resourceManager.renovarRecurso(
+                                prestamo.getRecurso().getIdentificador(), usuario
+                        );
+                        System.out.println("Recurso renovado con éxito.");
+                    } catch (Exception e) {
+                        System.out.println("No se pudo renovar: " + e.getMessage());
                     }
                 }
             }
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,95 @@
+package com.JuanAlejoP.biblioteca.alerts;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Diccionario de cadenas a códigos enteros consecutivos, acotado y seguro para múltiples hilos.
+ * <p>
+ * Buscar un valor ya codificado no toma cerrojos; sólo incorporar uno nuevo se sincroniza. El
+ * valor se publica en la tabla inversa antes que en el mapa, por lo que cualquier hilo que obtuvo
+ * un código puede decodificarlo.
+ * </p>
+ */
+class Diccionario {
+    /**
+     * Códigos de los valores incorporados.
+     */
+    private final Map<String, Integer> codigos = new ConcurrentHashMap<>();
+
+    /**
+     * Valores por código.
+     */
+    private volatile String[] valores = new String[16];
+
+    /**
+     * Cantidad de valores incorporados.
+     */
+    private int cantidad;
+
+    /**
+     * Cantidad máxima de valores que admite el diccionario.
+     */
+    private final int maximo;
+
+    /**
+     * Construye un diccionario vacío.
+     *
+     * @param maximo cantidad máxima de valores distintos
+     */
+    Diccionario(int maximo) {
+        this.maximo = maximo;
+    }
+
+    /**
+     * Obtiene el código de un valor, incorporándolo si es nuevo.
+     *
+     * @param valor valor a codificar
+     * @return código del valor, o {@code -1} si el diccionario está completo
+     */
+    int codificar(String valor) {
+        Integer codigo = codigos.get(valor);
+        if (codigo != null) {
+            return codigo;
+        }
+        synchronized (this) {
+            codigo = codigos.get(valor);
+            if (codigo != null) {
+                return codigo;
+            }
+            if (cantidad == maximo) {
+                return -1;
+            }
+            String[] actuales = valores;
+            if (cantidad == actuales.length) {
+                actuales = Arrays.copyOf(actuales, Math.min(maximo, actuales.length * 2));
+            }
+            actuales[cantidad] = valor;
+            valores = actuales;
+            codigos.put(valor, cantidad);
+            return cantidad++;
+        }
+    }
+
+    /**
+     * Busca el código de un valor sin incorporarlo.
+     *
+     * @param valor valor buscado
+     * @return código del valor, o {@code -1} si no está en el diccionario
+     */
+    int buscar(String valor) {
+        Integer codigo = codigos.get(valor);
+        return codigo == null ? -1 : codigo;
+    }
+
+    /**
+     * Obtiene el valor de un código.
+     *
+     * @param codigo código obtenido de {@link #codificar(String)}
+     * @return valor codificado
+     */
+    String valor(int codigo) {
+        return valores[codigo];
+    }
+}
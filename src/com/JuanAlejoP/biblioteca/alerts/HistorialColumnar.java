@@ -0,0 +1,394 @@
+package com.JuanAlejoP.biblioteca.alerts;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Historial circular y acotado de notificaciones, almacenado por columnas de tipos primitivos.
+ * <p>
+ * En lugar de retener cada {@link NotificacionEntry} con su fecha, su mensaje y sus cadenas, cada
+ * entrada ocupa una posición en arreglos paralelos: la fecha en milisegundos desde la época, el tipo
+ * como byte, y el usuario, la plantilla del mensaje y el recurso como códigos de diccionario. Los
+ * mensajes de las alertas son casi siempre una plantilla fija seguida del identificador de un
+ * recurso ({@code "Su préstamo vence hoy: " + id}), por lo que se guardan separados en esas dos
+ * partes; los que no siguen esa forma, o no caben en los diccionarios, se guardan completos. Las
+ * entradas se reconstruyen sólo al leerlas.
+ * </p>
+ * <p>
+ * Cada entrada recibe una secuencia creciente y ocupa la posición {@code secuencia % capacidad}.
+ * Los productores reservan su secuencia con un único incremento atómico y publican la entrada con
+ * un sello por posición, al estilo de un seqlock: marcan la posición como en escritura, escriben las
+ * columnas y publican la secuencia. Los lectores validan el sello antes y después de leer las
+ * columnas, por lo que nunca observan una entrada a medio escribir ni bloquean a los productores.
+ * Sólo si un productor alcanza a otro que todavía escribe en la misma posición, una vuelta completa
+ * más atrás, espera a que termine.
+ * </p>
+ */
+class HistorialColumnar {
+    /**
+     * Cantidad máxima de plantillas de mensaje distintas.
+     */
+    private static final int MAXIMO_PLANTILLAS = 4_096;
+
+    /**
+     * Cantidad máxima de identificadores de recurso distintos.
+     */
+    private static final int MAXIMO_RECURSOS = 1 << 22;
+
+    /**
+     * Separador entre la plantilla de un mensaje y el identificador del recurso.
+     */
+    private static final String SEPARADOR = ": ";
+
+    /**
+     * Acceso con semántica de memoria a los sellos de cada posición.
+     */
+    private static final VarHandle SELLOS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    /**
+     * Sello de cada posición: la secuencia publicada en ella, {@code -(secuencia + 2)} mientras se
+     * escribe, o {@code -1} si nunca se usó.
+     */
+    private final long[] sellos;
+
+    /**
+     * Fecha de cada entrada, en milisegundos desde la época sin aplicar zona horaria.
+     */
+    private final long[] fechas;
+
+    /**
+     * Ordinal del tipo de alerta de cada entrada.
+     */
+    private final byte[] tipos;
+
+    /**
+     * Código del usuario de cada entrada, o {@code -1} si no tiene.
+     */
+    private final int[] usuarios;
+
+    /**
+     * Código de la plantilla del mensaje de cada entrada, o {@code -1} si el mensaje se guarda completo.
+     */
+    private final int[] plantillas;
+
+    /**
+     * Código del recurso del mensaje de cada entrada, o {@code -1} si el mensaje no lo incluye.
+     */
+    private final int[] recursos;
+
+    /**
+     * Mensaje completo de las entradas que no se pudieron separar en plantilla y recurso.
+     */
+    private final String[] textos;
+
+    /**
+     * Diccionario de identificadores de usuario.
+     */
+    private final Diccionario diccionarioUsuarios = new Diccionario(Integer.MAX_VALUE - 8);
+
+    /**
+     * Diccionario de plantillas de mensaje.
+     */
+    private final Diccionario diccionarioPlantillas = new Diccionario(MAXIMO_PLANTILLAS);
+
+    /**
+     * Diccionario de identificadores de recurso.
+     */
+    private final Diccionario diccionarioRecursos = new Diccionario(MAXIMO_RECURSOS);
+
+    /**
+     * Máscara para convertir una secuencia en posición; la capacidad es potencia de dos.
+     */
+    private final int mascara;
+
+    /**
+     * Próxima secuencia a reservar, igual a la cantidad total de entradas agregadas.
+     */
+    private final AtomicLong siguiente = new AtomicLong();
+
+    /**
+     * Construye un historial con al menos la capacidad indicada, redondeada a la siguiente potencia de dos.
+     *
+     * @param capacidad capacidad mínima del historial
+     * @throws IllegalArgumentException si la capacidad no es positiva o excede el máximo admitido
+     */
+    HistorialColumnar(int capacidad) {
+        if (capacidad <= 0 || capacidad > (1 << 30)) {
+            throw new IllegalArgumentException("Capacidad inválida: " + capacidad);
+        }
+        int potencia = Integer.highestOneBit(capacidad);
+        if (potencia < capacidad) {
+            potencia <<= 1;
+        }
+        this.sellos = new long[potencia];
+        Arrays.fill(sellos, -1L);
+        this.fechas = new long[potencia];
+        this.tipos = new byte[potencia];
+        this.usuarios = new int[potencia];
+        this.plantillas = new int[potencia];
+        this.recursos = new int[potencia];
+        this.textos = new String[potencia];
+        this.mascara = potencia - 1;
+    }
+
+    /**
+     * Agrega una entrada, reemplazando a la más antigua si el historial está lleno.
+     * <p>
+     * Si un productor demorado encuentra su posición ocupada por una entrada más reciente, su
+     * entrada se descarta, pues ya habría sido reemplazada.
+     * </p>
+     *
+     * @param entrada entrada a agregar
+     * @return secuencia asignada a la entrada
+     */
+    long agregar(NotificacionEntry entrada) {
+        int usuario = entrada.getUsuarioId() == null ? -1 : diccionarioUsuarios.codificar(entrada.getUsuarioId());
+        String mensaje = entrada.getMensaje();
+        int plantilla = -1;
+        int recurso = -1;
+        if (mensaje != null) {
+            int corte = mensaje.lastIndexOf(SEPARADOR);
+            if (corte >= 0 && esIdentificador(mensaje, corte + SEPARADOR.length())) {
+                recurso = diccionarioRecursos.codificar(mensaje.substring(corte + SEPARADOR.length()));
+                plantilla = recurso < 0 ? -1 : diccionarioPlantillas.codificar(mensaje.substring(0, corte + SEPARADOR.length()));
+            }
+            if (plantilla < 0) {
+                recurso = -1;
+                plantilla = diccionarioPlantillas.codificar(mensaje);
+            }
+        }
+        long fecha = entrada.getTimestamp().toInstant(ZoneOffset.UTC).toEpochMilli();
+
+        long secuencia = siguiente.getAndIncrement();
+        int indice = (int) (secuencia & mascara);
+        long escribiendo = -(secuencia + 2);
+        while (true) {
+            long sello = (long) SELLOS.getVolatile(sellos, indice);
+            if (sello >= secuencia || sello < -1 && -(sello + 2) > secuencia) {
+                return secuencia;
+            }
+            if (sello < -1) {
+                Thread.onSpinWait();
+                continue;
+            }
+            if (SELLOS.compareAndSet(sellos, indice, sello, escribiendo)) {
+                break;
+            }
+        }
+        fechas[indice] = fecha;
+        tipos[indice] = (byte) entrada.getType().ordinal();
+        usuarios[indice] = usuario;
+        plantillas[indice] = plantilla;
+        recursos[indice] = recurso;
+        textos[indice] = plantilla < 0 ? mensaje : null;
+        SELLOS.setRelease(sellos, indice, secuencia);
+        return secuencia;
+    }
+
+    /**
+     * Obtiene la capacidad efectiva del historial.
+     *
+     * @return cantidad máxima de entradas retenidas
+     */
+    int capacidad() {
+        return mascara + 1;
+    }
+
+    /**
+     * Obtiene la cantidad total de entradas agregadas desde la creación del historial.
+     *
+     * @return total de entradas agregadas
+     */
+    long totalAgregados() {
+        return siguiente.get();
+    }
+
+    /**
+     * Obtiene la cantidad de entradas descartadas por falta de capacidad.
+     *
+     * @return entradas reemplazadas por otras más recientes
+     */
+    long desbordados() {
+        return Math.max(0, siguiente.get() - capacidad());
+    }
+
+    /**
+     * Obtiene la secuencia de la entrada retenida más antigua.
+     *
+     * @return primera secuencia disponible para lectura
+     */
+    long primeraSecuencia() {
+        return Math.max(0, siguiente.get() - capacidad());
+    }
+
+    /**
+     * Reconstruye la entrada con la secuencia indicada, si sigue retenida.
+     *
+     * @param secuencia secuencia de la entrada
+     * @return entrada, o {@code null} si aún no se publicó o ya fue reemplazada
+     */
+    NotificacionEntry obtener(long secuencia) {
+        int indice = (int) (secuencia & mascara);
+        if ((long) SELLOS.getAcquire(sellos, indice) != secuencia) {
+            return null;
+        }
+        long fecha = fechas[indice];
+        byte tipo = tipos[indice];
+        int usuario = usuarios[indice];
+        int plantilla = plantillas[indice];
+        int recurso = recursos[indice];
+        String texto = textos[indice];
+        VarHandle.loadLoadFence();
+        if ((long) SELLOS.getVolatile(sellos, indice) != secuencia) {
+            return null;
+        }
+        String mensaje = texto;
+        if (plantilla >= 0) {
+            mensaje = recurso < 0
+                    ? diccionarioPlantillas.valor(plantilla)
+                    : diccionarioPlantillas.valor(plantilla) + diccionarioRecursos.valor(recurso);
+        }
+        return new NotificacionEntry(
+                LocalDateTime.ofEpochSecond(Math.floorDiv(fecha, 1000L), (int) Math.floorMod(fecha, 1000L) * 1_000_000,
+                        ZoneOffset.UTC),
+                AlertType.values()[tipo],
+                mensaje,
+                usuario < 0 ? null : diccionarioUsuarios.valor(usuario));
+    }
+
+    /**
+     * Obtiene el ordinal del tipo de la entrada con la secuencia indicada, sin reconstruirla.
+     *
+     * @param secuencia secuencia de la entrada
+     * @return ordinal del tipo, o {@code -1} si la entrada ya no está retenida
+     */
+    int tipo(long secuencia) {
+        int indice = (int) (secuencia & mascara);
+        if ((long) SELLOS.getAcquire(sellos, indice) != secuencia) {
+            return -1;
+        }
+        byte tipo = tipos[indice];
+        VarHandle.loadLoadFence();
+        return (long) SELLOS.getVolatile(sellos, indice) == secuencia ? tipo : -1;
+    }
+
+    /**
+     * Busca el código de un usuario sin incorporarlo al diccionario.
+     *
+     * @param usuarioId identificador del usuario
+     * @return código del usuario, o {@code -1} si no tiene entradas
+     */
+    int codigoUsuario(String usuarioId) {
+        return diccionarioUsuarios.buscar(usuarioId);
+    }
+
+    /**
+     * Lee las entradas retenidas con secuencia mayor o igual a la indicada, en orden, hasta el límite dado.
+     * Las posiciones reservadas pero aún no publicadas, o ya reemplazadas durante la lectura, se omiten.
+     *
+     * @param desde   secuencia inicial; si ya fue descartada, la lectura comienza en la más antigua retenida
+     * @param limite  cantidad máxima de entradas a leer
+     * @param destino lista donde se agregan las entradas leídas
+     * @return secuencia siguiente a la última examinada, para continuar la lectura
+     */
+    long leer(long desde, int limite, List<NotificacionEntry> destino) {
+        long fin = siguiente.get();
+        long secuencia = Math.max(desde, fin - capacidad());
+        int leidos = 0;
+        for (; secuencia < fin && leidos < limite; secuencia++) {
+            NotificacionEntry entrada = obtener(secuencia);
+            if (entrada != null) {
+                destino.add(entrada);
+                leidos++;
+            }
+        }
+        return secuencia;
+    }
+
+    /**
+     * Obtiene las últimas entradas agregadas, de la más antigua a la más reciente.
+     *
+     * @param cantidad cantidad máxima de entradas
+     * @return lista con hasta {@code cantidad} entradas
+     */
+    List<NotificacionEntry> ultimos(int cantidad) {
+        long fin = siguiente.get();
+        int limite = (int) Math.min(cantidad, Math.min(fin, capacidad()));
+        List<NotificacionEntry> resultado = new ArrayList<>(limite);
+        leer(fin - limite, limite, resultado);
+        return resultado;
+    }
+
+    /**
+     * Recorre en orden las entradas publicadas desde la secuencia indicada, sin reconstruirlas,
+     * deteniéndose en la primera posición reservada que aún no se publicó para poder retomar el
+     * recorrido sin omitirla. Las secuencias ya reemplazadas se saltean.
+     *
+     * @param desde     secuencia inicial
+     * @param visitante receptor de las columnas de cada entrada publicada
+     * @return secuencia desde la que debe retomarse el recorrido
+     */
+    long recorrerPublicados(long desde, Visitante visitante) {
+        long fin = siguiente.get();
+        long secuencia = Math.max(desde, fin - capacidad());
+        for (; secuencia < fin; secuencia++) {
+            int indice = (int) (secuencia & mascara);
+            long sello = (long) SELLOS.getAcquire(sellos, indice);
+            long ocupante = sello < -1 ? -(sello + 2) : sello;
+            if (ocupante < secuencia) {
+                break;
+            }
+            if (sello != secuencia) {
+                continue;
+            }
+            long fecha = fechas[indice];
+            byte tipo = tipos[indice];
+            int usuario = usuarios[indice];
+            VarHandle.loadLoadFence();
+            if ((long) SELLOS.getVolatile(sellos, indice) == secuencia) {
+                visitante.visitar(secuencia, fecha, tipo, usuario);
+            }
+        }
+        return secuencia;
+    }
+
+    /**
+     * Indica si el mensaje termina, a partir de la posición dada, en un identificador no vacío y sin espacios.
+     *
+     * @param mensaje mensaje a examinar
+     * @param desde   posición donde comenzaría el identificador
+     * @return {@code true} si lo que sigue es un identificador
+     */
+    private static boolean esIdentificador(String mensaje, int desde) {
+        if (desde >= mensaje.length()) {
+            return false;
+        }
+        for (int i = desde; i < mensaje.length(); i++) {
+            if (Character.isWhitespace(mensaje.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Receptor de las columnas de las entradas recorridas.
+     */
+    interface Visitante {
+        /**
+         * Procesa una entrada publicada.
+         *
+         * @param secuencia secuencia de la entrada
+         * @param fecha     fecha en milisegundos desde la época
+         * @param tipo      ordinal del tipo de alerta
+         * @param usuario   código del usuario, o {@code -1} si no tiene
+         */
+        void visitar(long secuencia, long fecha, int tipo, int usuario);
+    }
+}
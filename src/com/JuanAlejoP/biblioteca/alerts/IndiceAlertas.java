@@ -0,0 +1,304 @@
+package com.JuanAlejoP.biblioteca.alerts;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Índices secundarios de las entradas retenidas en un {@link HistorialColumnar}, por usuario y por
+ * tipo de alerta, ordenados por fecha.
+ * <p>
+ * Los productores no tocan el índice: las entradas se indexan en orden de secuencia al consultar,
+ * o periódicamente desde {@link #indexarSiLibre()}, por lo que agregar al historial sigue sin
+ * bloquear. La indexación lee sólo las columnas de fecha, tipo y usuario, y las listas por usuario
+ * se ubican directamente por el código de diccionario del usuario. Cada lista guarda sólo la fecha y
+ * la secuencia de la entrada; las entradas se reconstruyen al leer y las que ya fueron reemplazadas
+ * se omiten y se podan.
+ * </p>
+ * <p>
+ * Una consulta ubica el inicio del rango por búsqueda binaria y recorre sólo las entradas que
+ * devuelve, por lo que su costo no depende del tamaño del historial sino del resultado.
+ * </p>
+ */
+class IndiceAlertas {
+    /**
+     * Historial cuyas entradas se indexan.
+     */
+    private final HistorialColumnar buffer;
+
+    /**
+     * Cerrojo que protege el índice; sólo lo toman las consultas y la indexación.
+     */
+    private final ReentrantLock cerrojo = new ReentrantLock();
+
+    /**
+     * Entradas de cada usuario, por código de usuario; {@code null} si no tiene entradas retenidas.
+     */
+    private ListaOrdenada[] porUsuario = new ListaOrdenada[16];
+
+    /**
+     * Entradas de cada tipo de alerta, por ordinal.
+     */
+    private final ListaOrdenada[] porTipo = new ListaOrdenada[AlertType.values().length];
+
+    /**
+     * Secuencia de la próxima entrada a indexar.
+     */
+    private long indexadoHasta;
+
+    /**
+     * Entradas indexadas desde la última poda completa de las listas por usuario.
+     */
+    private long desdeUltimaPoda;
+
+    /**
+     * Construye el índice de un historial.
+     *
+     * @param buffer historial cuyas entradas se indexan
+     */
+    IndiceAlertas(HistorialColumnar buffer) {
+        this.buffer = buffer;
+        for (int i = 0; i < porTipo.length; i++) {
+            porTipo[i] = new ListaOrdenada();
+        }
+    }
+
+    /**
+     * Indexa las entradas pendientes si ninguna otra operación está usando el índice.
+     * Permite a los productores acotar el atraso del índice sin esperar.
+     */
+    void indexarSiLibre() {
+        if (cerrojo.tryLock()) {
+            try {
+                indexar();
+            } finally {
+                cerrojo.unlock();
+            }
+        }
+    }
+
+    /**
+     * Busca entradas retenidas por usuario, tipo y rango de fechas, de la más antigua a la más reciente.
+     *
+     * @param usuarioId identificador del usuario, o {@code null} para todos
+     * @param tipos     tipos de alerta buscados; {@code null} o vacío para todos
+     * @param desde     inicio del rango, inclusive; {@code null} para no acotar
+     * @param hasta     fin del rango, exclusive; {@code null} para no acotar
+     * @param limite    cantidad máxima de entradas a devolver
+     * @return entradas que cumplen los criterios
+     */
+    List<NotificacionEntry> consultar(String usuarioId, Set<AlertType> tipos, LocalDateTime desde,
+                                      LocalDateTime hasta, int limite) {
+        long minimo = desde == null ? Long.MIN_VALUE : clave(desde);
+        long maximo = hasta == null ? Long.MAX_VALUE : clave(hasta);
+        boolean todos = tipos == null || tipos.isEmpty();
+        List<NotificacionEntry> resultado = new ArrayList<>();
+        cerrojo.lock();
+        try {
+            indexar();
+            if (usuarioId != null) {
+                int codigo = buffer.codigoUsuario(usuarioId);
+                ListaOrdenada lista = codigo >= 0 && codigo < porUsuario.length ? porUsuario[codigo] : null;
+                if (lista != null) {
+                    lista.podar(buffer.primeraSecuencia());
+                    for (int i = lista.buscar(minimo); i < lista.fin && resultado.size() < limite; i++) {
+                        if (lista.claves[i] >= maximo) {
+                            break;
+                        }
+                        long secuencia = lista.secuencias[i];
+                        int tipo = buffer.tipo(secuencia);
+                        if (tipo < 0 || !todos && !tipos.contains(AlertType.values()[tipo])) {
+                            continue;
+                        }
+                        NotificacionEntry entrada = buffer.obtener(secuencia);
+                        if (entrada != null) {
+                            resultado.add(entrada);
+                        }
+                    }
+                }
+                return resultado;
+            }
+            List<ListaOrdenada> listas = new ArrayList<>();
+            List<Integer> posiciones = new ArrayList<>();
+            for (AlertType tipo : AlertType.values()) {
+                if (todos || tipos.contains(tipo)) {
+                    ListaOrdenada lista = porTipo[tipo.ordinal()];
+                    lista.podar(buffer.primeraSecuencia());
+                    listas.add(lista);
+                    posiciones.add(lista.buscar(minimo));
+                }
+            }
+            while (resultado.size() < limite) {
+                int elegida = -1;
+                long menor = maximo;
+                for (int j = 0; j < listas.size(); j++) {
+                    ListaOrdenada lista = listas.get(j);
+                    int posicion = posiciones.get(j);
+                    if (posicion < lista.fin && lista.claves[posicion] < menor) {
+                        menor = lista.claves[posicion];
+                        elegida = j;
+                    }
+                }
+                if (elegida < 0) {
+                    break;
+                }
+                int posicion = posiciones.get(elegida);
+                posiciones.set(elegida, posicion + 1);
+                NotificacionEntry entrada = buffer.obtener(listas.get(elegida).secuencias[posicion]);
+                if (entrada != null) {
+                    resultado.add(entrada);
+                }
+            }
+            return resultado;
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    /**
+     * Obtiene la fecha de la entrada retenida más antigua.
+     *
+     * @return fecha de la entrada más antigua, o {@code null} si el buffer está vacío
+     */
+    LocalDateTime primeraFecha() {
+        long primera = buffer.primeraSecuencia();
+        long fin = buffer.totalAgregados();
+        for (long secuencia = primera; secuencia < fin; secuencia++) {
+            NotificacionEntry entrada = buffer.obtener(secuencia);
+            if (entrada != null) {
+                return entrada.getTimestamp();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Incorpora al índice las entradas publicadas desde la última indexación y poda las que el buffer
+     * ya reemplazó. Cada vez que se indexa una capacidad completa se podan todas las listas por
+     * usuario y se eliminan las vacías, para que los usuarios sin alertas nuevas no retengan memoria.
+     * Debe llamarse con el cerrojo tomado.
+     */
+    private void indexar() {
+        long anterior = indexadoHasta;
+        indexadoHasta = buffer.recorrerPublicados(indexadoHasta, (secuencia, fecha, tipo, usuario) -> {
+            porTipo[tipo].insertar(fecha, secuencia);
+            if (usuario >= 0) {
+                if (usuario >= porUsuario.length) {
+                    porUsuario = Arrays.copyOf(porUsuario, Math.max(usuario + 1, porUsuario.length * 2));
+                }
+                if (porUsuario[usuario] == null) {
+                    porUsuario[usuario] = new ListaOrdenada();
+                }
+                porUsuario[usuario].insertar(fecha, secuencia);
+            }
+        });
+        desdeUltimaPoda += indexadoHasta - anterior;
+        if (desdeUltimaPoda >= buffer.capacidad()) {
+            long primera = buffer.primeraSecuencia();
+            for (int i = 0; i < porUsuario.length; i++) {
+                if (porUsuario[i] != null) {
+                    porUsuario[i].podar(primera);
+                    if (porUsuario[i].inicio == porUsuario[i].fin) {
+                        porUsuario[i] = null;
+                    }
+                }
+            }
+            for (ListaOrdenada lista : porTipo) {
+                lista.podar(primera);
+            }
+            desdeUltimaPoda = 0;
+        }
+    }
+
+    /**
+     * Convierte una fecha en la clave de orden del índice, la misma precisión que guarda el historial.
+     *
+     * @param fecha fecha a convertir
+     * @return milisegundos desde la época, sin aplicar zona horaria
+     */
+    private static long clave(LocalDateTime fecha) {
+        return fecha.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    /**
+     * Lista de pares (fecha, secuencia) ordenada por clave, con inserción al final y
+     * descarte desde el principio. Como las entradas llegan casi en orden de fecha, insertar cuesta
+     * a lo sumo unos pocos desplazamientos.
+     */
+    private static final class ListaOrdenada {
+        private long[] claves = new long[4];
+        private long[] secuencias = new long[4];
+        private int inicio;
+        private int fin;
+
+        /**
+         * Inserta un par manteniendo el orden por clave; a igual clave, conserva el orden de llegada.
+         *
+         * @param clave     clave de fecha
+         * @param secuencia secuencia de la entrada
+         */
+        void insertar(long clave, long secuencia) {
+            if (fin == claves.length) {
+                int cantidad = fin - inicio;
+                int capacidad = cantidad * 2 < claves.length ? claves.length : claves.length * 2;
+                long[] nuevasClaves = new long[capacidad];
+                long[] nuevasSecuencias = new long[capacidad];
+                System.arraycopy(claves, inicio, nuevasClaves, 0, cantidad);
+                System.arraycopy(secuencias, inicio, nuevasSecuencias, 0, cantidad);
+                claves = nuevasClaves;
+                secuencias = nuevasSecuencias;
+                inicio = 0;
+                fin = cantidad;
+            }
+            int i = fin;
+            while (i > inicio && claves[i - 1] > clave) {
+                claves[i] = claves[i - 1];
+                secuencias[i] = secuencias[i - 1];
+                i--;
+            }
+            claves[i] = clave;
+            secuencias[i] = secuencia;
+            fin++;
+        }
+
+        /**
+         * Descarta del principio los pares cuyas entradas el buffer ya reemplazó. Las reemplazadas que
+         * no están al principio se omiten al leer y se descartan cuando lleguen a él.
+         *
+         * @param primera secuencia de la entrada retenida más antigua
+         */
+        void podar(long primera) {
+            while (inicio < fin && secuencias[inicio] < primera) {
+                inicio++;
+            }
+            if (inicio == fin) {
+                inicio = 0;
+                fin = 0;
+            }
+        }
+
+        /**
+         * Busca la posición del primer par con clave mayor o igual a la indicada.
+         *
+         * @param clave clave buscada
+         * @return posición entre {@code inicio} y {@code fin}
+         */
+        int buscar(long clave) {
+            int bajo = inicio;
+            int alto = fin;
+            while (bajo < alto) {
+                int medio = (bajo + alto) >>> 1;
+                if (claves[medio] < clave) {
+                    bajo = medio + 1;
+                } else {
+                    alto = medio;
+                }
+            }
+            return bajo;
+        }
+    }
+}
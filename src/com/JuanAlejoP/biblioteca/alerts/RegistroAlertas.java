@@ -0,0 +1,623 @@
+package com.JuanAlejoP.biblioteca.alerts;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Registro persistente de notificaciones, de solo anexado y dividido en segmentos.
+ * <p>
+ * Las entradas se encolan sin bloquear a quien notifica y un hilo escritor dedicado las escribe
+ * en lotes sobre el segmento activo, sincronizando cada lote con el disco. El segmento activo
+ * se cierra y se abre uno nuevo al superar un tamaño o una antigüedad máximos; al cerrarse se le
+ * agrega un pie con su rango de fechas y su cantidad de entradas.
+ * </p>
+ * <p>
+ * Cada entrada se codifica como {@code [longitud][crc32][fecha][tipo][usuario][mensaje]}. Las
+ * consultas por rango de fechas descartan los segmentos cuyo rango no se superpone con el pedido
+ * y leen los restantes mediante archivos mapeados en memoria, decodificando el texto sólo de las
+ * entradas que coinciden.
+ * </p>
+ */
+public class RegistroAlertas implements Closeable {
+    /**
+     * Tamaño máximo predeterminado de un segmento.
+     */
+    public static final long TAMANIO_SEGMENTO_PREDETERMINADO = 16L * 1024 * 1024;
+
+    /**
+     * Antigüedad máxima predeterminada de un segmento.
+     */
+    public static final Duration DURACION_SEGMENTO_PREDETERMINADA = Duration.ofDays(1);
+
+    /**
+     * Patrón de los nombres de archivo de segmento.
+     */
+    private static final Pattern NOMBRE_SEGMENTO = Pattern.compile("alertas-(\\d{8})\\.seg");
+
+    /**
+     * Marca que identifica el pie de un segmento cerrado ("ALRT").
+     */
+    private static final int MAGICO_PIE = 0x414C5254;
+
+    /**
+     * Tamaño del pie: fecha mínima, fecha máxima, cantidad de entradas y marca.
+     */
+    private static final int TAMANIO_PIE = Long.BYTES * 2 + Integer.BYTES * 2;
+
+    /**
+     * Tamaño de la cabecera de cada entrada: longitud y suma de verificación.
+     */
+    private static final int CABECERA_ENTRADA = Integer.BYTES * 2;
+
+    /**
+     * Capacidad de la cola de entradas pendientes de escribir.
+     */
+    private static final int CAPACIDAD_COLA = 65_536;
+
+    /**
+     * Cantidad máxima de entradas escritas en un mismo lote.
+     */
+    private static final int MAXIMO_LOTE = 4_096;
+
+    /**
+     * Espera máxima del escritor por nuevas entradas antes de revisar la rotación y el cierre.
+     * No se interrumpe al escritor para cerrarlo, pues eso cerraría el canal en plena escritura.
+     */
+    private static final long ESPERA_ESCRITOR_MILLIS = 100;
+
+    /**
+     * Directorio de los segmentos.
+     */
+    private final Path directorio;
+
+    /**
+     * Tamaño a partir del cual se rota el segmento activo.
+     */
+    private final long tamanioMaximo;
+
+    /**
+     * Antigüedad a partir de la cual se rota el segmento activo, en milisegundos.
+     */
+    private final long duracionMaximaMillis;
+
+    /**
+     * Segmentos del registro, del más antiguo al más reciente; el último es el activo.
+     */
+    private final List<Segmento> segmentos = new CopyOnWriteArrayList<>();
+
+    /**
+     * Entradas pendientes de escribir.
+     */
+    private final BlockingQueue<NotificacionEntry> pendientes = new ArrayBlockingQueue<>(CAPACIDAD_COLA);
+
+    /**
+     * Cantidad de entradas aceptadas en la cola.
+     */
+    private final AtomicLong encoladas = new AtomicLong();
+
+    /**
+     * Cantidad de entradas descartadas por estar llena la cola.
+     */
+    private final AtomicLong descartadas = new AtomicLong();
+
+    /**
+     * Monitor que protege el contador de entradas escritas y el error del escritor.
+     */
+    private final Object monitor = new Object();
+
+    /**
+     * Cantidad de entradas escritas y sincronizadas.
+     */
+    private long escritas;
+
+    /**
+     * Error de escritura que detuvo al escritor, o {@code null} si no hubo fallas.
+     */
+    private IOException error;
+
+    /**
+     * Indica si se solicitó el cierre del registro.
+     */
+    private volatile boolean cerrado;
+
+    /**
+     * Canal de escritura del segmento activo; sólo lo usa el hilo escritor.
+     */
+    private FileChannel canalActivo;
+
+    /**
+     * Hilo que escribe los lotes de entradas.
+     */
+    private final Thread escritor;
+
+    /**
+     * Abre el registro con el tamaño y la antigüedad de segmento predeterminados.
+     *
+     * @param directorio directorio de los segmentos; se crea si no existe
+     * @throws IOException si no se puede abrir o validar el registro
+     */
+    public RegistroAlertas(Path directorio) throws IOException {
+        this(directorio, TAMANIO_SEGMENTO_PREDETERMINADO, DURACION_SEGMENTO_PREDETERMINADA);
+    }
+
+    /**
+     * Abre el registro, valida sus segmentos y comienza el hilo escritor.
+     * <p>
+     * Los segmentos sin pie se recorren para reconstruir su rango de fechas y se descarta una
+     * eventual cola incompleta o corrupta; todos salvo el último se cierran con su pie.
+     * </p>
+     *
+     * @param directorio    directorio de los segmentos; se crea si no existe
+     * @param tamanioMaximo tamaño a partir del cual se rota el segmento activo, en bytes
+     * @param duracionMaxima antigüedad a partir de la cual se rota el segmento activo
+     * @throws IOException si no se puede abrir o validar el registro
+     */
+    public RegistroAlertas(Path directorio, long tamanioMaximo, Duration duracionMaxima) throws IOException {
+        this.directorio = directorio;
+        this.tamanioMaximo = tamanioMaximo;
+        this.duracionMaximaMillis = duracionMaxima.toMillis();
+        Files.createDirectories(directorio);
+
+        List<Path> archivos = new ArrayList<>();
+        try (DirectoryStream<Path> contenido = Files.newDirectoryStream(directorio, "alertas-*.seg")) {
+            for (Path archivo : contenido) {
+                if (NOMBRE_SEGMENTO.matcher(archivo.getFileName().toString()).matches()) {
+                    archivos.add(archivo);
+                }
+            }
+        }
+        archivos.sort(null);
+        for (int i = 0; i < archivos.size(); i++) {
+            Segmento segmento = abrirSegmento(archivos.get(i));
+            if (i < archivos.size() - 1 && !segmento.sellado) {
+                sellar(segmento);
+            }
+            segmentos.add(segmento);
+        }
+        if (segmentos.isEmpty() || segmentos.get(segmentos.size() - 1).sellado) {
+            crearSegmento();
+        } else {
+            Segmento activo = segmentos.get(segmentos.size() - 1);
+            canalActivo = FileChannel.open(activo.archivo, StandardOpenOption.WRITE);
+            canalActivo.position(activo.longitud);
+        }
+
+        this.escritor = new Thread(this::escribirLotes, "registro-alertas");
+        escritor.setDaemon(true);
+        escritor.start();
+    }
+
+    /**
+     * Encola una entrada para su escritura sin esperar a que se escriba.
+     *
+     * @param entrada entrada a registrar
+     * @return {@code true} si se encoló; {@code false} si el registro está cerrado o la cola llena
+     */
+    public boolean agregar(NotificacionEntry entrada) {
+        if (cerrado || !pendientes.offer(entrada)) {
+            descartadas.incrementAndGet();
+            return false;
+        }
+        encoladas.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Espera a que todas las entradas encoladas hasta el momento estén escritas y sincronizadas.
+     *
+     * @throws IOException si el escritor falló
+     */
+    public void sincronizar() throws IOException {
+        long objetivo = encoladas.get();
+        synchronized (monitor) {
+            boolean interrumpido = false;
+            while (escritas < objetivo && error == null && escritor.isAlive()) {
+                try {
+                    monitor.wait(100);
+                } catch (InterruptedException e) {
+                    interrumpido = true;
+                }
+            }
+            if (interrumpido) {
+                Thread.currentThread().interrupt();
+            }
+            if (error != null) {
+                throw new IOException("El registro de alertas falló.", error);
+            }
+        }
+    }
+
+    /**
+     * Consulta las entradas registradas en un rango de fechas, opcionalmente de un usuario y de
+     * ciertos tipos, en el orden en que se escribieron.
+     * <p>
+     * Antes de consultar se espera a que se escriban las entradas ya encoladas, por lo que el
+     * resultado incluye todas las notificaciones registradas antes de la llamada.
+     * </p>
+     *
+     * @param usuarioId identificador del usuario, o {@code null} para todos
+     * @param tipos     tipos de alerta buscados; {@code null} o vacío para todos
+     * @param desde     inicio del rango, inclusive; {@code null} para no acotar
+     * @param hasta     fin del rango, exclusive; {@code null} para no acotar
+     * @param limite    cantidad máxima de entradas a devolver
+     * @return entradas que cumplen los criterios
+     * @throws IOException si no se pueden leer los segmentos
+     */
+    public List<NotificacionEntry> consultar(String usuarioId, Set<AlertType> tipos, LocalDateTime desde,
+                                             LocalDateTime hasta, int limite) throws IOException {
+        sincronizar();
+        long minimo = desde == null ? Long.MIN_VALUE : aMillis(desde);
+        long maximo = hasta == null ? Long.MAX_VALUE : aMillis(hasta);
+        boolean todos = tipos == null || tipos.isEmpty();
+        AlertType[] valores = AlertType.values();
+        List<NotificacionEntry> resultado = new ArrayList<>();
+        for (Segmento segmento : segmentos) {
+            if (resultado.size() >= limite) {
+                break;
+            }
+            if (segmento.cantidad == 0 || segmento.maximo < minimo || segmento.minimo >= maximo) {
+                continue;
+            }
+            ByteBuffer datos = mapear(segmento);
+            int posicion = 0;
+            while (posicion + CABECERA_ENTRADA <= datos.limit() && resultado.size() < limite) {
+                int longitud = datos.getInt(posicion);
+                int inicio = posicion + CABECERA_ENTRADA;
+                posicion = inicio + longitud;
+                long millis = datos.getLong(inicio);
+                AlertType tipo = valores[datos.get(inicio + Long.BYTES)];
+                if (millis < minimo || millis >= maximo || (!todos && !tipos.contains(tipo))) {
+                    continue;
+                }
+                int cursor = inicio + Long.BYTES + 1;
+                int largoUsuario = datos.getInt(cursor);
+                String usuario = texto(datos, cursor + Integer.BYTES, largoUsuario);
+                if (usuarioId != null && !usuarioId.equals(usuario)) {
+                    continue;
+                }
+                cursor += Integer.BYTES + largoUsuario;
+                String mensaje = texto(datos, cursor + Integer.BYTES, datos.getInt(cursor));
+                resultado.add(new NotificacionEntry(deMillis(millis), tipo, mensaje, usuario));
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Obtiene la cantidad de segmentos del registro, incluido el activo.
+     *
+     * @return cantidad de segmentos
+     */
+    public int getCantidadSegmentos() {
+        return segmentos.size();
+    }
+
+    /**
+     * Obtiene la cantidad de entradas descartadas por estar llena la cola de escritura o cerrado el registro.
+     *
+     * @return entradas descartadas
+     */
+    public long getDescartadas() {
+        return descartadas.get();
+    }
+
+    /**
+     * Cierra el registro luego de escribir las entradas pendientes y detener el hilo escritor.
+     * El segmento activo queda abierto en disco, sin pie, y se valida al reabrir el registro.
+     *
+     * @throws IOException si falla el cierre del canal
+     */
+    @Override
+    public void close() throws IOException {
+        cerrado = true;
+        try {
+            escritor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        canalActivo.close();
+    }
+
+    /**
+     * Bucle del hilo escritor: toma las entradas pendientes en lotes, las escribe en el segmento
+     * activo, sincroniza y rota el segmento cuando corresponde.
+     */
+    private void escribirLotes() {
+        List<NotificacionEntry> lote = new ArrayList<>(MAXIMO_LOTE);
+        ByteBuffer bufer = ByteBuffer.allocate(64 * 1024);
+        try {
+            while (!cerrado || !pendientes.isEmpty()) {
+                NotificacionEntry primera;
+                try {
+                    primera = pendientes.poll(ESPERA_ESCRITOR_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    primera = pendientes.poll();
+                }
+                if (primera != null) {
+                    lote.add(primera);
+                    pendientes.drainTo(lote, MAXIMO_LOTE - 1);
+                    bufer = escribirLote(lote, bufer);
+                    synchronized (monitor) {
+                        escritas += lote.size();
+                        monitor.notifyAll();
+                    }
+                    lote.clear();
+                }
+                Segmento activo = segmentos.get(segmentos.size() - 1);
+                if (activo.cantidad > 0 && (activo.longitud >= tamanioMaximo
+                        || System.currentTimeMillis() - activo.creado >= duracionMaximaMillis)) {
+                    rotar();
+                }
+            }
+        } catch (IOException e) {
+            synchronized (monitor) {
+                error = e;
+                monitor.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Codifica y escribe un lote en el segmento activo, actualizando su rango de fechas y longitud.
+     *
+     * @param lote  entradas a escribir
+     * @param bufer búfer de codificación reutilizable
+     * @return búfer utilizado, que puede haberse agrandado
+     * @throws IOException si falla la escritura
+     */
+    private ByteBuffer escribirLote(List<NotificacionEntry> lote, ByteBuffer bufer) throws IOException {
+        Segmento activo = segmentos.get(segmentos.size() - 1);
+        long minimo = activo.minimo;
+        long maximo = activo.maximo;
+        bufer.clear();
+        CRC32 crc = new CRC32();
+        for (NotificacionEntry entrada : lote) {
+            byte[] usuario = bytes(entrada.getUsuarioId());
+            byte[] mensaje = bytes(entrada.getMensaje());
+            int longitud = Long.BYTES + 1 + Integer.BYTES * 2 + usuario.length + mensaje.length;
+            if (bufer.remaining() < CABECERA_ENTRADA + longitud) {
+                bufer.flip();
+                escribirCompleto(bufer);
+                bufer.clear();
+                if (bufer.capacity() < CABECERA_ENTRADA + longitud) {
+                    bufer = ByteBuffer.allocate(CABECERA_ENTRADA + longitud);
+                }
+            }
+            long millis = aMillis(entrada.getTimestamp());
+            int inicio = bufer.position() + CABECERA_ENTRADA;
+            bufer.position(inicio);
+            bufer.putLong(millis).put((byte) entrada.getType().ordinal())
+                    .putInt(usuario.length).put(usuario)
+                    .putInt(mensaje.length).put(mensaje);
+            crc.reset();
+            crc.update(bufer.array(), inicio, longitud);
+            bufer.putInt(inicio - CABECERA_ENTRADA, longitud);
+            bufer.putInt(inicio - Integer.BYTES, (int) crc.getValue());
+            minimo = Math.min(minimo, millis);
+            maximo = Math.max(maximo, millis);
+        }
+        bufer.flip();
+        escribirCompleto(bufer);
+        canalActivo.force(false);
+        activo.minimo = minimo;
+        activo.maximo = maximo;
+        activo.cantidad += lote.size();
+        activo.longitud = canalActivo.position();
+        return bufer;
+    }
+
+    /**
+     * Cierra el segmento activo con su pie y abre uno nuevo.
+     *
+     * @throws IOException si falla la escritura
+     */
+    private void rotar() throws IOException {
+        Segmento activo = segmentos.get(segmentos.size() - 1);
+        canalActivo.close();
+        sellar(activo);
+        crearSegmento();
+    }
+
+    /**
+     * Crea un segmento vacío a continuación del último y lo deja como activo.
+     *
+     * @throws IOException si no se puede crear el archivo
+     */
+    private void crearSegmento() throws IOException {
+        int numero = 1;
+        if (!segmentos.isEmpty()) {
+            Matcher matcher = NOMBRE_SEGMENTO.matcher(segmentos.get(segmentos.size() - 1).archivo.getFileName().toString());
+            matcher.matches();
+            numero = Integer.parseInt(matcher.group(1)) + 1;
+        }
+        Path archivo = directorio.resolve(String.format("alertas-%08d.seg", numero));
+        canalActivo = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        segmentos.add(new Segmento(archivo));
+    }
+
+    /**
+     * Agrega el pie a un segmento, dejándolo cerrado.
+     *
+     * @param segmento segmento a cerrar
+     * @throws IOException si falla la escritura
+     */
+    private static void sellar(Segmento segmento) throws IOException {
+        try (FileChannel canal = FileChannel.open(segmento.archivo, StandardOpenOption.WRITE)) {
+            ByteBuffer pie = ByteBuffer.allocate(TAMANIO_PIE);
+            pie.putLong(segmento.minimo).putLong(segmento.maximo).putInt(segmento.cantidad).putInt(MAGICO_PIE).flip();
+            canal.truncate(segmento.longitud);
+            while (pie.hasRemaining()) {
+                canal.write(pie, segmento.longitud + pie.position());
+            }
+            canal.force(true);
+        }
+        segmento.sellado = true;
+    }
+
+    /**
+     * Lee los metadatos de un segmento existente: del pie si está cerrado o, si no, recorriendo
+     * sus entradas y descartando una cola incompleta o corrupta.
+     *
+     * @param archivo archivo del segmento
+     * @return segmento con su rango de fechas, cantidad y longitud de datos
+     * @throws IOException si no se puede leer el archivo
+     */
+    private static Segmento abrirSegmento(Path archivo) throws IOException {
+        Segmento segmento = new Segmento(archivo);
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long tamanio = canal.size();
+            if (tamanio > Integer.MAX_VALUE) {
+                throw new IOException("Segmento demasiado grande: " + archivo);
+            }
+            MappedByteBuffer datos = canal.map(FileChannel.MapMode.READ_ONLY, 0, tamanio);
+            if (tamanio >= TAMANIO_PIE && datos.getInt((int) tamanio - Integer.BYTES) == MAGICO_PIE) {
+                int pie = (int) tamanio - TAMANIO_PIE;
+                segmento.minimo = datos.getLong(pie);
+                segmento.maximo = datos.getLong(pie + Long.BYTES);
+                segmento.cantidad = datos.getInt(pie + Long.BYTES * 2);
+                segmento.longitud = pie;
+                segmento.sellado = true;
+                return segmento;
+            }
+            CRC32 crc = new CRC32();
+            int posicion = 0;
+            while (posicion + CABECERA_ENTRADA <= tamanio) {
+                int longitud = datos.getInt(posicion);
+                int inicio = posicion + CABECERA_ENTRADA;
+                if (longitud < Long.BYTES + 1 + Integer.BYTES * 2 || inicio + (long) longitud > tamanio) {
+                    break;
+                }
+                crc.reset();
+                crc.update(datos.slice(inicio, longitud));
+                if ((int) crc.getValue() != datos.getInt(posicion + Integer.BYTES)) {
+                    break;
+                }
+                long millis = datos.getLong(inicio);
+                segmento.minimo = Math.min(segmento.minimo, millis);
+                segmento.maximo = Math.max(segmento.maximo, millis);
+                segmento.cantidad++;
+                posicion = inicio + longitud;
+            }
+            segmento.longitud = posicion;
+            if (posicion < tamanio) {
+                canal.truncate(posicion);
+            }
+        }
+        segmento.creado = Files.readAttributes(archivo, BasicFileAttributes.class).creationTime().toMillis();
+        return segmento;
+    }
+
+    /**
+     * Mapea en memoria la porción escrita de un segmento.
+     *
+     * @param segmento segmento a leer
+     * @return contenido del segmento, limitado a sus entradas
+     * @throws IOException si no se puede leer el archivo
+     */
+    private static ByteBuffer mapear(Segmento segmento) throws IOException {
+        long longitud = segmento.longitud;
+        try (FileChannel canal = FileChannel.open(segmento.archivo, StandardOpenOption.READ)) {
+            return canal.map(FileChannel.MapMode.READ_ONLY, 0, longitud);
+        }
+    }
+
+    /**
+     * Escribe por completo el contenido de un búfer en el segmento activo.
+     *
+     * @param bufer búfer a escribir
+     * @throws IOException si falla la escritura
+     */
+    private void escribirCompleto(ByteBuffer bufer) throws IOException {
+        while (bufer.hasRemaining()) {
+            canalActivo.write(bufer);
+        }
+    }
+
+    /**
+     * Codifica un texto en UTF-8, tratando {@code null} como vacío.
+     *
+     * @param texto texto a codificar
+     * @return bytes del texto
+     */
+    private static byte[] bytes(String texto) {
+        return texto == null ? new byte[0] : texto.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decodifica un texto UTF-8 de una posición absoluta del búfer.
+     *
+     * @param datos    búfer de origen
+     * @param posicion posición del primer byte
+     * @param longitud cantidad de bytes
+     * @return texto decodificado
+     */
+    private static String texto(ByteBuffer datos, int posicion, int longitud) {
+        byte[] bytes = new byte[longitud];
+        datos.get(posicion, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Convierte una fecha en milisegundos desde la época, sin aplicar zona horaria.
+     *
+     * @param fecha fecha a convertir
+     * @return milisegundos desde la época
+     */
+    private static long aMillis(LocalDateTime fecha) {
+        return fecha.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    /**
+     * Convierte milisegundos desde la época en una fecha, sin aplicar zona horaria.
+     *
+     * @param millis milisegundos desde la época
+     * @return fecha correspondiente
+     */
+    private static LocalDateTime deMillis(long millis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000L),
+                (int) Math.floorMod(millis, 1000L) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    /**
+     * Metadatos de un segmento: archivo, rango de fechas, cantidad de entradas, longitud de datos
+     * y momento de creación, que determina su rotación por antigüedad.
+     * Sólo el hilo escritor los modifica; los lectores ven valores consistentes con lo ya sincronizado.
+     */
+    private static final class Segmento {
+        private final Path archivo;
+        private volatile long minimo = Long.MAX_VALUE;
+        private volatile long maximo = Long.MIN_VALUE;
+        private volatile int cantidad;
+        private volatile long longitud;
+        private volatile boolean sellado;
+        private long creado = System.currentTimeMillis();
+
+        Segmento(Path archivo) {
+            this.archivo = archivo;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.JuanAlejoP.biblioteca.bench;
+
+import com.JuanAlejoP.biblioteca.manager.EstadisticasCatalogo;
+import com.JuanAlejoP.biblioteca.manager.GestorRecursos;
+import com.JuanAlejoP.biblioteca.model.CategoriaRecurso;
+import com.JuanAlejoP.biblioteca.model.EstadoRecurso;
+import com.JuanAlejoP.biblioteca.model.RecursoDigital;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * Compara la pasada única y paralela de {@link GestorRecursos#calcularEstadisticas(ForkJoinPool)}
+ * con las pasadas secuenciales separadas de los reportes originales: tres recorridos para contar
+ * por estado, uno para las reservas que consulta dos veces la cola de cada recurso y uno para
+ * agrupar por categoría.
+ * <p>
+ * Antes de medir se comprueba que ambas estrategias obtengan los mismos conteos. Sólo hay
+ * aceleración por paralelismo si la máquina tiene al menos tantos procesadores como hilos.
+ * </p>
+ * <p>
+ * Uso: {@code BenchAgregacionCatalogo [recursos] [paralelismo...]}; por omisión se mide con 1, 2 y
+ * 4 hilos, y con un millón de recursos conviene {@code -Xmx2g}.
+ * </p>
+ */
+public class BenchAgregacionCatalogo {
+    /**
+     * Cantidad de rondas medidas de cada estrategia.
+     */
+    private static final int RONDAS = 5;
+
+    /**
+     * Ejecuta la medición e imprime la duración de las pasadas separadas y de la pasada única con
+     * cada paralelismo.
+     *
+     * @param args cantidad de recursos y paralelismos a medir (opcionales)
+     * @throws Exception si la medición falla
+     */
+    public static void main(String[] args) throws Exception {
+        int cantidad = Medicion.argumento(args, 0, 1_000_000);
+        int[] paralelismos = {1, 2, 4};
+        if (args.length > 1) {
+            paralelismos = new int[args.length - 1];
+            for (int i = 1; i < args.length; i++) {
+                paralelismos[i - 1] = Integer.parseInt(args[i]);
+            }
+        }
+        CatalogoMedicion catalogo = new CatalogoMedicion(cantidad);
+        GestorRecursos gestor = catalogo.gestor;
+        System.out.println(catalogo.descripcion() + ", " + Runtime.getRuntime().availableProcessors()
+                + " procesadores");
+
+        ForkJoinPool comprobacion = new ForkJoinPool(1);
+        comprobar(gestor, gestor.calcularEstadisticas(comprobacion));
+        comprobacion.shutdown();
+
+        System.out.printf("%-30s %10s%n", "estrategia", "ms");
+        System.out.printf("%-30s %10.1f%n", "pasadas separadas",
+                Medicion.ms(Medicion.mejorTiempo(RONDAS, () -> pasadasSeparadas(gestor))));
+        for (int paralelismo : paralelismos) {
+            ForkJoinPool pool = new ForkJoinPool(paralelismo);
+            long tiempo = Medicion.mejorTiempo(RONDAS,
+                    () -> gestor.calcularEstadisticas(pool).getCantidadRecursos());
+            pool.shutdown();
+            System.out.printf("%-30s %10.1f%n", "pasada única, " + paralelismo + " hilos", Medicion.ms(tiempo));
+        }
+    }
+
+    /**
+     * Calcula los conteos de los reportes de estado, reservas y categorías con pasadas separadas,
+     * como los reportes originales pero sin escribir el texto.
+     *
+     * @param gestor gestor de recursos
+     * @return suma de los conteos, para que el trabajo no se descarte
+     */
+    private static long pasadasSeparadas(GestorRecursos gestor) {
+        long total = 0;
+        for (EstadoRecurso estado : new EstadoRecurso[]{EstadoRecurso.DISPONIBLE, EstadoRecurso.PRESTADO,
+                EstadoRecurso.RESERVADO}) {
+            total += gestor.listAllResources().stream()
+                    .filter(r -> r.getEstado() == estado)
+                    .count();
+        }
+        for (Map.Entry<String, Integer> entry : reservasSeparadas(gestor).entrySet()) {
+            total += entry.getValue();
+        }
+        for (long porCategoria : categoriasSeparadas(gestor).values()) {
+            total += porCategoria;
+        }
+        return total;
+    }
+
+    /**
+     * Cuenta las reservas de cada recurso que tiene alguna, consultando su cola dos veces.
+     *
+     * @param gestor gestor de recursos
+     * @return cantidad de reservas por ID de recurso
+     */
+    private static Map<String, Integer> reservasSeparadas(GestorRecursos gestor) {
+        List<RecursoDigital> recursosConReservas = gestor.listAllResources().stream()
+                .filter(r -> !gestor.getReservas(r.getIdentificador()).isEmpty())
+                .collect(Collectors.toList());
+        return recursosConReservas.stream().collect(Collectors.toMap(RecursoDigital::getIdentificador,
+                r -> gestor.getReservas(r.getIdentificador()).size()));
+    }
+
+    /**
+     * Cuenta los recursos de cada categoría agrupando el catálogo.
+     *
+     * @param gestor gestor de recursos
+     * @return cantidad de recursos por categoría
+     */
+    private static Map<CategoriaRecurso, Long> categoriasSeparadas(GestorRecursos gestor) {
+        return gestor.listAllResources().stream()
+                .collect(Collectors.groupingBy(RecursoDigital::getCategoria, Collectors.counting()));
+    }
+
+    /**
+     * Comprueba que la pasada única obtenga los mismos conteos que las pasadas separadas.
+     *
+     * @param gestor       gestor de recursos
+     * @param estadisticas estadísticas de la pasada única
+     */
+    private static void comprobar(GestorRecursos gestor, EstadisticasCatalogo estadisticas) {
+        for (EstadoRecurso estado : EstadoRecurso.values()) {
+            long esperado = gestor.listAllResources().stream().filter(r -> r.getEstado() == estado).count();
+            if (estadisticas.contarPorEstado(estado) != esperado) {
+                throw new IllegalStateException("Difiere la cantidad de recursos " + estado);
+            }
+        }
+        Map<CategoriaRecurso, Long> categorias = categoriasSeparadas(gestor);
+        for (CategoriaRecurso categoria : CategoriaRecurso.values()) {
+            if (estadisticas.contarPorCategoria(categoria) != categorias.getOrDefault(categoria, 0L)) {
+                throw new IllegalStateException("Difiere la cantidad de recursos de " + categoria);
+            }
+        }
+        if (!estadisticas.getReservasPorRecurso().equals(reservasSeparadas(gestor))) {
+            throw new IllegalStateException("Difieren las reservas por recurso");
+        }
+    }
+}
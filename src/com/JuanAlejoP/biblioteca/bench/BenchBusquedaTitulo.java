@@ -0,0 +1,100 @@
+package com.JuanAlejoP.biblioteca.bench;
+
+import com.JuanAlejoP.biblioteca.manager.GestorRecursos;
+import com.JuanAlejoP.biblioteca.model.EstadoRecurso;
+import com.JuanAlejoP.biblioteca.model.Libro;
+import com.JuanAlejoP.biblioteca.model.RecursoDigital;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Compara la búsqueda por título con índice de trigramas contra el recorrido completo del catálogo
+ * que hacía {@code searchByTitle} antes del índice, y mide el costo de volver a importar recursos
+ * ya indexados.
+ * <p>
+ * Uso: {@code BenchBusquedaTitulo [cantidadRecursos]}, por omisión 200000.
+ * </p>
+ */
+public class BenchBusquedaTitulo {
+    /**
+     * Palabras con que se arman los títulos del catálogo de prueba.
+     */
+    private static final String[] PALABRAS = {
+            "Historia", "Guerra", "Mar", "Ciudad", "Sombra", "Jardín", "Viento", "Noche", "Río",
+            "Memoria", "Camino", "Silencio", "Fuego", "Isla", "Tiempo", "Invierno"
+    };
+
+    /**
+     * Consultas medidas, de mayor a menor cantidad de coincidencias.
+     */
+    private static final String[] CONSULTAS = {"sombra", "jardín del", "noche de la isla", "12345", "inexistente"};
+
+    /**
+     * Ejecuta la medición e imprime los tiempos de cada consulta.
+     *
+     * @param args cantidad de recursos del catálogo (opcional)
+     * @throws Exception si la medición falla
+     */
+    public static void main(String[] args) throws Exception {
+        int cantidad = Medicion.argumento(args, 0, 200_000);
+        GestorRecursos gestor = new GestorRecursos();
+        Random azar = new Random(1);
+        List<RecursoDigital> recursos = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            String titulo = PALABRAS[azar.nextInt(PALABRAS.length)] + " de la " + PALABRAS[azar.nextInt(PALABRAS.length)]
+                    + " del " + PALABRAS[azar.nextInt(PALABRAS.length)] + " " + i;
+            recursos.add(new Libro("L" + i, titulo, EstadoRecurso.DISPONIBLE));
+        }
+        gestor.addNewResources(recursos);
+        System.out.printf("Catálogo de %d recursos%n", cantidad);
+        System.out.printf("%-20s %12s %14s %16s %10s%n", "consulta", "resultados", "índice (us)", "recorrido (us)", "mejora");
+        for (String consulta : CONSULTAS) {
+            Set<RecursoDigital> indexados = new HashSet<>(gestor.searchByTitle(consulta));
+            Set<RecursoDigital> recorridos = new HashSet<>(recorrer(gestor, consulta));
+            if (!indexados.equals(recorridos)) {
+                throw new IllegalStateException("Resultados distintos para \"" + consulta + "\"");
+            }
+            long indice = Medicion.mejorTiempo(10, () -> gestor.searchByTitle(consulta).size());
+            long recorrido = Medicion.mejorTiempo(10, () -> recorrer(gestor, consulta).size());
+            System.out.printf("%-20s %12d %14.1f %16.1f %9.0fx%n", "\"" + consulta + "\"", indexados.size(),
+                    Medicion.us(indice), Medicion.us(recorrido), (double) recorrido / indice);
+        }
+
+        int reimportados = Math.min(cantidad, 50_000);
+        List<RecursoDigital> mismos = recursos.subList(0, reimportados);
+        long mismoTitulo = Medicion.mejorTiempo(3, () -> {
+            gestor.addNewResources(mismos);
+            return mismos.size();
+        });
+        List<RecursoDigital> renombrados = new ArrayList<>(reimportados);
+        for (int i = 0; i < reimportados; i++) {
+            renombrados.add(new Libro("L" + i, "Edición revisada " + i, EstadoRecurso.DISPONIBLE));
+        }
+        long inicio = System.nanoTime();
+        gestor.addNewResources(renombrados);
+        long tituloNuevo = System.nanoTime() - inicio;
+        System.out.printf("Reimportar %d recursos: mismo título %.1f ms, título nuevo %.1f ms%n",
+                reimportados, Medicion.ms(mismoTitulo), Medicion.ms(tituloNuevo));
+    }
+
+    /**
+     * Busca por título recorriendo todo el catálogo, como lo hacía {@code searchByTitle} antes del índice.
+     *
+     * @param gestor   gestor a recorrer
+     * @param consulta texto buscado
+     * @return recursos cuyo título contiene la consulta, sin distinción de mayúsculas
+     */
+    private static List<RecursoDigital> recorrer(GestorRecursos gestor, String consulta) {
+        List<RecursoDigital> resultado = new ArrayList<>();
+        for (RecursoDigital recurso : gestor.listAllResources()) {
+            if (recurso.getTitulo().toLowerCase().contains(consulta.toLowerCase())) {
+                resultado.add(recurso);
+            }
+        }
+        return resultado;
+    }
+}
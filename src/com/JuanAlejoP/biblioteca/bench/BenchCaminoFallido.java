@@ -0,0 +1,165 @@
+package com.JuanAlejoP.biblioteca.bench;
+
+import com.JuanAlejoP.biblioteca.manager.GestorRecursos;
+import com.JuanAlejoP.biblioteca.manager.GestorUsuarios;
+import com.JuanAlejoP.biblioteca.model.EstadoRecurso;
+import com.JuanAlejoP.biblioteca.model.Libro;
+import com.JuanAlejoP.biblioteca.model.RecursoDigital;
+import com.JuanAlejoP.biblioteca.model.RecursoNoDisponibleException;
+import com.JuanAlejoP.biblioteca.model.Usuario;
+import com.JuanAlejoP.biblioteca.model.UsuarioNoEncontradoException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Mide el costo de las búsquedas fallidas y de los rechazos de préstamo según cómo se informan:
+ * con excepciones sin traza, con {@code Optional} o código de resultado, y con una excepción con
+ * traza completa, como se informaban antes.
+ * <p>
+ * Cada llamada se hace desde cierta profundidad de pila, porque el costo de capturar la traza
+ * crece con ella.
+ * </p>
+ * <p>
+ * Uso: {@code BenchCaminoFallido [operacionesPorRonda]}, por omisión 200000.
+ * </p>
+ */
+public class BenchCaminoFallido {
+    /**
+     * Cantidad de recursos del catálogo de prueba.
+     */
+    private static final int CANTIDAD = 100_000;
+
+    /**
+     * Cantidad de recursos prestados, cuyos préstamos a otro usuario se rechazan.
+     */
+    private static final int PRESTADOS = 1_000;
+
+    /**
+     * Caso medido: una llamada que devuelve un valor derivado de su resultado.
+     */
+    private interface Caso {
+        /**
+         * @param i número de la llamada
+         * @return valor derivado del resultado
+         */
+        int llamar(int i);
+    }
+
+    /** Gestor de recursos de prueba. */
+    private static GestorRecursos gestor;
+    /** Gestor de usuarios de prueba. */
+    private static GestorUsuarios usuarios;
+    /** IDs de los recursos del catálogo. */
+    private static String[] existentes;
+    /** IDs que no corresponden a ningún recurso ni usuario. */
+    private static String[] inexistentes;
+    /** Usuario cuyos préstamos de recursos ya prestados se rechazan. */
+    private static Usuario otro;
+
+    /**
+     * Ejecuta la medición e imprime el costo por llamada de cada caso.
+     *
+     * @param args cantidad de llamadas por ronda (opcional)
+     * @throws Exception si la medición falla
+     */
+    public static void main(String[] args) throws Exception {
+        int operaciones = Medicion.argumento(args, 0, 200_000);
+        gestor = new GestorRecursos();
+        usuarios = new GestorUsuarios(null);
+        existentes = new String[CANTIDAD];
+        inexistentes = new String[CANTIDAD];
+        List<RecursoDigital> recursos = new ArrayList<>(CANTIDAD);
+        for (int i = 0; i < CANTIDAD; i++) {
+            existentes[i] = "L" + i;
+            inexistentes[i] = "X" + i;
+            recursos.add(new Libro(existentes[i], "Libro " + i, EstadoRecurso.DISPONIBLE));
+        }
+        gestor.addNewResources(recursos);
+        Usuario lector = new Usuario("Lector", "U1", "lector@biblioteca", "1");
+        otro = new Usuario("Otro", "U2", "otro@biblioteca", "2");
+        usuarios.addNewUser(lector);
+        for (int i = 0; i < PRESTADOS; i++) {
+            gestor.prestarRecurso(existentes[i], lector);
+        }
+        for (int profundidad : new int[]{5, 50}) {
+            System.out.printf("Profundidad de pila %d (ns por llamada)%n", profundidad);
+            medir("acierto searchResourceById", operaciones, profundidad, i -> {
+                try {
+                    return gestor.searchResourceById(existentes[i % CANTIDAD]).hashCode() & 1;
+                } catch (RecursoNoDisponibleException e) {
+                    return 2;
+                }
+            });
+            medir("fallo searchResourceById (sin traza)", operaciones, profundidad, i -> {
+                try {
+                    return gestor.searchResourceById(inexistentes[i % CANTIDAD]).hashCode() & 1;
+                } catch (RecursoNoDisponibleException e) {
+                    return e.getMessage().length() & 1;
+                }
+            });
+            medir("fallo buscarRecurso (Optional)", operaciones, profundidad,
+                    i -> gestor.buscarRecurso(inexistentes[i % CANTIDAD]).isPresent() ? 1 : 0);
+            medir("fallo con traza (como antes)", operaciones, profundidad, i -> {
+                try {
+                    return gestor.buscarRecurso(inexistentes[i % CANTIDAD]).orElseThrow(() ->
+                            new RecursoNoDisponibleException("Recurso con ID " + inexistentes[i % CANTIDAD]
+                                    + " no encontrado.")).hashCode() & 1;
+                } catch (RecursoNoDisponibleException e) {
+                    return e.getMessage().length() & 1;
+                }
+            });
+            medir("rechazo prestarRecurso (sin traza)", operaciones, profundidad, i -> {
+                try {
+                    gestor.prestarRecurso(existentes[i % PRESTADOS], otro);
+                    return 0;
+                } catch (RecursoNoDisponibleException e) {
+                    return e.getMessage().length() & 1;
+                }
+            });
+            medir("rechazo intentarPrestarRecurso", operaciones, profundidad,
+                    i -> gestor.intentarPrestarRecurso(existentes[i % PRESTADOS], otro).ordinal() & 1);
+            medir("fallo obtenerUsuario (sin traza)", operaciones, profundidad, i -> {
+                try {
+                    return usuarios.obtenerUsuario(inexistentes[i % CANTIDAD]).hashCode() & 1;
+                } catch (UsuarioNoEncontradoException e) {
+                    return e.getMessage().length() & 1;
+                }
+            });
+            medir("fallo buscarUsuario (Optional)", operaciones, profundidad,
+                    i -> usuarios.buscarUsuario(inexistentes[i % CANTIDAD]).isPresent() ? 1 : 0);
+        }
+    }
+
+    /**
+     * Mide un caso e imprime su mejor costo por llamada.
+     *
+     * @param nombre      descripción del caso
+     * @param operaciones cantidad de llamadas por ronda
+     * @param profundidad profundidad de pila desde la que se llama
+     * @param caso        caso a medir
+     * @throws Exception si la medición falla
+     */
+    private static void medir(String nombre, int operaciones, int profundidad, Caso caso) throws Exception {
+        long mejor = Medicion.mejorTiempo(5, () -> {
+            long suma = 0;
+            for (int i = 0; i < operaciones; i++) {
+                suma += desde(profundidad, caso, i);
+            }
+            return suma;
+        });
+        System.out.printf("  %-40s %8d%n", nombre, mejor / operaciones);
+    }
+
+    /**
+     * Llama a un caso después de apilar la cantidad indicada de marcos.
+     *
+     * @param profundidad marcos que faltan apilar
+     * @param caso        caso a llamar
+     * @param i           número de la llamada
+     * @return valor derivado del resultado
+     */
+    private static int desde(int profundidad, Caso caso, int i) {
+        return profundidad == 0 ? caso.llamar(i) : desde(profundidad - 1, caso, i) + 1;
+    }
+}
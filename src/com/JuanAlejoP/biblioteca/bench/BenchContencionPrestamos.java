@@ -0,0 +1,124 @@
+package com.JuanAlejoP.biblioteca.bench;
+
+import com.JuanAlejoP.biblioteca.manager.GestorRecursos;
+import com.JuanAlejoP.biblioteca.manager.ResultadoOperacion;
+import com.JuanAlejoP.biblioteca.model.EstadoRecurso;
+import com.JuanAlejoP.biblioteca.model.Libro;
+import com.JuanAlejoP.biblioteca.model.RecursoDigital;
+import com.JuanAlejoP.biblioteca.model.Usuario;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mide el rendimiento de préstamos y devoluciones concurrentes sobre un conjunto de recursos
+ * disputados y verifica que ningún recurso quede prestado a dos usuarios a la vez.
+ * <p>
+ * Cada hilo intenta prestar un recurso al azar y, si lo obtiene, lo devuelve. Un contador por
+ * recurso, incrementado tras cada préstamo concretado y decrementado antes de devolverlo, nunca
+ * debe superar uno.
+ * </p>
+ * <p>
+ * Uso: {@code BenchContencionPrestamos [hilosMaximos] [milisegundosPorCaso]}, por omisión 8 y 1000.
+ * </p>
+ */
+public class BenchContencionPrestamos {
+    /**
+     * Cantidades de recursos disputados que se prueban, de mucha a poca contención.
+     */
+    private static final int[] RECURSOS_DISPUTADOS = {4, 64, 100_000};
+
+    /**
+     * Ejecuta la medición e imprime el rendimiento de cada combinación de hilos y recursos.
+     *
+     * @param args cantidad máxima de hilos y duración de cada caso en milisegundos (opcionales)
+     * @throws Exception si la medición falla
+     */
+    public static void main(String[] args) throws Exception {
+        int hilosMaximos = Medicion.argumento(args, 0, 8);
+        int duracion = Medicion.argumento(args, 1, 1000);
+        System.out.printf("Procesadores disponibles: %d%n", Runtime.getRuntime().availableProcessors());
+        // Calentamiento del compilador JIT, sin informar
+        medir(64, 2, duracion, false);
+        System.out.printf("%8s %8s %16s %16s %14s%n", "recursos", "hilos", "intentos/s", "préstamos/s", "dobles");
+        for (int disputados : RECURSOS_DISPUTADOS) {
+            for (int hilos = 1; hilos <= hilosMaximos; hilos *= 2) {
+                medir(disputados, hilos, duracion, true);
+            }
+        }
+    }
+
+    /**
+     * Ejecuta un caso de la medición y verifica el estado final del gestor.
+     *
+     * @param disputados cantidad de recursos disputados
+     * @param hilos      cantidad de hilos concurrentes
+     * @param duracion   duración del caso, en milisegundos
+     * @param informar   indica si se imprime el resultado
+     * @throws Exception si la medición falla o el estado final es inconsistente
+     */
+    private static void medir(int disputados, int hilos, int duracion, boolean informar) throws Exception {
+        GestorRecursos gestor = new GestorRecursos();
+        String[] ids = new String[disputados];
+        List<RecursoDigital> recursos = new ArrayList<>(disputados);
+        for (int i = 0; i < disputados; i++) {
+            ids[i] = "L" + i;
+            recursos.add(new Libro(ids[i], "Libro " + i, EstadoRecurso.DISPONIBLE));
+        }
+        gestor.addNewResources(recursos);
+        AtomicIntegerArray ocupados = new AtomicIntegerArray(disputados);
+        AtomicLong intentos = new AtomicLong();
+        AtomicLong prestamos = new AtomicLong();
+        AtomicLong dobles = new AtomicLong();
+        CountDownLatch inicio = new CountDownLatch(1);
+        long fin = System.nanoTime() + duracion * 1_000_000L;
+        List<Thread> trabajadores = new ArrayList<>(hilos);
+        for (int h = 0; h < hilos; h++) {
+            Usuario usuario = new Usuario("Usuario " + h, "U" + h, "u" + h + "@biblioteca", "0");
+            Thread trabajador = new Thread(() -> {
+                ThreadLocalRandom azar = ThreadLocalRandom.current();
+                long propios = 0;
+                long concretados = 0;
+                try {
+                    inicio.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                while ((propios & 255) != 0 || System.nanoTime() < fin) {
+                    int i = azar.nextInt(disputados);
+                    propios++;
+                    if (gestor.intentarPrestarRecurso(ids[i], usuario) == ResultadoOperacion.EXITO) {
+                        concretados++;
+                        if (ocupados.incrementAndGet(i) > 1) {
+                            dobles.incrementAndGet();
+                        }
+                        ocupados.decrementAndGet(i);
+                        gestor.intentarDevolverRecurso(ids[i]);
+                    }
+                }
+                intentos.addAndGet(propios);
+                prestamos.addAndGet(concretados);
+            });
+            trabajadores.add(trabajador);
+            trabajador.start();
+        }
+        long comienzo = System.nanoTime();
+        inicio.countDown();
+        for (Thread trabajador : trabajadores) {
+            trabajador.join();
+        }
+        double segundos = (System.nanoTime() - comienzo) / 1e9;
+        if (!gestor.getTodosLosPrestamos().isEmpty()
+                || gestor.contarPorEstado(EstadoRecurso.DISPONIBLE) != disputados) {
+            throw new IllegalStateException("Quedaron préstamos sin devolver");
+        }
+        if (informar) {
+            System.out.printf("%8d %8d %16.0f %16.0f %14d%n", disputados, hilos,
+                    intentos.get() / segundos, prestamos.get() / segundos, dobles.get());
+        }
+    }
+}
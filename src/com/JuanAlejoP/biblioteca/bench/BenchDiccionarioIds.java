@@ -0,0 +1,113 @@
+package com.JuanAlejoP.biblioteca.bench;
+
+import com.JuanAlejoP.biblioteca.manager.DiccionarioIds;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compara el diccionario de IDs con códigos enteros densos frente a mapas {@link ConcurrentHashMap}
+ * indexados por {@code String}, como los que usaban los gestores: costo de búsqueda con acierto y
+ * con fallo, y memoria.
+ * <p>
+ * Cada ID se asocia a objetos ya existentes en una o varias estructuras, como los préstamos, las
+ * reservas y los índices de un recurso: con mapas, una por estructura indexada por ID; con el
+ * diccionario, un arreglo por estructura indexado por código. Una búsqueda con acierto consulta
+ * todas las estructuras, resolviendo el ID una vez con el diccionario y una vez por mapa sin él.
+ * Los IDs se crean antes de medir, por lo que no se cuentan en la memoria de ninguna alternativa.
+ * </p>
+ * <p>
+ * Uso: {@code BenchDiccionarioIds [cantidadIds]}, por omisión 1000000.
+ * </p>
+ */
+public class BenchDiccionarioIds {
+    /**
+     * Ejecuta la medición e imprime los costos de búsqueda y la memoria de cada alternativa.
+     *
+     * @param args cantidad de IDs (opcional)
+     * @throws Exception si la medición falla
+     */
+    public static void main(String[] args) throws Exception {
+        int cantidad = Medicion.argumento(args, 0, 1_000_000);
+        String[] ids = new String[cantidad];
+        String[] consultas = new String[cantidad];
+        String[] inexistentes = new String[cantidad];
+        Object[] valores = new Object[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            ids[i] = "L" + (i * 2_654_435_761L % 1_000_000_007L);
+            // Copias iguales pero no idénticas, como los IDs que llegan desde la consola o un archivo
+            consultas[i] = new String(ids[i].toCharArray());
+            inexistentes[i] = "X" + i;
+            valores[i] = new Object();
+        }
+        System.out.printf("%d IDs%n", cantidad);
+        System.out.printf("%-14s %-36s %12s %12s %14s%n", "estructuras", "", "acierto (ns)", "fallo (ns)", "memoria (MB)");
+        for (int estructuras : new int[]{1, 3}) {
+            long base = Medicion.memoriaUsada();
+            DiccionarioIds diccionario = new DiccionarioIds();
+            Object[][] porCodigo = new Object[estructuras][cantidad];
+            for (int i = 0; i < cantidad; i++) {
+                int codigo = diccionario.registrar(ids[i]);
+                for (Object[] arreglo : porCodigo) {
+                    arreglo[codigo] = valores[i];
+                }
+            }
+            long memoriaDiccionario = Medicion.memoriaUsada() - base;
+
+            base = Medicion.memoriaUsada();
+            List<Map<String, Object>> mapas = new ArrayList<>(estructuras);
+            for (int e = 0; e < estructuras; e++) {
+                Map<String, Object> mapa = new ConcurrentHashMap<>();
+                for (int i = 0; i < cantidad; i++) {
+                    mapa.put(ids[i], valores[i]);
+                }
+                mapas.add(mapa);
+            }
+            long memoriaMapas = Medicion.memoriaUsada() - base;
+
+            // Las consultas recorren los IDs en otro orden que el de registro
+            long aciertoDiccionario = Medicion.mejorTiempo(5, () -> {
+                long suma = 0;
+                for (int i = 0; i < cantidad; i++) {
+                    int codigo = diccionario.codigo(consultas[(int) (i * 7L % cantidad)]);
+                    for (Object[] arreglo : porCodigo) {
+                        suma += arreglo[codigo].hashCode();
+                    }
+                }
+                return suma;
+            });
+            long aciertoMapas = Medicion.mejorTiempo(5, () -> {
+                long suma = 0;
+                for (int i = 0; i < cantidad; i++) {
+                    String id = consultas[(int) (i * 7L % cantidad)];
+                    for (Map<String, Object> mapa : mapas) {
+                        suma += mapa.get(id).hashCode();
+                    }
+                }
+                return suma;
+            });
+            long falloDiccionario = Medicion.mejorTiempo(5, () -> {
+                long suma = 0;
+                for (int i = 0; i < cantidad; i++) {
+                    suma += diccionario.codigo(inexistentes[i]);
+                }
+                return suma;
+            });
+            long falloMapas = Medicion.mejorTiempo(5, () -> {
+                long suma = 0;
+                for (int i = 0; i < cantidad; i++) {
+                    suma += mapas.get(0).get(inexistentes[i]) == null ? 0 : 1;
+                }
+                return suma;
+            });
+            System.out.printf("%-14d %-36s %12.1f %12.1f %14.1f%n", estructuras, "DiccionarioIds + arreglos por código",
+                    aciertoDiccionario / (double) cantidad, falloDiccionario / (double) cantidad,
+                    memoriaDiccionario / 1048576.0);
+            System.out.printf("%-14d %-36s %12.1f %12.1f %14.1f%n", estructuras, "ConcurrentHashMap<String, Object>",
+                    aciertoMapas / (double) cantidad, falloMapas / (double) cantidad, memoriaMapas / 1048576.0);
+            Medicion.sumidero += diccionario.tamanio() + mapas.get(0).size() + porCodigo.length;
+        }
+    }
+}
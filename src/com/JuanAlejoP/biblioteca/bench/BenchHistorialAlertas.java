@@ -0,0 +1,162 @@
+package com.JuanAlejoP.biblioteca.bench;
+
+import com.JuanAlejoP.biblioteca.alerts.AlertHistory;
+import com.JuanAlejoP.biblioteca.alerts.AlertType;
+import com.JuanAlejoP.biblioteca.alerts.NotificacionEntry;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mide el historial de alertas frente a la lista sincronizada sin límite que usaba antes: el
+ * rendimiento de registrar entradas desde varios hilos y el costo de leer las últimas entradas,
+ * que antes copiaba la lista completa.
+ * <p>
+ * Cada entrada se crea con la fecha actual al registrarla, como lo hace el notificador, en ambos
+ * destinos.
+ * </p>
+ * <p>
+ * Uso: {@code BenchHistorialAlertas [hilosMaximos] [milisegundosPorCaso]}, por omisión 8 y 1000.
+ * </p>
+ */
+public class BenchHistorialAlertas {
+    /**
+     * Plantillas de los mensajes, seguidas del ID de un recurso, como las que emiten las alertas.
+     */
+    private static final String[] PLANTILLAS = {
+            "⚠️ Su préstamo vence hoy: ", "⚠️ Su préstamo vence mañana: ", "✅ Recurso disponible: "
+    };
+
+    /**
+     * Cantidad de usuarios distintos de las entradas.
+     */
+    private static final int USUARIOS = 1_000;
+
+    /**
+     * Cantidad de recursos distintos de las entradas.
+     */
+    private static final int RECURSOS = 100_000;
+
+    /**
+     * Destino de las entradas medido: el historial actual o la lista sincronizada anterior.
+     */
+    private interface Destino {
+        /**
+         * @param entrada entrada a registrar
+         */
+        void agregar(NotificacionEntry entrada);
+    }
+
+    /**
+     * Ejecuta la medición e imprime el rendimiento de registro y el costo de lectura.
+     *
+     * @param args cantidad máxima de hilos y duración de cada caso en milisegundos (opcionales)
+     * @throws Exception si la medición falla
+     */
+    public static void main(String[] args) throws Exception {
+        int hilosMaximos = Medicion.argumento(args, 0, 8);
+        int duracion = Medicion.argumento(args, 1, 1000);
+        String[] mensajes = new String[1 << 16];
+        String[] usuarios = new String[mensajes.length];
+        for (int i = 0; i < mensajes.length; i++) {
+            mensajes[i] = PLANTILLAS[i % PLANTILLAS.length] + "L" + (i * 7919 % RECURSOS);
+            usuarios[i] = "U" + (i % USUARIOS);
+        }
+        System.out.printf("Procesadores disponibles: %d, capacidad del historial: %d%n",
+                Runtime.getRuntime().availableProcessors(), AlertHistory.CAPACIDAD_PREDETERMINADA);
+        System.out.printf("%6s %22s %22s%n", "hilos", "historial (entradas/s)", "lista sincr. (entradas/s)");
+        // Calentamiento del compilador JIT, sin informar
+        registrar(mensajes, usuarios, 2, duracion, true);
+        registrar(mensajes, usuarios, 2, duracion, false);
+        for (int hilos = 1; hilos <= hilosMaximos; hilos *= 2) {
+            double historial = registrar(mensajes, usuarios, hilos, duracion, true);
+            double lista = registrar(mensajes, usuarios, hilos, duracion, false);
+            System.out.printf("%6d %22.0f %22.0f%n", hilos, historial, lista);
+        }
+
+        AlertHistory.setCapacity(AlertHistory.CAPACIDAD_PREDETERMINADA);
+        List<NotificacionEntry> lista = Collections.synchronizedList(new ArrayList<>());
+        for (int i = 0; i < AlertHistory.CAPACIDAD_PREDETERMINADA; i++) {
+            NotificacionEntry entrada = crear(mensajes, usuarios, i);
+            AlertHistory.addEntry(entrada);
+            lista.add(entrada);
+        }
+        long ultimas = Medicion.mejorTiempo(2000, () -> AlertHistory.getLatest(20).size());
+        long copia = Medicion.mejorTiempo(2000, () -> {
+            List<NotificacionEntry> todas = new ArrayList<>(lista);
+            return todas.subList(todas.size() - 20, todas.size()).size();
+        });
+        long pagina = Medicion.mejorTiempo(2000, () -> AlertHistory.getPage("8000", 20).getElementos().size());
+        System.out.printf("Últimas 20 de %d entradas: historial %.1f us, copia de la lista %.1f us%n",
+                AlertHistory.CAPACIDAD_PREDETERMINADA, Medicion.us(ultimas), Medicion.us(copia));
+        System.out.printf("Página de 20 desde la mitad: historial %.1f us%n", Medicion.us(pagina));
+    }
+
+    /**
+     * Registra entradas desde varios hilos durante el tiempo indicado.
+     *
+     * @param mensajes  mensajes de las entradas, usados en forma circular
+     * @param usuarios  IDs de usuario de las entradas, usados en forma circular
+     * @param hilos     cantidad de hilos productores
+     * @param duracion  duración del caso, en milisegundos
+     * @param historial {@code true} para el historial actual, {@code false} para la lista sincronizada
+     * @return entradas registradas por segundo
+     * @throws Exception si la medición falla
+     */
+    private static double registrar(String[] mensajes, String[] usuarios, int hilos, int duracion, boolean historial)
+            throws Exception {
+        Destino destino;
+        if (historial) {
+            AlertHistory.setCapacity(AlertHistory.CAPACIDAD_PREDETERMINADA);
+            destino = AlertHistory::addEntry;
+        } else {
+            destino = Collections.synchronizedList(new ArrayList<NotificacionEntry>())::add;
+        }
+        AtomicLong total = new AtomicLong();
+        CountDownLatch inicio = new CountDownLatch(1);
+        long fin = System.nanoTime() + duracion * 1_000_000L;
+        List<Thread> productores = new ArrayList<>(hilos);
+        for (int h = 0; h < hilos; h++) {
+            int desplazamiento = h * 4099;
+            Thread productor = new Thread(() -> {
+                long propias = 0;
+                try {
+                    inicio.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                while ((propias & 255) != 0 || System.nanoTime() < fin) {
+                    destino.agregar(crear(mensajes, usuarios, (int) (propias + desplazamiento)));
+                    propias++;
+                }
+                total.addAndGet(propias);
+            });
+            productores.add(productor);
+            productor.start();
+        }
+        long comienzo = System.nanoTime();
+        inicio.countDown();
+        for (Thread productor : productores) {
+            productor.join();
+        }
+        return total.get() / ((System.nanoTime() - comienzo) / 1e9);
+    }
+
+    /**
+     * Crea una entrada con la fecha actual.
+     *
+     * @param mensajes mensajes de las entradas
+     * @param usuarios IDs de usuario de las entradas
+     * @param i        número de la entrada
+     * @return entrada nueva
+     */
+    private static NotificacionEntry crear(String[] mensajes, String[] usuarios, int i) {
+        int posicion = i & (mensajes.length - 1);
+        return new NotificacionEntry(LocalDateTime.now(), AlertType.values()[i % 3], mensajes[posicion],
+                usuarios[posicion]);
+    }
+}
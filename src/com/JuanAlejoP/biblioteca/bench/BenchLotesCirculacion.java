@@ -0,0 +1,179 @@
+package com.JuanAlejoP.biblioteca.bench;
+
+import com.JuanAlejoP.biblioteca.manager.GestorRecursos;
+import com.JuanAlejoP.biblioteca.manager.GestorUsuarios;
+import com.JuanAlejoP.biblioteca.manager.ResultadoOperacion;
+import com.JuanAlejoP.biblioteca.model.EstadoRecurso;
+import com.JuanAlejoP.biblioteca.model.Libro;
+import com.JuanAlejoP.biblioteca.model.RecursoDigital;
+import com.JuanAlejoP.biblioteca.model.RecursoNoDisponibleException;
+import com.JuanAlejoP.biblioteca.model.Usuario;
+import com.JuanAlejoP.biblioteca.persistence.RegistroOperaciones;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compara el costo por elemento de prestar, reservar y devolver carritos de recursos con las
+ * operaciones por lotes frente a una llamada por elemento, con excepciones o con resultados.
+ * <p>
+ * Sin argumentos el gestor trabaja sólo en memoria. Con un argumento se activa un registro de
+ * operaciones en un archivo temporal con esa ventana de agrupación en microsegundos, y el costo
+ * pasa a estar dominado por la sincronización con el disco: un lote la espera una sola vez.
+ * </p>
+ * <p>
+ * Uso: {@code BenchLotesCirculacion [ventanaRegistroMicrosegundos]}.
+ * </p>
+ */
+public class BenchLotesCirculacion {
+    /**
+     * Nombres de las formas de llamada comparadas.
+     */
+    private static final String[] MODOS = {"una llamada (excepciones)", "una llamada (intentar*)", "lote"};
+
+    /** Operación de préstamo de cada carrito. */
+    private static final int PRESTAR = 0;
+    /** Operación de reserva de cada carrito. */
+    private static final int RESERVAR = 1;
+    /** Operación de devolución de cada carrito. */
+    private static final int DEVOLVER = 2;
+
+    /**
+     * Ejecuta la medición e imprime el costo por elemento de cada forma de llamada.
+     *
+     * @param args ventana del registro de operaciones en microsegundos (opcional)
+     * @throws Exception si la medición falla
+     */
+    public static void main(String[] args) throws Exception {
+        boolean conRegistro = args.length > 0;
+        int cantidad = conRegistro ? 20_000 : 200_000;
+        int carritos = conRegistro ? 10 : 2_000;
+        Path directorio = Files.createTempDirectory("bench-lotes");
+        Path archivo = directorio.resolve("operaciones.wal");
+        RegistroOperaciones registro = null;
+        GestorRecursos gestor;
+        if (conRegistro) {
+            registro = new RegistroOperaciones(archivo, Duration.ofNanos(Long.parseLong(args[0]) * 1000));
+            gestor = GestorRecursos.restaurar(registro, new GestorUsuarios(null));
+        } else {
+            gestor = new GestorRecursos();
+        }
+        String[] ids = new String[cantidad];
+        List<RecursoDigital> recursos = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            ids[i] = "L" + i;
+            recursos.add(new Libro(ids[i], "Libro " + i, EstadoRecurso.DISPONIBLE));
+        }
+        gestor.addNewResources(recursos);
+        Usuario lector = new Usuario("Lector", "U1", "lector@biblioteca", "1");
+        Usuario espera = new Usuario("En espera", "U2", "espera@biblioteca", "2");
+        String unidad = conRegistro ? "us" : "ns";
+        System.out.printf("%s, costo por elemento en %s: prestar / reservar / devolver%n",
+                conRegistro ? "Con registro, ventana " + args[0] + " us" : "Sólo en memoria", unidad);
+        for (int tamanio : new int[]{20, 50}) {
+            for (int fallidos : new int[]{0, 20}) {
+                long[][] mejor = new long[MODOS.length][3];
+                for (long[] fila : mejor) {
+                    Arrays.fill(fila, Long.MAX_VALUE);
+                }
+                int base = 0;
+                for (int ronda = 0; ronda < Medicion.CALENTAMIENTO + 3; ronda++) {
+                    for (int modo = 0; modo < MODOS.length; modo++) {
+                        long[] tiempos = new long[3];
+                        for (int k = 0; k < carritos; k++) {
+                            List<String> carrito = new ArrayList<>(tamanio);
+                            for (int j = 0; j < tamanio; j++) {
+                                // Los primeros elementos del carrito son códigos inexistentes
+                                carrito.add(j * 100 < fallidos * tamanio ? "X" + (base + j) : ids[(base + j) % cantidad]);
+                            }
+                            base = (base + tamanio) % cantidad;
+                            for (int operacion = PRESTAR; operacion <= DEVOLVER; operacion++) {
+                                long inicio = System.nanoTime();
+                                Medicion.sumidero += aplicar(gestor, modo, carrito,
+                                        operacion == RESERVAR ? espera : lector, operacion);
+                                tiempos[operacion] += System.nanoTime() - inicio;
+                            }
+                            // La devolución dejó los recursos retenidos para las reservas: se consumen
+                            gestor.prestarRecursos(carrito, espera);
+                            gestor.devolverRecursos(carrito);
+                        }
+                        if (ronda >= Medicion.CALENTAMIENTO) {
+                            for (int operacion = PRESTAR; operacion <= DEVOLVER; operacion++) {
+                                mejor[modo][operacion] = Math.min(mejor[modo][operacion],
+                                        tiempos[operacion] / ((long) carritos * tamanio));
+                            }
+                        }
+                    }
+                }
+                System.out.printf("carrito de %d, %d%% inexistentes%n", tamanio, fallidos);
+                for (int modo = 0; modo < MODOS.length; modo++) {
+                    int divisor = conRegistro ? 1000 : 1;
+                    System.out.printf("  %-28s %8d %8d %8d%n", MODOS[modo], mejor[modo][PRESTAR] / divisor,
+                            mejor[modo][RESERVAR] / divisor, mejor[modo][DEVOLVER] / divisor);
+                }
+            }
+        }
+        if (registro != null) {
+            registro.close();
+            Files.deleteIfExists(archivo);
+        }
+        Files.deleteIfExists(directorio);
+    }
+
+    /**
+     * Aplica una operación a todos los elementos de un carrito con la forma de llamada indicada.
+     *
+     * @param gestor    gestor de recursos
+     * @param modo      forma de llamada, índice de {@link #MODOS}
+     * @param carrito   IDs de los recursos
+     * @param usuario   usuario de la operación
+     * @param operacion operación a aplicar
+     * @return cantidad de operaciones concretadas
+     */
+    private static int aplicar(GestorRecursos gestor, int modo, List<String> carrito, Usuario usuario, int operacion) {
+        int concretadas = 0;
+        switch (modo) {
+            case 0:
+                for (String id : carrito) {
+                    try {
+                        if (operacion == PRESTAR) {
+                            gestor.prestarRecurso(id, usuario);
+                        } else if (operacion == RESERVAR) {
+                            gestor.reservarRecurso(id, usuario);
+                        } else {
+                            gestor.devolverRecurso(id);
+                        }
+                        concretadas++;
+                    } catch (RecursoNoDisponibleException e) {
+                        // Rechazo esperado: se cuenta como no concretada
+                    }
+                }
+                break;
+            case 1:
+                for (String id : carrito) {
+                    ResultadoOperacion resultado = operacion == PRESTAR ? gestor.intentarPrestarRecurso(id, usuario)
+                            : operacion == RESERVAR ? gestor.intentarReservarRecurso(id, usuario)
+                            : gestor.intentarDevolverRecurso(id);
+                    if (resultado.esExito()) {
+                        concretadas++;
+                    }
+                }
+                break;
+            default:
+                List<ResultadoOperacion> resultados = operacion == PRESTAR ? gestor.prestarRecursos(carrito, usuario)
+                        : operacion == RESERVAR ? gestor.reservarRecursos(carrito, usuario)
+                        : gestor.devolverRecursos(carrito);
+                for (ResultadoOperacion resultado : resultados) {
+                    if (resultado.esExito()) {
+                        concretadas++;
+                    }
+                }
+                break;
+        }
+        return concretadas;
+    }
+}
@@ -0,0 +1,98 @@
+package com.JuanAlejoP.biblioteca.bench;
+
+import com.JuanAlejoP.biblioteca.alerts.AlertHistory;
+import com.JuanAlejoP.biblioteca.alerts.AlertType;
+import com.JuanAlejoP.biblioteca.alerts.NotificacionEntry;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compara la memoria que ocupa el historial de alertas por columnas con la de una lista de
+ * entradas como objetos, para la misma cantidad de alertas.
+ * <p>
+ * El historial se mide completo, con sus diccionarios y sus índices por usuario y tipo. Las
+ * entradas como objetos tienen cada una su fecha y su mensaje, como las que crean las alertas;
+ * los IDs de usuario se comparten, como los de las instancias de {@code Usuario}.
+ * </p>
+ * <p>
+ * Uso: {@code BenchMemoriaAlertas [cantidadEntradas]}, por omisión 1000000. Para 10000000 se
+ * necesitan unos 4 GB de heap ({@code -Xmx4g}).
+ * </p>
+ */
+public class BenchMemoriaAlertas {
+    /**
+     * Plantillas de los mensajes, seguidas del ID de un recurso, como las que emiten las alertas.
+     */
+    private static final String[] PLANTILLAS = {
+            "⚠️ Su préstamo vence hoy: ", "⚠️ Su préstamo vence mañana: ", "✅ Recurso disponible: "
+    };
+
+    /**
+     * Cantidad de usuarios distintos de las entradas.
+     */
+    private static final int USUARIOS = 10_000;
+
+    /**
+     * Cantidad de recursos distintos de las entradas.
+     */
+    private static final int RECURSOS = 200_000;
+
+    /**
+     * Ejecuta la medición e imprime la memoria de cada representación.
+     *
+     * @param args cantidad de entradas (opcional)
+     * @throws Exception si la medición falla
+     */
+    public static void main(String[] args) throws Exception {
+        int cantidad = Medicion.argumento(args, 0, 1_000_000);
+        String[] usuarios = new String[USUARIOS];
+        for (int i = 0; i < USUARIOS; i++) {
+            usuarios[i] = "U" + i;
+        }
+        LocalDateTime inicio = LocalDateTime.of(2026, 1, 1, 8, 0);
+
+        AlertHistory.setCapacity(1);
+        long base = Medicion.memoriaUsada();
+        AlertHistory.setCapacity(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            AlertHistory.addEntry(crear(inicio, usuarios, i));
+        }
+        // Una consulta termina de indexar las entradas pendientes
+        Medicion.sumidero += AlertHistory.query(usuarios[0], null, null, null, 1).size();
+        long columnar = Medicion.memoriaUsada() - base;
+        int retenidas = AlertHistory.getHistory().size();
+        int capacidad = AlertHistory.getCapacity();
+        AlertHistory.setCapacity(1);
+
+        base = Medicion.memoriaUsada();
+        List<NotificacionEntry> objetos = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            objetos.add(crear(inicio, usuarios, i));
+        }
+        long porObjetos = Medicion.memoriaUsada() - base;
+        Medicion.sumidero += objetos.size();
+
+        System.out.printf("%d entradas (%d retenidas por el historial, capacidad %d)%n",
+                cantidad, retenidas, capacidad);
+        System.out.printf("%-34s %10.1f MB %8.1f bytes/entrada%n", "historial por columnas (con índices)",
+                columnar / 1048576.0, columnar / (double) cantidad);
+        System.out.printf("%-34s %10.1f MB %8.1f bytes/entrada%n", "lista de NotificacionEntry",
+                porObjetos / 1048576.0, porObjetos / (double) cantidad);
+        System.out.printf("Relación: %.1fx%n", (double) porObjetos / columnar);
+    }
+
+    /**
+     * Crea la entrada número {@code i}, un minuto posterior a la anterior.
+     *
+     * @param inicio   fecha de la primera entrada
+     * @param usuarios IDs de usuario compartidos
+     * @param i        número de la entrada
+     * @return entrada nueva, con mensaje propio
+     */
+    private static NotificacionEntry crear(LocalDateTime inicio, String[] usuarios, int i) {
+        return new NotificacionEntry(inicio.plusMinutes(i), AlertType.values()[i % 3],
+                PLANTILLAS[i % PLANTILLAS.length] + "L" + (i * 7919 % RECURSOS), usuarios[i * 31 % USUARIOS]);
+    }
+}
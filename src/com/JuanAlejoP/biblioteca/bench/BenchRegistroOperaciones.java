@@ -0,0 +1,126 @@
+package com.JuanAlejoP.biblioteca.bench;
+
+import com.JuanAlejoP.biblioteca.persistence.EntradaRegistro;
+import com.JuanAlejoP.biblioteca.persistence.RegistroOperaciones;
+import com.JuanAlejoP.biblioteca.persistence.TipoOperacion;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Mide el registro de operaciones con distintas ventanas de agrupación y cantidades de hilos que
+ * registran entradas durables: operaciones por segundo, entradas por sincronización y latencia
+ * de cada registro.
+ * <p>
+ * El registro se escribe en un archivo temporal del directorio indicado, que debería estar en el
+ * disco a evaluar; por omisión, el directorio temporal del sistema.
+ * </p>
+ * <p>
+ * Uso: {@code BenchRegistroOperaciones [milisegundosPorCaso] [directorio]}, por omisión 2000.
+ * </p>
+ */
+public class BenchRegistroOperaciones {
+    /**
+     * Ventanas de agrupación probadas, en microsegundos.
+     */
+    private static final long[] VENTANAS = {0, 500, 1000, 2000, 5000};
+
+    /**
+     * Cantidades de hilos probadas.
+     */
+    private static final int[] HILOS = {1, 4, 16, 64};
+
+    /**
+     * Ejecuta la medición e imprime una fila por combinación de hilos y ventana.
+     *
+     * @param args duración de cada caso en milisegundos y directorio del archivo (opcionales)
+     * @throws Exception si la medición falla
+     */
+    public static void main(String[] args) throws Exception {
+        int duracion = Medicion.argumento(args, 0, 2000);
+        Path directorio = args.length > 1 ? Files.createTempDirectory(Path.of(args[1]), "bench-registro")
+                : Files.createTempDirectory("bench-registro");
+        Path archivo = directorio.resolve("operaciones.wal");
+        EntradaRegistro entrada = new EntradaRegistro(TipoOperacion.PRESTAMO, "L123456", "U42", "Lector",
+                "lector@biblioteca", "1", "2026-10-17T10:00");
+        System.out.printf("%8s %6s %10s %8s %9s %9s%n", "ventana", "hilos", "ops/s", "lote", "p50 us", "p99 us");
+        for (int hilos : HILOS) {
+            for (long ventana : VENTANAS) {
+                Files.deleteIfExists(archivo);
+                try (RegistroOperaciones registro = new RegistroOperaciones(archivo, Duration.ofNanos(ventana * 1000))) {
+                    medir(registro, entrada, hilos, ventana, duracion);
+                }
+            }
+        }
+        Files.deleteIfExists(archivo);
+        Files.deleteIfExists(directorio);
+    }
+
+    /**
+     * Ejecuta un caso: cada hilo registra entradas hasta agotar la duración, y se informan las
+     * registradas después de un quinto de la duración, descartado como calentamiento.
+     *
+     * @param registro registro a medir
+     * @param entrada  entrada que se registra
+     * @param hilos    cantidad de hilos que registran
+     * @param ventana  ventana de agrupación del registro, en microsegundos
+     * @param duracion duración del caso, en milisegundos
+     * @throws Exception si la medición falla
+     */
+    private static void medir(RegistroOperaciones registro, EntradaRegistro entrada, int hilos, long ventana,
+                              int duracion) throws Exception {
+        long comienzo = System.nanoTime() + duracion * 200_000L;
+        long fin = System.nanoTime() + duracion * 1_000_000L;
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+        List<Future<long[]>> tareas = new ArrayList<>(hilos);
+        for (int h = 0; h < hilos; h++) {
+            tareas.add(ejecutor.submit(() -> {
+                long[] latencias = new long[1 << 16];
+                int cantidad = 0;
+                while (true) {
+                    long inicio = System.nanoTime();
+                    if (inicio > fin) {
+                        return Arrays.copyOf(latencias, cantidad);
+                    }
+                    registro.registrar(entrada);
+                    if (inicio >= comienzo) {
+                        if (cantidad == latencias.length) {
+                            latencias = Arrays.copyOf(latencias, cantidad * 2);
+                        }
+                        latencias[cantidad++] = System.nanoTime() - inicio;
+                    }
+                }
+            }));
+        }
+        Thread.sleep(Math.max(0, (comienzo - System.nanoTime()) / 1_000_000));
+        long lotesInicio = registro.getLotesSincronizados();
+        List<long[]> porHilo = new ArrayList<>(hilos);
+        for (Future<long[]> tarea : tareas) {
+            porHilo.add(tarea.get());
+        }
+        long lotes = registro.getLotesSincronizados() - lotesInicio;
+        ejecutor.shutdown();
+        int total = 0;
+        for (long[] latencias : porHilo) {
+            total += latencias.length;
+        }
+        long[] todas = new long[total];
+        int posicion = 0;
+        for (long[] latencias : porHilo) {
+            System.arraycopy(latencias, 0, todas, posicion, latencias.length);
+            posicion += latencias.length;
+        }
+        Arrays.sort(todas);
+        double segundos = duracion * 0.8 / 1000;
+        System.out.printf("%6.1fms %6d %10.0f %8.1f %9.0f %9.0f%n", ventana / 1000.0, hilos, total / segundos,
+                total / (double) Math.max(1, lotes), Medicion.us(todas[total / 2]),
+                Medicion.us(todas[(int) (total * 0.99)]));
+    }
+}
@@ -0,0 +1,132 @@
+package com.JuanAlejoP.biblioteca.bench;
+
+import com.JuanAlejoP.biblioteca.manager.GestorRecursos;
+import com.JuanAlejoP.biblioteca.manager.GestorUsuarios;
+import com.JuanAlejoP.biblioteca.model.Usuario;
+import com.JuanAlejoP.biblioteca.reports.GeneradorReportes;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+/**
+ * Compara la latencia de los reportes leídos de los agregados materializados de
+ * {@link GeneradorReportes} con la de los mismos reportes recalculados desde cero, y el costo que
+ * la suscripción de los agregados agrega a cada préstamo y devolución.
+ * <p>
+ * El catálogo es un {@link CatalogoMedicion}, con un décimo de los recursos prestados y un
+ * quincuagésimo con reservas. Antes de medir se comprueba que los conteos por estado, por
+ * categoría y de reservas de ambos coincidan. Los tops no se comparan: el recálculo cuenta los
+ * préstamos activos, como el generador original, y los agregados los históricos.
+ * </p>
+ * <p>
+ * Uso: {@code BenchReportesMaterializados [recursos] [paralelismo]}; con un millón de recursos
+ * conviene {@code -Xmx2g}.
+ * </p>
+ */
+public class BenchReportesMaterializados {
+    /**
+     * Cantidad de rondas medidas de cada reporte.
+     */
+    private static final int RONDAS = 5;
+
+    /**
+     * Cantidad de préstamos y devoluciones de cada ronda de la medición de mutaciones.
+     */
+    private static final int MUTACIONES = 100_000;
+
+    /**
+     * Ejecuta la medición e imprime la latencia de cada reporte con ambas estrategias.
+     *
+     * @param args cantidad de recursos y paralelismo de la pasada inicial (opcionales)
+     * @throws Exception si la medición falla
+     */
+    public static void main(String[] args) throws Exception {
+        int cantidad = Medicion.argumento(args, 0, 1_000_000);
+        int paralelismo = Medicion.argumento(args, 1, Runtime.getRuntime().availableProcessors());
+        CatalogoMedicion catalogo = new CatalogoMedicion(cantidad);
+        GestorRecursos gestor = catalogo.gestor;
+        GestorUsuarios usuarios = catalogo.usuarios;
+        System.out.println(catalogo.descripcion());
+
+        long mutacionSin = medirMutaciones(gestor, catalogo.ids, catalogo.lectores[0]);
+        long inicio = System.nanoTime();
+        GeneradorReportes generador = new GeneradorReportes(gestor, usuarios, paralelismo);
+        long suscripcion = System.nanoTime() - inicio;
+        long mutacionCon = medirMutaciones(gestor, catalogo.ids, catalogo.lectores[0]);
+
+        comprobar("por estado", ReportesRecalculados.recursosPorEstado(gestor),
+                generador.generarReporteRecursosPorEstado());
+        comprobar("de reservas", ReportesRecalculados.recursosConReservas(gestor),
+                generador.generarReporteRecursosConReservas());
+        comprobar("por categoría", ReportesRecalculados.estadisticasPorCategoria(gestor),
+                generador.generarEstadisticasPorCategoria());
+
+        System.out.printf("suscripción de los agregados (paralelismo %d): %.1f ms%n", paralelismo,
+                Medicion.ms(suscripcion));
+        System.out.printf("préstamo + devolución: %d ns sin agregados, %d ns con agregados%n",
+                mutacionSin, mutacionCon);
+        System.out.printf("%-28s %14s %14s%n", "reporte (ms)", "recálculo", "materializado");
+        imprimir("recursos por estado",
+                Medicion.mejorTiempo(RONDAS, () -> ReportesRecalculados.recursosPorEstado(gestor).length()),
+                Medicion.mejorTiempo(RONDAS, () -> generador.generarReporteRecursosPorEstado().length()));
+        imprimir("recursos más prestados",
+                Medicion.mejorTiempo(RONDAS, () -> ReportesRecalculados.recursosConMasPrestamos(gestor).length()),
+                Medicion.mejorTiempo(RONDAS, () -> generador.generarReporteRecursosConMasPrestamos().length()));
+        imprimir("usuarios más activos",
+                Medicion.mejorTiempo(RONDAS, () -> ReportesRecalculados.usuariosActivos(gestor, usuarios).length()),
+                Medicion.mejorTiempo(RONDAS, () -> generador.generarReporteUsuariosActivos().length()));
+        imprimir("recursos con reservas",
+                Medicion.mejorTiempo(RONDAS, () -> ReportesRecalculados.recursosConReservas(gestor).length()),
+                Medicion.mejorTiempo(RONDAS, () -> generador.generarReporteRecursosConReservas().length()));
+        imprimir("estadísticas por categoría",
+                Medicion.mejorTiempo(RONDAS, () -> ReportesRecalculados.estadisticasPorCategoria(gestor).length()),
+                Medicion.mejorTiempo(RONDAS, () -> generador.generarEstadisticasPorCategoria().length()));
+    }
+
+    /**
+     * Mide el costo medio de un préstamo seguido de su devolución sobre recursos sin préstamos ni
+     * reservas.
+     *
+     * @param gestor  gestor de recursos
+     * @param ids     IDs de los recursos; se usan los terminados en 5, que nunca se prestan en el armado
+     * @param usuario usuario de los préstamos
+     * @return mejor costo por par de operaciones, en nanosegundos
+     * @throws Exception si la medición falla
+     */
+    private static long medirMutaciones(GestorRecursos gestor, String[] ids, Usuario usuario) throws Exception {
+        int pares = Math.min(MUTACIONES, ids.length / 10);
+        return Medicion.mejorTiempo(RONDAS, () -> {
+            for (int k = 0; k < pares; k++) {
+                String id = ids[k * 10 + 5];
+                gestor.prestarRecurso(id, usuario);
+                gestor.devolverRecurso(id);
+            }
+            return pares;
+        }) / pares;
+    }
+
+    /**
+     * Comprueba que dos textos de reporte tengan las mismas líneas, sin importar su orden.
+     *
+     * @param reporte        nombre del reporte
+     * @param recalculado    texto recalculado
+     * @param materializado  texto leído de los agregados
+     */
+    private static void comprobar(String reporte, String recalculado, String materializado) {
+        if (!new HashSet<>(Arrays.asList(recalculado.split("\n")))
+                .equals(new HashSet<>(Arrays.asList(materializado.split("\n"))))) {
+            throw new IllegalStateException("El reporte " + reporte + " difiere:\n" + recalculado + "\n" + materializado);
+        }
+    }
+
+    /**
+     * Imprime una fila de la tabla de resultados.
+     *
+     * @param reporte       nombre del reporte
+     * @param recalculo     mejor tiempo del recálculo, en nanosegundos
+     * @param materializado mejor tiempo de la lectura de los agregados, en nanosegundos
+     */
+    private static void imprimir(String reporte, long recalculo, long materializado) {
+        System.out.printf("%-28s %14.3f %14.3f%n", reporte, Medicion.ms(recalculo), Medicion.ms(materializado));
+    }
+}
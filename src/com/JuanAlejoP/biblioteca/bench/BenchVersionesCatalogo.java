@@ -0,0 +1,201 @@
+package com.JuanAlejoP.biblioteca.bench;
+
+import com.JuanAlejoP.biblioteca.manager.GestorRecursos;
+import com.JuanAlejoP.biblioteca.model.Usuario;
+import com.JuanAlejoP.biblioteca.reports.GeneradorReportes;
+import com.JuanAlejoP.biblioteca.reports.SalidaTexto;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mide el costo de las versiones consistentes del catálogo: la duración de una lectura de versión
+ * vacía y el efecto sobre los hilos que prestan y devuelven recursos de lectores concurrentes que
+ * toman versiones sin leer nada o escriben todos los reportes sobre una misma versión.
+ * <p>
+ * De cada caso se informan las operaciones de préstamo y devolución por segundo, la latencia de
+ * cada par y las lecturas por segundo. Los lectores de reportes comprueban además que los conteos
+ * por estado de cada lote sumen la cantidad de recursos, lo que falla si el lote mezcla versiones.
+ * </p>
+ * <p>
+ * Uso: {@code BenchVersionesCatalogo [recursos] [escritores] [milisegundosPorCaso]}, por omisión
+ * 100000, 2 y 2000.
+ * </p>
+ */
+public class BenchVersionesCatalogo {
+    /**
+     * Cantidades de lectores probadas.
+     */
+    private static final int[] LECTORES = {0, 1, 4};
+
+    /**
+     * Nombres de las lecturas probadas.
+     */
+    private static final String[] LECTURAS = {"versión vacía", "todos los reportes"};
+
+    /** Lectura de una versión sin leer nada de ella. */
+    private static final int VACIA = 0;
+    /** Escritura de todos los reportes sobre una misma versión. */
+    private static final int REPORTES = 1;
+
+    /**
+     * Ejecuta la medición e imprime una fila por combinación de lectura y lectores.
+     *
+     * @param args cantidad de recursos, de escritores y duración de cada caso (opcionales)
+     * @throws Exception si la medición falla
+     */
+    public static void main(String[] args) throws Exception {
+        int cantidad = Medicion.argumento(args, 0, 100_000);
+        int escritores = Medicion.argumento(args, 1, 2);
+        int duracion = Medicion.argumento(args, 2, 2000);
+        CatalogoMedicion catalogo = new CatalogoMedicion(cantidad);
+        GestorRecursos gestor = catalogo.gestor;
+        GeneradorReportes generador = new GeneradorReportes(gestor, catalogo.usuarios);
+        System.out.println(catalogo.descripcion() + ", " + escritores + " escritores");
+        System.out.printf("versión vacía sin escritores: %.2f us%n",
+                Medicion.us(Medicion.mejorTiempo(5, () -> {
+                    long suma = 0;
+                    for (int i = 0; i < 10_000; i++) {
+                        suma += gestor.leerVersion(version -> version.getNumero());
+                    }
+                    return suma;
+                }) / 10_000));
+        // Caso descartado, para que el compilador JIT ya haya optimizado a los escritores al medir
+        medir(catalogo, generador, VACIA, 0, escritores, duracion, false);
+        System.out.printf("%-20s %8s %12s %9s %9s %9s %12s%n", "lectura", "lectores", "escrituras/s",
+                "p50 us", "p99 us", "max us", "lecturas/s");
+        for (int lectura = VACIA; lectura <= REPORTES; lectura++) {
+            for (int lectores : LECTORES) {
+                if (lectura == REPORTES && lectores == 0) {
+                    continue;
+                }
+                medir(catalogo, generador, lectura, lectores, escritores, duracion, true);
+            }
+        }
+    }
+
+    /**
+     * Ejecuta un caso: los escritores prestan y devuelven cada uno sus propios recursos y los
+     * lectores leen versiones hasta agotar la duración; se informa lo ocurrido después de un quinto
+     * de la duración, descartado como calentamiento.
+     *
+     * @param catalogo   catálogo de la medición
+     * @param generador  generador de reportes suscripto al gestor
+     * @param lectura    lectura de los lectores, {@link #VACIA} o {@link #REPORTES}
+     * @param lectores   cantidad de lectores
+     * @param escritores cantidad de escritores
+     * @param duracion   duración del caso, en milisegundos
+     * @param imprimir   si se imprime la fila del caso
+     * @throws Exception si la medición falla o un lote de reportes mezcla versiones
+     */
+    private static void medir(CatalogoMedicion catalogo, GeneradorReportes generador, int lectura, int lectores,
+                              int escritores, int duracion, boolean imprimir) throws Exception {
+        GestorRecursos gestor = catalogo.gestor;
+        long comienzo = System.nanoTime() + duracion * 200_000L;
+        long fin = System.nanoTime() + duracion * 1_000_000L;
+        AtomicLong lecturas = new AtomicLong();
+        ExecutorService ejecutor = Executors.newFixedThreadPool(escritores + lectores);
+        List<Future<long[]>> tareas = new ArrayList<>(escritores);
+        for (int e = 0; e < escritores; e++) {
+            int escritor = e;
+            tareas.add(ejecutor.submit(() -> {
+                Usuario usuario = catalogo.lectores[escritor];
+                long[] latencias = new long[1 << 16];
+                int cantidad = 0;
+                // Cada escritor usa los recursos terminados en 5 de su franja, disjunta de las demás
+                int k = escritor;
+                while (true) {
+                    long inicio = System.nanoTime();
+                    if (inicio > fin) {
+                        return Arrays.copyOf(latencias, cantidad);
+                    }
+                    String id = catalogo.ids[k * 10 + 5];
+                    gestor.prestarRecurso(id, usuario);
+                    gestor.devolverRecurso(id);
+                    k += escritores;
+                    if (k * 10 + 5 >= catalogo.ids.length) {
+                        k = escritor;
+                    }
+                    if (inicio >= comienzo) {
+                        if (cantidad == latencias.length) {
+                            latencias = Arrays.copyOf(latencias, cantidad * 2);
+                        }
+                        latencias[cantidad++] = System.nanoTime() - inicio;
+                    }
+                }
+            }));
+        }
+        List<Future<?>> lecturasPendientes = new ArrayList<>(lectores);
+        for (int l = 0; l < lectores; l++) {
+            lecturasPendientes.add(ejecutor.submit(() -> {
+                while (true) {
+                    long inicio = System.nanoTime();
+                    if (inicio > fin) {
+                        return null;
+                    }
+                    if (lectura == VACIA) {
+                        Medicion.sumidero += gestor.leerVersion(version -> version.getNumero());
+                    } else {
+                        StringWriter texto = new StringWriter();
+                        generador.escribirTodos(new SalidaTexto(texto));
+                        comprobarEstados(texto.toString(), catalogo.ids.length);
+                    }
+                    if (inicio >= comienzo) {
+                        lecturas.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        List<long[]> porHilo = new ArrayList<>(escritores);
+        for (Future<long[]> tarea : tareas) {
+            porHilo.add(tarea.get());
+        }
+        for (Future<?> pendiente : lecturasPendientes) {
+            pendiente.get();
+        }
+        ejecutor.shutdown();
+        if (!imprimir) {
+            return;
+        }
+        int total = 0;
+        for (long[] latencias : porHilo) {
+            total += latencias.length;
+        }
+        long[] todas = new long[total];
+        int posicion = 0;
+        for (long[] latencias : porHilo) {
+            System.arraycopy(latencias, 0, todas, posicion, latencias.length);
+            posicion += latencias.length;
+        }
+        Arrays.sort(todas);
+        double segundos = duracion * 0.8 / 1000;
+        System.out.printf("%-20s %8d %12.0f %9.1f %9.1f %9.0f %12.0f%n", LECTURAS[lectura], lectores,
+                total * 2 / segundos, Medicion.us(todas[total / 2]), Medicion.us(todas[(int) (total * 0.99)]),
+                Medicion.us(todas[total - 1]), lecturas.get() / segundos);
+    }
+
+    /**
+     * Comprueba que los conteos por estado de un lote de reportes sumen la cantidad de recursos.
+     *
+     * @param texto    texto de los reportes
+     * @param cantidad cantidad de recursos del catálogo
+     */
+    private static void comprobarEstados(String texto, int cantidad) {
+        long suma = 0;
+        for (String linea : texto.split("\n")) {
+            if (linea.startsWith("Disponibles: ") || linea.startsWith("Prestados: ")
+                    || linea.startsWith("Reservados: ")) {
+                suma += Long.parseLong(linea.substring(linea.indexOf(": ") + 2).trim());
+            }
+        }
+        if (suma != cantidad) {
+            throw new IllegalStateException("Los conteos por estado suman " + suma + " y no " + cantidad);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.JuanAlejoP.biblioteca.bench;
+
+import com.JuanAlejoP.biblioteca.manager.GestorRecursos;
+import com.JuanAlejoP.biblioteca.manager.GestorUsuarios;
+import com.JuanAlejoP.biblioteca.model.Audiolibro;
+import com.JuanAlejoP.biblioteca.model.EstadoRecurso;
+import com.JuanAlejoP.biblioteca.model.Libro;
+import com.JuanAlejoP.biblioteca.model.RecursoDigital;
+import com.JuanAlejoP.biblioteca.model.Revista;
+import com.JuanAlejoP.biblioteca.model.Usuario;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Catálogo poblado en memoria que comparten las mediciones de reportes y estadísticas.
+ * <p>
+ * Mezcla libros, revistas y audiolibros. Los primeros diez mil recursos acumulan un historial
+ * desparejo de préstamos ya devueltos, los recursos de posición múltiplo de 10 quedan prestados y
+ * los de posición múltiplo de 50 tienen además de una a tres reservas. Los de posición terminada
+ * en 5 son libros disponibles, libres para las mutaciones de las mediciones.
+ * </p>
+ */
+final class CatalogoMedicion {
+    /**
+     * Cantidad de usuarios del catálogo.
+     */
+    static final int USUARIOS = 10_000;
+
+    /**
+     * Gestor de recursos poblado.
+     */
+    final GestorRecursos gestor = new GestorRecursos();
+
+    /**
+     * Gestor de usuarios con los lectores registrados.
+     */
+    final GestorUsuarios usuarios = new GestorUsuarios(null);
+
+    /**
+     * IDs de los recursos, por posición.
+     */
+    final String[] ids;
+
+    /**
+     * Usuarios registrados, por posición.
+     */
+    final Usuario[] lectores = new Usuario[USUARIOS];
+
+    /**
+     * Cantidad de recursos con reservas.
+     */
+    final int reservados;
+
+    /**
+     * Construye y puebla el catálogo.
+     *
+     * @param cantidad cantidad de recursos
+     */
+    CatalogoMedicion(int cantidad) {
+        ids = new String[cantidad];
+        List<RecursoDigital> recursos = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            ids[i] = "R" + i;
+            String titulo = "Recurso " + i;
+            // Las revistas no se prestan: sólo ocupan posiciones que no se prestan ni se reservan
+            recursos.add(i % 10 == 7 ? new Revista(ids[i], titulo, EstadoRecurso.DISPONIBLE)
+                    : i % 10 == 3 || i % 10 == 9 ? new Audiolibro(ids[i], titulo, EstadoRecurso.DISPONIBLE)
+                    : new Libro(ids[i], titulo, EstadoRecurso.DISPONIBLE));
+        }
+        gestor.addNewResources(recursos);
+        for (int u = 0; u < USUARIOS; u++) {
+            lectores[u] = new Usuario("Usuario " + u, "U" + u, "u" + u + "@biblioteca", String.valueOf(u));
+        }
+        usuarios.addNewUsers(Arrays.asList(lectores));
+        // Historial desparejo: los primeros recursos se prestan y devuelven más veces
+        for (int k = 0; k < 10; k++) {
+            List<String> tramo = Arrays.asList(ids).subList(0, Math.min(cantidad, (k + 1) * 1_000));
+            gestor.prestarRecursos(tramo, lectores[k]);
+            gestor.devolverRecursos(tramo);
+        }
+        List<List<String>> prestamosPorUsuario = new ArrayList<>(USUARIOS);
+        for (int u = 0; u < USUARIOS; u++) {
+            prestamosPorUsuario.add(new ArrayList<>());
+        }
+        List<String> conReservas = new ArrayList<>();
+        for (int i = 0; i < cantidad; i += 10) {
+            prestamosPorUsuario.get((i / 10) % USUARIOS).add(ids[i]);
+            if (i % 50 == 0) {
+                conReservas.add(ids[i]);
+            }
+        }
+        for (int u = 0; u < USUARIOS; u++) {
+            gestor.prestarRecursos(prestamosPorUsuario.get(u), lectores[u]);
+        }
+        for (int r = 0; r < 3; r++) {
+            gestor.reservarRecursos(conReservas.subList(0, conReservas.size() / (r + 1)), lectores[USUARIOS - 1 - r]);
+        }
+        reservados = conReservas.size();
+    }
+
+    /**
+     * Obtiene una descripción del tamaño del catálogo.
+     *
+     * @return cantidades de recursos, préstamos activos y recursos con reservas
+     */
+    String descripcion() {
+        return String.format("%,d recursos, %,d préstamos activos, %,d recursos con reservas",
+                ids.length, gestor.getTodosLosPrestamos().size(), reservados);
+    }
+}
@@ -0,0 +1,106 @@
+package com.JuanAlejoP.biblioteca.bench;
+
+/**
+ * Utilidades comunes de las mediciones de rendimiento de este paquete.
+ * <p>
+ * Cada medición es una clase con método {@code main} que se compila junto con el resto del
+ * proyecto y se ejecuta con {@code java -cp bin com.JuanAlejoP.biblioteca.bench.<Clase>}. No
+ * pretenden la precisión de un arnés de microbenchmarks: cada caso se repite varias rondas, las
+ * primeras se descartan como calentamiento del compilador JIT y se informa la mejor de las demás.
+ * </p>
+ */
+final class Medicion {
+    /**
+     * Cantidad de rondas iniciales que se descartan como calentamiento.
+     */
+    static final int CALENTAMIENTO = 3;
+
+    /**
+     * Acumula los resultados de las tareas medidas para que el compilador no las descarte.
+     */
+    static volatile long sumidero;
+
+    /**
+     * Tarea medida; devuelve un valor derivado de su trabajo, que se acumula en {@link #sumidero}.
+     */
+    interface Tarea {
+        /**
+         * Ejecuta una ronda de la tarea.
+         *
+         * @return valor derivado del trabajo realizado
+         * @throws Exception si la tarea falla
+         */
+        long ejecutar() throws Exception;
+    }
+
+    private Medicion() {
+    }
+
+    /**
+     * Mide una tarea y devuelve el menor tiempo de las rondas posteriores al calentamiento.
+     *
+     * @param rondas cantidad de rondas medidas
+     * @param tarea  tarea a medir
+     * @return mejor tiempo de una ronda, en nanosegundos
+     * @throws Exception si la tarea falla
+     */
+    static long mejorTiempo(int rondas, Tarea tarea) throws Exception {
+        long mejor = Long.MAX_VALUE;
+        for (int ronda = 0; ronda < CALENTAMIENTO + rondas; ronda++) {
+            long inicio = System.nanoTime();
+            sumidero += tarea.ejecutar();
+            long tiempo = System.nanoTime() - inicio;
+            if (ronda >= CALENTAMIENTO) {
+                mejor = Math.min(mejor, tiempo);
+            }
+        }
+        return mejor;
+    }
+
+    /**
+     * Obtiene la memoria del heap en uso después de pedir varias recolecciones de basura.
+     *
+     * @return bytes en uso
+     * @throws InterruptedException si se interrumpe la espera entre recolecciones
+     */
+    static long memoriaUsada() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Lee un argumento entero de la línea de comandos.
+     *
+     * @param args     argumentos del programa
+     * @param posicion posición del argumento
+     * @param omision  valor si el argumento no se indicó
+     * @return valor del argumento
+     */
+    static int argumento(String[] args, int posicion, int omision) {
+        return args.length > posicion ? Integer.parseInt(args[posicion]) : omision;
+    }
+
+    /**
+     * Convierte nanosegundos a milisegundos.
+     *
+     * @param nanos tiempo en nanosegundos
+     * @return tiempo en milisegundos
+     */
+    static double ms(long nanos) {
+        return nanos / 1e6;
+    }
+
+    /**
+     * Convierte nanosegundos a microsegundos.
+     *
+     * @param nanos tiempo en nanosegundos
+     * @return tiempo en microsegundos
+     */
+    static double us(long nanos) {
+        return nanos / 1e3;
+    }
+}
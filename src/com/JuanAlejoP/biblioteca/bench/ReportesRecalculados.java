@@ -0,0 +1,153 @@
+package com.JuanAlejoP.biblioteca.bench;
+
+import com.JuanAlejoP.biblioteca.manager.GestorRecursos;
+import com.JuanAlejoP.biblioteca.manager.GestorUsuarios;
+import com.JuanAlejoP.biblioteca.model.CategoriaRecurso;
+import com.JuanAlejoP.biblioteca.model.EstadoRecurso;
+import com.JuanAlejoP.biblioteca.model.Prestamo;
+import com.JuanAlejoP.biblioteca.model.RecursoDigital;
+import com.JuanAlejoP.biblioteca.model.RecursoNoDisponibleException;
+import com.JuanAlejoP.biblioteca.model.Usuario;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Reportes calculados desde cero en cada invocación, como los generaba {@code GeneradorReportes}
+ * antes de mantener sus agregados materializados: pasadas secuenciales independientes sobre los
+ * recursos y los préstamos activos del gestor. Sirven de referencia para las mediciones.
+ */
+final class ReportesRecalculados {
+    private ReportesRecalculados() {
+    }
+
+    /**
+     * Cuenta los recursos por estado con una pasada por estado.
+     *
+     * @param gestor gestor de recursos
+     * @return texto del reporte
+     */
+    static String recursosPorEstado(GestorRecursos gestor) {
+        long disponibles = gestor.listAllResources().stream()
+                .filter(r -> r.getEstado() == EstadoRecurso.DISPONIBLE)
+                .count();
+        long prestados = gestor.listAllResources().stream()
+                .filter(r -> r.getEstado() == EstadoRecurso.PRESTADO)
+                .count();
+        long reservados = gestor.listAllResources().stream()
+                .filter(r -> r.getEstado() == EstadoRecurso.RESERVADO)
+                .count();
+
+        return "Reporte de Recursos por Estado:\n" +
+                "Disponibles: " + disponibles + "\n" +
+                "Prestados: " + prestados + "\n" +
+                "Reservados: " + reservados + "\n";
+    }
+
+    /**
+     * Cuenta los préstamos activos por recurso y lista los 5 primeros.
+     *
+     * @param gestor gestor de recursos
+     * @return texto del reporte
+     * @throws RecursoNoDisponibleException si un recurso del top dejó de existir
+     */
+    static String recursosConMasPrestamos(GestorRecursos gestor) throws RecursoNoDisponibleException {
+        Map<String, Integer> conteoPrestamos = new HashMap<>();
+
+        for (Prestamo prestamo : gestor.getTodosLosPrestamos()) {
+            String id = prestamo.getRecurso().getIdentificador();
+            conteoPrestamos.put(id, conteoPrestamos.getOrDefault(id, 0) + 1);
+        }
+
+        List<Map.Entry<String, Integer>> top = conteoPrestamos.entrySet().stream()
+                .sorted((e1, e2) -> Integer.compare(e2.getValue(), e1.getValue()))
+                .limit(5)
+                .collect(Collectors.toList());
+
+        StringBuilder sb = new StringBuilder("Top 5 Recursos más Prestados:\n");
+        for (Map.Entry<String, Integer> entry : top) {
+            RecursoDigital recurso = gestor.searchResourceById(entry.getKey());
+            sb.append(recurso.getTitulo())
+                    .append(" - ")
+                    .append(entry.getValue())
+                    .append(" veces\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Cuenta los préstamos activos por usuario y lista los 5 primeros.
+     *
+     * @param gestor   gestor de recursos
+     * @param usuarios gestor de usuarios
+     * @return texto del reporte
+     */
+    static String usuariosActivos(GestorRecursos gestor, GestorUsuarios usuarios) {
+        Map<String, Integer> prestamosPorUsuario = new HashMap<>();
+
+        for (Prestamo prestamo : gestor.getTodosLosPrestamos()) {
+            String idUsuario = prestamo.getUsuario().getId();
+            prestamosPorUsuario.put(idUsuario, prestamosPorUsuario.getOrDefault(idUsuario, 0) + 1);
+        }
+
+        List<Map.Entry<String, Integer>> top = prestamosPorUsuario.entrySet().stream()
+                .sorted((e1, e2) -> Integer.compare(e2.getValue(), e1.getValue()))
+                .limit(5)
+                .collect(Collectors.toList());
+
+        StringBuilder sb = new StringBuilder("Top 5 Usuarios más Activos:\n");
+        for (Map.Entry<String, Integer> entry : top) {
+            Usuario usuario = usuarios.searchUserById(entry.getKey());
+            sb.append(usuario.getNombre())
+                    .append(" - ")
+                    .append(entry.getValue())
+                    .append(" préstamos\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Lista los recursos con reservas, consultando dos veces la cola de cada recurso y contándola
+     * con {@code size()}, que recorre la cola.
+     *
+     * @param gestor gestor de recursos
+     * @return texto del reporte
+     */
+    static String recursosConReservas(GestorRecursos gestor) {
+        List<RecursoDigital> recursosConReservas = gestor.listAllResources().stream()
+                .filter(r -> !gestor.getReservas(r.getIdentificador()).isEmpty())
+                .collect(Collectors.toList());
+
+        StringBuilder sb = new StringBuilder("Recursos con Reservas Activas:\n");
+        for (RecursoDigital recurso : recursosConReservas) {
+            int cantidadReservas = gestor.getReservas(recurso.getIdentificador()).size();
+            sb.append(recurso.getTitulo())
+                    .append(" - ")
+                    .append(cantidadReservas)
+                    .append(" reservas\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Cuenta los recursos por categoría agrupando el catálogo.
+     *
+     * @param gestor gestor de recursos
+     * @return texto del reporte
+     */
+    static String estadisticasPorCategoria(GestorRecursos gestor) {
+        Map<CategoriaRecurso, Long> conteoPorCategoria = gestor.listAllResources().stream()
+                .collect(Collectors.groupingBy(RecursoDigital::getCategoria, Collectors.counting()));
+
+        StringBuilder sb = new StringBuilder("Estadísticas por Categoría:\n");
+        for (Map.Entry<CategoriaRecurso, Long> entry : conteoPorCategoria.entrySet()) {
+            sb.append(entry.getKey())
+                    .append(": ")
+                    .append(entry.getValue())
+                    .append(" recursos\n");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,297 @@
+package com.JuanAlejoP.biblioteca.importer;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Convierte cada línea de un archivo de importación en los valores de las columnas pedidas,
+ * en el orden en que fueron pedidas.
+ * <p>
+ * Los analizadores no guardan estado entre líneas, por lo que pueden usarse desde varios hilos.
+ * Cada línea debe contener una fila completa: no se admiten campos con saltos de línea.
+ * </p>
+ */
+abstract class AnalizadorFilas {
+    /**
+     * Nombres de las columnas pedidas.
+     */
+    protected final String[] columnas;
+
+    /**
+     * Construye un analizador para las columnas indicadas.
+     *
+     * @param columnas nombres de las columnas pedidas
+     */
+    protected AnalizadorFilas(String[] columnas) {
+        this.columnas = columnas;
+    }
+
+    /**
+     * Crea el analizador adecuado según la extensión del archivo: {@code .csv} o {@code .jsonl}.
+     *
+     * @param archivo       archivo a importar
+     * @param primeraLinea  primera línea del archivo; en CSV es el encabezado
+     * @param columnas      nombres de las columnas pedidas
+     * @return analizador para el archivo
+     * @throws IllegalArgumentException si la extensión no es reconocida o el encabezado CSV no
+     *                                  contiene la primera columna pedida
+     */
+    static AnalizadorFilas para(Path archivo, String primeraLinea, String[] columnas) {
+        String nombre = archivo.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (nombre.endsWith(".csv")) {
+            return new Csv(primeraLinea, columnas);
+        }
+        if (nombre.endsWith(".jsonl") || nombre.endsWith(".ndjson")) {
+            return new Jsonl(columnas);
+        }
+        throw new IllegalArgumentException("Formato de archivo no soportado: " + nombre);
+    }
+
+    /**
+     * Indica si la primera línea del archivo es un encabezado y no una fila de datos.
+     *
+     * @return {@code true} si la primera línea debe omitirse
+     */
+    abstract boolean tieneEncabezado();
+
+    /**
+     * Analiza una línea y devuelve los valores de las columnas pedidas.
+     *
+     * @param linea línea del archivo
+     * @return valores de las columnas, con {@code null} para las ausentes o vacías
+     * @throws IllegalArgumentException si la línea está mal formada
+     */
+    abstract String[] analizar(String linea);
+
+    /**
+     * Normaliza un valor leído: los textos vacíos o formados sólo por espacios se tratan como ausentes.
+     *
+     * @param valor valor leído
+     * @return valor sin espacios en los extremos, o {@code null}
+     */
+    static String normalizar(String valor) {
+        if (valor == null) {
+            return null;
+        }
+        String recortado = valor.trim();
+        return recortado.isEmpty() ? null : recortado;
+    }
+
+    /**
+     * Analizador de archivos CSV con encabezado, separados por comas y con comillas dobles opcionales.
+     */
+    private static final class Csv extends AnalizadorFilas {
+        /**
+         * Posición de cada columna pedida dentro de la fila, o -1 si el encabezado no la contiene.
+         */
+        private final int[] posiciones;
+
+        Csv(String encabezado, String[] columnas) {
+            super(columnas);
+            List<String> nombres = dividir(encabezado);
+            this.posiciones = new int[columnas.length];
+            for (int i = 0; i < columnas.length; i++) {
+                posiciones[i] = -1;
+                for (int j = 0; j < nombres.size(); j++) {
+                    if (nombres.get(j).trim().equalsIgnoreCase(columnas[i])) {
+                        posiciones[i] = j;
+                        break;
+                    }
+                }
+            }
+            if (posiciones[0] < 0) {
+                throw new IllegalArgumentException("El encabezado CSV no contiene la columna " + columnas[0] + ".");
+            }
+        }
+
+        @Override
+        boolean tieneEncabezado() {
+            return true;
+        }
+
+        @Override
+        String[] analizar(String linea) {
+            List<String> campos = dividir(linea);
+            String[] valores = new String[columnas.length];
+            for (int i = 0; i < posiciones.length; i++) {
+                int posicion = posiciones[i];
+                valores[i] = posicion >= 0 && posicion < campos.size() ? normalizar(campos.get(posicion)) : null;
+            }
+            return valores;
+        }
+
+        /**
+         * Divide una línea CSV en campos, respetando las comillas dobles y su escape {@code ""}.
+         *
+         * @param linea línea a dividir
+         * @return campos de la línea
+         */
+        private static List<String> dividir(String linea) {
+            List<String> campos = new ArrayList<>();
+            StringBuilder actual = new StringBuilder();
+            boolean entreComillas = false;
+            for (int i = 0; i < linea.length(); i++) {
+                char c = linea.charAt(i);
+                if (entreComillas) {
+                    if (c == '"') {
+                        if (i + 1 < linea.length() && linea.charAt(i + 1) == '"') {
+                            actual.append('"');
+                            i++;
+                        } else {
+                            entreComillas = false;
+                        }
+                    } else {
+                        actual.append(c);
+                    }
+                } else if (c == '"') {
+                    entreComillas = true;
+                } else if (c == ',') {
+                    campos.add(actual.toString());
+                    actual.setLength(0);
+                } else {
+                    actual.append(c);
+                }
+            }
+            if (entreComillas) {
+                throw new IllegalArgumentException("Comillas sin cerrar.");
+            }
+            campos.add(actual.toString());
+            return campos;
+        }
+    }
+
+    /**
+     * Analizador de archivos JSON Lines: un objeto JSON plano por línea, con valores de texto,
+     * numéricos, lógicos o nulos.
+     */
+    private static final class Jsonl extends AnalizadorFilas {
+        Jsonl(String[] columnas) {
+            super(columnas);
+        }
+
+        @Override
+        boolean tieneEncabezado() {
+            return false;
+        }
+
+        @Override
+        String[] analizar(String linea) {
+            Map<String, String> objeto = new Objeto(linea).leer();
+            String[] valores = new String[columnas.length];
+            for (int i = 0; i < columnas.length; i++) {
+                valores[i] = normalizar(objeto.get(columnas[i]));
+            }
+            return valores;
+        }
+    }
+
+    /**
+     * Lector de un objeto JSON plano contenido en una línea.
+     */
+    private static final class Objeto {
+        private final String texto;
+        private int posicion;
+
+        Objeto(String texto) {
+            this.texto = texto;
+        }
+
+        Map<String, String> leer() {
+            Map<String, String> resultado = new HashMap<>();
+            esperar('{');
+            if (siguiente() == '}') {
+                posicion++;
+                return resultado;
+            }
+            while (true) {
+                String clave = cadena();
+                esperar(':');
+                resultado.put(clave, valor());
+                char c = siguiente();
+                posicion++;
+                if (c == '}') {
+                    break;
+                }
+                if (c != ',') {
+                    throw new IllegalArgumentException("Se esperaba ',' o '}' en la posición " + posicion + ".");
+                }
+            }
+            if (siguiente() != 0) {
+                throw new IllegalArgumentException("Contenido inesperado después del objeto.");
+            }
+            return resultado;
+        }
+
+        private String valor() {
+            char c = siguiente();
+            if (c == '"') {
+                return cadena();
+            }
+            int inicio = posicion;
+            while (posicion < texto.length() && ",} \t".indexOf(texto.charAt(posicion)) < 0) {
+                posicion++;
+            }
+            String literal = texto.substring(inicio, posicion);
+            if (literal.isEmpty() || literal.startsWith("{") || literal.startsWith("[")) {
+                throw new IllegalArgumentException("Valor no soportado en la posición " + inicio + ".");
+            }
+            return literal.equals("null") ? null : literal;
+        }
+
+        private String cadena() {
+            esperar('"');
+            StringBuilder resultado = new StringBuilder();
+            while (posicion < texto.length()) {
+                char c = texto.charAt(posicion++);
+                if (c == '"') {
+                    return resultado.toString();
+                }
+                if (c != '\\') {
+                    resultado.append(c);
+                    continue;
+                }
+                if (posicion >= texto.length()) {
+                    break;
+                }
+                char escape = texto.charAt(posicion++);
+                switch (escape) {
+                    case 'b': resultado.append('\b'); break;
+                    case 'f': resultado.append('\f'); break;
+                    case 'n': resultado.append('\n'); break;
+                    case 'r': resultado.append('\r'); break;
+                    case 't': resultado.append('\t'); break;
+                    case 'u':
+                        if (posicion + 4 > texto.length()) {
+                            throw new IllegalArgumentException("Escape unicode incompleto.");
+                        }
+                        resultado.append((char) Integer.parseInt(texto.substring(posicion, posicion + 4), 16));
+                        posicion += 4;
+                        break;
+                    default: resultado.append(escape);
+                }
+            }
+            throw new IllegalArgumentException("Cadena sin cerrar.");
+        }
+
+        private void esperar(char esperado) {
+            if (siguiente() != esperado) {
+                throw new IllegalArgumentException("Se esperaba '" + esperado + "' en la posición " + posicion + ".");
+            }
+            posicion++;
+        }
+
+        /**
+         * Omite los espacios y devuelve el próximo carácter sin consumirlo, o 0 al final del texto.
+         */
+        private char siguiente() {
+            while (posicion < texto.length() && Character.isWhitespace(texto.charAt(posicion))) {
+                posicion++;
+            }
+            return posicion < texto.length() ? texto.charAt(posicion) : 0;
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package com.JuanAlejoP.biblioteca.importer;
+
+import com.JuanAlejoP.biblioteca.manager.GestorRecursos;
+import com.JuanAlejoP.biblioteca.manager.GestorUsuarios;
+import com.JuanAlejoP.biblioteca.model.CategoriaRecurso;
+import com.JuanAlejoP.biblioteca.model.EstadoRecurso;
+import com.JuanAlejoP.biblioteca.model.FabricaRecursos;
+import com.JuanAlejoP.biblioteca.model.RecursoDigital;
+import com.JuanAlejoP.biblioteca.model.Usuario;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Importador masivo de recursos y usuarios desde archivos CSV o JSON Lines.
+ * <p>
+ * El archivo se lee secuencialmente en bloques de líneas; cada bloque se analiza en paralelo
+ * en un {@link ForkJoinPool} y sus filas válidas se insertan en lote en el gestor correspondiente.
+ * La cantidad de bloques en vuelo está acotada, de modo que la memoria utilizada no depende
+ * del tamaño del archivo. Las filas inválidas se cuentan y se informan sin interrumpir la importación.
+ * </p>
+ * <p>
+ * Columnas de recursos: {@code id}, {@code tipo} ({@code Libro}, {@code Revista} o {@code Audiolibro}),
+ * {@code titulo}, {@code estado} (por defecto {@code DISPONIBLE}) y {@code categoria} (por defecto
+ * {@code OTRO}). Columnas de usuarios: {@code id}, {@code nombre}, {@code email} y {@code telefono}.
+ * Como los bloques se insertan en paralelo, si un mismo ID aparece en bloques distintos no está
+ * definido cuál de las filas prevalece.
+ * </p>
+ */
+public class ImportadorMasivo {
+    /**
+     * Cantidad de líneas por bloque utilizada si no se indica otra.
+     */
+    public static final int TAMANIO_LOTE_PREDETERMINADO = 5_000;
+
+    /**
+     * Columnas leídas de los archivos de recursos; la primera es obligatoria en el encabezado CSV.
+     */
+    private static final String[] COLUMNAS_RECURSOS = {"id", "tipo", "titulo", "estado", "categoria"};
+
+    /**
+     * Columnas leídas de los archivos de usuarios; la primera es obligatoria en el encabezado CSV.
+     */
+    private static final String[] COLUMNAS_USUARIOS = {"id", "nombre", "email", "telefono"};
+
+    /**
+     * Cantidad máxima de rechazos cuya descripción se conserva en el resultado.
+     */
+    private static final int MAXIMO_ERRORES = 20;
+
+    /**
+     * Gestor donde se insertan los recursos importados.
+     */
+    private final GestorRecursos gestorRecursos;
+
+    /**
+     * Gestor donde se insertan los usuarios importados.
+     */
+    private final GestorUsuarios gestorUsuarios;
+
+    /**
+     * Pool donde se analizan e insertan los bloques.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Cantidad de líneas por bloque.
+     */
+    private final int tamanioLote;
+
+    /**
+     * Construye un importador que usa el pool común y el tamaño de bloque predeterminado.
+     *
+     * @param gestorRecursos gestor donde se insertan los recursos
+     * @param gestorUsuarios gestor donde se insertan los usuarios
+     */
+    public ImportadorMasivo(GestorRecursos gestorRecursos, GestorUsuarios gestorUsuarios) {
+        this(gestorRecursos, gestorUsuarios, ForkJoinPool.commonPool(), TAMANIO_LOTE_PREDETERMINADO);
+    }
+
+    /**
+     * Construye un importador con el pool y el tamaño de bloque indicados.
+     *
+     * @param gestorRecursos gestor donde se insertan los recursos
+     * @param gestorUsuarios gestor donde se insertan los usuarios
+     * @param pool           pool donde se analizan e insertan los bloques
+     * @param tamanioLote    cantidad de líneas por bloque
+     * @throws IllegalArgumentException si el tamaño de bloque no es positivo
+     */
+    public ImportadorMasivo(GestorRecursos gestorRecursos, GestorUsuarios gestorUsuarios,
+                            ForkJoinPool pool, int tamanioLote) {
+        if (tamanioLote <= 0) {
+            throw new IllegalArgumentException("El tamaño de bloque debe ser positivo.");
+        }
+        this.gestorRecursos = gestorRecursos;
+        this.gestorUsuarios = gestorUsuarios;
+        this.pool = pool;
+        this.tamanioLote = tamanioLote;
+    }
+
+    /**
+     * Importa recursos desde un archivo {@code .csv} o {@code .jsonl}.
+     *
+     * @param archivo archivo a importar
+     * @return resumen de la importación
+     * @throws IOException              si no se puede leer el archivo o falla la inserción
+     * @throws IllegalArgumentException si el formato del archivo no es soportado
+     */
+    public ResultadoImportacion importarRecursos(Path archivo) throws IOException {
+        return importar(archivo, COLUMNAS_RECURSOS, ImportadorMasivo::crearRecurso, gestorRecursos::addNewResources);
+    }
+
+    /**
+     * Importa usuarios desde un archivo {@code .csv} o {@code .jsonl}.
+     *
+     * @param archivo archivo a importar
+     * @return resumen de la importación
+     * @throws IOException              si no se puede leer el archivo o falla la inserción
+     * @throws IllegalArgumentException si el formato del archivo no es soportado
+     */
+    public ResultadoImportacion importarUsuarios(Path archivo) throws IOException {
+        return importar(archivo, COLUMNAS_USUARIOS, ImportadorMasivo::crearUsuario, gestorUsuarios::addNewUsers);
+    }
+
+    /**
+     * Lee el archivo en bloques y envía cada bloque al pool, esperando al final a que terminen todos.
+     *
+     * @param archivo     archivo a importar
+     * @param columnas    columnas a leer de cada fila
+     * @param constructor conversión de los valores de una fila al objeto a insertar
+     * @param insercion   inserción en lote de los objetos de un bloque
+     * @param <T>         tipo de objeto importado
+     * @return resumen de la importación
+     * @throws IOException si no se puede leer el archivo o falla la inserción
+     */
+    private <T> ResultadoImportacion importar(Path archivo, String[] columnas, Function<String[], T> constructor,
+                                              Consumer<List<T>> insercion) throws IOException {
+        long inicio = System.nanoTime();
+        int maximoEnVuelo = Math.max(2, pool.getParallelism() * 2);
+        Semaphore permisos = new Semaphore(maximoEnVuelo);
+        Progreso progreso = new Progreso();
+        try (BufferedReader lector = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+            String primera = lector.readLine();
+            if (primera != null) {
+                if (!primera.isEmpty() && primera.charAt(0) == '\uFEFF') {
+                    primera = primera.substring(1);
+                }
+                AnalizadorFilas analizador = AnalizadorFilas.para(archivo, primera, columnas);
+                List<String> lote = new ArrayList<>(tamanioLote);
+                long numeroLinea = 1;
+                long primeraDelLote = 1;
+                if (!analizador.tieneEncabezado()) {
+                    lote.add(primera);
+                }
+                String linea;
+                while (progreso.fallo.get() == null && (linea = lector.readLine()) != null) {
+                    numeroLinea++;
+                    if (lote.isEmpty()) {
+                        primeraDelLote = numeroLinea;
+                    }
+                    lote.add(linea);
+                    if (lote.size() == tamanioLote) {
+                        enviar(lote, primeraDelLote, analizador, constructor, insercion, permisos, progreso);
+                        lote = new ArrayList<>(tamanioLote);
+                    }
+                }
+                if (!lote.isEmpty() && progreso.fallo.get() == null) {
+                    enviar(lote, primeraDelLote, analizador, constructor, insercion, permisos, progreso);
+                }
+            }
+        } finally {
+            permisos.acquireUninterruptibly(maximoEnVuelo);
+        }
+        RuntimeException fallo = progreso.fallo.get();
+        if (fallo != null) {
+            throw new IOException("La importación se interrumpió: " + fallo.getMessage(), fallo);
+        }
+        return new ResultadoImportacion(progreso.importadas.sum(), progreso.rechazadas.sum(),
+                Duration.ofNanos(System.nanoTime() - inicio), new ArrayList<>(progreso.errores));
+    }
+
+    /**
+     * Envía un bloque al pool, esperando antes un lugar si ya hay demasiados bloques en vuelo.
+     */
+    private <T> void enviar(List<String> lote, long primeraLinea, AnalizadorFilas analizador,
+                            Function<String[], T> constructor, Consumer<List<T>> insercion,
+                            Semaphore permisos, Progreso progreso) throws InterruptedIOException {
+        try {
+            permisos.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Importación interrumpida.");
+        }
+        pool.execute(() -> {
+            try {
+                procesar(lote, primeraLinea, analizador, constructor, insercion, progreso);
+            } catch (RuntimeException e) {
+                progreso.fallo.compareAndSet(null, e);
+            } finally {
+                permisos.release();
+            }
+        });
+    }
+
+    /**
+     * Analiza las líneas de un bloque, descartando las inválidas, e inserta las válidas en un solo lote.
+     */
+    private static <T> void procesar(List<String> lote, long primeraLinea, AnalizadorFilas analizador,
+                                     Function<String[], T> constructor, Consumer<List<T>> insercion,
+                                     Progreso progreso) {
+        List<T> objetos = new ArrayList<>(lote.size());
+        for (int i = 0; i < lote.size(); i++) {
+            String linea = lote.get(i);
+            if (linea.isBlank()) {
+                continue;
+            }
+            try {
+                objetos.add(constructor.apply(analizador.analizar(linea)));
+            } catch (IllegalArgumentException e) {
+                progreso.rechazar(primeraLinea + i, e.getMessage());
+            }
+        }
+        insercion.accept(objetos);
+        progreso.importadas.add(objetos.size());
+    }
+
+    /**
+     * Crea un recurso a partir de los valores de una fila.
+     *
+     * @param valores valores en el orden de {@link #COLUMNAS_RECURSOS}
+     * @return recurso creado
+     * @throws IllegalArgumentException si falta un valor obligatorio o algún valor es inválido
+     */
+    private static RecursoDigital crearRecurso(String[] valores) {
+        String id = obligatorio(valores[0], "id");
+        String tipo = obligatorio(valores[1], "tipo");
+        String titulo = obligatorio(valores[2], "titulo");
+        EstadoRecurso estado = valores[3] == null ? EstadoRecurso.DISPONIBLE
+                : EstadoRecurso.valueOf(valores[3].toUpperCase(Locale.ROOT));
+        CategoriaRecurso categoria = valores[4] == null ? CategoriaRecurso.OTRO
+                : CategoriaRecurso.valueOf(valores[4].toUpperCase(Locale.ROOT));
+        return FabricaRecursos.crear(tipo, id, titulo, estado, categoria);
+    }
+
+    /**
+     * Crea un usuario a partir de los valores de una fila.
+     *
+     * @param valores valores en el orden de {@link #COLUMNAS_USUARIOS}
+     * @return usuario creado
+     * @throws IllegalArgumentException si falta el ID o el nombre
+     */
+    private static Usuario crearUsuario(String[] valores) {
+        return new Usuario(obligatorio(valores[1], "nombre"), obligatorio(valores[0], "id"), valores[2], valores[3]);
+    }
+
+    /**
+     * Verifica que un valor obligatorio esté presente.
+     *
+     * @param valor   valor leído
+     * @param columna nombre de la columna, para el mensaje de error
+     * @return el mismo valor
+     * @throws IllegalArgumentException si el valor falta
+     */
+    private static String obligatorio(String valor, String columna) {
+        if (valor == null) {
+            throw new IllegalArgumentException("Falta el valor de la columna " + columna + ".");
+        }
+        return valor;
+    }
+
+    /**
+     * Contadores y errores compartidos por los bloques de una importación.
+     */
+    private static final class Progreso {
+        private final LongAdder importadas = new LongAdder();
+        private final LongAdder rechazadas = new LongAdder();
+        private final Queue<String> errores = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger cantidadErrores = new AtomicInteger();
+        private final AtomicReference<RuntimeException> fallo = new AtomicReference<>();
+
+        void rechazar(long linea, String motivo) {
+            rechazadas.increment();
+            if (cantidadErrores.getAndIncrement() < MAXIMO_ERRORES) {
+                errores.add("Línea " + linea + ": " + motivo);
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.JuanAlejoP.biblioteca.importer;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resumen de una importación masiva: filas importadas y rechazadas, duración y rendimiento.
+ */
+public class ResultadoImportacion {
+    /**
+     * Cantidad de filas importadas.
+     */
+    private final long importadas;
+
+    /**
+     * Cantidad de filas rechazadas por estar mal formadas o tener valores inválidos.
+     */
+    private final long rechazadas;
+
+    /**
+     * Tiempo total de la importación.
+     */
+    private final Duration duracion;
+
+    /**
+     * Descripción de los primeros rechazos, con su número de línea.
+     */
+    private final List<String> errores;
+
+    /**
+     * Construye el resumen de una importación.
+     *
+     * @param importadas cantidad de filas importadas
+     * @param rechazadas cantidad de filas rechazadas
+     * @param duracion   tiempo total de la importación
+     * @param errores    descripción de los primeros rechazos
+     */
+    public ResultadoImportacion(long importadas, long rechazadas, Duration duracion, List<String> errores) {
+        this.importadas = importadas;
+        this.rechazadas = rechazadas;
+        this.duracion = duracion;
+        this.errores = Collections.unmodifiableList(errores);
+    }
+
+    /**
+     * Obtiene la cantidad de filas importadas.
+     *
+     * @return filas importadas
+     */
+    public long getImportadas() {
+        return importadas;
+    }
+
+    /**
+     * Obtiene la cantidad de filas rechazadas.
+     *
+     * @return filas rechazadas
+     */
+    public long getRechazadas() {
+        return rechazadas;
+    }
+
+    /**
+     * Obtiene el tiempo total de la importación.
+     *
+     * @return duración de la importación
+     */
+    public Duration getDuracion() {
+        return duracion;
+    }
+
+    /**
+     * Obtiene la descripción de los primeros rechazos.
+     *
+     * @return lista no modificable de errores
+     */
+    public List<String> getErrores() {
+        return errores;
+    }
+
+    /**
+     * Calcula el rendimiento de la importación, contando filas importadas y rechazadas.
+     *
+     * @return filas procesadas por segundo
+     */
+    public double getFilasPorSegundo() {
+        double segundos = duracion.toNanos() / 1_000_000_000.0;
+        return segundos > 0 ? (importadas + rechazadas) / segundos : 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d filas importadas, %d rechazadas en %d ms (%.0f filas/s)",
+                importadas, rechazadas, duracion.toMillis(), getFilasPorSegundo());
+    }
+}
@@ -0,0 +1,88 @@
+package com.JuanAlejoP.biblioteca.manager;
+
+import com.JuanAlejoP.biblioteca.model.RecursoDigital;
+import com.JuanAlejoP.biblioteca.model.Reserva;
+import com.JuanAlejoP.biblioteca.persistence.InstantaneaBiblioteca;
+
+import java.util.Queue;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Tarea de fork-join que calcula las {@link EstadisticasCatalogo} de un rango de códigos de recurso.
+ * <p>
+ * El rango se divide por mitades hasta llegar a tramos del tamaño de un bloque de las tablas densas;
+ * cada tramo se recorre de forma secuencial sobre su propio acumulador y los resultados se combinan
+ * al unir las subtareas. Los recursos y sus colas de reservas se leen en la misma pasada. Los
+ * recursos de la instantánea del catálogo que aún no se decodificaron se cuentan con el estado y la
+ * categoría guardados en ella, sin decodificarlos.
+ * </p>
+ */
+@SuppressWarnings("serial") // Las tareas nunca se serializan, como las del propio fork-join del JDK
+class AgregacionCatalogo extends RecursiveTask<EstadisticasCatalogo> {
+    /**
+     * Cantidad máxima de códigos que una tarea recorre sin dividirse.
+     */
+    private static final int TRAMO = 4096;
+
+    /**
+     * Recursos indexados por código.
+     */
+    private final TablaDensa<RecursoDigital> recursos;
+
+    /**
+     * Colas de reservas indexadas por código de recurso.
+     */
+    private final TablaDensa<Queue<Reserva>> reservas;
+
+    /**
+     * Instantánea cuyas posiciones son los primeros códigos del catálogo, o {@code null} si no hay.
+     */
+    private final InstantaneaBiblioteca instantanea;
+
+    /**
+     * Primer código del rango, inclusive, y último, exclusive.
+     */
+    private final int desde;
+    private final int hasta;
+
+    /**
+     * Construye la tarea de un rango de códigos.
+     *
+     * @param recursos recursos indexados por código
+     * @param reservas    colas de reservas indexadas por código de recurso
+     * @param instantanea instantánea de los recursos aún no decodificados, o {@code null}
+     * @param desde       primer código, inclusive
+     * @param hasta       último código, exclusive
+     */
+    AgregacionCatalogo(TablaDensa<RecursoDigital> recursos, TablaDensa<Queue<Reserva>> reservas,
+                       InstantaneaBiblioteca instantanea, int desde, int hasta) {
+        this.recursos = recursos;
+        this.reservas = reservas;
+        this.instantanea = instantanea;
+        this.desde = desde;
+        this.hasta = hasta;
+    }
+
+    @Override
+    protected EstadisticasCatalogo compute() {
+        if (hasta - desde <= TRAMO) {
+            EstadisticasCatalogo estadisticas = new EstadisticasCatalogo();
+            for (int codigo = desde; codigo < hasta; codigo++) {
+                RecursoDigital recurso = recursos.get(codigo);
+                if (recurso != null) {
+                    estadisticas.acumular(recurso, reservas.get(codigo));
+                } else if (instantanea != null && codigo < instantanea.getCantidadRecursos()) {
+                    // Un recurso sin decodificar nunca tuvo reservas, que requieren la instancia
+                    estadisticas.acumular(instantanea.estadoRecurso(codigo), instantanea.categoriaRecurso(codigo));
+                }
+            }
+            return estadisticas;
+        }
+        // La mitad se alinea a un tramo para que cada hoja recorra un único bloque de las tablas
+        int mitad = desde + ((hasta - desde) / 2 + TRAMO - 1) / TRAMO * TRAMO;
+        AgregacionCatalogo derecha = new AgregacionCatalogo(recursos, reservas, instantanea, mitad, hasta);
+        derecha.fork();
+        EstadisticasCatalogo izquierda = new AgregacionCatalogo(recursos, reservas, instantanea, desde, mitad).compute();
+        return izquierda.combinar(derecha.join());
+    }
+}
@@ -0,0 +1,245 @@
+package com.JuanAlejoP.biblioteca.manager;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Conjunto concurrente de códigos enteros densos, representado como mapa de bits.
+ * <p>
+ * Agregar, quitar y consultar un código son operaciones atómicas sobre una palabra de 64 bits;
+ * el mapa crece por bloques que nunca se mueven. Agregar un código presente o quitar uno ausente
+ * no escribe en memoria. Se usa en lugar de conjuntos concurrentes de cadenas para los índices
+ * cuyos elementos son recursos.
+ * </p>
+ */
+class ConjuntoDenso {
+    /**
+     * Acceso con semántica de memoria a las palabras de los bloques.
+     */
+    private static final VarHandle PALABRAS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    /**
+     * Cantidad de bits del índice de palabra dentro de un bloque.
+     */
+    private static final int BITS_BLOQUE = 10;
+
+    /**
+     * Bloques de palabras; un bloque {@code null} no contiene códigos.
+     */
+    private volatile long[][] bloques = new long[1][];
+
+    /**
+     * Cantidad de códigos del conjunto.
+     */
+    private final AtomicInteger cantidad = new AtomicInteger();
+
+    /**
+     * Agrega un código al conjunto.
+     *
+     * @param codigo código a agregar
+     * @return {@code true} si no estaba en el conjunto
+     */
+    boolean agregar(int codigo) {
+        int palabra = codigo >>> 6;
+        long bit = 1L << codigo;
+        long[] bloque = bloque(palabra);
+        int indice = palabra & ((1 << BITS_BLOQUE) - 1);
+        long anterior;
+        do {
+            anterior = (long) PALABRAS.getVolatile(bloque, indice);
+            if ((anterior & bit) != 0) {
+                return false;
+            }
+        } while (!PALABRAS.compareAndSet(bloque, indice, anterior, anterior | bit));
+        cantidad.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Quita un código del conjunto.
+     *
+     * @param codigo código a quitar
+     * @return {@code true} si estaba en el conjunto
+     */
+    boolean quitar(int codigo) {
+        int palabra = codigo >>> 6;
+        long[] bloque = bloqueExistente(palabra);
+        if (bloque == null) {
+            return false;
+        }
+        long bit = 1L << codigo;
+        int indice = palabra & ((1 << BITS_BLOQUE) - 1);
+        long anterior;
+        do {
+            anterior = (long) PALABRAS.getVolatile(bloque, indice);
+            if ((anterior & bit) == 0) {
+                return false;
+            }
+        } while (!PALABRAS.compareAndSet(bloque, indice, anterior, anterior & ~bit));
+        cantidad.decrementAndGet();
+        return true;
+    }
+
+    /**
+     * Carga en un conjunto recién creado los códigos de un mapa de bits, en palabras de 64 bits donde
+     * el bit {@code c % 64} de la palabra {@code c / 64} corresponde al código {@code c}. Copia las
+     * palabras por bloques, sin agregar los códigos de a uno.
+     *
+     * @param palabras mapa de bits de los códigos
+     */
+    void cargar(long[] palabras) {
+        int tamanioBloque = 1 << BITS_BLOQUE;
+        long[][] cargados = new long[Math.max(1, (palabras.length + tamanioBloque - 1) >>> BITS_BLOQUE)][];
+        int total = 0;
+        for (int inicio = 0; inicio < palabras.length; inicio += tamanioBloque) {
+            long[] bloque = new long[tamanioBloque];
+            System.arraycopy(palabras, inicio, bloque, 0, Math.min(tamanioBloque, palabras.length - inicio));
+            for (long palabra : bloque) {
+                total += Long.bitCount(palabra);
+            }
+            cargados[inicio >>> BITS_BLOQUE] = bloque;
+        }
+        synchronized (this) {
+            bloques = cargados;
+            cantidad.set(total);
+        }
+    }
+
+    /**
+     * Indica si un código pertenece al conjunto.
+     *
+     * @param codigo código a consultar; un código negativo nunca pertenece
+     * @return {@code true} si pertenece
+     */
+    boolean contiene(int codigo) {
+        if (codigo < 0) {
+            return false;
+        }
+        int palabra = codigo >>> 6;
+        long[] bloque = bloqueExistente(palabra);
+        return bloque != null
+                && ((long) PALABRAS.getVolatile(bloque, palabra & ((1 << BITS_BLOQUE) - 1)) & (1L << codigo)) != 0;
+    }
+
+    /**
+     * Obtiene la cantidad de códigos del conjunto.
+     *
+     * @return cantidad de códigos
+     */
+    int cantidad() {
+        return cantidad.get();
+    }
+
+    /**
+     * Busca el menor código del conjunto mayor o igual al indicado.
+     *
+     * @param desde código inicial
+     * @return código encontrado, o {@code -1} si no hay más
+     */
+    int siguiente(int desde) {
+        long[][] actuales = bloques;
+        int palabra = desde >>> 6;
+        long mascara = -1L << desde;
+        while ((palabra >>> BITS_BLOQUE) < actuales.length) {
+            long[] bloque = actuales[palabra >>> BITS_BLOQUE];
+            if (bloque == null) {
+                palabra = ((palabra >>> BITS_BLOQUE) + 1) << BITS_BLOQUE;
+                mascara = -1L;
+                continue;
+            }
+            long valor = (long) PALABRAS.getVolatile(bloque, palabra & ((1 << BITS_BLOQUE) - 1)) & mascara;
+            if (valor != 0) {
+                return (palabra << 6) + Long.numberOfTrailingZeros(valor);
+            }
+            palabra++;
+            mascara = -1L;
+        }
+        return -1;
+    }
+
+    /**
+     * Obtiene una vista de sólo lectura del conjunto como identificadores de texto, en orden de código.
+     * Su recorrido es débilmente consistente: no falla ante cambios simultáneos.
+     *
+     * @param ids diccionario con el que se decodifican los códigos
+     * @return conjunto de identificadores
+     */
+    Set<String> comoIds(DiccionarioIds ids) {
+        return new AbstractSet<String>() {
+            @Override
+            public Iterator<String> iterator() {
+                return new Iterator<String>() {
+                    private int actual = ConjuntoDenso.this.siguiente(0);
+
+                    @Override
+                    public boolean hasNext() {
+                        return actual >= 0;
+                    }
+
+                    @Override
+                    public String next() {
+                        if (actual < 0) {
+                            throw new NoSuchElementException();
+                        }
+                        String id = ids.id(actual);
+                        actual = ConjuntoDenso.this.siguiente(actual + 1);
+                        return id;
+                    }
+                };
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof String && contiene(ids.codigo((String) o));
+            }
+
+            @Override
+            public int size() {
+                return cantidad.get();
+            }
+        };
+    }
+
+    /**
+     * Obtiene el bloque de una palabra si ya existe.
+     *
+     * @param palabra índice de la palabra
+     * @return bloque, o {@code null} si no existe
+     */
+    private long[] bloqueExistente(int palabra) {
+        long[][] actuales = bloques;
+        int indice = palabra >>> BITS_BLOQUE;
+        return indice < actuales.length ? actuales[indice] : null;
+    }
+
+    /**
+     * Obtiene el bloque de una palabra, creándolo si aún no existe.
+     *
+     * @param palabra índice de la palabra
+     * @return bloque de la palabra
+     */
+    private long[] bloque(int palabra) {
+        long[] bloque = bloqueExistente(palabra);
+        if (bloque != null) {
+            return bloque;
+        }
+        synchronized (this) {
+            long[][] actuales = bloques;
+            int indice = palabra >>> BITS_BLOQUE;
+            if (indice >= actuales.length) {
+                actuales = Arrays.copyOf(actuales, Math.max(indice + 1, actuales.length * 2));
+            }
+            if (actuales[indice] == null) {
+                actuales[indice] = new long[1 << BITS_BLOQUE];
+            }
+            bloques = actuales;
+            return actuales[indice];
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package com.JuanAlejoP.biblioteca.manager;
+
+import com.JuanAlejoP.biblioteca.persistence.InstantaneaBiblioteca;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * Diccionario que asigna a cada identificador de texto un código entero denso, a partir de cero,
+ * en el orden en que se registran.
+ * <p>
+ * Permite que las estructuras internas de los gestores se indexen por posición en arreglos en
+ * lugar de por cadenas: cada operación pública resuelve su ID una sola vez y el resto del trabajo
+ * usa el código. Los códigos nunca se reasignan ni se liberan.
+ * </p>
+ * <p>
+ * La tabla es de direccionamiento abierto con sondeo lineal, sin nodos ni enteros encapsulados
+ * por entrada. Cada posición empaqueta en un {@code long} el hash de la clave y su código, de modo
+ * que el sondeo sólo compara la cadena de las posiciones cuyo hash coincide y el código se obtiene
+ * de la misma lectura. Las búsquedas no toman cerrojos: la clave de cada entrada se escribe antes
+ * que la posición empaquetada y ésta se publica con semántica de liberación, y al crecer se publica
+ * una tabla nueva ya completa. Sólo los registros nuevos se sincronizan.
+ * </p>
+ * <p>
+ * Un diccionario puede partir de los recursos de una instantánea, ordenados por ID: sus códigos son
+ * las posiciones de la instantánea y los IDs nuevos reciben códigos a continuación. Los IDs de la
+ * instantánea no se cargan al crearlo, sino que se buscan en el archivo mapeado la primera vez que se
+ * consultan y desde entonces se resuelven en la tabla.
+ * </p>
+ */
+public class DiccionarioIds {
+    /**
+     * Acceso con semántica de memoria a las posiciones empaquetadas de la tabla.
+     */
+    private static final VarHandle ENTRADAS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    /**
+     * Cantidad de bits del índice dentro de un bloque de la tabla inversa.
+     */
+    private static final int BITS_BLOQUE = 12;
+
+    /**
+     * Tabla de búsqueda vigente.
+     */
+    private volatile Tabla tabla = new Tabla(16);
+
+    /**
+     * Bloques de la tabla inversa, de código a identificador.
+     */
+    private volatile String[][] porCodigo;
+
+    /**
+     * Cantidad de identificadores registrados.
+     */
+    private volatile int cantidad;
+
+    /**
+     * Cantidad de identificadores presentes en la tabla de búsqueda.
+     */
+    private int enTabla;
+
+    /**
+     * Instantánea cuyos recursos ocupan los primeros códigos, o {@code null} si el diccionario parte vacío.
+     */
+    private final InstantaneaBiblioteca instantanea;
+
+    /**
+     * Cantidad de códigos reservados para los recursos de la instantánea.
+     */
+    private final int cantidadInstantanea;
+
+    /**
+     * Construye un diccionario vacío.
+     */
+    public DiccionarioIds() {
+        this(null);
+    }
+
+    /**
+     * Construye un diccionario que asigna a los recursos de una instantánea con índices sus
+     * posiciones como códigos, sin leerlos.
+     *
+     * @param instantanea instantánea con los recursos ordenados por ID, o {@code null} para partir vacío
+     */
+    DiccionarioIds(InstantaneaBiblioteca instantanea) {
+        this.instantanea = instantanea;
+        this.cantidadInstantanea = instantanea != null ? instantanea.getCantidadRecursos() : 0;
+        this.cantidad = cantidadInstantanea;
+        this.porCodigo = new String[Math.max(1, (cantidadInstantanea >>> BITS_BLOQUE) + 1)][];
+    }
+
+    /**
+     * Obtiene el código de un identificador, registrándolo si es nuevo.
+     *
+     * @param id identificador a registrar
+     * @return código del identificador
+     */
+    public int registrar(String id) {
+        int codigo = codigo(id);
+        if (codigo >= 0) {
+            return codigo;
+        }
+        synchronized (this) {
+            Tabla actual = tabla;
+            int posicion = actual.buscar(id);
+            if (posicion >= 0) {
+                return actual.codigo(posicion);
+            }
+            codigo = cantidad;
+            insertar(id, codigo);
+            cantidad = codigo + 1;
+            return codigo;
+        }
+    }
+
+    /**
+     * Busca el código de un identificador sin registrarlo.
+     *
+     * @param id identificador buscado
+     * @return código del identificador, o {@code -1} si no está registrado
+     */
+    public int codigo(String id) {
+        Tabla actual = tabla;
+        int posicion = actual.buscar(id);
+        if (posicion >= 0) {
+            return actual.codigo(posicion);
+        }
+        int codigo = instantanea != null ? instantanea.buscarRecurso(id) : -1;
+        if (codigo >= 0) {
+            memorizar(id, codigo);
+        }
+        return codigo;
+    }
+
+    /**
+     * Obtiene el identificador de un código.
+     *
+     * @param codigo código obtenido de {@link #registrar(String)}
+     * @return identificador registrado con ese código
+     */
+    public String id(int codigo) {
+        String[] bloque = porCodigo[codigo >>> BITS_BLOQUE];
+        String id = bloque != null ? bloque[codigo & ((1 << BITS_BLOQUE) - 1)] : null;
+        return id != null || codigo >= cantidadInstantanea ? id : instantanea.idRecurso(codigo);
+    }
+
+    /**
+     * Obtiene la cantidad de identificadores registrados, que es también el límite de los códigos.
+     *
+     * @return cantidad de identificadores
+     */
+    public int tamanio() {
+        return cantidad;
+    }
+
+    /**
+     * Incorpora a la tabla un identificador de la instantánea encontrado en el archivo, para que las
+     * búsquedas siguientes no vuelvan a recorrerlo.
+     *
+     * @param id     identificador de la instantánea
+     * @param codigo posición del identificador en la instantánea
+     */
+    private synchronized void memorizar(String id, int codigo) {
+        if (tabla.buscar(id) < 0) {
+            insertar(id, codigo);
+        }
+    }
+
+    /**
+     * Inserta un identificador en la tabla inversa y en la de búsqueda, duplicando ésta si hace falta.
+     * Debe invocarse con el monitor del diccionario tomado y con un identificador ausente de la tabla.
+     *
+     * @param id     identificador
+     * @param codigo código del identificador
+     */
+    private void insertar(String id, int codigo) {
+        int bloque = codigo >>> BITS_BLOQUE;
+        String[][] bloques = porCodigo;
+        if (bloque >= bloques.length) {
+            bloques = Arrays.copyOf(bloques, Math.max(bloque + 1, bloques.length * 2));
+        }
+        if (bloques[bloque] == null) {
+            bloques[bloque] = new String[1 << BITS_BLOQUE];
+        }
+        bloques[bloque][codigo & ((1 << BITS_BLOQUE) - 1)] = id;
+        porCodigo = bloques;
+        Tabla actual = tabla;
+        if ((enTabla + 1) * 2 > actual.claves.length) {
+            actual = actual.duplicar();
+            actual.insertar(id, codigo);
+            tabla = actual;
+        } else {
+            actual.insertar(id, codigo);
+        }
+        enTabla++;
+    }
+
+    /**
+     * Tabla de direccionamiento abierto de identificadores a códigos.
+     */
+    private static final class Tabla {
+        /**
+         * Posiciones empaquetadas: hash de la clave en los 32 bits altos y código más uno en los
+         * bajos; {@code 0} indica una posición libre.
+         */
+        private final long[] entradas;
+        private final String[] claves;
+        private final int mascara;
+
+        Tabla(int capacidad) {
+            this.entradas = new long[capacidad];
+            this.claves = new String[capacidad];
+            this.mascara = capacidad - 1;
+        }
+
+        /**
+         * Busca la posición de un identificador.
+         *
+         * @param id identificador buscado
+         * @return posición en la tabla, o {@code -1} si no está
+         */
+        int buscar(String id) {
+            int hash = id.hashCode();
+            for (int i = mezclar(hash) & mascara; ; i = (i + 1) & mascara) {
+                long entrada = (long) ENTRADAS.getAcquire(entradas, i);
+                if (entrada == 0) {
+                    return -1;
+                }
+                if ((int) (entrada >>> 32) == hash && claves[i].equals(id)) {
+                    return i;
+                }
+            }
+        }
+
+        /**
+         * Obtiene el código de una posición ocupada.
+         *
+         * @param posicion posición devuelta por {@link #buscar(String)}
+         * @return código de la posición
+         */
+        int codigo(int posicion) {
+            return (int) entradas[posicion] - 1;
+        }
+
+        /**
+         * Inserta un identificador nuevo; la clave se escribe antes de publicar la posición.
+         *
+         * @param id     identificador
+         * @param codigo código asignado
+         */
+        void insertar(String id, int codigo) {
+            int hash = id.hashCode();
+            int i = mezclar(hash) & mascara;
+            while (entradas[i] != 0) {
+                i = (i + 1) & mascara;
+            }
+            claves[i] = id;
+            ENTRADAS.setRelease(entradas, i, ((long) hash << 32) | (codigo + 1L));
+        }
+
+        /**
+         * Construye una tabla del doble de capacidad con las mismas entradas.
+         *
+         * @return tabla nueva, aún no publicada
+         */
+        Tabla duplicar() {
+            Tabla nueva = new Tabla(claves.length * 2);
+            for (int i = 0; i < claves.length; i++) {
+                if (claves[i] != null) {
+                    nueva.insertar(claves[i], codigo(i));
+                }
+            }
+            return nueva;
+        }
+
+        /**
+         * Dispersa los bits altos del hash para que el sondeo lineal no agrupe claves similares.
+         *
+         * @param hash hash del identificador
+         * @return hash mezclado
+         */
+        private static int mezclar(int hash) {
+            int h = hash * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.JuanAlejoP.biblioteca.manager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Época de mutaciones de un {@link GestorRecursos}: intervalo entre dos lecturas de versión durante
+ * el cual toda mutación que comienza se asigna a la misma época.
+ * <p>
+ * Lleva la cuenta exacta de las mutaciones de la época que aún no terminaron, de modo que quien la
+ * cierra puede esperar a que terminen sin impedir que comiencen mutaciones en la época siguiente.
+ * </p>
+ */
+final class Epoca {
+    /**
+     * Número de la época, creciente.
+     */
+    private final long numero;
+
+    /**
+     * Cantidad de mutaciones de la época en curso. Se usa un contador atómico y no uno distribuido
+     * porque la suma de un contador distribuido puede ser nula de forma transitoria con mutaciones
+     * en curso.
+     */
+    private final AtomicLong enCurso = new AtomicLong();
+
+    /**
+     * Construye una época sin mutaciones.
+     *
+     * @param numero número de la época
+     */
+    Epoca(long numero) {
+        this.numero = numero;
+    }
+
+    /**
+     * Obtiene el número de la época.
+     *
+     * @return número de la época
+     */
+    long getNumero() {
+        return numero;
+    }
+
+    /**
+     * Registra el comienzo de una mutación en la época.
+     */
+    void entrar() {
+        enCurso.incrementAndGet();
+    }
+
+    /**
+     * Registra el fin de una mutación de la época.
+     */
+    void salir() {
+        enCurso.decrementAndGet();
+    }
+
+    /**
+     * Indica si todas las mutaciones registradas en la época terminaron.
+     *
+     * @return {@code true} si no hay mutaciones en curso
+     */
+    boolean sinMutaciones() {
+        return enCurso.get() == 0;
+    }
+}
@@ -0,0 +1,129 @@
+package com.JuanAlejoP.biblioteca.manager;
+
+import com.JuanAlejoP.biblioteca.model.CategoriaRecurso;
+import com.JuanAlejoP.biblioteca.model.EstadoRecurso;
+import com.JuanAlejoP.biblioteca.model.RecursoDigital;
+import com.JuanAlejoP.biblioteca.model.Reserva;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Estadísticas del catálogo calculadas en una sola pasada: cantidad de recursos por estado y por
+ * categoría y cantidad de reservas pendientes de cada recurso que tiene alguna.
+ * <p>
+ * Cada hilo de la pasada acumula sobre su propia instancia un tramo del catálogo y las instancias
+ * se combinan al unir los tramos, sin estado compartido entre hilos mientras se recorre.
+ * </p>
+ */
+public class EstadisticasCatalogo {
+    /**
+     * Cantidad de recursos en cada estado, indexada por ordinal.
+     */
+    private final long[] porEstado = new long[EstadoRecurso.values().length];
+
+    /**
+     * Cantidad de recursos de cada categoría, indexada por ordinal.
+     */
+    private final long[] porCategoria = new long[CategoriaRecurso.values().length];
+
+    /**
+     * Cantidad de reservas pendientes de cada recurso que tiene alguna.
+     */
+    private final Map<String, Integer> reservasPorRecurso = new HashMap<>();
+
+    /**
+     * Cantidad de recursos recorridos.
+     */
+    private long cantidadRecursos;
+
+    /**
+     * Acumula un recurso y su cola de reservas.
+     *
+     * @param recurso recurso recorrido
+     * @param cola    cola de reservas del recurso, o {@code null} si nunca tuvo reservas
+     */
+    void acumular(RecursoDigital recurso, Queue<Reserva> cola) {
+        cantidadRecursos++;
+        porEstado[recurso.getEstado().ordinal()]++;
+        porCategoria[recurso.getCategoria().ordinal()]++;
+        if (cola != null && !cola.isEmpty()) {
+            // El tamaño de la cola se calcula recorriéndola, por lo que se consulta una sola vez
+            int reservas = cola.size();
+            if (reservas > 0) {
+                reservasPorRecurso.put(recurso.getIdentificador(), reservas);
+            }
+        }
+    }
+
+    /**
+     * Acumula un recurso sin reservas del que sólo se conocen el estado y la categoría, como uno de
+     * una instantánea que aún no se decodificó.
+     *
+     * @param estado    estado del recurso
+     * @param categoria categoría del recurso
+     */
+    void acumular(EstadoRecurso estado, CategoriaRecurso categoria) {
+        cantidadRecursos++;
+        porEstado[estado.ordinal()]++;
+        porCategoria[categoria.ordinal()]++;
+    }
+
+    /**
+     * Incorpora las estadísticas de un tramo disjunto del catálogo.
+     *
+     * @param otras estadísticas a incorporar
+     * @return esta instancia, con ambas estadísticas combinadas
+     */
+    EstadisticasCatalogo combinar(EstadisticasCatalogo otras) {
+        cantidadRecursos += otras.cantidadRecursos;
+        for (int i = 0; i < porEstado.length; i++) {
+            porEstado[i] += otras.porEstado[i];
+        }
+        for (int i = 0; i < porCategoria.length; i++) {
+            porCategoria[i] += otras.porCategoria[i];
+        }
+        reservasPorRecurso.putAll(otras.reservasPorRecurso);
+        return this;
+    }
+
+    /**
+     * Obtiene la cantidad de recursos recorridos.
+     *
+     * @return cantidad de recursos
+     */
+    public long getCantidadRecursos() {
+        return cantidadRecursos;
+    }
+
+    /**
+     * Obtiene la cantidad de recursos en un estado.
+     *
+     * @param estado estado a consultar
+     * @return cantidad de recursos
+     */
+    public long contarPorEstado(EstadoRecurso estado) {
+        return porEstado[estado.ordinal()];
+    }
+
+    /**
+     * Obtiene la cantidad de recursos de una categoría.
+     *
+     * @param categoria categoría a consultar
+     * @return cantidad de recursos
+     */
+    public long contarPorCategoria(CategoriaRecurso categoria) {
+        return porCategoria[categoria.ordinal()];
+    }
+
+    /**
+     * Obtiene la cantidad de reservas pendientes de cada recurso que tiene alguna.
+     *
+     * @return mapa de sólo lectura de ID de recurso a cantidad de reservas, sin orden definido
+     */
+    public Map<String, Integer> getReservasPorRecurso() {
+        return Collections.unmodifiableMap(reservasPorRecurso);
+    }
+}
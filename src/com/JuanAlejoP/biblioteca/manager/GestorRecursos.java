@@ -3,53 +3,411 @@ package com.JuanAlejoP.biblioteca.manager;
 import com.JuanAlejoP.biblioteca.model.*;
 import com.JuanAlejoP.biblioteca.Prestable;
 import com.JuanAlejoP.biblioteca.Renovable;
+import com.JuanAlejoP.biblioteca.persistence.EntradaRegistro;
+import com.JuanAlejoP.biblioteca.persistence.InstantaneaBiblioteca;
+import com.JuanAlejoP.biblioteca.persistence.RegistroOperaciones;
+import com.JuanAlejoP.biblioteca.persistence.TipoOperacion;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Queue;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.ConcurrentMap;
-import java.util.stream.Collectors;
-import java.util.Comparator;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
 
 /**
  * GestorRecursos se encarga de administrar los recursos digitales de la biblioteca,
  * incluyendo operaciones de búsqueda, listado, préstamo, devolución, reserva y renovación.
+ * <p>
+ * Los IDs de recursos y usuarios se traducen a códigos enteros densos al registrarse. Cada
+ * operación pública resuelve su ID una sola vez y las estructuras internas se indexan por
+ * código en tablas de arreglos, sin hash de cadenas ni nodos de mapa por entrada; la API
+ * pública sigue recibiendo y devolviendo IDs de texto.
+ * </p>
+ * <p>
+ * Un gestor restaurado desde una instantánea con índices no carga su catálogo: los recursos de la
+ * instantánea conservan como código su posición en el archivo mapeado y se decodifican la primera vez
+ * que se consultan. Los contadores por estado y el índice de categorías se leen ya calculados de la
+ * instantánea, y el índice de títulos y las vistas ordenadas se construyen con la primera consulta que
+ * los necesita.
+ * </p>
  */
 public class GestorRecursos {
     /**
-     * Mapa concurrente de recursos digitales, indexado por su identificador único.
+     * Cantidad de cerrojos entre los que se reparten las altas de recursos.
      */
-    private ConcurrentMap<String, RecursoDigital> recursos;
+    private static final int CERROJOS_ALTA = 64;
 
     /**
-     * Mapa concurrente de préstamos activos, donde la clave es el ID del recurso prestado.
+     * Cantidad máxima de contadores de cada resumen de préstamos históricos.
      */
-    private ConcurrentMap<String, Prestamo> prestamos;
+    private static final int CAPACIDAD_HISTORICOS = 1024;
 
     /**
-     * Mapa concurrente de colas de reservas para cada recurso, indexado por ID de recurso.
+     * Cantidad de consultas activas a una época cerrada antes de ceder el procesador mientras se
+     * espera a que terminen sus mutaciones.
      */
-    private ConcurrentMap<String, Queue<Reserva>> reservas;
+    private static final int ESPERA_ACTIVA = 256;
+
+    /**
+     * Diccionario de códigos de los IDs de recursos.
+     */
+    private DiccionarioIds idsRecursos;
+
+    /**
+     * Diccionario de códigos de los IDs de usuarios que intervienen en préstamos y reservas.
+     */
+    private DiccionarioIds idsUsuarios;
+
+    /**
+     * Recursos digitales, indexados por código de recurso.
+     */
+    private TablaDensa<RecursoDigital> recursos;
+
+    /**
+     * Préstamos activos, indexados por código del recurso prestado.
+     */
+    private TablaDensa<Prestamo> prestamos;
+
+    /**
+     * Colas de reservas de cada recurso, indexadas por código de recurso.
+     */
+    private TablaDensa<Queue<Reserva>> reservas;
+
+    /**
+     * Cerrojos que serializan las altas y reemplazos de un mismo recurso, repartidos por código.
+     */
+    private final Object[] cerrojosAlta = new Object[CERROJOS_ALTA];
+
+    /**
+     * Índice invertido de trigramas de títulos, utilizado por las búsquedas por título.
+     */
+    private IndiceTitulos indiceTitulos;
+
+    /**
+     * Índice secundario de códigos de recursos por categoría.
+     */
+    private IndiceCategorias indiceCategorias;
+
+    /**
+     * Índice de recursos prestados y reservados por cada usuario.
+     */
+    private IndiceActividadUsuarios actividadUsuarios;
+
+    /**
+     * Códigos de recursos libres (no prestados) que tienen reservas pendientes,
+     * es decir, cuyo primer usuario en espera debe ser notificado.
+     */
+    private ConjuntoDenso listosParaNotificar;
+
+    /**
+     * Índice de préstamos activos ordenados por fecha de devolución.
+     */
+    private IndiceVencimientos indiceVencimientos;
+
+    /**
+     * Contadores vivos de recursos por estado, actualizados en cada transición.
+     */
+    private Map<EstadoRecurso, LongAdder> contadoresEstado;
+
+    /**
+     * Resumen acotado de la cantidad de préstamos realizados de cada recurso desde que se creó el catálogo.
+     */
+    private ResumenFrecuencias historicosRecursos;
+
+    /**
+     * Resumen acotado de la cantidad de préstamos recibidos por cada usuario desde que se creó el catálogo.
+     */
+    private ResumenFrecuencias historicosUsuarios;
+
+    /**
+     * Vista del catálogo ordenada por título e ID.
+     */
+    private VistaOrdenada vistaPorTitulo;
+
+    /**
+     * Vista del catálogo ordenada por nombre de categoría e ID.
+     */
+    private VistaOrdenada vistaPorCategoria;
+
+    /**
+     * Observador registrado en cada recurso para mantener los índices sincronizados.
+     */
+    private ObservadorRecurso sincronizador;
+
+    /**
+     * Instantánea cuyos recursos ocupan los primeros códigos y se decodifican bajo demanda,
+     * o {@code null} si el catálogo se cargó completo en memoria.
+     */
+    private final InstantaneaBiblioteca instantanea;
+
+    /**
+     * Indica si ya se decodificaron todos los recursos de la instantánea.
+     */
+    private volatile boolean instantaneaDecodificada;
+
+    /**
+     * Indica si las altas y los cambios de categoría actualizan el índice de títulos y las vistas
+     * ordenadas, lo que ocurre desde que comienza su construcción.
+     */
+    private volatile boolean indicesOrdenActivos;
+
+    /**
+     * Indica si el índice de títulos y las vistas ordenadas contienen todo el catálogo.
+     */
+    private volatile boolean indicesOrdenCompletos;
+
+    /**
+     * Monitor que serializa la construcción del índice de títulos y las vistas ordenadas.
+     */
+    private final Object construccionIndices = new Object();
+
+    /**
+     * Observadores externos notificados de cada mutación confirmada.
+     */
+    private final List<ObservadorGestor> observadores = new CopyOnWriteArrayList<>();
+
+    /**
+     * Registro de operaciones donde se anota cada mutación confirmada,
+     * o {@code null} si el gestor trabaja sólo en memoria.
+     */
+    private volatile RegistroOperaciones registro;
+
+    /**
+     * Cerrojo que excluye las mutaciones registradas mientras se guarda una instantánea
+     * y se vacía el registro de operaciones.
+     */
+    private final ReentrantReadWriteLock puntoControl = new ReentrantReadWriteLock();
+
+    /**
+     * Época en curso, a la que se asignan las mutaciones que comienzan.
+     */
+    private volatile Epoca epoca = new Epoca(0);
+
+    /**
+     * Época de la mutación que aplica el hilo actual, o {@code null} si no está aplicando ninguna;
+     * las mutaciones anidadas, como el cambio de estado de un préstamo, heredan la de la externa.
+     */
+    private final ThreadLocal<Epoca> epocaHilo = new ThreadLocal<>();
+
+    /**
+     * Monitor que serializa las lecturas de versión y las suscripciones de observadores.
+     */
+    private final Object lecturasVersion = new Object();
 
     /**
      * Inicializa el gestor con estructuras de datos concurrentes vacías para recursos,
      * préstamos y reservas.
      */
     public GestorRecursos() {
-        this.recursos = new ConcurrentHashMap<>();
-        this.prestamos = new ConcurrentHashMap<>();
-        this.reservas = new ConcurrentHashMap<>();
+        this(null);
+    }
+
+    /**
+     * Inicializa el gestor sobre los recursos de una instantánea con índices, sin decodificarlos:
+     * sólo lee los contadores por estado y los mapas de bits de las categorías.
+     *
+     * @param instantanea instantánea con índices, o {@code null} para partir de un catálogo vacío
+     */
+    private GestorRecursos(InstantaneaBiblioteca instantanea) {
+        this.instantanea = instantanea;
+        this.idsRecursos = new DiccionarioIds(instantanea);
+        this.idsUsuarios = new DiccionarioIds();
+        this.recursos = new TablaDensa<>();
+        this.prestamos = new TablaDensa<>();
+        this.reservas = new TablaDensa<>();
+        for (int i = 0; i < CERROJOS_ALTA; i++) {
+            cerrojosAlta[i] = new Object();
+        }
+        this.indiceTitulos = new IndiceTitulos();
+        this.indiceCategorias = new IndiceCategorias();
+        this.actividadUsuarios = new IndiceActividadUsuarios(idsUsuarios, idsRecursos);
+        this.listosParaNotificar = new ConjuntoDenso();
+        this.indiceVencimientos = new IndiceVencimientos();
+        this.contadoresEstado = new EnumMap<>(EstadoRecurso.class);
+        for (EstadoRecurso estado : EstadoRecurso.values()) {
+            contadoresEstado.put(estado, new LongAdder());
+        }
+        this.historicosRecursos = new ResumenFrecuencias(CAPACIDAD_HISTORICOS);
+        this.historicosUsuarios = new ResumenFrecuencias(CAPACIDAD_HISTORICOS);
+        this.vistaPorTitulo = new VistaOrdenada();
+        this.vistaPorCategoria = new VistaOrdenada();
+        this.sincronizador = new SincronizadorIndices();
+        this.instantaneaDecodificada = instantanea == null;
+        this.indicesOrdenActivos = instantanea == null;
+        this.indicesOrdenCompletos = instantanea == null;
+        if (instantanea != null) {
+            for (EstadoRecurso estado : EstadoRecurso.values()) {
+                contadoresEstado.get(estado).add(instantanea.contarRecursos(estado));
+            }
+            for (CategoriaRecurso categoria : CategoriaRecurso.values()) {
+                indiceCategorias.cargar(categoria, instantanea.posicionesCategoria(categoria));
+            }
+        }
+    }
+
+    /**
+     * Crea un gestor reconstruyendo su estado a partir de un registro de operaciones
+     * y lo deja asociado a ese registro para anotar las mutaciones posteriores.
+     * <p>
+     * Las operaciones se reproducen en el orden en que fueron registradas y con sus fechas
+     * originales. Los usuarios que intervienen en préstamos y reservas se buscan en el gestor
+     * de usuarios y, si no existen, se recrean con los datos guardados en el registro.
+     * </p>
+     *
+     * @param registro registro de operaciones a reproducir y a utilizar en adelante
+     * @param usuarios gestor de usuarios donde se resuelven los usuarios de las operaciones
+     * @return gestor restaurado
+     * @throws IOException si no se puede leer el registro
+     */
+    public static GestorRecursos restaurar(RegistroOperaciones registro, GestorUsuarios usuarios)
+            throws IOException {
+        return restaurar(null, registro, usuarios);
+    }
+
+    /**
+     * Crea un gestor a partir de una instantánea y reproduce después el registro de operaciones
+     * anotado desde que se guardó, dejándolo asociado a ese registro.
+     * <p>
+     * Si la instantánea tiene índices, sus recursos no se cargan: quedan en el archivo mapeado y
+     * cada uno se decodifica la primera vez que se consulta, de modo que el arranque no depende del
+     * tamaño del catálogo. Sólo se decodifican al restaurar los recursos con préstamos o reservas
+     * activos. Las instantáneas de versiones anteriores se cargan recurso por recurso. Los usuarios
+     * se resuelven en el gestor de usuarios, que puede decodificarlos a su vez bajo demanda desde la
+     * misma instantánea.
+     * </p>
+     *
+     * @param instantanea instantánea a cargar, o {@code null} para partir de un catálogo vacío
+     * @param registro    registro de operaciones a reproducir y a utilizar en adelante
+     * @param usuarios    gestor de usuarios donde se resuelven los usuarios
+     * @return gestor restaurado
+     * @throws IOException si no se puede leer el registro
+     */
+    public static GestorRecursos restaurar(InstantaneaBiblioteca instantanea, RegistroOperaciones registro,
+                                           GestorUsuarios usuarios) throws IOException {
+        GestorRecursos gestor = new GestorRecursos(
+                instantanea != null && instantanea.tieneIndices() ? instantanea : null);
+        if (instantanea != null) {
+            gestor.cargar(instantanea, usuarios);
+        }
+        registro.reproducir(entrada -> gestor.aplicar(entrada, usuarios));
+        gestor.registro = registro;
+        return gestor;
     }
 
     /**
-     * Agrega un nuevo recurso digital al inventario.
+     * Agrega un nuevo recurso digital al inventario y lo incorpora a los índices de títulos
+     * y categorías, a los contadores por estado y a las vistas ordenadas.
+     * Si ya existía un recurso con el mismo ID, éste se reemplaza.
+     * <p>
+     * El registro en los índices se hace junto con el reemplazo en la tabla, bajo el cerrojo de alta
+     * del recurso, de modo que ninguna transición de estado hecha por el gestor sobre el recurso quede
+     * sin contabilizar.
+     * Por el mismo motivo, el alta se anota en el registro de operaciones antes de que el recurso
+     * sea visible para otras operaciones, y antes de tocar los índices y el recurso reemplazado: si
+     * el registro rechaza la entrada, el catálogo queda como estaba.
+     * </p>
      *
      * @param recursoDigital instancia de {@link RecursoDigital} a agregar
+     * @throws UncheckedIOException si no se pudo anotar el alta en el registro de operaciones
      */
     public void addNewResource(RecursoDigital recursoDigital) {
-        recursos.put(recursoDigital.getIdentificador(), recursoDigital);
+        esperarRegistro(incorporar(recursoDigital));
+    }
+
+    /**
+     * Agrega un lote de recursos al inventario, con la misma semántica que {@link #addNewResource}
+     * para cada uno.
+     * <p>
+     * Con un registro de operaciones activo, las altas del lote se anotan una tras otra y se espera
+     * una única vez a que la última sea durable, en lugar de esperar la sincronización de cada alta.
+     * </p>
+     *
+     * @param recursosNuevos recursos a agregar
+     * @throws UncheckedIOException si no se pudo anotar alguna de las altas en el registro de operaciones
+     */
+    public void addNewResources(Collection<? extends RecursoDigital> recursosNuevos) {
+        long ultima = 0;
+        for (RecursoDigital recurso : recursosNuevos) {
+            ultima = Math.max(ultima, incorporar(recurso));
+        }
+        esperarRegistro(ultima);
+    }
+
+    /**
+     * Incorpora un recurso al inventario, los índices y las vistas, anotando su alta en el registro
+     * de operaciones sin esperar a que sea durable.
+     *
+     * @param recursoDigital recurso a incorporar
+     * @return secuencia de la entrada anotada, o 0 si no hay registro activo
+     */
+    private long incorporar(RecursoDigital recursoDigital) {
+        String id = recursoDigital.getIdentificador();
+        int codigo = idsRecursos.registrar(id);
+        long secuencia = 0;
+        boolean registrado = registro != null;
+        if (registrado) {
+            puntoControl.readLock().lock();
+        }
+        try {
+            Epoca epocaMutacion = entrarEpoca();
+            try {
+                synchronized (cerrojosAlta[codigo & (CERROJOS_ALTA - 1)]) {
+                    // El recurso reemplazado se decodifica de la instantánea para descontarlo de los índices
+                    RecursoDigital anterior = recurso(codigo);
+                    boolean ordenActivo = indicesOrdenActivos;
+                    if (anterior != recursoDigital) {
+                        synchronized (recursoDigital) {
+                            secuencia = anotar(() -> new EntradaRegistro(TipoOperacion.ALTA_RECURSO,
+                                    FabricaRecursos.tipoDe(recursoDigital), id, recursoDigital.getTitulo(),
+                                    recursoDigital.getEstado().name(), recursoDigital.getCategoria().name()));
+                            if (anterior != null) {
+                                synchronized (anterior) {
+                                    anterior.setObservador(null);
+                                    indiceCategorias.quitar(codigo, anterior.getCategoria());
+                                    contadoresEstado.get(anterior.getEstado()).decrement();
+                                }
+                            }
+                            recursoDigital.setObservador(sincronizador);
+                            indiceCategorias.agregar(codigo, recursoDigital.getCategoria());
+                            contadoresEstado.get(recursoDigital.getEstado()).increment();
+                            if (ordenActivo) {
+                                vistaPorCategoria.agregar(recursoDigital, recursoDigital.getCategoria().toString());
+                            }
+                            recursos.getAndSet(codigo, recursoDigital);
+                        }
+                        for (ObservadorGestor observador : observadores) {
+                            observador.recursoAgregado(recursoDigital, anterior, epocaEnCurso());
+                        }
+                        // Volver a agregar la misma instancia no cambia su título, que es inmutable
+                        if (ordenActivo) {
+                            indiceTitulos.agregar(codigo, recursoDigital.getTitulo());
+                            vistaPorTitulo.agregar(recursoDigital, recursoDigital.getTitulo());
+                        }
+                    }
+                }
+            } finally {
+                salirEpoca(epocaMutacion);
+            }
+        } finally {
+            if (registrado) {
+                puntoControl.readLock().unlock();
+            }
+        }
+        return secuencia;
     }
 
     /**
@@ -60,174 +418,1508 @@ public class GestorRecursos {
      * @throws RecursoNoDisponibleException si no existe un recurso con ese ID
      */
     public RecursoDigital searchResourceById(String id) throws RecursoNoDisponibleException {
-        RecursoDigital rd = recursos.get(id);
-        if (rd == null) {
-            throw new RecursoNoDisponibleException("Recurso con ID " + id + " no encontrado.");
-        }
-        return rd;
+        return obtenerRecurso(idsRecursos.codigo(id), id);
+    }
+
+    /**
+     * Busca un recurso digital por su identificador sin lanzar excepciones ante un ID inexistente.
+     *
+     * @param id identificador del recurso a buscar
+     * @return {@link Optional} con el recurso, o vacío si no existe
+     */
+    public Optional<RecursoDigital> buscarRecurso(String id) {
+        return Optional.ofNullable(recurso(idsRecursos.codigo(id)));
     }
 
     /**
      * Devuelve todos los recursos digitales registrados.
+     * <p>
+     * En un gestor restaurado desde una instantánea, la primera llamada decodifica todos los
+     * recursos que aún no se consultaron.
+     * </p>
      *
      * @return colección de todos los {@link RecursoDigital}
      */
     public Collection<RecursoDigital> listAllResources() {
-        return recursos.values();
+        decodificarInstantanea();
+        return recursos.valores();
     }
 
     /**
      * Busca recursos cuyo título contenga la cadena especificada, sin distinción de mayúsculas.
+     * La búsqueda se resuelve a partir del índice de trigramas, sin recorrer todo el catálogo.
      *
      * @param title parte o totalidad del título a buscar
      * @return lista de recursos que coinciden con el criterio de búsqueda
      */
     public List<RecursoDigital> searchByTitle(String title) {
-        return recursos.values().stream()
-                .filter(r -> r.getTitulo().toLowerCase().contains(title.toLowerCase()))
-                .collect(Collectors.toList());
+        asegurarIndicesOrden();
+        int[] codigos = indiceTitulos.buscar(title);
+        List<RecursoDigital> resultado = new ArrayList<>(codigos.length);
+        for (int codigo : codigos) {
+            RecursoDigital recurso = recurso(codigo);
+            if (recurso != null) {
+                resultado.add(recurso);
+            }
+        }
+        return resultado;
     }
 
     /**
-     * Filtra recursos de tipo {@link RecursoBase} por categoría.
+     * Filtra recursos por categoría a partir del índice de categorías.
      *
      * @param categoria categoría de recurso a filtrar
      * @return lista de recursos que pertenecen a la categoría dada
      */
     public List<RecursoDigital> filterByCategoria(CategoriaRecurso categoria) {
-        return recursos.values().stream()
-                .filter(r -> r instanceof RecursoBase && ((RecursoBase) r).getCategoria() == categoria)
-                .collect(Collectors.toList());
+        ConjuntoDenso codigos = indiceCategorias.ids(categoria);
+        List<RecursoDigital> resultado = new ArrayList<>(codigos.cantidad());
+        for (int codigo = codigos.siguiente(0); codigo >= 0; codigo = codigos.siguiente(codigo + 1)) {
+            RecursoDigital recurso = recurso(codigo);
+            if (recurso != null) {
+                resultado.add(recurso);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Obtiene la cantidad de recursos registrados en una categoría sin recorrer el catálogo.
+     *
+     * @param categoria categoría a consultar
+     * @return cantidad de recursos de la categoría
+     */
+    public int contarPorCategoria(CategoriaRecurso categoria) {
+        return indiceCategorias.contar(categoria);
+    }
+
+    /**
+     * Obtiene la cantidad de recursos que se encuentran en un estado, sin recorrer el catálogo.
+     *
+     * @param estado estado a consultar
+     * @return cantidad de recursos en ese estado
+     */
+    public long contarPorEstado(EstadoRecurso estado) {
+        return contadoresEstado.get(estado).sum();
     }
 
     /**
-     * Ordena los recursos por título en orden alfabético.
+     * Lista los recursos ordenados por título en orden alfabético.
+     * El orden se mantiene de forma incremental, por lo que no se reordena el catálogo; en un gestor
+     * restaurado desde una instantánea, la primera consulta ordenada o por título construye las vistas.
      *
      * @return lista de recursos ordenados por título
      */
     public List<RecursoDigital> sortByTitulo() {
-        return recursos.values().stream()
-                .sorted(Comparator.comparing(RecursoDigital::getTitulo))
-                .collect(Collectors.toList());
+        asegurarIndicesOrden();
+        return vistaPorTitulo.listar();
     }
 
     /**
-     * Ordena los recursos de tipo {@link RecursoBase} por nombre de categoría.
+     * Lista los recursos ordenados por nombre de categoría.
+     * El orden se mantiene de forma incremental, por lo que no se reordena el catálogo.
      *
      * @return lista de recursos ordenados por categoría
      */
     public List<RecursoDigital> sortByCategoria() {
-        return recursos.values().stream()
-                .filter(r -> r instanceof RecursoBase)
-                .sorted(Comparator.comparing(r -> ((RecursoBase) r).getCategoria().toString()))
-                .collect(Collectors.toList());
+        asegurarIndicesOrden();
+        return vistaPorCategoria.listar();
+    }
+
+    /**
+     * Obtiene una página de recursos ordenados por título, posterior al cursor indicado.
+     *
+     * @param after cursor devuelto por la página anterior, o {@code null} para la primera página
+     * @param limit cantidad máxima de recursos de la página
+     * @return página de recursos con el cursor de continuación
+     * @throws IllegalArgumentException si el límite no es positivo o el cursor es inválido
+     */
+    public Pagina<RecursoDigital> pageByTitulo(String after, int limit) {
+        asegurarIndicesOrden();
+        return vistaPorTitulo.pagina(after, limit);
+    }
+
+    /**
+     * Obtiene una página de recursos ordenados por categoría, posterior al cursor indicado.
+     *
+     * @param after cursor devuelto por la página anterior, o {@code null} para la primera página
+     * @param limit cantidad máxima de recursos de la página
+     * @return página de recursos con el cursor de continuación
+     * @throws IllegalArgumentException si el límite no es positivo o el cursor es inválido
+     */
+    public Pagina<RecursoDigital> pageByCategoria(String after, int limit) {
+        asegurarIndicesOrden();
+        return vistaPorCategoria.pagina(after, limit);
     }
 
     // ------ Préstamos y Reservas ------
 
     /**
      * Presta un recurso a un usuario, cambiando su estado y registrando el préstamo.
+     * <p>
+     * La transición de estado se hace por comparación e intercambio, por lo que entre
+     * varios solicitantes concurrentes sólo uno obtiene el préstamo. Un recurso reservado
+     * sólo puede prestarse al usuario que encabeza su cola de reservas, cuya reserva
+     * se consume al concretarse el préstamo.
+     * </p>
      *
      * @param idRecurso ID del recurso a prestar
      * @param usuario   usuario que recibe el préstamo
      * @throws RecursoNoDisponibleException si el recurso no existe, no puede prestarse o no está disponible
      */
     public void prestarRecurso(String idRecurso, Usuario usuario) throws RecursoNoDisponibleException {
-        RecursoDigital recurso = searchResourceById(idRecurso);
-        if (!(recurso instanceof Prestable)) {
-            throw new RecursoNoDisponibleException("Este recurso no puede ser prestado.");
-        }
-        if (recurso.getEstado() != EstadoRecurso.DISPONIBLE) {
-            throw new RecursoNoDisponibleException("El recurso no está disponible.");
-        }
-        recurso.actualizarEstado(EstadoRecurso.PRESTADO);
-        prestamos.put(idRecurso, new Prestamo(recurso, usuario));
+        int codigo = idsRecursos.codigo(idRecurso);
+        verificar(prestar(codigo, obtenerRecurso(codigo, idRecurso), usuario, null));
     }
 
     /**
      * Devuelve un recurso y actualiza su estado según si hay reservas pendientes.
+     * <p>
+     * El préstamo se retira con una única operación atómica; si hay reservas, el recurso
+     * queda reservado para el primer usuario de la cola.
+     * </p>
      *
      * @param idRecurso ID del recurso a devolver
      * @throws RecursoNoDisponibleException si el recurso no está prestado o no existe
      */
     public void devolverRecurso(String idRecurso) throws RecursoNoDisponibleException {
-        RecursoDigital recurso = searchResourceById(idRecurso);
-        if (!prestamos.containsKey(idRecurso)) {
-            throw new RecursoNoDisponibleException("Recurso no está prestado.");
-        }
-        prestamos.remove(idRecurso);
-        Queue<Reserva> cola = reservas.get(idRecurso);
-        if (cola != null && !cola.isEmpty()) {
-            recurso.actualizarEstado(EstadoRecurso.RESERVADO);
-        } else {
-            recurso.actualizarEstado(EstadoRecurso.DISPONIBLE);
-        }
+        int codigo = idsRecursos.codigo(idRecurso);
+        verificar(devolver(codigo, obtenerRecurso(codigo, idRecurso), null));
     }
 
     /**
      * Añade una reserva para un recurso que no está disponible.
+     * <p>
+     * Si el recurso se devolvió mientras se registraba la reserva, queda retenido
+     * como reservado para la cola en lugar de permanecer disponible.
+     * </p>
      *
      * @param idRecurso ID del recurso a reservar
      * @param usuario   usuario que realiza la reserva
      * @throws RecursoNoDisponibleException si el recurso no existe, no puede reservarse o está disponible
      */
     public void reservarRecurso(String idRecurso, Usuario usuario) throws RecursoNoDisponibleException {
-        RecursoDigital recurso = searchResourceById(idRecurso);
-        if (!(recurso instanceof Prestable)) {
-            throw new RecursoNoDisponibleException("Este recurso no puede reservarse.");
-        }
-        if (recurso.getEstado() == EstadoRecurso.DISPONIBLE) {
-            throw new RecursoNoDisponibleException("Recurso disponible, reserva no necesaria.");
-        }
-        reservas.computeIfAbsent(idRecurso, k -> new ConcurrentLinkedQueue<>())
-                .add(new Reserva(recurso, usuario));
+        int codigo = idsRecursos.codigo(idRecurso);
+        verificar(reservar(codigo, obtenerRecurso(codigo, idRecurso), usuario, null));
     }
 
     /**
      * Renueva el préstamo de un recurso si es renovable y pertenece al usuario.
+     * El préstamo se reemplaza atómicamente sólo si sigue siendo el mismo que se verificó.
      *
      * @param idRecurso ID del recurso a renovar
      * @param usuario   usuario que solicita la renovación
      * @throws RecursoNoDisponibleException si el recurso no permite renovación o no corresponde al préstamo
      */
     public void renovarRecurso(String idRecurso, Usuario usuario) throws RecursoNoDisponibleException {
-        RecursoDigital recurso = searchResourceById(idRecurso);
-        if (!(recurso instanceof Renovable)) {
-            throw new RecursoNoDisponibleException("Este recurso no permite renovación.");
+        int codigo = idsRecursos.codigo(idRecurso);
+        verificar(renovar(codigo, obtenerRecurso(codigo, idRecurso), usuario, null));
+    }
+
+    /**
+     * Cede el turno de un recurso retenido para el usuario que encabeza su cola de reservas.
+     * <p>
+     * Un recurso retenido como reservado sólo puede prestarse a ese usuario, por lo que si nunca lo
+     * retira el recurso queda retenido indefinidamente. La cesión consume su reserva y pasa el turno a
+     * la siguiente de la cola, o libera el recurso si no quedan reservas.
+     * </p>
+     *
+     * @param idRecurso ID del recurso retenido
+     * @param usuario   usuario que encabeza la cola de reservas
+     * @throws RecursoNoDisponibleException si el recurso no existe o no está retenido para ese usuario
+     */
+    public void cederReserva(String idRecurso, Usuario usuario) throws RecursoNoDisponibleException {
+        int codigo = idsRecursos.codigo(idRecurso);
+        verificar(ceder(codigo, obtenerRecurso(codigo, idRecurso), usuario));
+    }
+
+    /**
+     * Cambia la categoría de un recurso y anota el cambio en el registro de operaciones.
+     * <p>
+     * A diferencia de {@link RecursoDigital#setCategoria(CategoriaRecurso)} sobre la instancia, el cambio
+     * y su anotación se hacen bajo el cerrojo del punto de control, por lo que no pueden quedar fuera de
+     * la instantánea y del registro a la vez, y la espera de la sincronización con el disco se hace
+     * después de soltar el monitor del recurso.
+     * </p>
+     *
+     * @param idRecurso ID del recurso
+     * @param categoria categoría a asignar
+     * @throws RecursoNoDisponibleException si el recurso no existe
+     * @throws UncheckedIOException         si el cambio no pudo anotarse en el registro, en cuyo caso no se
+     *                                      aplicó, o si se aplicó pero el registro no pudo sincronizarse
+     */
+    public void cambiarCategoria(String idRecurso, CategoriaRecurso categoria) throws RecursoNoDisponibleException {
+        RecursoDigital recurso = obtenerRecurso(idsRecursos.codigo(idRecurso), idRecurso);
+        conRegistro(recurso, () -> ResultadoOperacion.EXITO, () -> {
+            recurso.setCategoria(categoria);
+            return ResultadoOperacion.EXITO;
+        }, () -> new EntradaRegistro(TipoOperacion.CAMBIO_CATEGORIA, recurso.getIdentificador(), categoria.name()),
+                null);
+    }
+
+    /**
+     * Intenta prestar un recurso a un usuario, informando el rechazo como resultado en lugar de excepción.
+     *
+     * @param idRecurso ID del recurso a prestar
+     * @param usuario   usuario que recibe el préstamo
+     * @return resultado de la operación; {@link ResultadoOperacion#NO_ENCONTRADO} si el ID no existe
+     */
+    public ResultadoOperacion intentarPrestarRecurso(String idRecurso, Usuario usuario) {
+        int codigo = idsRecursos.codigo(idRecurso);
+        RecursoDigital recurso = recurso(codigo);
+        return recurso == null ? ResultadoOperacion.NO_ENCONTRADO : prestar(codigo, recurso, usuario, null);
+    }
+
+    /**
+     * Intenta devolver un recurso, informando el rechazo como resultado en lugar de excepción.
+     *
+     * @param idRecurso ID del recurso a devolver
+     * @return resultado de la operación; {@link ResultadoOperacion#NO_ENCONTRADO} si el ID no existe
+     */
+    public ResultadoOperacion intentarDevolverRecurso(String idRecurso) {
+        int codigo = idsRecursos.codigo(idRecurso);
+        RecursoDigital recurso = recurso(codigo);
+        return recurso == null ? ResultadoOperacion.NO_ENCONTRADO : devolver(codigo, recurso, null);
+    }
+
+    /**
+     * Intenta reservar un recurso para un usuario, informando el rechazo como resultado en lugar de excepción.
+     *
+     * @param idRecurso ID del recurso a reservar
+     * @param usuario   usuario que realiza la reserva
+     * @return resultado de la operación; {@link ResultadoOperacion#NO_ENCONTRADO} si el ID no existe
+     */
+    public ResultadoOperacion intentarReservarRecurso(String idRecurso, Usuario usuario) {
+        int codigo = idsRecursos.codigo(idRecurso);
+        RecursoDigital recurso = recurso(codigo);
+        return recurso == null ? ResultadoOperacion.NO_ENCONTRADO : reservar(codigo, recurso, usuario, null);
+    }
+
+    /**
+     * Intenta renovar el préstamo de un recurso, informando el rechazo como resultado en lugar de excepción.
+     *
+     * @param idRecurso ID del recurso a renovar
+     * @param usuario   usuario que solicita la renovación
+     * @return resultado de la operación; {@link ResultadoOperacion#NO_ENCONTRADO} si el ID no existe
+     */
+    public ResultadoOperacion intentarRenovarRecurso(String idRecurso, Usuario usuario) {
+        int codigo = idsRecursos.codigo(idRecurso);
+        RecursoDigital recurso = recurso(codigo);
+        return recurso == null ? ResultadoOperacion.NO_ENCONTRADO : renovar(codigo, recurso, usuario, null);
+    }
+
+    /**
+     * Intenta ceder el turno de un recurso retenido, informando el rechazo como resultado en lugar de excepción.
+     *
+     * @param idRecurso ID del recurso retenido
+     * @param usuario   usuario que encabeza la cola de reservas
+     * @return resultado de la operación; {@link ResultadoOperacion#NO_ENCONTRADO} si el ID no existe
+     */
+    public ResultadoOperacion intentarCederReserva(String idRecurso, Usuario usuario) {
+        int codigo = idsRecursos.codigo(idRecurso);
+        RecursoDigital recurso = recurso(codigo);
+        return recurso == null ? ResultadoOperacion.NO_ENCONTRADO : ceder(codigo, recurso, usuario);
+    }
+
+    // ------ Operaciones por lotes ------
+
+    /**
+     * Presta un lote de recursos a un usuario en una sola llamada.
+     * <p>
+     * Cada elemento se procesa de forma independiente: un rechazo no interrumpe el lote
+     * ni lanza excepciones, sino que queda informado en el resultado de ese elemento.
+     * Con un registro de operaciones activo, los préstamos del lote se anotan uno tras otro y se
+     * espera una única vez a que el último sea durable.
+     * </p>
+     *
+     * @param idsRecursos IDs de los recursos a prestar
+     * @param usuario     usuario que recibe los préstamos
+     * @return resultados por elemento, en el mismo orden de iteración que los IDs recibidos
+     * @throws UncheckedIOException si un préstamo no pudo anotarse en el registro de operaciones, que queda
+     *                              sin aplicar junto con los siguientes, o si el registro no pudo sincronizarse
+     */
+    public List<ResultadoOperacion> prestarRecursos(Collection<String> idsRecursos, Usuario usuario) {
+        return aplicarEnLote(idsRecursos, (codigo, recurso, lote) -> prestar(codigo, recurso, usuario, lote));
+    }
+
+    /**
+     * Devuelve un lote de recursos en una sola llamada, sin lanzar excepciones por elemento y
+     * esperando una única sincronización del registro de operaciones para todo el lote.
+     *
+     * @param idsRecursos IDs de los recursos a devolver
+     * @return resultados por elemento, en el mismo orden de iteración que los IDs recibidos
+     * @throws UncheckedIOException si una devolución no pudo anotarse en el registro de operaciones, que
+     *                              queda sin aplicar junto con las siguientes, o si el registro no pudo
+     *                              sincronizarse
+     */
+    public List<ResultadoOperacion> devolverRecursos(Collection<String> idsRecursos) {
+        return aplicarEnLote(idsRecursos, this::devolver);
+    }
+
+    /**
+     * Reserva un lote de recursos para un usuario en una sola llamada, sin lanzar excepciones por elemento y
+     * esperando una única sincronización del registro de operaciones para todo el lote.
+     *
+     * @param idsRecursos IDs de los recursos a reservar
+     * @param usuario     usuario que realiza las reservas
+     * @return resultados por elemento, en el mismo orden de iteración que los IDs recibidos
+     * @throws UncheckedIOException si una reserva no pudo anotarse en el registro de operaciones, que queda
+     *                              sin aplicar junto con las siguientes, o si el registro no pudo sincronizarse
+     */
+    public List<ResultadoOperacion> reservarRecursos(Collection<String> idsRecursos, Usuario usuario) {
+        return aplicarEnLote(idsRecursos, (codigo, recurso, lote) -> reservar(codigo, recurso, usuario, lote));
+    }
+
+    /**
+     * Aplica una operación a cada recurso de un lote, resolviendo cada ID con una única búsqueda
+     * y registrando {@link ResultadoOperacion#NO_ENCONTRADO} para los IDs inexistentes. Las entradas
+     * que el lote anota en el registro de operaciones se esperan juntas al terminar.
+     *
+     * @param idsRecursos IDs de los recursos del lote
+     * @param operacion   operación a aplicar sobre cada recurso encontrado
+     * @return resultados por elemento
+     */
+    private List<ResultadoOperacion> aplicarEnLote(Collection<String> idsRecursos, OperacionRecurso operacion) {
+        List<ResultadoOperacion> resultados = new ArrayList<>(idsRecursos.size());
+        EsperaRegistro lote = new EsperaRegistro();
+        for (String id : idsRecursos) {
+            int codigo = this.idsRecursos.codigo(id);
+            RecursoDigital recurso = recurso(codigo);
+            resultados.add(recurso == null ? ResultadoOperacion.NO_ENCONTRADO : operacion.aplicar(codigo, recurso, lote));
         }
-        Prestamo prestamo = prestamos.get(idRecurso);
-        if (prestamo == null || !prestamo.getUsuario().getId().equals(usuario.getId())) {
-            throw new RecursoNoDisponibleException("No es su préstamo.");
+        esperarRegistro(lote.ultima);
+        return resultados;
+    }
+
+    /**
+     * Obtiene un recurso por su código, fallando si no existe.
+     *
+     * @param codigo código del recurso, o {@code -1} si el ID no está registrado
+     * @param id     ID del recurso, para el mensaje de error
+     * @return recurso con ese código
+     * @throws RecursoNoDisponibleException si no existe un recurso con ese código
+     */
+    private RecursoDigital obtenerRecurso(int codigo, String id) throws RecursoNoDisponibleException {
+        RecursoDigital recurso = recurso(codigo);
+        if (recurso == null) {
+            throw RecursoNoDisponibleException.sinTraza("Recurso con ID " + id + " no encontrado.");
         }
-        prestamos.put(idRecurso, new Prestamo(recurso, usuario));
+        return recurso;
     }
 
     /**
-     * Obtiene el préstamo activo de un recurso.
+     * Obtiene un recurso por su código, decodificándolo de la instantánea la primera vez que se consulta.
+     * <p>
+     * Los recursos de la instantánea ya están contados en los contadores por estado y en el índice de
+     * categorías, por lo que decodificar uno sólo lo publica en la tabla con el observador que mantiene
+     * esos índices. Si dos hilos lo decodifican a la vez, ambos obtienen la instancia publicada primero.
+     * </p>
      *
-     * @param idRecurso ID del recurso
-     * @return instancia de {@link Prestamo} o null si no existe
+     * @param codigo código del recurso, o {@code -1} si el ID no está registrado
+     * @return recurso con ese código, o {@code null} si no existe
      */
-    public Prestamo getPrestamo(String idRecurso) {
-        return prestamos.get(idRecurso);
+    private RecursoDigital recurso(int codigo) {
+        RecursoDigital recurso = recursos.get(codigo);
+        if (recurso != null || instantanea == null || codigo < 0 || codigo >= instantanea.getCantidadRecursos()) {
+            return recurso;
+        }
+        RecursoDigital decodificado = instantanea.recurso(codigo);
+        decodificado.setObservador(sincronizador);
+        return recursos.putIfAbsent(codigo, decodificado);
     }
 
     /**
-     * Recupera todas las reservas asociadas a un recurso.
+     * Decodifica todos los recursos de la instantánea que aún no se consultaron, para las operaciones
+     * que recorren el catálogo completo.
+     */
+    private void decodificarInstantanea() {
+        if (instantaneaDecodificada) {
+            return;
+        }
+        for (int codigo = 0; codigo < instantanea.getCantidadRecursos(); codigo++) {
+            recurso(codigo);
+        }
+        instantaneaDecodificada = true;
+    }
+
+    /**
+     * Construye el índice de títulos y las vistas ordenadas de un gestor restaurado desde una
+     * instantánea, la primera vez que una consulta los necesita.
+     * <p>
+     * Las altas y los cambios de categoría empiezan a actualizarlos en cuanto comienza la construcción,
+     * y cada recurso se incorpora bajo su cerrojo de alta y su monitor: una alta o un cambio de
+     * categoría simultáneos quedan reflejados antes o después de incorporarlo, pero no se pierden.
+     * Las consultas esperan a que la construcción termine.
+     * </p>
+     */
+    private void asegurarIndicesOrden() {
+        if (indicesOrdenCompletos) {
+            return;
+        }
+        synchronized (construccionIndices) {
+            if (indicesOrdenCompletos) {
+                return;
+            }
+            indicesOrdenActivos = true;
+            int limite = idsRecursos.tamanio();
+            for (int codigo = 0; codigo < limite; codigo++) {
+                synchronized (cerrojosAlta[codigo & (CERROJOS_ALTA - 1)]) {
+                    RecursoDigital recurso = recurso(codigo);
+                    if (recurso != null) {
+                        synchronized (recurso) {
+                            indiceTitulos.agregar(codigo, recurso.getTitulo());
+                            vistaPorTitulo.agregar(recurso, recurso.getTitulo());
+                            vistaPorCategoria.agregar(recurso, recurso.getCategoria().toString());
+                        }
+                    }
+                }
+            }
+            instantaneaDecodificada = true;
+            indicesOrdenCompletos = true;
+        }
+    }
+
+    // ------ Operaciones internas ------
+
+    /**
+     * Intenta prestar un recurso ya resuelto a un usuario con la fecha actual,
+     * anotando el préstamo en el registro de operaciones si se concreta.
      *
-     * @param idRecurso ID del recurso
-     * @return cola de {@link Reserva} pendientes, vacía si no hay reservas
+     * @param codigo  código del recurso
+     * @param recurso recurso a prestar
+     * @param usuario usuario que recibe el préstamo
+     * @param lote    espera del lote al que pertenece la operación, o {@code null} para esperar la propia
+     * @return resultado de la operación
      */
-    public Queue<Reserva> getReservas(String idRecurso) {
-        return reservas.getOrDefault(idRecurso, new ConcurrentLinkedQueue<>());
+    private ResultadoOperacion prestar(int codigo, RecursoDigital recurso, Usuario usuario, EsperaRegistro lote) {
+        LocalDateTime fecha = LocalDateTime.now();
+        return conRegistro(recurso, () -> comprobarPrestamo(codigo, recurso, usuario),
+                () -> aplicarPrestamo(codigo, recurso, usuario, fecha),
+                () -> entradaConUsuario(TipoOperacion.PRESTAMO, recurso, usuario, fecha), lote);
     }
 
     /**
-     * Obtiene todos los préstamos activos en el sistema.
+     * Intenta devolver un recurso ya resuelto, anotando la devolución en el registro
+     * de operaciones si se concreta.
      *
-     * @return colección de todos los {@link Prestamo}
+     * @param codigo  código del recurso
+     * @param recurso recurso a devolver
+     * @param lote    espera del lote al que pertenece la operación, o {@code null} para esperar la propia
+     * @return resultado de la operación
      */
-    public Collection<Prestamo> getTodosLosPrestamos() {
-        return prestamos.values();
+    private ResultadoOperacion devolver(int codigo, RecursoDigital recurso, EsperaRegistro lote) {
+        return conRegistro(recurso, () -> comprobarDevolucion(codigo),
+                () -> aplicarDevolucion(codigo, recurso),
+                () -> new EntradaRegistro(TipoOperacion.DEVOLUCION, recurso.getIdentificador()), lote);
+    }
+
+    /**
+     * Intenta reservar un recurso ya resuelto para un usuario con la fecha actual,
+     * anotando la reserva en el registro de operaciones si se concreta.
+     *
+     * @param codigo  código del recurso
+     * @param recurso recurso a reservar
+     * @param usuario usuario que realiza la reserva
+     * @param lote    espera del lote al que pertenece la operación, o {@code null} para esperar la propia
+     * @return resultado de la operación
+     */
+    private ResultadoOperacion reservar(int codigo, RecursoDigital recurso, Usuario usuario, EsperaRegistro lote) {
+        LocalDateTime fecha = LocalDateTime.now();
+        return conRegistro(recurso, () -> comprobarReserva(recurso),
+                () -> aplicarReserva(codigo, recurso, usuario, fecha),
+                () -> entradaConUsuario(TipoOperacion.RESERVA, recurso, usuario, fecha), lote);
+    }
+
+    /**
+     * Intenta renovar el préstamo de un recurso ya resuelto con la fecha actual,
+     * anotando la renovación en el registro de operaciones si se concreta.
+     *
+     * @param codigo  código del recurso
+     * @param recurso recurso a renovar
+     * @param usuario usuario que solicita la renovación
+     * @param lote    espera del lote al que pertenece la operación, o {@code null} para esperar la propia
+     * @return resultado de la operación
+     */
+    private ResultadoOperacion renovar(int codigo, RecursoDigital recurso, Usuario usuario, EsperaRegistro lote) {
+        LocalDateTime fecha = LocalDateTime.now();
+        return conRegistro(recurso, () -> comprobarRenovacion(codigo, recurso, usuario),
+                () -> aplicarRenovacion(codigo, recurso, usuario, fecha),
+                () -> entradaConUsuario(TipoOperacion.RENOVACION, recurso, usuario, fecha), lote);
+    }
+
+    /**
+     * Intenta ceder el turno de un recurso retenido, anotando la cesión en el registro de operaciones
+     * si se concreta.
+     *
+     * @param codigo  código del recurso
+     * @param recurso recurso retenido
+     * @param usuario usuario que encabeza la cola de reservas
+     * @return resultado de la operación
+     */
+    private ResultadoOperacion ceder(int codigo, RecursoDigital recurso, Usuario usuario) {
+        LocalDateTime fecha = LocalDateTime.now();
+        return conRegistro(recurso, () -> comprobarCesion(codigo, recurso, usuario),
+                () -> aplicarCesion(codigo, recurso, usuario),
+                () -> entradaConUsuario(TipoOperacion.CESION_RESERVA, recurso, usuario, fecha), null);
+    }
+
+    /**
+     * Ejecuta una operación sobre un recurso anotando antes su entrada en el registro de operaciones,
+     * y espera a que la entrada sea durable, o deja la espera a cargo de su lote.
+     * <p>
+     * Con un registro activo, todo se hace bajo el monitor del recurso, que excluye a las demás
+     * operaciones anotadas sobre él: primero se comprueba que la operación se concretaría, luego se
+     * anota su entrada y recién entonces se aplica. Si la entrada no puede anotarse, la operación no
+     * se aplica. El orden del registro coincide así con el orden en que se aplicaron las operaciones
+     * sobre cada recurso, y los rechazos no se anotan. La espera de la sincronización con el disco se
+     * hace fuera del monitor para que las operaciones concurrentes compartan el mismo lote. Sin
+     * registro, la operación se ejecuta directamente y conserva su comportamiento sin bloqueos.
+     * </p>
+     *
+     * @param recurso     recurso sobre el que se opera
+     * @param comprobacion comprobación sin efectos de que la operación se concretaría
+     * @param operacion   operación a ejecutar
+     * @param entrada     proveedor de la entrada a anotar si la operación se concreta
+     * @param lote        espera del lote que sincroniza la entrada al terminar, o {@code null} para esperarla aquí
+     * @return resultado de la operación
+     * @throws UncheckedIOException si la entrada no pudo anotarse, en cuyo caso la operación no se aplicó,
+     *                              o si se aplicó pero el registro no pudo sincronizarse
+     */
+    private ResultadoOperacion conRegistro(RecursoDigital recurso, Supplier<ResultadoOperacion> comprobacion,
+                                           Supplier<ResultadoOperacion> operacion,
+                                           Supplier<EntradaRegistro> entrada, EsperaRegistro lote) {
+        if (registro == null) {
+            return enEpoca(operacion);
+        }
+        ResultadoOperacion resultado;
+        long secuencia = 0;
+        puntoControl.readLock().lock();
+        try {
+            synchronized (recurso) {
+                resultado = comprobacion.get();
+                if (resultado.esExito()) {
+                    secuencia = anotar(entrada);
+                    // Bajo el monitor nada cambió desde la comprobación; si aun así la operación se
+                    // rechazara, la reproducción de su entrada la rechaza del mismo modo
+                    resultado = enEpoca(operacion);
+                }
+            }
+        } finally {
+            puntoControl.readLock().unlock();
+        }
+        if (lote != null) {
+            lote.ultima = Math.max(lote.ultima, secuencia);
+        } else {
+            esperarRegistro(secuencia);
+        }
+        return resultado;
+    }
+
+    /**
+     * Ejecuta una operación como una mutación de la época en curso.
+     *
+     * @param operacion operación a ejecutar
+     * @return resultado de la operación
+     */
+    private ResultadoOperacion enEpoca(Supplier<ResultadoOperacion> operacion) {
+        Epoca epocaMutacion = entrarEpoca();
+        try {
+            return operacion.get();
+        } finally {
+            salirEpoca(epocaMutacion);
+        }
+    }
+
+    /**
+     * Registra el comienzo de una mutación en la época en curso, salvo que el hilo ya esté aplicando
+     * una, en cuyo caso la mutación anidada pertenece a la época de la externa.
+     * <p>
+     * Si una lectura de versión inicia otra época entre la consulta de la época y el registro, el
+     * registro se deshace y se repite sobre la nueva, de modo que quien cierra una época ve toda
+     * mutación que se asignó a ella. Nunca espera a las lecturas.
+     * </p>
+     *
+     * @return época en la que se registró la mutación, o {@code null} si es anidada
+     */
+    private Epoca entrarEpoca() {
+        if (epocaHilo.get() != null) {
+            return null;
+        }
+        while (true) {
+            Epoca actual = epoca;
+            actual.entrar();
+            if (epoca == actual) {
+                epocaHilo.set(actual);
+                return actual;
+            }
+            actual.salir();
+        }
+    }
+
+    /**
+     * Registra el fin de una mutación.
+     *
+     * @param epocaMutacion época devuelta por {@link #entrarEpoca()}
+     */
+    private void salirEpoca(Epoca epocaMutacion) {
+        if (epocaMutacion != null) {
+            epocaHilo.remove();
+            epocaMutacion.salir();
+        }
+    }
+
+    /**
+     * Obtiene el número de la época de la mutación que aplica el hilo actual.
+     *
+     * @return número de la época
+     */
+    private long epocaEnCurso() {
+        return epocaHilo.get().getNumero();
+    }
+
+    /**
+     * Agrega una entrada al registro de operaciones, si hay uno activo, sin esperar su sincronización.
+     *
+     * @param entrada proveedor de la entrada a anotar
+     * @return secuencia asignada a la entrada, o 0 si no hay registro activo
+     * @throws UncheckedIOException si no se pudo agregar la entrada
+     */
+    private long anotar(Supplier<EntradaRegistro> entrada) {
+        RegistroOperaciones actual = registro;
+        if (actual == null) {
+            return 0;
+        }
+        try {
+            return actual.agregar(entrada.get());
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo anotar la operación en el registro.", e);
+        }
+    }
+
+    /**
+     * Espera a que la entrada anotada con la secuencia indicada sea durable.
+     *
+     * @param secuencia secuencia devuelta por {@link #anotar(Supplier)}; 0 indica que no hay nada que esperar
+     * @throws UncheckedIOException si la sincronización del registro falló
+     */
+    private void esperarRegistro(long secuencia) {
+        if (secuencia == 0) {
+            return;
+        }
+        try {
+            registro.esperar(secuencia);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo sincronizar el registro de operaciones.", e);
+        }
+    }
+
+    /**
+     * Construye la entrada de una operación que involucra a un usuario y una fecha.
+     * Los datos del usuario se guardan completos para poder recrearlo al reproducir el registro.
+     *
+     * @param tipo    tipo de operación
+     * @param recurso recurso afectado
+     * @param usuario usuario que realiza la operación
+     * @param fecha   fecha de la operación
+     * @return entrada con los campos: ID de recurso, ID, nombre, email y teléfono del usuario, y fecha
+     */
+    private static EntradaRegistro entradaConUsuario(TipoOperacion tipo, RecursoDigital recurso,
+                                                     Usuario usuario, LocalDateTime fecha) {
+        return new EntradaRegistro(tipo, recurso.getIdentificador(), usuario.getId(), usuario.getNombre(),
+                usuario.getEmail(), usuario.getTelefono(), fecha.toString());
+    }
+
+    /**
+     * Carga los préstamos, reservas y préstamos históricos de una instantánea y, si ésta no tiene
+     * índices, también sus recursos, uno por uno. Los recursos de una instantánea con índices ya
+     * forman parte del gestor y se decodifican bajo demanda.
+     * Los préstamos y reservas se restauran tal como fueron guardados, sin transiciones de estado,
+     * porque el estado de cada recurso ya forma parte de la instantánea, y sin contarlos en los
+     * préstamos históricos, que ya los incluyen.
+     *
+     * @param origen   instantánea a cargar
+     * @param usuarios gestor donde se resuelven los usuarios de préstamos y reservas
+     */
+    private void cargar(InstantaneaBiblioteca origen, GestorUsuarios usuarios) {
+        if (origen != instantanea) {
+            for (int i = 0; i < origen.getCantidadRecursos(); i++) {
+                addNewResource(origen.recurso(i));
+            }
+        }
+        origen.recorrerPrestamos((idRecurso, idUsuario, fecha) -> {
+            int codigo = idsRecursos.codigo(idRecurso);
+            RecursoDigital recurso = recurso(codigo);
+            Usuario usuario = usuarios.searchUserById(idUsuario);
+            if (recurso == null || usuario == null) {
+                return;
+            }
+            Prestamo prestamo = new Prestamo(recurso, usuario, fecha);
+            prestamos.getAndSet(codigo, prestamo);
+            actividadUsuarios.agregarPrestamo(idsUsuarios.registrar(idUsuario), codigo);
+            indiceVencimientos.agregar(codigo, prestamo);
+        });
+        origen.recorrerReservas((idRecurso, idUsuario, fecha) -> {
+            int codigo = idsRecursos.codigo(idRecurso);
+            RecursoDigital recurso = recurso(codigo);
+            Usuario usuario = usuarios.searchUserById(idUsuario);
+            if (recurso == null || usuario == null) {
+                return;
+            }
+            colaDe(codigo).add(new Reserva(recurso, usuario, fecha));
+            actividadUsuarios.agregarReserva(idsUsuarios.registrar(idUsuario), codigo);
+            actualizarListoParaNotificar(codigo, recurso);
+        });
+        origen.recorrerHistoricosRecursos(historicosRecursos::restaurar);
+        origen.recorrerHistoricosUsuarios(historicosUsuarios::restaurar);
+    }
+
+    /**
+     * Guarda una instantánea del catálogo, los usuarios y la circulación, y vacía el registro
+     * de operaciones, cuyas entradas quedan contenidas en la instantánea.
+     * <p>
+     * Mientras se guarda se excluyen las mutaciones anotadas en el registro, de modo que
+     * ninguna operación quede aplicada en memoria pero fuera de ambos archivos. Las consultas
+     * no se bloquean. Si el registro falló, no se escribe la instantánea y la instantánea
+     * anterior junto con el registro siguen reflejando las operaciones durables.
+     * </p>
+     *
+     * @param destino  ruta base de la instantánea, de la que se escribe una generación nueva
+     * @param usuarios gestor de usuarios cuyos usuarios se incluyen en la instantánea
+     * @throws IOException si el registro falló, o si no se puede escribir la instantánea o vaciar el registro
+     */
+    public void guardarInstantanea(Path destino, GestorUsuarios usuarios) throws IOException {
+        puntoControl.writeLock().lock();
+        try {
+            RegistroOperaciones actual = registro;
+            if (actual != null) {
+                // Con el registro fallido no se escribe una instantánea nueva: el registro no podría vaciarse
+                // y sus entradas se reproducirían otra vez sobre una instantánea que ya las contiene
+                actual.sincronizar();
+            }
+            decodificarInstantanea();
+            List<Reserva> pendientes = new ArrayList<>();
+            for (Queue<Reserva> cola : reservas.valores()) {
+                pendientes.addAll(cola);
+            }
+            InstantaneaBiblioteca.escribir(destino, recursos.valores(), usuarios.listAllUsers(),
+                    prestamos.valores(), pendientes, historicosRecursos.primeros(CAPACIDAD_HISTORICOS),
+                    historicosUsuarios.primeros(CAPACIDAD_HISTORICOS));
+            if (actual != null) {
+                actual.vaciar();
+            }
+        } finally {
+            puntoControl.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Aplica una entrada del registro de operaciones sobre el estado en memoria, sin volver a anotarla.
+     *
+     * @param entrada  entrada a aplicar
+     * @param usuarios gestor donde se resuelven o recrean los usuarios de la entrada
+     */
+    private void aplicar(EntradaRegistro entrada, GestorUsuarios usuarios) {
+        Epoca epocaMutacion = entrarEpoca();
+        try {
+            if (entrada.getTipo() == TipoOperacion.ALTA_RECURSO) {
+                addNewResource(FabricaRecursos.crear(entrada.getCampo(0), entrada.getCampo(1), entrada.getCampo(2),
+                        EstadoRecurso.valueOf(entrada.getCampo(3)), CategoriaRecurso.valueOf(entrada.getCampo(4))));
+                return;
+            }
+            int codigo = idsRecursos.codigo(entrada.getCampo(0));
+            RecursoDigital recurso = recurso(codigo);
+            if (recurso == null) {
+                return;
+            }
+            switch (entrada.getTipo()) {
+                case PRESTAMO:
+                    aplicarPrestamo(codigo, recurso, usuarioDe(entrada, usuarios),
+                            LocalDateTime.parse(entrada.getCampo(5)));
+                    break;
+                case DEVOLUCION:
+                    aplicarDevolucion(codigo, recurso);
+                    break;
+                case RESERVA:
+                    aplicarReserva(codigo, recurso, usuarioDe(entrada, usuarios),
+                            LocalDateTime.parse(entrada.getCampo(5)));
+                    break;
+                case RENOVACION:
+                    aplicarRenovacion(codigo, recurso, usuarioDe(entrada, usuarios),
+                            LocalDateTime.parse(entrada.getCampo(5)));
+                    break;
+                case CAMBIO_CATEGORIA:
+                    recurso.setCategoria(CategoriaRecurso.valueOf(entrada.getCampo(1)));
+                    break;
+                case CESION_RESERVA:
+                    aplicarCesion(codigo, recurso, usuarioDe(entrada, usuarios));
+                    break;
+                default:
+                    break;
+            }
+        } finally {
+            salirEpoca(epocaMutacion);
+        }
+    }
+
+    /**
+     * Resuelve el usuario de una entrada del registro, recreándolo con los datos guardados si no existe.
+     *
+     * @param entrada  entrada con los campos de usuario en las posiciones 1 a 4
+     * @param usuarios gestor de usuarios
+     * @return usuario de la entrada
+     */
+    private static Usuario usuarioDe(EntradaRegistro entrada, GestorUsuarios usuarios) {
+        return usuarios.buscarUsuario(entrada.getCampo(1)).orElseGet(() -> {
+            Usuario usuario = new Usuario(entrada.getCampo(2), entrada.getCampo(1),
+                    entrada.getCampo(3), entrada.getCampo(4));
+            usuarios.addNewUser(usuario);
+            return usuario;
+        });
+    }
+
+    /**
+     * Comprueba, sin modificar nada, si un préstamo se concretaría con el estado actual del recurso.
+     * Sólo es concluyente bajo el monitor del recurso con un registro de operaciones activo.
+     *
+     * @param codigo  código del recurso
+     * @param recurso recurso a prestar
+     * @param usuario usuario que recibe el préstamo
+     * @return {@link ResultadoOperacion#EXITO} o el rechazo que daría {@link #aplicarPrestamo}
+     */
+    private ResultadoOperacion comprobarPrestamo(int codigo, RecursoDigital recurso, Usuario usuario) {
+        if (!(recurso instanceof Prestable)) {
+            return ResultadoOperacion.NO_PRESTABLE;
+        }
+        EstadoRecurso estado = recurso.getEstado();
+        if (estado == EstadoRecurso.RESERVADO) {
+            Queue<Reserva> cola = reservas.get(codigo);
+            Reserva primera = cola != null ? cola.peek() : null;
+            if (primera == null || !primera.getUsuario().getId().equals(usuario.getId())) {
+                return ResultadoOperacion.NO_DISPONIBLE;
+            }
+        } else if (estado != EstadoRecurso.DISPONIBLE) {
+            return ResultadoOperacion.NO_DISPONIBLE;
+        }
+        return prestamos.get(codigo) == null ? ResultadoOperacion.EXITO : ResultadoOperacion.YA_PRESTADO;
+    }
+
+    /**
+     * Comprueba, sin modificar nada, si una devolución se concretaría.
+     *
+     * @param codigo código del recurso
+     * @return {@link ResultadoOperacion#EXITO} o el rechazo que daría {@link #aplicarDevolucion}
+     */
+    private ResultadoOperacion comprobarDevolucion(int codigo) {
+        return prestamos.get(codigo) != null ? ResultadoOperacion.EXITO : ResultadoOperacion.NO_PRESTADO;
+    }
+
+    /**
+     * Comprueba, sin modificar nada, si una reserva se concretaría.
+     *
+     * @param recurso recurso a reservar
+     * @return {@link ResultadoOperacion#EXITO} o el rechazo que daría {@link #aplicarReserva}
+     */
+    private static ResultadoOperacion comprobarReserva(RecursoDigital recurso) {
+        if (!(recurso instanceof Prestable)) {
+            return ResultadoOperacion.NO_RESERVABLE;
+        }
+        return recurso.getEstado() == EstadoRecurso.DISPONIBLE
+                ? ResultadoOperacion.RESERVA_INNECESARIA : ResultadoOperacion.EXITO;
+    }
+
+    /**
+     * Comprueba, sin modificar nada, si una renovación se concretaría.
+     *
+     * @param codigo  código del recurso
+     * @param recurso recurso a renovar
+     * @param usuario usuario que solicita la renovación
+     * @return {@link ResultadoOperacion#EXITO} o el rechazo que daría {@link #aplicarRenovacion}
+     */
+    private ResultadoOperacion comprobarRenovacion(int codigo, RecursoDigital recurso, Usuario usuario) {
+        if (!(recurso instanceof Renovable)) {
+            return ResultadoOperacion.NO_RENOVABLE;
+        }
+        Prestamo prestamo = prestamos.get(codigo);
+        return prestamo != null && prestamo.getUsuario().getId().equals(usuario.getId())
+                ? ResultadoOperacion.EXITO : ResultadoOperacion.NO_ES_SU_PRESTAMO;
+    }
+
+    /**
+     * Comprueba, sin modificar nada, si una cesión de turno se concretaría.
+     *
+     * @param codigo  código del recurso
+     * @param recurso recurso retenido
+     * @param usuario usuario que cede el turno
+     * @return {@link ResultadoOperacion#EXITO} o el rechazo que daría {@link #aplicarCesion}
+     */
+    private ResultadoOperacion comprobarCesion(int codigo, RecursoDigital recurso, Usuario usuario) {
+        Queue<Reserva> cola = reservas.get(codigo);
+        Reserva primera = cola != null ? cola.peek() : null;
+        return recurso.getEstado() == EstadoRecurso.RESERVADO && primera != null
+                && primera.getUsuario().getId().equals(usuario.getId())
+                ? ResultadoOperacion.EXITO : ResultadoOperacion.NO_ES_SU_TURNO;
+    }
+
+    /**
+     * Presta un recurso ya resuelto a un usuario con la fecha indicada.
+     *
+     * @param codigo  código del recurso
+     * @param recurso recurso a prestar
+     * @param usuario usuario que recibe el préstamo
+     * @param fecha   fecha del préstamo
+     * @return resultado de la operación
+     */
+    private ResultadoOperacion aplicarPrestamo(int codigo, RecursoDigital recurso, Usuario usuario,
+                                               LocalDateTime fecha) {
+        if (!(recurso instanceof Prestable)) {
+            return ResultadoOperacion.NO_PRESTABLE;
+        }
+        Queue<Reserva> cola = reservas.get(codigo);
+        Reserva primera = cola != null ? cola.peek() : null;
+        boolean esPrimero = primera != null && primera.getUsuario().getId().equals(usuario.getId());
+        EstadoRecurso tomadoDesde;
+        if (recurso.compararYActualizarEstado(EstadoRecurso.DISPONIBLE, EstadoRecurso.PRESTADO)) {
+            tomadoDesde = EstadoRecurso.DISPONIBLE;
+        } else if (esPrimero && recurso.compararYActualizarEstado(EstadoRecurso.RESERVADO, EstadoRecurso.PRESTADO)) {
+            tomadoDesde = EstadoRecurso.RESERVADO;
+        } else {
+            return ResultadoOperacion.NO_DISPONIBLE;
+        }
+        Prestamo prestamo = new Prestamo(recurso, usuario, fecha);
+        // El préstamo se indexa por usuario y por vencimiento antes de publicarlo: una devolución sólo
+        // puede retirarlo después de verlo publicado, y entonces los índices ya lo contienen
+        int codigoUsuario = idsUsuarios.registrar(usuario.getId());
+        boolean indexado = actividadUsuarios.agregarPrestamo(codigoUsuario, codigo);
+        indiceVencimientos.agregar(codigo, prestamo);
+        if (!prestamos.compareAndSet(codigo, null, prestamo)) {
+            // Un préstamo previo sin devolver indica un estado inconsistente: se deshace la transición,
+            // devolviendo el recurso al estado del que se tomó para no perder la retención de una reserva
+            if (indexado) {
+                actividadUsuarios.quitarPrestamo(codigoUsuario, codigo);
+            }
+            indiceVencimientos.quitar(codigo, prestamo);
+            recurso.compararYActualizarEstado(EstadoRecurso.PRESTADO, tomadoDesde);
+            return ResultadoOperacion.YA_PRESTADO;
+        }
+        long epocaMutacion = epocaEnCurso();
+        historicosRecursos.registrar(recurso.getIdentificador(), epocaMutacion);
+        historicosUsuarios.registrar(usuario.getId(), epocaMutacion);
+        boolean reservaConsumida = esPrimero && cola.remove(primera);
+        if (reservaConsumida) {
+            actividadUsuarios.quitarReserva(codigoUsuario, codigo);
+        }
+        actualizarListoParaNotificar(codigo, recurso);
+        for (ObservadorGestor observador : observadores) {
+            observador.prestamoIniciado(prestamo, epocaMutacion);
+            if (reservaConsumida) {
+                observador.reservaQuitada(primera, epocaMutacion);
+            }
+        }
+        return ResultadoOperacion.EXITO;
+    }
+
+    /**
+     * Devuelve un recurso ya resuelto.
+     *
+     * @param codigo  código del recurso
+     * @param recurso recurso a devolver
+     * @return resultado de la operación
+     */
+    private ResultadoOperacion aplicarDevolucion(int codigo, RecursoDigital recurso) {
+        Prestamo prestamo = prestamos.getAndSet(codigo, null);
+        if (prestamo == null) {
+            return ResultadoOperacion.NO_PRESTADO;
+        }
+        actividadUsuarios.quitarPrestamo(idsUsuarios.codigo(prestamo.getUsuario().getId()), codigo);
+        indiceVencimientos.quitar(codigo, prestamo);
+        Queue<Reserva> cola = reservas.get(codigo);
+        if (cola != null && !cola.isEmpty()) {
+            recurso.compararYActualizarEstado(EstadoRecurso.PRESTADO, EstadoRecurso.RESERVADO);
+        } else if (recurso.compararYActualizarEstado(EstadoRecurso.PRESTADO, EstadoRecurso.DISPONIBLE)) {
+            retenerParaReservas(codigo, recurso);
+        }
+        actualizarListoParaNotificar(codigo, recurso);
+        long epocaMutacion = epocaEnCurso();
+        for (ObservadorGestor observador : observadores) {
+            observador.prestamoTerminado(prestamo, epocaMutacion);
+        }
+        return ResultadoOperacion.EXITO;
+    }
+
+    /**
+     * Reserva un recurso ya resuelto para un usuario con la fecha indicada.
+     *
+     * @param codigo  código del recurso
+     * @param recurso recurso a reservar
+     * @param usuario usuario que realiza la reserva
+     * @param fecha   fecha de la solicitud
+     * @return resultado de la operación
+     */
+    private ResultadoOperacion aplicarReserva(int codigo, RecursoDigital recurso, Usuario usuario,
+                                              LocalDateTime fecha) {
+        if (!(recurso instanceof Prestable)) {
+            return ResultadoOperacion.NO_RESERVABLE;
+        }
+        if (recurso.getEstado() == EstadoRecurso.DISPONIBLE) {
+            return ResultadoOperacion.RESERVA_INNECESARIA;
+        }
+        Reserva reserva = new Reserva(recurso, usuario, fecha);
+        colaDe(codigo).add(reserva);
+        actividadUsuarios.agregarReserva(idsUsuarios.registrar(usuario.getId()), codigo);
+        retenerParaReservas(codigo, recurso);
+        actualizarListoParaNotificar(codigo, recurso);
+        long epocaMutacion = epocaEnCurso();
+        for (ObservadorGestor observador : observadores) {
+            observador.reservaAgregada(reserva, epocaMutacion);
+        }
+        return ResultadoOperacion.EXITO;
+    }
+
+    /**
+     * Cede el turno de un recurso ya resuelto y retenido para el usuario que encabeza su cola de
+     * reservas: consume su reserva y deja el recurso retenido para la siguiente, o disponible si
+     * no quedan reservas.
+     *
+     * @param codigo  código del recurso
+     * @param recurso recurso retenido
+     * @param usuario usuario que cede el turno
+     * @return resultado de la operación
+     */
+    private ResultadoOperacion aplicarCesion(int codigo, RecursoDigital recurso, Usuario usuario) {
+        Queue<Reserva> cola = reservas.get(codigo);
+        Reserva primera = cola != null ? cola.peek() : null;
+        if (recurso.getEstado() != EstadoRecurso.RESERVADO || primera == null
+                || !primera.getUsuario().getId().equals(usuario.getId()) || !cola.remove(primera)) {
+            return ResultadoOperacion.NO_ES_SU_TURNO;
+        }
+        actividadUsuarios.quitarReserva(idsUsuarios.codigo(usuario.getId()), codigo);
+        if (cola.isEmpty() && recurso.compararYActualizarEstado(EstadoRecurso.RESERVADO, EstadoRecurso.DISPONIBLE)) {
+            // Una reserva agregada mientras tanto vuelve a retener el recurso, como tras una devolución
+            retenerParaReservas(codigo, recurso);
+        }
+        actualizarListoParaNotificar(codigo, recurso);
+        long epocaMutacion = epocaEnCurso();
+        for (ObservadorGestor observador : observadores) {
+            observador.reservaQuitada(primera, epocaMutacion);
+        }
+        return ResultadoOperacion.EXITO;
+    }
+
+    /**
+     * Renueva el préstamo de un recurso ya resuelto a partir de la fecha indicada.
+     *
+     * @param codigo  código del recurso
+     * @param recurso recurso a renovar
+     * @param usuario usuario que solicita la renovación
+     * @param fecha   nueva fecha de inicio del préstamo
+     * @return resultado de la operación
+     */
+    private ResultadoOperacion aplicarRenovacion(int codigo, RecursoDigital recurso, Usuario usuario,
+                                                 LocalDateTime fecha) {
+        if (!(recurso instanceof Renovable)) {
+            return ResultadoOperacion.NO_RENOVABLE;
+        }
+        Prestamo prestamo = prestamos.get(codigo);
+        if (prestamo == null || !prestamo.getUsuario().getId().equals(usuario.getId())) {
+            return ResultadoOperacion.NO_ES_SU_PRESTAMO;
+        }
+        // Como en el préstamo, el vencimiento nuevo se indexa antes de publicar la renovación
+        Prestamo renovado = new Prestamo(recurso, usuario, fecha);
+        indiceVencimientos.agregar(codigo, renovado);
+        if (!prestamos.compareAndSet(codigo, prestamo, renovado)) {
+            indiceVencimientos.quitar(codigo, renovado);
+            return ResultadoOperacion.NO_ES_SU_PRESTAMO;
+        }
+        indiceVencimientos.quitar(codigo, prestamo);
+        return ResultadoOperacion.EXITO;
+    }
+
+    /**
+     * Retiene como reservado un recurso disponible que tiene reservas pendientes.
+     * Cubre la carrera entre una devolución y una reserva simultáneas sobre el mismo recurso.
+     *
+     * @param codigo  código del recurso
+     * @param recurso recurso a verificar
+     */
+    private void retenerParaReservas(int codigo, RecursoDigital recurso) {
+        Queue<Reserva> cola = reservas.get(codigo);
+        if (cola != null && !cola.isEmpty()) {
+            recurso.compararYActualizarEstado(EstadoRecurso.DISPONIBLE, EstadoRecurso.RESERVADO);
+        }
+    }
+
+    /**
+     * Incorpora o quita un recurso del conjunto de recursos listos para notificar,
+     * según esté libre y tenga reservas pendientes en su estado actual.
+     *
+     * @param codigo  código del recurso
+     * @param recurso recurso cuyo estado o cola de reservas cambió
+     */
+    private void actualizarListoParaNotificar(int codigo, RecursoDigital recurso) {
+        Queue<Reserva> cola = reservas.get(codigo);
+        if (recurso.getEstado() != EstadoRecurso.PRESTADO && cola != null && !cola.isEmpty()) {
+            listosParaNotificar.agregar(codigo);
+        } else {
+            listosParaNotificar.quitar(codigo);
+        }
+    }
+
+    /**
+     * Obtiene la cola de reservas de un recurso, creándola si aún no existe.
+     *
+     * @param codigo código del recurso
+     * @return cola de reservas del recurso
+     */
+    private Queue<Reserva> colaDe(int codigo) {
+        Queue<Reserva> cola = reservas.get(codigo);
+        return cola != null ? cola : reservas.putIfAbsent(codigo, new ConcurrentLinkedQueue<>());
+    }
+
+    /**
+     * Convierte un resultado de rechazo en la excepción correspondiente, creada sin traza
+     * de la pila por tratarse de un rechazo esperado.
+     *
+     * @param resultado resultado de la operación
+     * @throws RecursoNoDisponibleException si el resultado no es {@link ResultadoOperacion#EXITO}
+     */
+    private static void verificar(ResultadoOperacion resultado) throws RecursoNoDisponibleException {
+        if (!resultado.esExito()) {
+            throw RecursoNoDisponibleException.sinTraza(resultado.getMensaje());
+        }
+    }
+
+    /**
+     * Obtiene el préstamo activo de un recurso.
+     *
+     * @param idRecurso ID del recurso
+     * @return instancia de {@link Prestamo} o null si no existe
+     */
+    public Prestamo getPrestamo(String idRecurso) {
+        return prestamos.get(idsRecursos.codigo(idRecurso));
+    }
+
+    /**
+     * Recupera todas las reservas asociadas a un recurso.
+     *
+     * @param idRecurso ID del recurso
+     * @return cola de {@link Reserva} pendientes, vacía si no hay reservas
+     */
+    public Queue<Reserva> getReservas(String idRecurso) {
+        Queue<Reserva> cola = reservas.get(idsRecursos.codigo(idRecurso));
+        return cola != null ? cola : new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * Obtiene el primer usuario en espera de un recurso sin crear estructuras nuevas.
+     *
+     * @param idRecurso ID del recurso
+     * @return primera {@link Reserva} pendiente, o {@code null} si no hay reservas
+     */
+    public Reserva getPrimeraReserva(String idRecurso) {
+        Queue<Reserva> cola = reservas.get(idsRecursos.codigo(idRecurso));
+        return cola != null ? cola.peek() : null;
+    }
+
+    /**
+     * Obtiene los IDs de los recursos libres que tienen reservas pendientes, cuyo primer
+     * usuario en espera debe ser notificado. Se mantiene con cada devolución, reserva, préstamo
+     * y cesión.
+     * <p>
+     * Un recurso retenido sigue en el conjunto hasta que el primer usuario en espera lo retira o
+     * cede su turno con {@link #cederReserva}; el gestor no vence los turnos por sí mismo, de eso
+     * se encarga quien notifica, como {@code AlertaDisponibilidad}.
+     * </p>
+     *
+     * @return conjunto de sólo lectura con los IDs de recursos listos para notificar
+     */
+    public Set<String> getRecursosListosParaNotificar() {
+        return listosParaNotificar.comoIds(idsRecursos);
+    }
+
+    /**
+     * Obtiene los IDs de los recursos que un usuario tiene prestados actualmente.
+     *
+     * @param idUsuario ID del usuario
+     * @return conjunto de sólo lectura con los IDs de recursos prestados
+     */
+    public Set<String> getRecursosPrestados(String idUsuario) {
+        return actividadUsuarios.prestados(idsUsuarios.codigo(idUsuario));
+    }
+
+    /**
+     * Obtiene los IDs de los recursos que un usuario tiene reservados actualmente.
+     *
+     * @param idUsuario ID del usuario
+     * @return conjunto de sólo lectura con los IDs de recursos reservados
+     */
+    public Set<String> getRecursosReservados(String idUsuario) {
+        return actividadUsuarios.reservados(idsUsuarios.codigo(idUsuario));
+    }
+
+    /**
+     * Obtiene la cantidad de préstamos activos de cada usuario que tiene al menos uno,
+     * a partir del índice de actividad y sin recorrer los préstamos.
+     *
+     * @return mapa de ID de usuario a cantidad de préstamos activos
+     */
+    public Map<String, Integer> getPrestamosActivosPorUsuario() {
+        return actividadUsuarios.prestamosPorUsuario();
+    }
+
+    /**
+     * Obtiene los recursos que más veces fueron prestados desde que se creó el catálogo, en tiempo
+     * proporcional a la cantidad pedida.
+     * <p>
+     * Los préstamos se cuentan en un resumen acotado: cada cantidad puede sobreestimar la real en
+     * su error, y todo recurso que concentra más de una fracción 1/{@value #CAPACIDAD_HISTORICOS}
+     * de los préstamos está presente. Los contadores se guardan con las instantáneas.
+     * </p>
+     *
+     * @param cantidad cantidad máxima de recursos
+     * @return frecuencias por ID de recurso, de mayor a menor cantidad de préstamos
+     */
+    public List<Frecuencia> getRecursosMasPrestados(int cantidad) {
+        return historicosRecursos.primeros(cantidad);
+    }
+
+    /**
+     * Obtiene los usuarios que más préstamos recibieron desde que se creó el catálogo, con las
+     * mismas garantías que {@link #getRecursosMasPrestados(int)}.
+     *
+     * @param cantidad cantidad máxima de usuarios
+     * @return frecuencias por ID de usuario, de mayor a menor cantidad de préstamos
+     */
+    public List<Frecuencia> getUsuariosMasActivos(int cantidad) {
+        return historicosUsuarios.primeros(cantidad);
+    }
+
+    /**
+     * Obtiene los préstamos activos cuya fecha de devolución está dentro del intervalo indicado,
+     * mediante una consulta por rango sobre el índice de vencimientos.
+     *
+     * @param desde inicio del intervalo, inclusive
+     * @param hasta fin del intervalo, exclusive
+     * @return préstamos que vencen en el intervalo, ordenados por fecha de devolución
+     */
+    public List<Prestamo> getPrestamosQueVencenEntre(LocalDateTime desde, LocalDateTime hasta) {
+        return indiceVencimientos.venceEntre(desde, hasta);
+    }
+
+    /**
+     * Obtiene todos los préstamos activos en el sistema.
+     *
+     * @return colección de todos los {@link Prestamo}
+     */
+    public Collection<Prestamo> getTodosLosPrestamos() {
+        return prestamos.valores();
+    }
+
+    /**
+     * Calcula las estadísticas de todo el catálogo en una sola pasada paralela sobre el pool indicado.
+     * <p>
+     * Cada tarea del pool recorre un tramo de los recursos y de sus colas de reservas sobre su propio
+     * acumulador y los acumuladores se combinan al terminar, sin sincronización durante el recorrido.
+     * El resultado es débilmente consistente: las operaciones concurrentes pueden verse o no.
+     * </p>
+     *
+     * @param pool pool en el que se ejecuta la pasada; su paralelismo determina cuántos tramos se
+     *             recorren a la vez
+     * @return estadísticas del catálogo
+     */
+    public EstadisticasCatalogo calcularEstadisticas(ForkJoinPool pool) {
+        return pool.invoke(new AgregacionCatalogo(recursos, reservas, instantanea, 0, idsRecursos.tamanio()));
+    }
+
+    /**
+     * Registra un observador de las mutaciones del gestor y calcula las estadísticas del catálogo en
+     * el momento de la suscripción, que el observador toma como base para aplicar las notificaciones
+     * siguientes. Antes de registrarlo le notifica la época en curso.
+     * <p>
+     * La suscripción y la pasada se hacen bajo el cerrojo que excluye las mutaciones registradas, de
+     * modo que, con un registro de operaciones activo, cada mutación se observa exactamente una vez:
+     * antes de la suscripción queda incluida en las estadísticas y después se notifica. Sin registro,
+     * las operaciones no toman ese cerrojo y el observador debe suscribirse antes de que comiencen las
+     * operaciones concurrentes.
+     * </p>
+     *
+     * @param observador observador a registrar
+     * @param pool       pool en el que se calculan las estadísticas
+     * @return estadísticas del catálogo al suscribirse
+     * @see #calcularEstadisticas(ForkJoinPool)
+     */
+    public EstadisticasCatalogo agregarObservador(ObservadorGestor observador, ForkJoinPool pool) {
+        synchronized (lecturasVersion) {
+            puntoControl.writeLock().lock();
+            try {
+                observador.epocaIniciada(epoca.getNumero());
+                observadores.add(observador);
+                return calcularEstadisticas(pool);
+            } finally {
+                puntoControl.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Ejecuta una lectura sobre una versión consistente del catálogo, sin detener a quienes mutan.
+     * <p>
+     * Inicia una época nueva, a la que se asignan las mutaciones que comienzan desde ese momento, y
+     * espera sólo a que terminen las mutaciones ya en curso de la época anterior, que duran
+     * microsegundos. Luego cierra esa época: los observadores incorporan sus mutaciones y apartan las
+     * de la época nueva, y los tops de préstamos descuentan los préstamos posteriores. Así la lectura
+     * ve cada mutación completa o no la ve, y todas las lecturas hechas con la misma versión
+     * coinciden entre sí. Las lecturas de versión se serializan entre sí.
+     * </p>
+     *
+     * @param lectura lectura a ejecutar; no debe mutar el gestor
+     * @param <T>     tipo del resultado de la lectura
+     * @return resultado de la lectura
+     * @throws IllegalStateException si se invoca mientras el hilo aplica una mutación, por ejemplo
+     *                               desde la notificación de un observador
+     */
+    public <T> T leerVersion(LecturaVersion<T> lectura) {
+        if (epocaHilo.get() != null) {
+            throw new IllegalStateException("No se puede leer una versión durante una mutación.");
+        }
+        synchronized (lecturasVersion) {
+            Epoca cerrada = epoca;
+            long nueva = cerrada.getNumero() + 1;
+            for (ObservadorGestor observador : observadores) {
+                observador.epocaIniciada(nueva);
+            }
+            historicosRecursos.congelar(cerrada.getNumero());
+            historicosUsuarios.congelar(cerrada.getNumero());
+            epoca = new Epoca(nueva);
+            try {
+                esperarMutaciones(cerrada);
+                for (ObservadorGestor observador : observadores) {
+                    observador.epocaCerrada(cerrada.getNumero());
+                }
+                return lectura.leer(new VersionCatalogo(cerrada.getNumero(), historicosRecursos, historicosUsuarios));
+            } finally {
+                historicosRecursos.descongelar();
+                historicosUsuarios.descongelar();
+            }
+        }
+    }
+
+    /**
+     * Espera a que terminen las mutaciones en curso de una época que ya no recibe mutaciones nuevas,
+     * primero activamente y luego cediendo el procesador.
+     *
+     * @param cerrada época a esperar
+     */
+    private static void esperarMutaciones(Epoca cerrada) {
+        for (int intento = 0; !cerrada.sinMutaciones(); intento++) {
+            if (intento < ESPERA_ACTIVA) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+    }
+
+    /**
+     * Toma el cerrojo de lectura del punto de control desde el monitor de un recurso.
+     * <p>
+     * No se encola detrás de un punto de control que espera: ese punto de control puede estar
+     * esperando a una operación que a su vez espera el monitor del recurso. Sólo espera, cediendo el
+     * procesador, mientras un punto de control tiene el cerrojo, lo que nunca requiere monitores.
+     * </p>
+     */
+    private void tomarPuntoControlDesdeMonitor() {
+        for (int intento = 0; !puntoControl.readLock().tryLock(); intento++) {
+            if (intento < ESPERA_ACTIVA) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(100_000);
+            }
+        }
+    }
+
+    /**
+     * Observador que traslada los cambios de categoría de un recurso al índice de categorías,
+     * a la vista ordenada por categoría, a los observadores externos y al registro de operaciones,
+     * y los cambios de estado a los contadores por estado y a los observadores externos.
+     */
+    private class SincronizadorIndices implements ObservadorRecurso {
+        /**
+         * {@inheritDoc}
+         * <p>
+         * Los cambios hechos con {@link #cambiarCategoria(String, CategoriaRecurso)} llegan con el
+         * cerrojo del punto de control tomado y los anota esa operación. Los hechos directamente sobre
+         * la instancia toman aquí el cerrojo y se anotan, sin esperar la sincronización con el disco,
+         * porque llegan bajo el monitor del recurso.
+         * </p>
+         */
+        @Override
+        public void categoriaCambiada(RecursoDigital recurso, CategoriaRecurso anterior, CategoriaRecurso nueva) {
+            boolean directo = registro != null && puntoControl.getReadHoldCount() == 0;
+            if (directo) {
+                tomarPuntoControlDesdeMonitor();
+            }
+            try {
+                Epoca epocaMutacion = entrarEpoca();
+                try {
+                    indiceCategorias.mover(idsRecursos.codigo(recurso.getIdentificador()), anterior, nueva);
+                    if (indicesOrdenActivos) {
+                        vistaPorCategoria.agregar(recurso, nueva.toString());
+                    }
+                    long numero = epocaEnCurso();
+                    for (ObservadorGestor observador : observadores) {
+                        observador.categoriaCambiada(recurso, anterior, nueva, numero);
+                    }
+                } finally {
+                    salirEpoca(epocaMutacion);
+                }
+                if (directo) {
+                    anotar(() -> new EntradaRegistro(TipoOperacion.CAMBIO_CATEGORIA,
+                            recurso.getIdentificador(), nueva.name()));
+                }
+            } finally {
+                if (directo) {
+                    puntoControl.readLock().unlock();
+                }
+            }
+        }
+
+        @Override
+        public void estadoCambiado(RecursoDigital recurso, EstadoRecurso anterior, EstadoRecurso nuevo) {
+            Epoca epocaMutacion = entrarEpoca();
+            try {
+                contadoresEstado.get(anterior).decrement();
+                contadoresEstado.get(nuevo).increment();
+                long numero = epocaEnCurso();
+                for (ObservadorGestor observador : observadores) {
+                    observador.estadoCambiado(recurso, anterior, nuevo, numero);
+                }
+            } finally {
+                salirEpoca(epocaMutacion);
+            }
+        }
+    }
+
+    /**
+     * Operación sobre un recurso ya resuelto junto con su código.
+     */
+    @FunctionalInterface
+    private interface OperacionRecurso {
+        /**
+         * Aplica la operación.
+         *
+         * @param codigo  código del recurso
+         * @param recurso recurso sobre el que se opera
+         * @param lote    espera del lote al que pertenece la operación
+         * @return resultado de la operación
+         */
+        ResultadoOperacion aplicar(int codigo, RecursoDigital recurso, EsperaRegistro lote);
+    }
+
+    /**
+     * Secuencia de la última entrada que un lote de operaciones anotó en el registro, cuya
+     * sincronización se espera una sola vez al terminar el lote. Sólo la usa el hilo del lote.
+     */
+    private static final class EsperaRegistro {
+        private long ultima;
     }
-}
\ No newline at end of file
+}
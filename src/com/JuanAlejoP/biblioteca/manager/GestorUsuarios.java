@@ -1,44 +1,82 @@
 package com.JuanAlejoP.biblioteca.manager;
 
 import com.JuanAlejoP.biblioteca.model.Usuario;
+import com.JuanAlejoP.biblioteca.model.UsuarioNoEncontradoException;
+import com.JuanAlejoP.biblioteca.persistence.InstantaneaBiblioteca;
 import com.JuanAlejoP.biblioteca.service.ServicioNotificaciones;
 
 import java.util.Collection;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.Optional;
 
 /**
  * Gestiona la información de usuarios y facilita la notificación de eventos relacionados.
- * Utiliza una estructura de datos concurrente para permitir acceso seguro.
+ * Los IDs se traducen a códigos enteros densos y los usuarios se guardan en una tabla
+ * concurrente indexada por código, que permite acceso seguro sin hash por entrada.
  */
 public class GestorUsuarios {
     /**
-     * Mapa concurrente que almacena usuarios, indexados por su identificador único.
+     * Diccionario de códigos de los IDs de usuarios.
      */
-    private ConcurrentMap<String, Usuario> usuarios;
+    private final DiccionarioIds ids;
+
+    /**
+     * Tabla concurrente que almacena usuarios, indexados por el código de su identificador.
+     */
+    private final TablaDensa<Usuario> usuarios;
 
     /**
      * Servicio de notificaciones para enviar mensajes a los usuarios.
      */
     private ServicioNotificaciones servicioNotificaciones;
 
+    /**
+     * Instantánea de la que se decodifican bajo demanda los usuarios aún no cargados,
+     * o {@code null} si no hay una o ya se cargó por completo.
+     */
+    private volatile InstantaneaBiblioteca instantanea;
+
     /**
      * Inicializa el gestor de usuarios con el servicio de notificaciones proporcionado.
      *
      * @param servicioNotificaciones servicio utilizado para enviar notificaciones a los usuarios
      */
     public GestorUsuarios(ServicioNotificaciones servicioNotificaciones) {
-        this.usuarios = new ConcurrentHashMap<>();
+        this.ids = new DiccionarioIds();
+        this.usuarios = new TablaDensa<>();
         this.servicioNotificaciones = servicioNotificaciones;
     }
 
+    /**
+     * Inicializa el gestor de usuarios respaldado por una instantánea. Los usuarios de la
+     * instantánea no se cargan al construir el gestor, sino que se decodifican la primera vez
+     * que se buscan, o todos juntos la primera vez que se listan.
+     *
+     * @param servicioNotificaciones servicio utilizado para enviar notificaciones a los usuarios
+     * @param instantanea            instantánea con los usuarios guardados
+     */
+    public GestorUsuarios(ServicioNotificaciones servicioNotificaciones, InstantaneaBiblioteca instantanea) {
+        this(servicioNotificaciones);
+        this.instantanea = instantanea;
+    }
+
     /**
      * Agrega un nuevo usuario al sistema.
      *
      * @param usuario instancia de {@link Usuario} a registrar
      */
     public void addNewUser(Usuario usuario) {
-        usuarios.put(usuario.getId(), usuario);
+        usuarios.getAndSet(ids.registrar(usuario.getId()), usuario);
+    }
+
+    /**
+     * Agrega un lote de usuarios al sistema, reemplazando a los que tengan el mismo ID.
+     *
+     * @param nuevos usuarios a registrar
+     */
+    public void addNewUsers(Collection<Usuario> nuevos) {
+        for (Usuario usuario : nuevos) {
+            addNewUser(usuario);
+        }
     }
 
     /**
@@ -48,16 +86,59 @@ public class GestorUsuarios {
      * @return instancia de {@link Usuario} si existe, o null de lo contrario
      */
     public Usuario searchUserById(String id) {
-        return usuarios.get(id);
+        Usuario usuario = usuarios.get(ids.codigo(id));
+        InstantaneaBiblioteca pendiente = instantanea;
+        if (usuario != null || pendiente == null) {
+            return usuario;
+        }
+        Usuario guardado = pendiente.buscarUsuario(id);
+        if (guardado == null) {
+            return null;
+        }
+        return usuarios.putIfAbsent(ids.registrar(id), guardado);
+    }
+
+    /**
+     * Busca un usuario por su identificador sin lanzar excepciones ante un ID inexistente.
+     *
+     * @param id identificador único del usuario
+     * @return {@link Optional} con el usuario, o vacío si no existe
+     */
+    public Optional<Usuario> buscarUsuario(String id) {
+        return Optional.ofNullable(searchUserById(id));
+    }
+
+    /**
+     * Obtiene un usuario por su identificador, fallando si no existe.
+     *
+     * @param id identificador único del usuario
+     * @return instancia de {@link Usuario} con el ID proporcionado
+     * @throws UsuarioNoEncontradoException si no existe un usuario con ese ID; se crea sin traza de la pila
+     */
+    public Usuario obtenerUsuario(String id) throws UsuarioNoEncontradoException {
+        Usuario usuario = searchUserById(id);
+        if (usuario == null) {
+            throw UsuarioNoEncontradoException.sinTraza("Usuario con ID " + id + " no encontrado.");
+        }
+        return usuario;
     }
 
     /**
-     * Devuelve todos los usuarios registrados en el sistema.
+     * Devuelve todos los usuarios registrados en el sistema, cargando antes los que
+     * queden pendientes en la instantánea.
      *
      * @return colección de {@link Usuario}
      */
     public Collection<Usuario> listAllUsers() {
-        return usuarios.values();
+        InstantaneaBiblioteca pendiente = instantanea;
+        if (pendiente != null) {
+            for (int i = 0; i < pendiente.getCantidadUsuarios(); i++) {
+                Usuario guardado = pendiente.usuario(i);
+                usuarios.putIfAbsent(ids.registrar(guardado.getId()), guardado);
+            }
+            instantanea = null;
+        }
+        return usuarios.valores();
     }
 
     /**
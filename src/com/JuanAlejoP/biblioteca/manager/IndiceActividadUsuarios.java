@@ -0,0 +1,195 @@
+package com.JuanAlejoP.biblioteca.manager;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Índice que mantiene, para cada usuario, los recursos que tiene prestados y reservados.
+ * <p>
+ * Se actualiza junto con cada préstamo, devolución y reserva, de modo que consultar
+ * la actividad de un usuario no requiere recorrer los préstamos ni las colas de reservas.
+ * Usuarios y recursos se identifican por sus códigos de diccionario: la actividad de cada
+ * usuario se ubica por posición y guarda listas de códigos de recurso, no conjuntos de cadenas.
+ * Las entradas de usuarios no se eliminan al quedar vacías, lo que evita carreras
+ * entre la eliminación y un alta simultánea; su cantidad está acotada por los usuarios.
+ * </p>
+ */
+class IndiceActividadUsuarios {
+    /**
+     * Actividad vigente de cada usuario, indexada por código de usuario.
+     */
+    private final TablaDensa<Actividad> actividades = new TablaDensa<>();
+
+    /**
+     * Diccionario de los códigos de usuario.
+     */
+    private final DiccionarioIds idsUsuarios;
+
+    /**
+     * Diccionario de los códigos de recurso.
+     */
+    private final DiccionarioIds idsRecursos;
+
+    /**
+     * Construye un índice vacío.
+     *
+     * @param idsUsuarios diccionario de los códigos de usuario
+     * @param idsRecursos diccionario de los códigos de recurso
+     */
+    IndiceActividadUsuarios(DiccionarioIds idsUsuarios, DiccionarioIds idsRecursos) {
+        this.idsUsuarios = idsUsuarios;
+        this.idsRecursos = idsRecursos;
+    }
+
+    /**
+     * Registra un préstamo activo de un recurso para un usuario.
+     *
+     * @param usuario código del usuario
+     * @param recurso código del recurso prestado
+     * @return {@code true} si el préstamo no estaba registrado
+     */
+    boolean agregarPrestamo(int usuario, int recurso) {
+        return actividad(usuario).prestados.agregarSiFalta(recurso);
+    }
+
+    /**
+     * Quita un préstamo de un usuario.
+     *
+     * @param usuario código del usuario
+     * @param recurso código del recurso devuelto
+     */
+    void quitarPrestamo(int usuario, int recurso) {
+        Actividad actividad = actividades.get(usuario);
+        if (actividad != null) {
+            actividad.prestados.quitar(recurso);
+        }
+    }
+
+    /**
+     * Registra una reserva de un usuario sobre un recurso. Un usuario puede tener
+     * varias reservas sobre el mismo recurso, por lo que cada una se registra por separado.
+     *
+     * @param usuario código del usuario
+     * @param recurso código del recurso reservado
+     */
+    void agregarReserva(int usuario, int recurso) {
+        actividad(usuario).reservados.agregar(recurso);
+    }
+
+    /**
+     * Quita una reserva de un usuario sobre un recurso.
+     *
+     * @param usuario código del usuario
+     * @param recurso código del recurso cuya reserva se consumió
+     */
+    void quitarReserva(int usuario, int recurso) {
+        Actividad actividad = actividades.get(usuario);
+        if (actividad != null) {
+            actividad.reservados.quitar(recurso);
+        }
+    }
+
+    /**
+     * Obtiene los recursos prestados a un usuario.
+     *
+     * @param usuario código del usuario, o {@code -1} si no está registrado
+     * @return vista de sólo lectura con los IDs de recursos prestados, vacía si el usuario no tiene actividad
+     */
+    Set<String> prestados(int usuario) {
+        Actividad actividad = actividades.get(usuario);
+        return actividad == null ? Collections.emptySet() : new VistaIds(actividad.prestados, false);
+    }
+
+    /**
+     * Obtiene los recursos reservados por un usuario.
+     *
+     * @param usuario código del usuario, o {@code -1} si no está registrado
+     * @return vista de sólo lectura con los IDs de recursos reservados, vacía si el usuario no tiene actividad
+     */
+    Set<String> reservados(int usuario) {
+        Actividad actividad = actividades.get(usuario);
+        return actividad == null ? Collections.emptySet() : new VistaIds(actividad.reservados, true);
+    }
+
+    /**
+     * Calcula la cantidad de préstamos activos de cada usuario que tiene al menos uno.
+     *
+     * @return mapa de ID de usuario a cantidad de préstamos activos
+     */
+    Map<String, Integer> prestamosPorUsuario() {
+        Map<String, Integer> resultado = new HashMap<>();
+        int limite = idsUsuarios.tamanio();
+        for (int usuario = 0; usuario < limite; usuario++) {
+            Actividad actividad = actividades.get(usuario);
+            if (actividad != null) {
+                int cantidad = actividad.prestados.cantidad();
+                if (cantidad > 0) {
+                    resultado.put(idsUsuarios.id(usuario), cantidad);
+                }
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Obtiene la actividad de un usuario, creándola si aún no existe.
+     *
+     * @param usuario código del usuario
+     * @return actividad del usuario
+     */
+    private Actividad actividad(int usuario) {
+        Actividad actividad = actividades.get(usuario);
+        return actividad != null ? actividad : actividades.putIfAbsent(usuario, new Actividad());
+    }
+
+    /**
+     * Vista de sólo lectura de una lista de códigos de recurso como conjunto de IDs. Refleja los
+     * cambios de la lista; cada recorrido decodifica una copia tomada al comenzarlo.
+     */
+    private final class VistaIds extends AbstractSet<String> {
+        private final ListaEnteros codigos;
+        private final boolean conRepeticiones;
+
+        VistaIds(ListaEnteros codigos, boolean conRepeticiones) {
+            this.codigos = codigos;
+            this.conRepeticiones = conRepeticiones;
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            return Arrays.stream(conRepeticiones ? codigos.distintos() : codigos.copia())
+                    .mapToObj(idsRecursos::id)
+                    .iterator();
+        }
+
+        @Override
+        public int size() {
+            return conRepeticiones ? codigos.distintos().length : codigos.cantidad();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof String && codigos.contiene(idsRecursos.codigo((String) o));
+        }
+    }
+
+    /**
+     * Recursos prestados y reservados de un usuario.
+     */
+    private static final class Actividad {
+        /**
+         * Códigos de recursos con préstamo activo.
+         */
+        private final ListaEnteros prestados = new ListaEnteros();
+
+        /**
+         * Códigos de recursos con reservas pendientes, uno por reserva.
+         */
+        private final ListaEnteros reservados = new ListaEnteros();
+    }
+}
@@ -0,0 +1,93 @@
+package com.JuanAlejoP.biblioteca.manager;
+
+import com.JuanAlejoP.biblioteca.model.CategoriaRecurso;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Índice secundario que asocia cada {@link CategoriaRecurso} con los códigos de los recursos que la tienen.
+ * <p>
+ * El mapa de categorías se completa en la construcción y no se modifica luego;
+ * sólo cambian los mapas de bits de códigos, por lo que las consultas
+ * por categoría y los conteos no requieren recorrer el catálogo.
+ * </p>
+ */
+class IndiceCategorias {
+    /**
+     * Conjuntos de códigos de recursos por categoría.
+     */
+    private final Map<CategoriaRecurso, ConjuntoDenso> idsPorCategoria = new EnumMap<>(CategoriaRecurso.class);
+
+    /**
+     * Inicializa un conjunto vacío para cada categoría existente.
+     */
+    IndiceCategorias() {
+        for (CategoriaRecurso categoria : CategoriaRecurso.values()) {
+            idsPorCategoria.put(categoria, new ConjuntoDenso());
+        }
+    }
+
+    /**
+     * Carga los códigos de una categoría desde un mapa de bits guardado, sin agregarlos de a uno.
+     * Sólo debe invocarse antes de que el índice se comparta.
+     *
+     * @param categoria categoría cuyos códigos se cargan
+     * @param palabras  mapa de bits de los códigos, según {@link ConjuntoDenso#cargar(long[])}
+     */
+    void cargar(CategoriaRecurso categoria, long[] palabras) {
+        idsPorCategoria.get(categoria).cargar(palabras);
+    }
+
+    /**
+     * Registra un recurso en la categoría indicada.
+     *
+     * @param id        código del recurso
+     * @param categoria categoría del recurso
+     */
+    void agregar(int id, CategoriaRecurso categoria) {
+        idsPorCategoria.get(categoria).agregar(id);
+    }
+
+    /**
+     * Quita un recurso de la categoría indicada.
+     *
+     * @param id        código del recurso
+     * @param categoria categoría de la que se quita
+     */
+    void quitar(int id, CategoriaRecurso categoria) {
+        idsPorCategoria.get(categoria).quitar(id);
+    }
+
+    /**
+     * Mueve un recurso de una categoría a otra.
+     *
+     * @param id       código del recurso
+     * @param anterior categoría previa
+     * @param nueva    categoría nueva
+     */
+    void mover(int id, CategoriaRecurso anterior, CategoriaRecurso nueva) {
+        idsPorCategoria.get(nueva).agregar(id);
+        idsPorCategoria.get(anterior).quitar(id);
+    }
+
+    /**
+     * Obtiene los códigos de recursos de una categoría.
+     *
+     * @param categoria categoría a consultar
+     * @return conjunto de códigos de la categoría; no debe modificarse
+     */
+    ConjuntoDenso ids(CategoriaRecurso categoria) {
+        return idsPorCategoria.get(categoria);
+    }
+
+    /**
+     * Obtiene la cantidad de recursos de una categoría.
+     *
+     * @param categoria categoría a consultar
+     * @return cantidad de recursos registrados en la categoría
+     */
+    int contar(CategoriaRecurso categoria) {
+        return idsPorCategoria.get(categoria).cantidad();
+    }
+}
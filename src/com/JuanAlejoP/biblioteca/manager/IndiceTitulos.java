@@ -0,0 +1,142 @@
+package com.JuanAlejoP.biblioteca.manager;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Índice invertido de trigramas sobre los títulos de los recursos.
+ * <p>
+ * Cada título se normaliza una sola vez al indexarse y se descompone en trigramas.
+ * Una búsqueda por subcadena toma como candidatos los recursos de la lista invertida
+ * más corta entre los trigramas de la consulta y los verifica contra el título
+ * normalizado, evitando recorrer y convertir todo el catálogo en cada búsqueda.
+ * Los recursos se identifican por sus códigos de diccionario, por lo que las listas
+ * invertidas son arreglos ordenados de enteros y los títulos se ubican por posición.
+ * </p>
+ */
+class IndiceTitulos {
+    /**
+     * Longitud de los n-gramas indexados.
+     */
+    private static final int LONGITUD_NGRAMA = 3;
+
+    /**
+     * Títulos normalizados, indexados por código de recurso.
+     */
+    private final TablaDensa<String> titulos = new TablaDensa<>();
+
+    /**
+     * Listas invertidas que asocian cada trigrama con los códigos de recursos cuyo título lo contiene.
+     */
+    private final ConcurrentMap<String, ListaOrdenada> trigramas = new ConcurrentHashMap<>();
+
+    /**
+     * Indexa el título de un recurso, reemplazando la entrada previa si el código ya existía.
+     * Las altas de un mismo código deben estar serializadas por quien llama. Al reemplazar un
+     * título sólo se tocan las listas de los trigramas que cambiaron, y nada si el título
+     * normalizado es el mismo.
+     *
+     * @param id     código del recurso
+     * @param titulo título original del recurso
+     */
+    void agregar(int id, String titulo) {
+        String normalizado = normalizar(titulo);
+        String anterior = titulos.getAndSet(id, normalizado);
+        if (normalizado.equals(anterior)) {
+            return;
+        }
+        Set<String> nuevos = trigramasDe(normalizado);
+        if (anterior != null) {
+            for (String trigrama : trigramasDe(anterior)) {
+                // Los trigramas que comparten ambos títulos ya están indexados y no se vuelven a agregar
+                if (!nuevos.remove(trigrama)) {
+                    ListaOrdenada ids = trigramas.get(trigrama);
+                    if (ids != null) {
+                        ids.quitar(id);
+                    }
+                }
+            }
+        }
+        for (String trigrama : nuevos) {
+            trigramas.computeIfAbsent(trigrama, k -> new ListaOrdenada()).agregar(id);
+        }
+    }
+
+    /**
+     * Busca los códigos de recursos cuyo título contiene la consulta, sin distinguir mayúsculas.
+     * <p>
+     * Las consultas más cortas que un trigrama se resuelven recorriendo los títulos
+     * ya normalizados, sin asignar cadenas nuevas por recurso.
+     * </p>
+     *
+     * @param consulta texto a buscar dentro de los títulos
+     * @return códigos de recursos que coinciden
+     */
+    int[] buscar(String consulta) {
+        String normalizada = normalizar(consulta);
+        int[] resultado = new int[16];
+        int encontrados = 0;
+        if (normalizada.length() < LONGITUD_NGRAMA) {
+            int limite = titulos.capacidad();
+            for (int id = 0; id < limite; id++) {
+                String titulo = titulos.get(id);
+                if (titulo != null && titulo.contains(normalizada)) {
+                    if (encontrados == resultado.length) {
+                        resultado = Arrays.copyOf(resultado, encontrados * 2);
+                    }
+                    resultado[encontrados++] = id;
+                }
+            }
+            return Arrays.copyOf(resultado, encontrados);
+        }
+
+        ListaOrdenada candidatos = null;
+        for (String trigrama : trigramasDe(normalizada)) {
+            ListaOrdenada ids = trigramas.get(trigrama);
+            if (ids == null || ids.cantidad() == 0) {
+                return new int[0];
+            }
+            if (candidatos == null || ids.cantidad() < candidatos.cantidad()) {
+                candidatos = ids;
+            }
+        }
+        for (int id : candidatos.copia()) {
+            String titulo = titulos.get(id);
+            if (titulo != null && titulo.contains(normalizada)) {
+                if (encontrados == resultado.length) {
+                    resultado = Arrays.copyOf(resultado, encontrados * 2);
+                }
+                resultado[encontrados++] = id;
+            }
+        }
+        return Arrays.copyOf(resultado, encontrados);
+    }
+
+    /**
+     * Normaliza un texto para su comparación: minúsculas independientes de la configuración regional.
+     *
+     * @param texto texto original
+     * @return texto normalizado
+     */
+    private static String normalizar(String texto) {
+        return texto.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Obtiene el conjunto de trigramas distintos de un texto ya normalizado.
+     *
+     * @param texto texto normalizado
+     * @return conjunto de trigramas, vacío si el texto es más corto que un trigrama
+     */
+    private static Set<String> trigramasDe(String texto) {
+        Set<String> resultado = new HashSet<>();
+        for (int i = 0; i + LONGITUD_NGRAMA <= texto.length(); i++) {
+            resultado.add(texto.substring(i, i + LONGITUD_NGRAMA));
+        }
+        return resultado;
+    }
+}
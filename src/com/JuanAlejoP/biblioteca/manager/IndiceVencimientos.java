@@ -0,0 +1,74 @@
+package com.JuanAlejoP.biblioteca.manager;
+
+import com.JuanAlejoP.biblioteca.model.Prestamo;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Índice de préstamos activos ordenados por fecha de devolución.
+ * <p>
+ * Permite obtener los préstamos que vencen dentro de un intervalo con una consulta
+ * por rango, cuyo costo depende de la cantidad de préstamos que efectivamente vencen
+ * en ese intervalo y no del total de préstamos activos.
+ * </p>
+ */
+class IndiceVencimientos {
+    /**
+     * Orden de las claves: por fecha de devolución y, ante empates, por código de recurso.
+     */
+    private static final Comparator<Clave> ORDEN =
+            Comparator.comparing((Clave c) -> c.fechaDevolucion).thenComparingInt(c -> c.idRecurso);
+
+    /**
+     * Préstamos activos ordenados por (fecha de devolución, código de recurso).
+     */
+    private final ConcurrentSkipListMap<Clave, Prestamo> prestamos = new ConcurrentSkipListMap<>(ORDEN);
+
+    /**
+     * Incorpora un préstamo al índice.
+     *
+     * @param idRecurso código del recurso prestado
+     * @param prestamo  préstamo activo
+     */
+    void agregar(int idRecurso, Prestamo prestamo) {
+        prestamos.put(new Clave(prestamo.getFechaDevolucion(), idRecurso), prestamo);
+    }
+
+    /**
+     * Quita un préstamo del índice, si sigue siendo el registrado para su clave.
+     *
+     * @param idRecurso código del recurso prestado
+     * @param prestamo  préstamo que dejó de estar activo
+     */
+    void quitar(int idRecurso, Prestamo prestamo) {
+        prestamos.remove(new Clave(prestamo.getFechaDevolucion(), idRecurso), prestamo);
+    }
+
+    /**
+     * Obtiene los préstamos cuya fecha de devolución está dentro del intervalo indicado.
+     *
+     * @param desde inicio del intervalo, inclusive
+     * @param hasta fin del intervalo, exclusive
+     * @return préstamos que vencen en el intervalo, ordenados por fecha de devolución
+     */
+    List<Prestamo> venceEntre(LocalDateTime desde, LocalDateTime hasta) {
+        return new ArrayList<>(prestamos.subMap(new Clave(desde, -1), true, new Clave(hasta, -1), false).values());
+    }
+
+    /**
+     * Clave compuesta del índice: fecha de devolución y código del recurso prestado.
+     */
+    private static final class Clave {
+        private final LocalDateTime fechaDevolucion;
+        private final int idRecurso;
+
+        private Clave(LocalDateTime fechaDevolucion, int idRecurso) {
+            this.fechaDevolucion = fechaDevolucion;
+            this.idRecurso = idRecurso;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.JuanAlejoP.biblioteca.manager;
+
+/**
+ * Lectura que se ejecuta sobre una versión consistente del catálogo mediante
+ * {@link GestorRecursos#leerVersion(LecturaVersion)}.
+ *
+ * @param <T> tipo del resultado de la lectura
+ */
+@FunctionalInterface
+public interface LecturaVersion<T> {
+    /**
+     * Lee la versión. Los observadores del gestor ya incorporaron todas las mutaciones de la versión
+     * y ninguna posterior; la versión sólo es válida durante esta invocación.
+     *
+     * @param version versión que se lee
+     * @return resultado de la lectura
+     */
+    T leer(VersionCatalogo version);
+}
@@ -0,0 +1,124 @@
+package com.JuanAlejoP.biblioteca.manager;
+
+import java.util.Arrays;
+
+/**
+ * Lista sincronizada de códigos enteros, sin orden y con repeticiones, sobre un arreglo primitivo.
+ * <p>
+ * Se usa para las listas invertidas y las colecciones por usuario de los índices, que casi
+ * siempre son cortas y se modifican mucho menos de lo que se leen: cada código ocupa cuatro
+ * bytes en lugar de un nodo de conjunto concurrente con su cadena.
+ * </p>
+ */
+class ListaEnteros {
+    /**
+     * Códigos de la lista.
+     */
+    private int[] codigos = new int[2];
+
+    /**
+     * Cantidad de códigos de la lista.
+     */
+    private int cantidad;
+
+    /**
+     * Agrega un código al final de la lista.
+     *
+     * @param codigo código a agregar
+     */
+    synchronized void agregar(int codigo) {
+        if (cantidad == codigos.length) {
+            codigos = Arrays.copyOf(codigos, cantidad * 2);
+        }
+        codigos[cantidad++] = codigo;
+    }
+
+    /**
+     * Agrega un código si aún no está en la lista.
+     *
+     * @param codigo código a agregar
+     * @return {@code true} si se agregó
+     */
+    synchronized boolean agregarSiFalta(int codigo) {
+        if (posicion(codigo) >= 0) {
+            return false;
+        }
+        agregar(codigo);
+        return true;
+    }
+
+    /**
+     * Quita una aparición de un código, reemplazándola por el último de la lista.
+     *
+     * @param codigo código a quitar
+     * @return {@code true} si estaba en la lista
+     */
+    synchronized boolean quitar(int codigo) {
+        int posicion = posicion(codigo);
+        if (posicion < 0) {
+            return false;
+        }
+        codigos[posicion] = codigos[--cantidad];
+        return true;
+    }
+
+    /**
+     * Indica si un código está en la lista.
+     *
+     * @param codigo código buscado
+     * @return {@code true} si está al menos una vez
+     */
+    synchronized boolean contiene(int codigo) {
+        return posicion(codigo) >= 0;
+    }
+
+    /**
+     * Obtiene la cantidad de códigos de la lista, contando las repeticiones.
+     *
+     * @return cantidad de códigos
+     */
+    synchronized int cantidad() {
+        return cantidad;
+    }
+
+    /**
+     * Obtiene una copia de los códigos de la lista.
+     *
+     * @return arreglo con los códigos
+     */
+    synchronized int[] copia() {
+        return Arrays.copyOf(codigos, cantidad);
+    }
+
+    /**
+     * Obtiene una copia de los códigos de la lista sin repeticiones.
+     *
+     * @return arreglo con los códigos distintos, en orden ascendente
+     */
+    int[] distintos() {
+        int[] copia = copia();
+        Arrays.sort(copia);
+        int distintos = 0;
+        for (int i = 0; i < copia.length; i++) {
+            if (i == 0 || copia[i] != copia[i - 1]) {
+                copia[distintos++] = copia[i];
+            }
+        }
+        return Arrays.copyOf(copia, distintos);
+    }
+
+    /**
+     * Busca la posición de un código; debe llamarse con el monitor tomado.
+     *
+     * @param codigo código buscado
+     * @return posición, o {@code -1} si no está
+     */
+    private int posicion(int codigo) {
+        for (int i = 0; i < cantidad; i++) {
+            if (codigos[i] == codigo) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
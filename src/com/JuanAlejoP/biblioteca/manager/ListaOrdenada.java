@@ -0,0 +1,178 @@
+package com.JuanAlejoP.biblioteca.manager;
+
+import java.util.Arrays;
+
+/**
+ * Lista sincronizada de códigos enteros distintos, en orden ascendente, dividida en bloques.
+ * <p>
+ * Se usa para las listas invertidas del índice de títulos, que pueden abarcar buena parte del
+ * catálogo y de las que se quita un código cada vez que cambia el título de un recurso. Cada bloque
+ * es un arreglo ordenado de a lo sumo {@value #MAXIMO_BLOQUE} códigos: agregar o quitar un código
+ * ubica su bloque y su posición por búsqueda binaria y sólo desplaza los códigos de ese bloque, en
+ * lugar de recorrer la lista entera. Las altas en orden creciente, el caso habitual porque los
+ * códigos se asignan en orden, completan el último bloque sin desplazar nada.
+ * </p>
+ */
+class ListaOrdenada {
+    /**
+     * Cantidad máxima de códigos de un bloque; un bloque lleno se divide en dos mitades.
+     */
+    private static final int MAXIMO_BLOQUE = 1024;
+
+    /**
+     * Bloques de códigos, ordenados entre sí; sólo las primeras {@link #cantidadBloques} posiciones se usan.
+     */
+    private int[][] bloques = new int[1][];
+
+    /**
+     * Cantidad de códigos usados de cada bloque.
+     */
+    private int[] tamanios = new int[1];
+
+    /**
+     * Cantidad de bloques en uso.
+     */
+    private int cantidadBloques;
+
+    /**
+     * Cantidad total de códigos de la lista.
+     */
+    private int cantidad;
+
+    /**
+     * Agrega un código si aún no está en la lista.
+     *
+     * @param codigo código a agregar
+     * @return {@code true} si se agregó
+     */
+    synchronized boolean agregar(int codigo) {
+        if (cantidadBloques == 0) {
+            insertarBloque(0, new int[2], 0);
+        }
+        int b = bloqueDe(codigo);
+        int posicion = Arrays.binarySearch(bloques[b], 0, tamanios[b], codigo);
+        if (posicion >= 0) {
+            return false;
+        }
+        posicion = -posicion - 1;
+        if (tamanios[b] == MAXIMO_BLOQUE) {
+            if (b == cantidadBloques - 1 && posicion == MAXIMO_BLOQUE) {
+                // Alta al final de la lista: se abre un bloque nuevo en lugar de dividir el último
+                insertarBloque(++b, new int[2], 0);
+                posicion = 0;
+            } else {
+                int mitad = MAXIMO_BLOQUE / 2;
+                int[] segunda = Arrays.copyOfRange(bloques[b], mitad, MAXIMO_BLOQUE);
+                tamanios[b] = mitad;
+                insertarBloque(b + 1, segunda, MAXIMO_BLOQUE - mitad);
+                if (posicion > mitad) {
+                    b++;
+                    posicion -= mitad;
+                }
+            }
+        }
+        int[] bloque = bloques[b];
+        int tamanio = tamanios[b];
+        if (tamanio == bloque.length) {
+            bloque = Arrays.copyOf(bloque, Math.min(MAXIMO_BLOQUE, tamanio * 2));
+            bloques[b] = bloque;
+        }
+        System.arraycopy(bloque, posicion, bloque, posicion + 1, tamanio - posicion);
+        bloque[posicion] = codigo;
+        tamanios[b] = tamanio + 1;
+        cantidad++;
+        return true;
+    }
+
+    /**
+     * Quita un código de la lista.
+     *
+     * @param codigo código a quitar
+     * @return {@code true} si estaba en la lista
+     */
+    synchronized boolean quitar(int codigo) {
+        if (cantidadBloques == 0) {
+            return false;
+        }
+        int b = bloqueDe(codigo);
+        int[] bloque = bloques[b];
+        int tamanio = tamanios[b];
+        int posicion = Arrays.binarySearch(bloque, 0, tamanio, codigo);
+        if (posicion < 0) {
+            return false;
+        }
+        System.arraycopy(bloque, posicion + 1, bloque, posicion, tamanio - posicion - 1);
+        tamanios[b] = tamanio - 1;
+        cantidad--;
+        if (tamanio == 1) {
+            System.arraycopy(bloques, b + 1, bloques, b, cantidadBloques - b - 1);
+            System.arraycopy(tamanios, b + 1, tamanios, b, cantidadBloques - b - 1);
+            bloques[--cantidadBloques] = null;
+        }
+        return true;
+    }
+
+    /**
+     * Obtiene la cantidad de códigos de la lista.
+     *
+     * @return cantidad de códigos
+     */
+    synchronized int cantidad() {
+        return cantidad;
+    }
+
+    /**
+     * Obtiene una copia de los códigos de la lista.
+     *
+     * @return arreglo con los códigos, en orden ascendente
+     */
+    synchronized int[] copia() {
+        int[] copia = new int[cantidad];
+        int posicion = 0;
+        for (int b = 0; b < cantidadBloques; b++) {
+            System.arraycopy(bloques[b], 0, copia, posicion, tamanios[b]);
+            posicion += tamanios[b];
+        }
+        return copia;
+    }
+
+    /**
+     * Busca el bloque donde corresponde un código: el último cuyo primer código no lo supera, o el
+     * primero si el código es menor que todos. Debe llamarse con el monitor tomado y algún bloque.
+     *
+     * @param codigo código buscado
+     * @return índice del bloque
+     */
+    private int bloqueDe(int codigo) {
+        int desde = 0;
+        int hasta = cantidadBloques - 1;
+        while (desde < hasta) {
+            int medio = (desde + hasta + 1) >>> 1;
+            if (bloques[medio][0] <= codigo) {
+                desde = medio;
+            } else {
+                hasta = medio - 1;
+            }
+        }
+        return desde;
+    }
+
+    /**
+     * Inserta un bloque en una posición, desplazando los siguientes; debe llamarse con el monitor tomado.
+     *
+     * @param posicion posición del bloque nuevo
+     * @param bloque   códigos del bloque
+     * @param tamanio  cantidad de códigos usados del bloque
+     */
+    private void insertarBloque(int posicion, int[] bloque, int tamanio) {
+        if (cantidadBloques == bloques.length) {
+            bloques = Arrays.copyOf(bloques, cantidadBloques * 2);
+            tamanios = Arrays.copyOf(tamanios, cantidadBloques * 2);
+        }
+        System.arraycopy(bloques, posicion, bloques, posicion + 1, cantidadBloques - posicion);
+        System.arraycopy(tamanios, posicion, tamanios, posicion + 1, cantidadBloques - posicion);
+        bloques[posicion] = bloque;
+        tamanios[posicion] = tamanio;
+        cantidadBloques++;
+    }
+}
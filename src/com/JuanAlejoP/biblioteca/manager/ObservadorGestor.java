@@ -0,0 +1,104 @@
+package com.JuanAlejoP.biblioteca.manager;
+
+import com.JuanAlejoP.biblioteca.model.CategoriaRecurso;
+import com.JuanAlejoP.biblioteca.model.EstadoRecurso;
+import com.JuanAlejoP.biblioteca.model.Prestamo;
+import com.JuanAlejoP.biblioteca.model.RecursoDigital;
+import com.JuanAlejoP.biblioteca.model.Reserva;
+
+/**
+ * Observador de las mutaciones confirmadas por un {@link GestorRecursos}.
+ * <p>
+ * Permite mantener vistas materializadas, como los agregados de los reportes, actualizándolas
+ * con cada alta, préstamo, devolución, reserva y cambio de estado o categoría en lugar de
+ * recalcularlas sobre todo el catálogo. Las notificaciones se hacen en el hilo que realizó la
+ * mutación, por lo que deben ser breves y no volver a operar sobre el gestor.
+ * </p>
+ * <p>
+ * Cada notificación indica la época de la mutación que la produjo; todas las notificaciones de una
+ * misma mutación llevan la misma época. Al leer una versión, el gestor inicia una época nueva, espera
+ * a que terminen las mutaciones de la anterior y la cierra, de modo que el observador puede separar
+ * lo que pertenece a la versión de lo posterior sin detener a quienes mutan.
+ * </p>
+ */
+public interface ObservadorGestor {
+
+    /**
+     * Notifica el alta de un recurso en el catálogo.
+     *
+     * @param recurso  recurso incorporado
+     * @param anterior recurso con el mismo ID al que reemplaza, o {@code null} si no había
+     * @param epoca    época de la mutación
+     */
+    void recursoAgregado(RecursoDigital recurso, RecursoDigital anterior, long epoca);
+
+    /**
+     * Notifica que un recurso del catálogo cambió de estado.
+     *
+     * @param recurso  recurso modificado
+     * @param anterior estado previo
+     * @param nuevo    estado asignado
+     * @param epoca    época de la mutación
+     */
+    void estadoCambiado(RecursoDigital recurso, EstadoRecurso anterior, EstadoRecurso nuevo, long epoca);
+
+    /**
+     * Notifica que un recurso del catálogo cambió de categoría.
+     *
+     * @param recurso  recurso modificado
+     * @param anterior categoría previa
+     * @param nueva    categoría asignada
+     * @param epoca    época de la mutación
+     */
+    void categoriaCambiada(RecursoDigital recurso, CategoriaRecurso anterior, CategoriaRecurso nueva, long epoca);
+
+    /**
+     * Notifica que comenzó un préstamo.
+     *
+     * @param prestamo préstamo registrado
+     * @param epoca    época de la mutación
+     */
+    void prestamoIniciado(Prestamo prestamo, long epoca);
+
+    /**
+     * Notifica que terminó un préstamo por la devolución del recurso.
+     *
+     * @param prestamo préstamo retirado
+     * @param epoca    época de la mutación
+     */
+    void prestamoTerminado(Prestamo prestamo, long epoca);
+
+    /**
+     * Notifica que se agregó una reserva a la cola de un recurso.
+     *
+     * @param reserva reserva agregada
+     * @param epoca   época de la mutación
+     */
+    void reservaAgregada(Reserva reserva, long epoca);
+
+    /**
+     * Notifica que una reserva salió de la cola de un recurso al concretarse el préstamo.
+     *
+     * @param reserva reserva consumida
+     * @param epoca   época de la mutación
+     */
+    void reservaQuitada(Reserva reserva, long epoca);
+
+    /**
+     * Notifica que las mutaciones que comiencen a partir de ahora pertenecen a una época nueva. Se
+     * invoca al suscribirse, con la época en curso, y al leer cada versión, antes de que alguna
+     * mutación pueda notificarse con la época nueva.
+     *
+     * @param epoca época iniciada
+     */
+    void epocaIniciada(long epoca);
+
+    /**
+     * Notifica que terminaron todas las mutaciones de una época y que no habrá más notificaciones
+     * con ella. Se invoca desde la lectura de una versión, antes de ejecutarla, y las lecturas de
+     * versión se serializan entre sí.
+     *
+     * @param epoca época cerrada
+     */
+    void epocaCerrada(long epoca);
+}
@@ -0,0 +1,63 @@
+package com.JuanAlejoP.biblioteca.manager;
+
+import java.util.List;
+
+/**
+ * Página de resultados de una consulta paginada por cursor.
+ * <p>
+ * El cursor es un valor opaco que identifica la posición del último elemento
+ * devuelto; se pasa a la siguiente consulta para continuar desde ese punto,
+ * aun cuando el catálogo haya cambiado entre una página y otra.
+ * </p>
+ *
+ * @param <T> tipo de los elementos de la página
+ */
+public class Pagina<T> {
+    /**
+     * Elementos de la página, en el orden de la vista consultada.
+     */
+    private final List<T> elementos;
+
+    /**
+     * Cursor para solicitar la página siguiente, o {@code null} si no hay más elementos.
+     */
+    private final String siguienteCursor;
+
+    /**
+     * Construye una página con sus elementos y el cursor de continuación.
+     *
+     * @param elementos       elementos de la página
+     * @param siguienteCursor cursor de la página siguiente, o {@code null} si es la última
+     */
+    public Pagina(List<T> elementos, String siguienteCursor) {
+        this.elementos = elementos;
+        this.siguienteCursor = siguienteCursor;
+    }
+
+    /**
+     * Obtiene los elementos de la página.
+     *
+     * @return lista de elementos
+     */
+    public List<T> getElementos() {
+        return elementos;
+    }
+
+    /**
+     * Obtiene el cursor para continuar con la página siguiente.
+     *
+     * @return cursor opaco, o {@code null} si ésta es la última página
+     */
+    public String getSiguienteCursor() {
+        return siguienteCursor;
+    }
+
+    /**
+     * Indica si existen elementos posteriores a esta página.
+     *
+     * @return {@code true} si hay una página siguiente
+     */
+    public boolean haySiguiente() {
+        return siguienteCursor != null;
+    }
+}
@@ -0,0 +1,97 @@
+package com.JuanAlejoP.biblioteca.manager;
+
+/**
+ * Resultado de una operación de préstamo, devolución, reserva o renovación sobre un recurso.
+ * <p>
+ * Permite informar el motivo de un rechazo sin lanzar excepciones, por ejemplo en las
+ * operaciones por lotes, donde cada elemento obtiene su propio resultado.
+ * </p>
+ */
+public enum ResultadoOperacion {
+    /**
+     * La operación se realizó correctamente.
+     */
+    EXITO("Operación realizada con éxito."),
+
+    /**
+     * No existe un recurso con el ID indicado.
+     */
+    NO_ENCONTRADO("Recurso no encontrado."),
+
+    /**
+     * El recurso no implementa la capacidad de préstamo.
+     */
+    NO_PRESTABLE("Este recurso no puede ser prestado."),
+
+    /**
+     * El recurso no admite reservas.
+     */
+    NO_RESERVABLE("Este recurso no puede reservarse."),
+
+    /**
+     * El recurso no admite renovaciones.
+     */
+    NO_RENOVABLE("Este recurso no permite renovación."),
+
+    /**
+     * El recurso está prestado o reservado para otro usuario.
+     */
+    NO_DISPONIBLE("El recurso no está disponible."),
+
+    /**
+     * Existe un préstamo activo que impide registrar uno nuevo.
+     */
+    YA_PRESTADO("El recurso ya se encuentra prestado."),
+
+    /**
+     * El recurso no tiene un préstamo activo para devolver.
+     */
+    NO_PRESTADO("Recurso no está prestado."),
+
+    /**
+     * El recurso está disponible, por lo que no es necesario reservarlo.
+     */
+    RESERVA_INNECESARIA("Recurso disponible, reserva no necesaria."),
+
+    /**
+     * El préstamo activo no pertenece al usuario que solicita la operación.
+     */
+    NO_ES_SU_PRESTAMO("No es su préstamo."),
+
+    /**
+     * El recurso no está retenido para una reserva del usuario que solicita la operación.
+     */
+    NO_ES_SU_TURNO("El recurso no está retenido para su reserva.");
+
+    /**
+     * Mensaje descriptivo del resultado, utilizado también como mensaje de excepción.
+     */
+    private final String mensaje;
+
+    /**
+     * Construye un resultado con su mensaje descriptivo.
+     *
+     * @param mensaje texto que describe el resultado
+     */
+    ResultadoOperacion(String mensaje) {
+        this.mensaje = mensaje;
+    }
+
+    /**
+     * Obtiene el mensaje descriptivo del resultado.
+     *
+     * @return mensaje del resultado
+     */
+    public String getMensaje() {
+        return mensaje;
+    }
+
+    /**
+     * Indica si la operación se realizó correctamente.
+     *
+     * @return {@code true} si el resultado es {@link #EXITO}
+     */
+    public boolean esExito() {
+        return this == EXITO;
+    }
+}
@@ -0,0 +1,401 @@
+package com.JuanAlejoP.biblioteca.manager;
+
+import com.JuanAlejoP.biblioteca.model.Frecuencia;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resumen acotado de las frecuencias de un flujo de IDs según el algoritmo Space-Saving.
+ * <p>
+ * Mantiene a lo sumo una cantidad fija de contadores. Un ID nuevo con el resumen lleno ocupa el
+ * contador de menor valor, hereda ese valor como error y lo incrementa, de modo que ningún contador
+ * subestima su ID y todo ID cuya frecuencia real supere {@code total / capacidad} está en el resumen.
+ * Los contadores se agrupan en cubetas de igual valor encadenadas en orden creciente: registrar una
+ * aparición mueve el contador a la cubeta siguiente en tiempo constante y obtener los primeros
+ * puestos recorre sólo las cubetas más altas.
+ * </p>
+ * <p>
+ * Cada aparición pertenece a una época del gestor. Mientras se lee una versión, las apariciones de
+ * épocas posteriores se cuentan además aparte, para descontarlas de los primeros puestos de la versión.
+ * </p>
+ * <p>
+ * Las apariciones no se cuentan al registrarse: cada hilo las anota con su época en una de varias
+ * franjas, elegida por el hilo, y el resumen las incorpora en tandas cuando una franja se llena o
+ * antes de cada consulta. Así, quienes registran sólo se sincronizan en su franja y el monitor del
+ * resumen se toma una vez por tanda. Como cada aparición conserva su época, incorporarla tarde la
+ * aparta o no según la versión que se lee en ese momento, igual que si se hubiera contado al llegar.
+ * </p>
+ */
+class ResumenFrecuencias {
+    /**
+     * Cantidad de franjas de apariciones pendientes, potencia de dos.
+     */
+    private static final int FRANJAS =
+            Integer.highestOneBit(Math.min(64, Runtime.getRuntime().availableProcessors() * 2) * 2 - 1);
+
+    /**
+     * Cantidad de apariciones que una franja acumula antes de incorporarlas al resumen.
+     */
+    private static final int CAPACIDAD_FRANJA = 128;
+
+    /**
+     * Cantidad máxima de contadores.
+     */
+    private final int capacidad;
+
+    /**
+     * Contador de cada ID presente en el resumen.
+     */
+    private final Map<String, Contador> contadores = new HashMap<>();
+
+    /**
+     * Cubetas de menor y mayor valor, o {@code null} si el resumen está vacío.
+     */
+    private Cubeta minima;
+    private Cubeta maxima;
+
+    /**
+     * Última época de la versión en lectura, o {@link Long#MAX_VALUE} si no hay ninguna.
+     */
+    private long epocaCongelada = Long.MAX_VALUE;
+
+    /**
+     * Apariciones de cada ID en épocas posteriores a la congelada.
+     */
+    private final Map<String, Integer> posteriores = new HashMap<>();
+
+    /**
+     * Apariciones registradas que aún no se incorporaron al resumen.
+     */
+    private final Franja[] franjas = new Franja[FRANJAS];
+
+    /**
+     * Construye un resumen vacío.
+     *
+     * @param capacidad cantidad máxima de contadores
+     */
+    ResumenFrecuencias(int capacidad) {
+        this.capacidad = capacidad;
+        for (int i = 0; i < FRANJAS; i++) {
+            franjas[i] = new Franja();
+        }
+    }
+
+    /**
+     * Registra una aparición de un ID. La aparición se anota en la franja del hilo y se incorpora al
+     * resumen, con toda la franja, cuando ésta se llena.
+     *
+     * @param id    ID a contar
+     * @param epoca  época de la mutación que produjo la aparición
+     */
+    void registrar(String id, long epoca) {
+        Franja franja = franjas[(int) Thread.currentThread().threadId() & (FRANJAS - 1)];
+        synchronized (franja) {
+            franja.ids[franja.cantidad] = id;
+            franja.epocas[franja.cantidad] = epoca;
+            if (++franja.cantidad == CAPACIDAD_FRANJA) {
+                synchronized (this) {
+                    incorporar(franja);
+                }
+            }
+        }
+    }
+
+    /**
+     * Incorpora al resumen las apariciones pendientes de todas las franjas. Se invoca antes de cada
+     * consulta sin tener el monitor del resumen, que siempre se toma después del de una franja.
+     */
+    private void incorporarPendientes() {
+        for (Franja franja : franjas) {
+            synchronized (franja) {
+                if (franja.cantidad > 0) {
+                    synchronized (this) {
+                        incorporar(franja);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Cuenta las apariciones anotadas en una franja y la vacía. Debe invocarse con el monitor de la
+     * franja y el del resumen.
+     *
+     * @param franja franja a incorporar
+     */
+    private void incorporar(Franja franja) {
+        for (int i = 0; i < franja.cantidad; i++) {
+            contar(franja.ids[i], franja.epocas[i]);
+            franja.ids[i] = null;
+        }
+        franja.cantidad = 0;
+    }
+
+    /**
+     * Cuenta una aparición de un ID en el resumen.
+     *
+     * @param id    ID a contar
+     * @param epoca época de la mutación que produjo la aparición
+     */
+    private void contar(String id, long epoca) {
+        if (epoca > epocaCongelada) {
+            posteriores.merge(id, 1, Integer::sum);
+        }
+        Contador contador = contadores.get(id);
+        if (contador == null) {
+            if (contadores.size() < capacidad) {
+                contador = new Contador(id, 0);
+                agregarAlFinal(contador, 0);
+            } else {
+                contador = minima.primero;
+                contadores.remove(contador.id);
+                contador.id = id;
+                contador.error = minima.valor;
+            }
+            contadores.put(id, contador);
+        }
+        incrementar(contador);
+    }
+
+    /**
+     * Restaura un contador guardado. Los contadores deben restaurarse de mayor a menor valor,
+     * tal como los devuelve {@link #primeros(int)}, sobre un resumen que no registró apariciones;
+     * los que exceden la capacidad se descartan.
+     *
+     * @param id       ID contado
+     * @param cantidad valor del contador, positivo
+     * @param error    sobreestimación máxima del valor
+     */
+    synchronized void restaurar(String id, long cantidad, long error) {
+        if (contadores.size() >= capacidad || contadores.containsKey(id)
+                || cantidad <= 0 || (minima != null && cantidad > minima.valor)) {
+            return;
+        }
+        Contador contador = new Contador(id, error);
+        agregarAlFinal(contador, cantidad);
+        contadores.put(id, contador);
+    }
+
+    /**
+     * Obtiene los contadores de mayor valor, recorriendo sólo las cubetas necesarias.
+     *
+     * @param cantidad cantidad máxima de contadores
+     * @return frecuencias de mayor a menor cantidad
+     */
+    List<Frecuencia> primeros(int cantidad) {
+        incorporarPendientes();
+        synchronized (this) {
+            return primerosIncorporados(cantidad);
+        }
+    }
+
+    /**
+     * Obtiene los contadores de mayor valor sin incorporar las apariciones pendientes. Debe invocarse
+     * con el monitor del resumen.
+     *
+     * @param cantidad cantidad máxima de contadores
+     * @return frecuencias de mayor a menor cantidad
+     */
+    private List<Frecuencia> primerosIncorporados(int cantidad) {
+        List<Frecuencia> resultado = new ArrayList<>(Math.min(cantidad, contadores.size()));
+        for (Cubeta cubeta = maxima; cubeta != null; cubeta = cubeta.menor) {
+            for (Contador contador = cubeta.primero; contador != null; contador = contador.siguiente) {
+                if (resultado.size() == cantidad) {
+                    return resultado;
+                }
+                resultado.add(new Frecuencia(contador.id, cubeta.valor, contador.error));
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Obtiene los contadores de mayor valor en una versión, descontando las apariciones de épocas
+     * posteriores. Entre los {@code cantidad + d} primeros contadores actuales, donde {@code d} es la
+     * cantidad de IDs con apariciones posteriores, están los {@code cantidad} primeros de la versión,
+     * salvo los contadores que una aparición posterior desalojó de la cubeta mínima.
+     * <p>
+     * Las apariciones de la versión ya están en las franjas, porque sus mutaciones terminaron antes
+     * de leerla, y se incorporan antes de consultar.
+     * </p>
+     *
+     * @param cantidad cantidad máxima de contadores
+     * @param epoca    última época de la versión; debe ser la congelada
+     * @return frecuencias de la versión de mayor a menor cantidad
+     */
+    List<Frecuencia> primeros(int cantidad, long epoca) {
+        incorporarPendientes();
+        List<Frecuencia> candidatos = new ArrayList<>();
+        synchronized (this) {
+            if (posteriores.isEmpty()) {
+                return primerosIncorporados(cantidad);
+            }
+            for (Frecuencia actual : primerosIncorporados(cantidad + posteriores.size())) {
+                long valor = actual.getCantidad() - posteriores.getOrDefault(actual.getId(), 0);
+                if (valor > 0) {
+                    candidatos.add(new Frecuencia(actual.getId(), valor, Math.min(actual.getError(), valor)));
+                }
+            }
+        }
+        candidatos.sort(Comparator.comparingLong(Frecuencia::getCantidad).reversed());
+        return candidatos.size() > cantidad ? new ArrayList<>(candidatos.subList(0, cantidad)) : candidatos;
+    }
+
+    /**
+     * Comienza a apartar las apariciones de épocas posteriores a la indicada, que es la de la versión
+     * que se va a leer.
+     *
+     * @param epoca última época de la versión
+     */
+    synchronized void congelar(long epoca) {
+        epocaCongelada = epoca;
+        posteriores.clear();
+    }
+
+    /**
+     * Deja de apartar apariciones al terminar la lectura de la versión.
+     */
+    synchronized void descongelar() {
+        epocaCongelada = Long.MAX_VALUE;
+        posteriores.clear();
+    }
+
+    /**
+     * Suma uno al valor de un contador, moviéndolo a la cubeta siguiente.
+     *
+     * @param contador contador a incrementar
+     */
+    private void incrementar(Contador contador) {
+        Cubeta actual = contador.cubeta;
+        long valor = actual.valor + 1;
+        Cubeta destino = actual.mayor;
+        if (destino == null || destino.valor != valor) {
+            destino = new Cubeta(valor);
+            destino.menor = actual;
+            destino.mayor = actual.mayor;
+            if (actual.mayor != null) {
+                actual.mayor.menor = destino;
+            } else {
+                maxima = destino;
+            }
+            actual.mayor = destino;
+        }
+        quitar(contador);
+        agregar(destino, contador);
+    }
+
+    /**
+     * Agrega un contador con el valor indicado en el extremo menor del resumen, creando la cubeta
+     * si el valor es menor que el de la cubeta mínima.
+     *
+     * @param contador contador a agregar
+     * @param valor    valor del contador, no mayor que el de la cubeta mínima
+     */
+    private void agregarAlFinal(Contador contador, long valor) {
+        if (minima == null || minima.valor != valor) {
+            Cubeta cubeta = new Cubeta(valor);
+            cubeta.mayor = minima;
+            if (minima != null) {
+                minima.menor = cubeta;
+            } else {
+                maxima = cubeta;
+            }
+            minima = cubeta;
+        }
+        agregar(minima, contador);
+    }
+
+    /**
+     * Agrega un contador al final de la lista de una cubeta.
+     *
+     * @param cubeta   cubeta destino
+     * @param contador contador a agregar
+     */
+    private static void agregar(Cubeta cubeta, Contador contador) {
+        contador.cubeta = cubeta;
+        contador.siguiente = null;
+        contador.anterior = cubeta.ultimo;
+        if (cubeta.ultimo != null) {
+            cubeta.ultimo.siguiente = contador;
+        } else {
+            cubeta.primero = contador;
+        }
+        cubeta.ultimo = contador;
+    }
+
+    /**
+     * Quita un contador de su cubeta, descartando la cubeta si queda vacía.
+     *
+     * @param contador contador a quitar
+     */
+    private void quitar(Contador contador) {
+        Cubeta cubeta = contador.cubeta;
+        if (contador.anterior != null) {
+            contador.anterior.siguiente = contador.siguiente;
+        } else {
+            cubeta.primero = contador.siguiente;
+        }
+        if (contador.siguiente != null) {
+            contador.siguiente.anterior = contador.anterior;
+        } else {
+            cubeta.ultimo = contador.anterior;
+        }
+        if (cubeta.primero == null) {
+            if (cubeta.menor != null) {
+                cubeta.menor.mayor = cubeta.mayor;
+            } else {
+                minima = cubeta.mayor;
+            }
+            if (cubeta.mayor != null) {
+                cubeta.mayor.menor = cubeta.menor;
+            } else {
+                maxima = cubeta.menor;
+            }
+        }
+    }
+
+    /**
+     * Apariciones pendientes de incorporar, anotadas por los hilos que comparten la franja.
+     */
+    private static final class Franja {
+        private final String[] ids = new String[CAPACIDAD_FRANJA];
+        private final long[] epocas = new long[CAPACIDAD_FRANJA];
+        private int cantidad;
+    }
+
+    /**
+     * Grupo de contadores con el mismo valor, encadenado con las cubetas de valor inmediato
+     * menor y mayor.
+     */
+    private static final class Cubeta {
+        private final long valor;
+        private Cubeta menor;
+        private Cubeta mayor;
+        private Contador primero;
+        private Contador ultimo;
+
+        Cubeta(long valor) {
+            this.valor = valor;
+        }
+    }
+
+    /**
+     * Contador de un ID, encadenado con los demás contadores de su cubeta.
+     */
+    private static final class Contador {
+        private String id;
+        private long error;
+        private Cubeta cubeta;
+        private Contador anterior;
+        private Contador siguiente;
+
+        Contador(String id, long error) {
+            this.id = id;
+            this.error = error;
+        }
+    }
+}
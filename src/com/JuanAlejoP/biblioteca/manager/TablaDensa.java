@@ -0,0 +1,244 @@
+package com.JuanAlejoP.biblioteca.manager;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tabla concurrente de valores indexada por códigos enteros densos de un {@link DiccionarioIds}.
+ * <p>
+ * Reemplaza a un mapa concurrente con claves de texto: cada posición se lee y se actualiza con
+ * operaciones atómicas sobre un arreglo, sin hash ni nodos por entrada, de modo que obtener un
+ * valor sólo recorre el arreglo de bloques y el bloque. La tabla crece por bloques
+ * que nunca se mueven, de modo que crecer no copia valores ni bloquea lecturas ni actualizaciones.
+ * </p>
+ *
+ * @param <T> tipo de los valores
+ */
+class TablaDensa<T> {
+    /**
+     * Acceso con semántica de memoria a las posiciones de los bloques.
+     */
+    private static final VarHandle POSICIONES = MethodHandles.arrayElementVarHandle(Object[].class);
+
+    /**
+     * Cantidad de bits del índice dentro de un bloque.
+     */
+    private static final int BITS_BLOQUE = 12;
+
+    /**
+     * Máscara del índice dentro de un bloque.
+     */
+    private static final int MASCARA_BLOQUE = (1 << BITS_BLOQUE) - 1;
+
+    /**
+     * Bloques de la tabla; un bloque {@code null} no contiene valores.
+     */
+    private volatile Object[][] bloques = new Object[1][];
+
+    /**
+     * Cantidad de posiciones con valor.
+     */
+    private final AtomicInteger cantidad = new AtomicInteger();
+
+    /**
+     * Obtiene el valor de un código.
+     *
+     * @param codigo código a consultar; un código negativo no tiene valor
+     * @return valor asociado, o {@code null} si no tiene
+     */
+    @SuppressWarnings("unchecked")
+    T get(int codigo) {
+        Object[] bloque = bloqueExistente(codigo);
+        return bloque == null ? null : (T) POSICIONES.getVolatile(bloque, codigo & MASCARA_BLOQUE);
+    }
+
+    /**
+     * Asocia un valor a un código, reemplazando el anterior.
+     *
+     * @param codigo código a actualizar
+     * @param valor  valor nuevo, o {@code null} para quitar el anterior
+     * @return valor anterior, o {@code null} si no tenía
+     */
+    @SuppressWarnings("unchecked")
+    T getAndSet(int codigo, T valor) {
+        if (valor == null && bloqueExistente(codigo) == null) {
+            return null;
+        }
+        T anterior = (T) POSICIONES.getAndSet(bloque(codigo), codigo & MASCARA_BLOQUE, valor);
+        contar(anterior, valor);
+        return anterior;
+    }
+
+    /**
+     * Reemplaza el valor de un código sólo si sigue siendo el esperado.
+     *
+     * @param codigo   código a actualizar
+     * @param esperado valor esperado, o {@code null} si se espera que no tenga valor
+     * @param valor    valor nuevo, o {@code null} para quitarlo
+     * @return {@code true} si se reemplazó
+     */
+    boolean compareAndSet(int codigo, T esperado, T valor) {
+        if (esperado != null && bloqueExistente(codigo) == null) {
+            return false;
+        }
+        boolean reemplazado = POSICIONES.compareAndSet(bloque(codigo), codigo & MASCARA_BLOQUE, esperado, valor);
+        if (reemplazado) {
+            contar(esperado, valor);
+        }
+        return reemplazado;
+    }
+
+    /**
+     * Obtiene el valor de un código o asocia el que se indica si no tenía, atómicamente.
+     *
+     * @param codigo código a consultar
+     * @param nuevo  valor a asociar si no tenía
+     * @return valor asociado luego de la operación
+     */
+    T putIfAbsent(int codigo, T nuevo) {
+        while (true) {
+            T actual = get(codigo);
+            if (actual != null) {
+                return actual;
+            }
+            if (compareAndSet(codigo, null, nuevo)) {
+                return nuevo;
+            }
+        }
+    }
+
+    /**
+     * Obtiene la cantidad de códigos con valor.
+     *
+     * @return cantidad de valores
+     */
+    int cantidad() {
+        return cantidad.get();
+    }
+
+    /**
+     * Obtiene el límite superior de los códigos que pueden tener valor.
+     *
+     * @return cantidad de posiciones reservadas
+     */
+    int capacidad() {
+        return bloques.length << BITS_BLOQUE;
+    }
+
+    /**
+     * Obtiene una vista de sólo lectura de los valores, en orden de código. Su recorrido es
+     * débilmente consistente, como el de las colecciones concurrentes: no falla ante cambios
+     * simultáneos y puede o no reflejarlos.
+     *
+     * @return colección de los valores
+     */
+    Collection<T> valores() {
+        return new AbstractCollection<T>() {
+            @Override
+            public Iterator<T> iterator() {
+                return new Iterator<T>() {
+                    private int siguiente = -1;
+                    private T valor = avanzar();
+
+                    @SuppressWarnings("unchecked")
+                    private T avanzar() {
+                        Object[][] actuales = bloques;
+                        int limite = actuales.length << BITS_BLOQUE;
+                        while (++siguiente < limite) {
+                            Object[] bloque = actuales[siguiente >>> BITS_BLOQUE];
+                            if (bloque == null) {
+                                siguiente |= MASCARA_BLOQUE;
+                                continue;
+                            }
+                            T encontrado = (T) POSICIONES.getVolatile(bloque, siguiente & MASCARA_BLOQUE);
+                            if (encontrado != null) {
+                                return encontrado;
+                            }
+                        }
+                        return null;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return valor != null;
+                    }
+
+                    @Override
+                    public T next() {
+                        if (valor == null) {
+                            throw new NoSuchElementException();
+                        }
+                        T actual = valor;
+                        valor = avanzar();
+                        return actual;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return cantidad.get();
+            }
+        };
+    }
+
+    /**
+     * Actualiza la cantidad de valores según la transición de una posición.
+     *
+     * @param anterior valor previo de la posición
+     * @param nuevo    valor nuevo de la posición
+     */
+    private void contar(T anterior, T nuevo) {
+        if (anterior == null && nuevo != null) {
+            cantidad.incrementAndGet();
+        } else if (anterior != null && nuevo == null) {
+            cantidad.decrementAndGet();
+        }
+    }
+
+    /**
+     * Obtiene el bloque de un código si ya existe.
+     *
+     * @param codigo código a consultar
+     * @return bloque del código, o {@code null} si no existe
+     */
+    private Object[] bloqueExistente(int codigo) {
+        if (codigo < 0) {
+            return null;
+        }
+        Object[][] actuales = bloques;
+        int indice = codigo >>> BITS_BLOQUE;
+        return indice < actuales.length ? actuales[indice] : null;
+    }
+
+    /**
+     * Obtiene el bloque de un código, creándolo si aún no existe.
+     *
+     * @param codigo código a consultar
+     * @return bloque del código
+     */
+    private Object[] bloque(int codigo) {
+        Object[] bloque = bloqueExistente(codigo);
+        if (bloque != null) {
+            return bloque;
+        }
+        synchronized (this) {
+            Object[][] actuales = bloques;
+            int indice = codigo >>> BITS_BLOQUE;
+            if (indice >= actuales.length) {
+                actuales = Arrays.copyOf(actuales, Math.max(indice + 1, actuales.length * 2));
+            }
+            if (actuales[indice] == null) {
+                actuales[indice] = new Object[1 << BITS_BLOQUE];
+            }
+            bloques = actuales;
+            return actuales[indice];
+        }
+    }
+}
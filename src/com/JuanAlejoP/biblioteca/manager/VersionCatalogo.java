@@ -0,0 +1,70 @@
+package com.JuanAlejoP.biblioteca.manager;
+
+import com.JuanAlejoP.biblioteca.model.Frecuencia;
+
+import java.util.List;
+
+/**
+ * Versión consistente del catálogo que recibe una {@link LecturaVersion}: el estado resultante de
+ * todas las mutaciones de las épocas cerradas hasta su número, sin ninguna de las posteriores.
+ * <p>
+ * Sólo es válida durante la lectura que la recibe: al terminar, las mutaciones posteriores dejan de
+ * apartarse y los tops vuelven a incluirlas.
+ * </p>
+ */
+public class VersionCatalogo {
+    /**
+     * Número de la versión, igual al de la última época que incluye.
+     */
+    private final long numero;
+
+    /**
+     * Préstamos históricos por recurso y por usuario del gestor.
+     */
+    private final ResumenFrecuencias historicosRecursos;
+    private final ResumenFrecuencias historicosUsuarios;
+
+    /**
+     * Construye una versión.
+     *
+     * @param numero             número de la última época incluida
+     * @param historicosRecursos préstamos históricos por recurso
+     * @param historicosUsuarios préstamos históricos por usuario
+     */
+    VersionCatalogo(long numero, ResumenFrecuencias historicosRecursos, ResumenFrecuencias historicosUsuarios) {
+        this.numero = numero;
+        this.historicosRecursos = historicosRecursos;
+        this.historicosUsuarios = historicosUsuarios;
+    }
+
+    /**
+     * Obtiene el número de la versión; las versiones leídas después tienen números mayores.
+     *
+     * @return número de la versión
+     */
+    public long getNumero() {
+        return numero;
+    }
+
+    /**
+     * Obtiene los recursos más prestados en esta versión.
+     *
+     * @param cantidad cantidad máxima de recursos
+     * @return frecuencias de mayor a menor cantidad de préstamos
+     * @see GestorRecursos#getRecursosMasPrestados(int)
+     */
+    public List<Frecuencia> getRecursosMasPrestados(int cantidad) {
+        return historicosRecursos.primeros(cantidad, numero);
+    }
+
+    /**
+     * Obtiene los usuarios con más préstamos en esta versión.
+     *
+     * @param cantidad cantidad máxima de usuarios
+     * @return frecuencias de mayor a menor cantidad de préstamos
+     * @see GestorRecursos#getUsuariosMasActivos(int)
+     */
+    public List<Frecuencia> getUsuariosMasActivos(int cantidad) {
+        return historicosUsuarios.primeros(cantidad, numero);
+    }
+}
@@ -0,0 +1,136 @@
+package com.JuanAlejoP.biblioteca.manager;
+
+import com.JuanAlejoP.biblioteca.model.RecursoDigital;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Vista del catálogo ordenada de forma incremental sobre un {@link ConcurrentSkipListMap}.
+ * <p>
+ * Cada recurso se ubica bajo una clave compuesta (valor de orden, ID), de modo que
+ * las altas y los cambios cuestan O(log n) y los listados o páginas no requieren
+ * volver a ordenar el catálogo.
+ * </p>
+ */
+class VistaOrdenada {
+    /**
+     * Orden de las claves: primero por valor de orden y, ante empates, por ID.
+     */
+    private static final Comparator<Clave> ORDEN =
+            Comparator.comparing((Clave c) -> c.orden).thenComparing(c -> c.id);
+
+    /**
+     * Recursos ordenados por su clave compuesta.
+     */
+    private final ConcurrentSkipListMap<Clave, RecursoDigital> entradas = new ConcurrentSkipListMap<>(ORDEN);
+
+    /**
+     * Clave vigente de cada recurso, utilizada para reubicarlo cuando cambia su valor de orden.
+     */
+    private final ConcurrentMap<String, Clave> clavesPorId = new ConcurrentHashMap<>();
+
+    /**
+     * Ubica un recurso en la vista bajo el valor de orden indicado, reemplazando su posición previa.
+     *
+     * @param recurso recurso a ubicar
+     * @param orden   valor por el que se ordena el recurso
+     */
+    void agregar(RecursoDigital recurso, String orden) {
+        Clave nueva = new Clave(orden, recurso.getIdentificador());
+        entradas.put(nueva, recurso);
+        Clave anterior = clavesPorId.put(nueva.id, nueva);
+        if (anterior != null && ORDEN.compare(anterior, nueva) != 0) {
+            entradas.remove(anterior);
+        }
+    }
+
+    /**
+     * Quita un recurso de la vista.
+     *
+     * @param id identificador del recurso
+     */
+    void quitar(String id) {
+        Clave anterior = clavesPorId.remove(id);
+        if (anterior != null) {
+            entradas.remove(anterior);
+        }
+    }
+
+    /**
+     * Lista todos los recursos en el orden de la vista.
+     *
+     * @return lista ordenada de recursos
+     */
+    List<RecursoDigital> listar() {
+        return new ArrayList<>(entradas.values());
+    }
+
+    /**
+     * Obtiene una página de recursos posteriores al cursor indicado.
+     *
+     * @param cursor cursor devuelto por la página anterior, o {@code null} para comenzar desde el inicio
+     * @param limite cantidad máxima de recursos de la página
+     * @return página con los recursos y el cursor de continuación
+     * @throws IllegalArgumentException si el límite no es positivo o el cursor es inválido
+     */
+    Pagina<RecursoDigital> pagina(String cursor, int limite) {
+        if (limite <= 0) {
+            throw new IllegalArgumentException("El límite de la página debe ser positivo.");
+        }
+        NavigableMap<Clave, RecursoDigital> restantes = cursor == null
+                ? entradas
+                : entradas.tailMap(Clave.decodificar(cursor), false);
+        List<RecursoDigital> elementos = new ArrayList<>(limite);
+        Clave ultima = null;
+        Iterator<Map.Entry<Clave, RecursoDigital>> it = restantes.entrySet().iterator();
+        while (it.hasNext() && elementos.size() < limite) {
+            Map.Entry<Clave, RecursoDigital> entrada = it.next();
+            elementos.add(entrada.getValue());
+            ultima = entrada.getKey();
+        }
+        String siguiente = ultima != null && it.hasNext() ? ultima.codificar() : null;
+        return new Pagina<>(elementos, siguiente);
+    }
+
+    /**
+     * Clave compuesta de la vista: valor de orden y ID del recurso.
+     */
+    private static final class Clave {
+        private final String orden;
+        private final String id;
+
+        private Clave(String orden, String id) {
+            this.orden = orden;
+            this.id = id;
+        }
+
+        /**
+         * Codifica la clave como cursor opaco: longitud del valor de orden, separador, orden e ID.
+         */
+        private String codificar() {
+            return orden.length() + ":" + orden + id;
+        }
+
+        /**
+         * Reconstruye una clave a partir de un cursor generado por {@link #codificar()}.
+         */
+        private static Clave decodificar(String cursor) {
+            int separador = cursor.indexOf(':');
+            try {
+                int longitud = Integer.parseInt(cursor.substring(0, separador));
+                int inicio = separador + 1;
+                return new Clave(cursor.substring(inicio, inicio + longitud), cursor.substring(inicio + longitud));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Cursor de paginación inválido: " + cursor);
+            }
+        }
+    }
+}
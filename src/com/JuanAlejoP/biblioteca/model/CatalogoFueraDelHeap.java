@@ -0,0 +1,344 @@
+package com.JuanAlejoP.biblioteca.model;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Almacén de los datos del catálogo fuera del heap, sobre búferes directos.
+ * <p>
+ * Cada recurso ocupa un registro de tamaño fijo con su estado, su categoría, su tipo y la
+ * ubicación de sus textos, y el identificador y el título se guardan en UTF-8 en una región
+ * de longitud variable. Los recursos se exponen como vistas livianas que implementan
+ * {@link RecursoDigital} y, según el tipo, {@code Prestable} y {@code Renovable}, de modo que el
+ * gestor de recursos las usa igual que a las instancias en el heap. Con catálogos muy grandes,
+ * el recolector de basura sólo recorre las vistas, no las cadenas ni los enumerados de cada recurso.
+ * </p>
+ * <p>
+ * Ambas regiones crecen por bloques que nunca se mueven. Las altas se sincronizan; las lecturas
+ * no toman cerrojos y el estado se actualiza por comparación e intercambio sobre el registro.
+ * Los textos se decodifican en cada lectura, por lo que cada llamada a
+ * {@link RecursoDigital#getTitulo()} o {@link RecursoDigital#getIdentificador()} crea una cadena nueva.
+ * La memoria de los bloques se libera cuando el almacén y todas sus vistas dejan de ser alcanzables.
+ * </p>
+ */
+public final class CatalogoFueraDelHeap {
+    /**
+     * Acceso con semántica de memoria a los enteros de los registros.
+     */
+    private static final VarHandle ENTEROS =
+            MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    /**
+     * Tamaño de un registro: estado, categoría y tipo, bloque y posición de los textos,
+     * y longitud en bytes del identificador y del título.
+     */
+    private static final int TAMANIO_REGISTRO = Integer.BYTES * 6;
+
+    /**
+     * Desplazamientos de los campos dentro de un registro.
+     */
+    private static final int ESTADO = 0;
+    private static final int CATEGORIA_TIPO = 4;
+    private static final int BLOQUE_TEXTO = 8;
+    private static final int POSICION_TEXTO = 12;
+    private static final int LONGITUD_ID = 16;
+    private static final int LONGITUD_TITULO = 20;
+
+    /**
+     * Cantidad de bits del índice de un registro dentro de su bloque.
+     */
+    private static final int BITS_BLOQUE_REGISTROS = 16;
+
+    /**
+     * Tamaño de los bloques de textos; un texto más largo ocupa un bloque propio.
+     */
+    private static final int TAMANIO_BLOQUE_TEXTOS = 16 * 1024 * 1024;
+
+    /**
+     * Nombres de los tipos de recurso, indexados por el código guardado en cada registro.
+     */
+    private static final String[] TIPOS = {"Libro", "Revista", "Audiolibro"};
+
+    private static final EstadoRecurso[] ESTADOS = EstadoRecurso.values();
+    private static final CategoriaRecurso[] CATEGORIAS = CategoriaRecurso.values();
+
+    /**
+     * Bloques de registros de tamaño fijo.
+     */
+    private volatile ByteBuffer[] registros = new ByteBuffer[1];
+
+    /**
+     * Bloques de la región de textos.
+     */
+    private volatile ByteBuffer[] textos = new ByteBuffer[0];
+
+    /**
+     * Posición libre del último bloque de textos.
+     */
+    private int posicionTextos;
+
+    /**
+     * Cantidad de recursos almacenados.
+     */
+    private volatile int cantidad;
+
+    /**
+     * Bytes reservados fuera del heap entre ambas regiones.
+     */
+    private volatile long bytesReservados;
+
+    /**
+     * Almacena un recurso y devuelve su vista.
+     *
+     * @param tipo      nombre del tipo de recurso ({@code Libro}, {@code Revista} o {@code Audiolibro}),
+     *                  sin distinción de mayúsculas
+     * @param id        identificador único del recurso
+     * @param titulo    título del recurso
+     * @param estado    estado inicial del recurso
+     * @param categoria categoría del recurso
+     * @return vista del recurso almacenado
+     * @throws IllegalArgumentException si el tipo no es reconocido
+     */
+    public synchronized RecursoDigital agregar(String tipo, String id, String titulo,
+                                               EstadoRecurso estado, CategoriaRecurso categoria) {
+        int codigoTipo = codigoTipo(tipo);
+        byte[] bytesId = id.getBytes(StandardCharsets.UTF_8);
+        byte[] bytesTitulo = titulo.getBytes(StandardCharsets.UTF_8);
+        int longitud = bytesId.length + bytesTitulo.length;
+
+        ByteBuffer[] bloquesTexto = textos;
+        if (bloquesTexto.length == 0 || posicionTextos + longitud > bloquesTexto[bloquesTexto.length - 1].capacity()) {
+            bloquesTexto = Arrays.copyOf(bloquesTexto, bloquesTexto.length + 1);
+            bloquesTexto[bloquesTexto.length - 1] = reservar(Math.max(TAMANIO_BLOQUE_TEXTOS, longitud));
+            posicionTextos = 0;
+            textos = bloquesTexto;
+        }
+        int bloqueTexto = bloquesTexto.length - 1;
+        ByteBuffer region = bloquesTexto[bloqueTexto];
+        region.put(posicionTextos, bytesId);
+        region.put(posicionTextos + bytesId.length, bytesTitulo);
+
+        int indice = cantidad;
+        int bloque = indice >>> BITS_BLOQUE_REGISTROS;
+        ByteBuffer[] bloquesRegistro = registros;
+        if (bloque == bloquesRegistro.length) {
+            bloquesRegistro = Arrays.copyOf(bloquesRegistro, bloquesRegistro.length * 2);
+        }
+        if (bloquesRegistro[bloque] == null) {
+            bloquesRegistro[bloque] = reservar(TAMANIO_REGISTRO << BITS_BLOQUE_REGISTROS);
+        }
+        registros = bloquesRegistro;
+        ByteBuffer registro = bloquesRegistro[bloque];
+        int base = desplazamiento(indice);
+        registro.putInt(base + ESTADO, estado.ordinal());
+        registro.putInt(base + CATEGORIA_TIPO, codigoTipo << 16 | categoria.ordinal());
+        registro.putInt(base + BLOQUE_TEXTO, bloqueTexto);
+        registro.putInt(base + POSICION_TEXTO, posicionTextos);
+        registro.putInt(base + LONGITUD_ID, bytesId.length);
+        registro.putInt(base + LONGITUD_TITULO, bytesTitulo.length);
+        posicionTextos += longitud;
+        cantidad = indice + 1;
+
+        switch (codigoTipo) {
+            case 0: return new VistaCatalogo.DeLibro(this, indice);
+            case 1: return new VistaCatalogo.DeRevista(this, indice);
+            default: return new VistaCatalogo.DeAudiolibro(this, indice);
+        }
+    }
+
+    /**
+     * Copia un recurso del heap en el almacén, con su tipo, estado y categoría actuales.
+     *
+     * @param recurso recurso a copiar
+     * @return vista del recurso almacenado
+     * @throws IllegalArgumentException si el tipo del recurso no es reconocido
+     */
+    public RecursoDigital copiar(RecursoDigital recurso) {
+        return agregar(FabricaRecursos.tipoDe(recurso), recurso.getIdentificador(), recurso.getTitulo(),
+                recurso.getEstado(), recurso.getCategoria());
+    }
+
+    /**
+     * Obtiene la cantidad de recursos almacenados.
+     *
+     * @return cantidad de recursos
+     */
+    public int getCantidad() {
+        return cantidad;
+    }
+
+    /**
+     * Obtiene la cantidad de bytes reservados fuera del heap.
+     *
+     * @return bytes reservados entre registros y textos
+     */
+    public long getBytesReservados() {
+        return bytesReservados;
+    }
+
+    // ------ Acceso de las vistas ------
+
+    /**
+     * Decodifica el identificador de un registro.
+     *
+     * @param indice índice del registro
+     * @return identificador del recurso
+     */
+    String identificador(int indice) {
+        ByteBuffer registro = registro(indice);
+        int base = desplazamiento(indice);
+        return texto(registro.getInt(base + BLOQUE_TEXTO), registro.getInt(base + POSICION_TEXTO),
+                registro.getInt(base + LONGITUD_ID));
+    }
+
+    /**
+     * Decodifica el título de un registro.
+     *
+     * @param indice índice del registro
+     * @return título del recurso
+     */
+    String titulo(int indice) {
+        ByteBuffer registro = registro(indice);
+        int base = desplazamiento(indice);
+        return texto(registro.getInt(base + BLOQUE_TEXTO),
+                registro.getInt(base + POSICION_TEXTO) + registro.getInt(base + LONGITUD_ID),
+                registro.getInt(base + LONGITUD_TITULO));
+    }
+
+    /**
+     * Obtiene el nombre del tipo de un registro.
+     *
+     * @param indice índice del registro
+     * @return nombre del tipo, tal como lo acepta {@link FabricaRecursos#crear}
+     */
+    String tipo(int indice) {
+        return TIPOS[registro(indice).getInt(desplazamiento(indice) + CATEGORIA_TIPO) >>> 16];
+    }
+
+    /**
+     * Lee el estado de un registro.
+     *
+     * @param indice índice del registro
+     * @return estado actual
+     */
+    EstadoRecurso estado(int indice) {
+        return ESTADOS[(int) ENTEROS.getVolatile(registro(indice), desplazamiento(indice) + ESTADO)];
+    }
+
+    /**
+     * Reemplaza el estado de un registro.
+     *
+     * @param indice índice del registro
+     * @param nuevo  estado a asignar
+     * @return estado anterior
+     */
+    EstadoRecurso intercambiarEstado(int indice, EstadoRecurso nuevo) {
+        return ESTADOS[(int) ENTEROS.getAndSet(registro(indice), desplazamiento(indice) + ESTADO, nuevo.ordinal())];
+    }
+
+    /**
+     * Reemplaza el estado de un registro sólo si coincide con el esperado.
+     *
+     * @param indice   índice del registro
+     * @param esperado estado esperado
+     * @param nuevo    estado a asignar
+     * @return {@code true} si el cambio se aplicó
+     */
+    boolean compararYActualizarEstado(int indice, EstadoRecurso esperado, EstadoRecurso nuevo) {
+        return ENTEROS.compareAndSet(registro(indice), desplazamiento(indice) + ESTADO,
+                esperado.ordinal(), nuevo.ordinal());
+    }
+
+    /**
+     * Lee la categoría de un registro.
+     *
+     * @param indice índice del registro
+     * @return categoría actual
+     */
+    CategoriaRecurso categoria(int indice) {
+        int valor = (int) ENTEROS.getVolatile(registro(indice), desplazamiento(indice) + CATEGORIA_TIPO);
+        return CATEGORIAS[valor & 0xFFFF];
+    }
+
+    /**
+     * Asigna la categoría de un registro conservando su tipo. Quien llama serializa los cambios
+     * de categoría de un mismo recurso.
+     *
+     * @param indice    índice del registro
+     * @param categoria categoría a asignar
+     */
+    void asignarCategoria(int indice, CategoriaRecurso categoria) {
+        ByteBuffer registro = registro(indice);
+        int posicion = desplazamiento(indice) + CATEGORIA_TIPO;
+        int valor = (int) ENTEROS.getVolatile(registro, posicion);
+        ENTEROS.setVolatile(registro, posicion, (valor & 0xFFFF0000) | categoria.ordinal());
+    }
+
+    // ------ Auxiliares ------
+
+    /**
+     * Obtiene el bloque que contiene un registro.
+     *
+     * @param indice índice del registro
+     * @return bloque de registros
+     */
+    private ByteBuffer registro(int indice) {
+        return registros[indice >>> BITS_BLOQUE_REGISTROS];
+    }
+
+    /**
+     * Calcula la posición de un registro dentro de su bloque.
+     *
+     * @param indice índice del registro
+     * @return desplazamiento en bytes
+     */
+    private static int desplazamiento(int indice) {
+        return (indice & ((1 << BITS_BLOQUE_REGISTROS) - 1)) * TAMANIO_REGISTRO;
+    }
+
+    /**
+     * Decodifica un texto UTF-8 de la región de textos.
+     *
+     * @param bloque   bloque de textos
+     * @param posicion posición del texto en el bloque
+     * @param longitud longitud en bytes
+     * @return texto decodificado
+     */
+    private String texto(int bloque, int posicion, int longitud) {
+        byte[] bytes = new byte[longitud];
+        textos[bloque].get(posicion, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reserva un búfer directo en el orden de bytes nativo.
+     *
+     * @param capacidad capacidad en bytes
+     * @return búfer reservado
+     */
+    private ByteBuffer reservar(int capacidad) {
+        bytesReservados += capacidad;
+        return ByteBuffer.allocateDirect(capacidad).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Traduce el nombre de un tipo al código guardado en los registros.
+     *
+     * @param tipo nombre del tipo, sin distinción de mayúsculas
+     * @return código del tipo
+     * @throws IllegalArgumentException si el tipo no es reconocido
+     */
+    private static int codigoTipo(String tipo) {
+        String nombre = tipo.trim();
+        for (int i = 0; i < TIPOS.length; i++) {
+            if (TIPOS[i].equalsIgnoreCase(nombre)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Tipo de recurso desconocido: " + tipo);
+    }
+}
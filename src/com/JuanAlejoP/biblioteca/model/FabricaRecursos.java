@@ -0,0 +1,72 @@
+package com.JuanAlejoP.biblioteca.model;
+
+/**
+ * Fábrica de recursos digitales a partir del nombre de su tipo.
+ * <p>
+ * Centraliza la reconstrucción de recursos desde representaciones externas,
+ * como registros persistidos o archivos de importación. Si se indicó un
+ * {@link CatalogoFueraDelHeap}, los recursos se crean en él como vistas livianas
+ * en lugar de como instancias en el heap.
+ * </p>
+ */
+public final class FabricaRecursos {
+    /**
+     * Almacén donde se crean los recursos, o {@code null} para crearlos en el heap.
+     */
+    private static volatile CatalogoFueraDelHeap catalogo;
+
+    private FabricaRecursos() {
+    }
+
+    /**
+     * Crea un recurso del tipo indicado con sus datos básicos.
+     *
+     * @param tipo      nombre del tipo de recurso ({@code Libro}, {@code Revista} o {@code Audiolibro}),
+     *                  sin distinción de mayúsculas
+     * @param id        identificador único del recurso
+     * @param titulo    título del recurso
+     * @param estado    estado inicial del recurso
+     * @param categoria categoría del recurso
+     * @return nueva instancia del recurso, o su vista si hay un almacén fuera del heap
+     * @throws IllegalArgumentException si el tipo no es reconocido
+     */
+    public static RecursoDigital crear(String tipo, String id, String titulo,
+                                       EstadoRecurso estado, CategoriaRecurso categoria) {
+        CatalogoFueraDelHeap actual = catalogo;
+        if (actual != null) {
+            return actual.agregar(tipo, id, titulo, estado, categoria);
+        }
+        RecursoDigital recurso;
+        switch (tipo.trim().toLowerCase()) {
+            case "libro": recurso = new Libro(id, titulo, estado); break;
+            case "revista": recurso = new Revista(id, titulo, estado); break;
+            case "audiolibro": recurso = new Audiolibro(id, titulo, estado); break;
+            default: throw new IllegalArgumentException("Tipo de recurso desconocido: " + tipo);
+        }
+        recurso.setCategoria(categoria);
+        return recurso;
+    }
+
+    /**
+     * Obtiene el nombre del tipo de un recurso, tal como lo acepta {@link #crear}.
+     *
+     * @param recurso recurso a describir
+     * @return nombre simple de la clase del recurso, o el tipo guardado si es una vista del almacén
+     */
+    public static String tipoDe(RecursoDigital recurso) {
+        if (recurso instanceof VistaCatalogo) {
+            return ((VistaCatalogo) recurso).tipo();
+        }
+        return recurso.getClass().getSimpleName();
+    }
+
+    /**
+     * Indica el almacén fuera del heap donde se crearán los recursos en adelante.
+     * Los recursos ya creados no se mueven.
+     *
+     * @param almacen almacén a utilizar, o {@code null} para volver a crear los recursos en el heap
+     */
+    public static void usarCatalogo(CatalogoFueraDelHeap almacen) {
+        catalogo = almacen;
+    }
+}
@@ -0,0 +1,74 @@
+package com.JuanAlejoP.biblioteca.model;
+
+/**
+ * Cantidad estimada de apariciones de un ID en un resumen de frecuencias acotado.
+ * <p>
+ * La cantidad nunca es menor que la real y la supera a lo sumo en el error indicado, que es el
+ * valor que tenía el contador cuando el ID lo ocupó al desplazar a otro.
+ * </p>
+ */
+public final class Frecuencia {
+    /**
+     * ID contado.
+     */
+    private final String id;
+
+    /**
+     * Cantidad estimada de apariciones.
+     */
+    private final long cantidad;
+
+    /**
+     * Sobreestimación máxima de la cantidad.
+     */
+    private final long error;
+
+    /**
+     * Construye una frecuencia.
+     *
+     * @param id       ID contado
+     * @param cantidad cantidad estimada de apariciones
+     * @param error    sobreestimación máxima de la cantidad
+     */
+    public Frecuencia(String id, long cantidad, long error) {
+        this.id = id;
+        this.cantidad = cantidad;
+        this.error = error;
+    }
+
+    /**
+     * Obtiene el ID contado.
+     *
+     * @return ID
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Obtiene la cantidad estimada de apariciones.
+     *
+     * @return cantidad, mayor o igual a la real
+     */
+    public long getCantidad() {
+        return cantidad;
+    }
+
+    /**
+     * Obtiene la sobreestimación máxima de la cantidad.
+     *
+     * @return error; 0 si la cantidad es exacta
+     */
+    public long getError() {
+        return error;
+    }
+
+    /**
+     * Obtiene la cantidad garantizada de apariciones.
+     *
+     * @return cantidad menos el error
+     */
+    public long getMinimo() {
+        return cantidad - error;
+    }
+}
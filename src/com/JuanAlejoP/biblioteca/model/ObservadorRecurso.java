@@ -0,0 +1,30 @@
+package com.JuanAlejoP.biblioteca.model;
+
+/**
+ * Observador de los cambios que sufre un recurso digital luego de ser registrado.
+ * <p>
+ * Permite a los gestores mantener sincronizados sus índices secundarios cuando
+ * un atributo del recurso, como su categoría o su estado, se modifica directamente
+ * sobre la instancia.
+ * </p>
+ */
+public interface ObservadorRecurso {
+
+    /**
+     * Notifica que el recurso cambió de categoría.
+     *
+     * @param recurso  recurso modificado
+     * @param anterior categoría previa al cambio
+     * @param nueva    categoría asignada
+     */
+    void categoriaCambiada(RecursoDigital recurso, CategoriaRecurso anterior, CategoriaRecurso nueva);
+
+    /**
+     * Notifica que el recurso cambió de estado.
+     *
+     * @param recurso  recurso modificado
+     * @param anterior estado previo al cambio
+     * @param nuevo    estado asignado
+     */
+    void estadoCambiado(RecursoDigital recurso, EstadoRecurso anterior, EstadoRecurso nuevo);
+}
@@ -36,9 +36,21 @@ public class Prestamo {
      * @param usuario usuario que recibe el préstamo
      */
     public Prestamo(RecursoDigital recurso, Usuario usuario) {
+        this(recurso, usuario, LocalDateTime.now());
+    }
+
+    /**
+     * Crea un préstamo iniciado en la fecha indicada, por ejemplo al reconstruir
+     * préstamos persistidos. La fecha de devolución se fija a 14 días después.
+     *
+     * @param recurso       recurso digital que se presta
+     * @param usuario       usuario que recibe el préstamo
+     * @param fechaPrestamo fecha y hora de inicio del préstamo
+     */
+    public Prestamo(RecursoDigital recurso, Usuario usuario, LocalDateTime fechaPrestamo) {
         this.recurso = recurso;
         this.usuario = usuario;
-        this.fechaPrestamo = LocalDateTime.now();
+        this.fechaPrestamo = fechaPrestamo;
         this.fechaDevolucion = fechaPrestamo.plusDays(14);
     }
 
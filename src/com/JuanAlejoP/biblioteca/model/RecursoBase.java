@@ -1,10 +1,26 @@
 package com.JuanAlejoP.biblioteca.model;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
 /**
  * Clase base abstracta para recursos digitales en la biblioteca.
  * Implementa los atributos y métodos comunes de un recurso.
  */
 public abstract class RecursoBase implements RecursoDigital {
+    /**
+     * Acceso atómico al campo {@link #estado}, utilizado para las transiciones por comparación e intercambio.
+     */
+    private static final VarHandle ESTADO;
+
+    static {
+        try {
+            ESTADO = MethodHandles.lookup().findVarHandle(RecursoBase.class, "estado", EstadoRecurso.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     /**
      * Identificador único del recurso.
      */
@@ -17,13 +33,19 @@ public abstract class RecursoBase implements RecursoDigital {
 
     /**
      * Estado actual del recurso (disponible, prestado, reservado).
+     * Se modifica sin bloqueos mediante {@link #ESTADO}.
      */
-    private EstadoRecurso estado;
+    private volatile EstadoRecurso estado;
 
     /**
      * Categoría a la que pertenece el recurso.
      */
-    private CategoriaRecurso categoria;
+    private volatile CategoriaRecurso categoria;
+
+    /**
+     * Observador notificado ante cambios de categoría o estado, normalmente el gestor que contiene el recurso.
+     */
+    private volatile ObservadorRecurso observador;
 
     /**
      * Constructor que inicializa un recurso con su identificador, título y estado.
@@ -77,20 +99,64 @@ public abstract class RecursoBase implements RecursoDigital {
     }
 
     /**
-     * Asigna una nueva categoría al recurso.
+     * Asigna una nueva categoría al recurso y notifica al observador registrado, si lo hay.
      *
      * @param categoria nueva categoría a asignar
      */
-    public void setCategoria(CategoriaRecurso categoria) {
+    public synchronized void setCategoria(CategoriaRecurso categoria) {
+        CategoriaRecurso anterior = this.categoria;
         this.categoria = categoria;
+        ObservadorRecurso actual = observador;
+        if (actual != null && anterior != categoria) {
+            actual.categoriaCambiada(this, anterior, categoria);
+        }
+    }
+
+    /**
+     * Registra el observador que será notificado ante cambios en el recurso.
+     *
+     * @param observador observador a registrar, o {@code null} para quitar el actual
+     */
+    public void setObservador(ObservadorRecurso observador) {
+        this.observador = observador;
     }
 
     /**
-     * Actualiza el estado del recurso.
+     * Actualiza el estado del recurso y notifica al observador registrado, si lo hay.
      *
      * @param nuevoEstado nuevo estado a asignar
      */
     public void actualizarEstado(EstadoRecurso nuevoEstado) {
-        this.estado = nuevoEstado;
+        EstadoRecurso anterior = (EstadoRecurso) ESTADO.getAndSet(this, nuevoEstado);
+        notificarEstado(anterior, nuevoEstado);
+    }
+
+    /**
+     * Actualiza atómicamente el estado del recurso sólo si coincide con el esperado,
+     * notificando al observador registrado cuando el cambio se aplica.
+     *
+     * @param esperado estado que debe tener el recurso para aplicar el cambio
+     * @param nuevo    nuevo estado a asignar
+     * @return {@code true} si el cambio se aplicó, {@code false} si el estado actual era otro
+     */
+    public boolean compararYActualizarEstado(EstadoRecurso esperado, EstadoRecurso nuevo) {
+        if (!ESTADO.compareAndSet(this, esperado, nuevo)) {
+            return false;
+        }
+        notificarEstado(esperado, nuevo);
+        return true;
+    }
+
+    /**
+     * Notifica al observador registrado un cambio de estado efectivo.
+     *
+     * @param anterior estado previo
+     * @param nuevo    estado asignado
+     */
+    private void notificarEstado(EstadoRecurso anterior, EstadoRecurso nuevo) {
+        ObservadorRecurso actual = observador;
+        if (actual != null && anterior != nuevo) {
+            actual.estadoCambiado(this, anterior, nuevo);
+        }
     }
-}
\ No newline at end of file
+}
@@ -34,6 +34,15 @@ public interface RecursoDigital {
      */
     void actualizarEstado(EstadoRecurso nuevoEstado);
 
+    /**
+     * Actualiza atómicamente el estado del recurso sólo si coincide con el esperado.
+     *
+     * @param esperado estado que debe tener el recurso para aplicar el cambio
+     * @param nuevo    nuevo estado a asignar
+     * @return {@code true} si el cambio se aplicó, {@code false} si el estado actual era otro
+     */
+    boolean compararYActualizarEstado(EstadoRecurso esperado, EstadoRecurso nuevo);
+
     /**
      * Recupera la categoría asignada al recurso.
      *
@@ -47,4 +56,11 @@ public interface RecursoDigital {
      * @param categoria categoría a asignar al recurso
      */
     void setCategoria(CategoriaRecurso categoria);
-}
\ No newline at end of file
+
+    /**
+     * Registra el observador que será notificado ante cambios en el recurso.
+     *
+     * @param observador observador a registrar, o {@code null} para quitar el actual
+     */
+    void setObservador(ObservadorRecurso observador);
+}
@@ -15,4 +15,29 @@ public class RecursoNoDisponibleException extends Exception {
     public RecursoNoDisponibleException(String mensaje) {
         super(mensaje);
     }
-}
\ No newline at end of file
+
+    /**
+     * Construye una nueva instancia de RecursoNoDisponibleException indicando si debe
+     * capturar la traza de la pila.
+     * <p>
+     * Sin traza ni supresión, la excepción es mucho más barata de crear, lo que conviene
+     * para los rechazos frecuentes del camino caliente, donde la traza no aporta información.
+     * </p>
+     *
+     * @param mensaje detalle del motivo por el cual el recurso no está disponible
+     * @param conTraza {@code true} para capturar la traza de la pila, {@code false} para omitirla
+     */
+    public RecursoNoDisponibleException(String mensaje, boolean conTraza) {
+        super(mensaje, null, conTraza, conTraza);
+    }
+
+    /**
+     * Crea una excepción sin traza de la pila, destinada a rechazos del camino caliente.
+     *
+     * @param mensaje detalle del motivo por el cual el recurso no está disponible
+     * @return nueva excepción sin traza
+     */
+    public static RecursoNoDisponibleException sinTraza(String mensaje) {
+        return new RecursoNoDisponibleException(mensaje, false);
+    }
+}
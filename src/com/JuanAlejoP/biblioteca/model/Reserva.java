@@ -31,9 +31,21 @@ public class Reserva {
      * @param usuario usuario que solicita la reserva
      */
     public Reserva(RecursoDigital recurso, Usuario usuario) {
+        this(recurso, usuario, LocalDateTime.now());
+    }
+
+    /**
+     * Crea una reserva solicitada en la fecha indicada, por ejemplo al reconstruir
+     * reservas persistidas.
+     *
+     * @param recurso        recurso digital a reservar
+     * @param usuario        usuario que solicita la reserva
+     * @param fechaSolicitud fecha y hora de la solicitud
+     */
+    public Reserva(RecursoDigital recurso, Usuario usuario, LocalDateTime fechaSolicitud) {
         this.recurso = recurso;
         this.usuario = usuario;
-        this.fechaSolicitud = LocalDateTime.now();
+        this.fechaSolicitud = fechaSolicitud;
     }
 
     /**
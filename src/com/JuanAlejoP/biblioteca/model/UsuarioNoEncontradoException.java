@@ -14,4 +14,28 @@ public class UsuarioNoEncontradoException extends Exception {
     public UsuarioNoEncontradoException(String mensaje) {
         super(mensaje);
     }
-}
\ No newline at end of file
+
+    /**
+     * Construye una nueva excepción indicando si debe capturar la traza de la pila.
+     * <p>
+     * Sin traza ni supresión, la excepción es mucho más barata de crear, lo que conviene
+     * para búsquedas fallidas frecuentes, como lecturas de credenciales inválidas.
+     * </p>
+     *
+     * @param mensaje  Descripción del motivo por el cual no se encontró el usuario.
+     * @param conTraza {@code true} para capturar la traza de la pila, {@code false} para omitirla.
+     */
+    public UsuarioNoEncontradoException(String mensaje, boolean conTraza) {
+        super(mensaje, null, conTraza, conTraza);
+    }
+
+    /**
+     * Crea una excepción sin traza de la pila, destinada a búsquedas fallidas frecuentes.
+     *
+     * @param mensaje Descripción del motivo por el cual no se encontró el usuario.
+     * @return Nueva excepción sin traza.
+     */
+    public static UsuarioNoEncontradoException sinTraza(String mensaje) {
+        return new UsuarioNoEncontradoException(mensaje, false);
+    }
+}
@@ -0,0 +1,184 @@
+package com.JuanAlejoP.biblioteca.model;
+
+import com.JuanAlejoP.biblioteca.Prestable;
+import com.JuanAlejoP.biblioteca.Renovable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Vista liviana de un recurso guardado en un {@link CatalogoFueraDelHeap}.
+ * <p>
+ * Sólo conserva en el heap el almacén, la posición del registro y el observador; el resto de
+ * los datos se lee y se actualiza sobre el registro. Cumple el mismo contrato que
+ * {@link RecursoBase}: las transiciones de estado son atómicas, los cambios de categoría se
+ * sincronizan sobre la vista y ambos se notifican al observador registrado. Cada subclase
+ * implementa las mismas interfaces que el tipo en el heap al que reemplaza.
+ * </p>
+ */
+abstract class VistaCatalogo implements RecursoDigital {
+    /**
+     * Almacén que contiene el registro del recurso.
+     */
+    private final CatalogoFueraDelHeap catalogo;
+
+    /**
+     * Posición del registro en el almacén.
+     */
+    private final int indice;
+
+    /**
+     * Observador notificado ante cambios de categoría o estado, normalmente el gestor que contiene el recurso.
+     */
+    private volatile ObservadorRecurso observador;
+
+    /**
+     * Construye la vista de un registro.
+     *
+     * @param catalogo almacén que contiene el registro
+     * @param indice   posición del registro
+     */
+    VistaCatalogo(CatalogoFueraDelHeap catalogo, int indice) {
+        this.catalogo = catalogo;
+        this.indice = indice;
+    }
+
+    /**
+     * Obtiene el nombre del tipo del recurso.
+     *
+     * @return nombre del tipo, tal como lo acepta {@link FabricaRecursos#crear}
+     */
+    String tipo() {
+        return catalogo.tipo(indice);
+    }
+
+    @Override
+    public String getIdentificador() {
+        return catalogo.identificador(indice);
+    }
+
+    @Override
+    public String getTitulo() {
+        return catalogo.titulo(indice);
+    }
+
+    @Override
+    public EstadoRecurso getEstado() {
+        return catalogo.estado(indice);
+    }
+
+    @Override
+    public void actualizarEstado(EstadoRecurso nuevoEstado) {
+        notificarEstado(catalogo.intercambiarEstado(indice, nuevoEstado), nuevoEstado);
+    }
+
+    @Override
+    public boolean compararYActualizarEstado(EstadoRecurso esperado, EstadoRecurso nuevo) {
+        if (!catalogo.compararYActualizarEstado(indice, esperado, nuevo)) {
+            return false;
+        }
+        notificarEstado(esperado, nuevo);
+        return true;
+    }
+
+    @Override
+    public CategoriaRecurso getCategoria() {
+        return catalogo.categoria(indice);
+    }
+
+    @Override
+    public synchronized void setCategoria(CategoriaRecurso categoria) {
+        CategoriaRecurso anterior = catalogo.categoria(indice);
+        catalogo.asignarCategoria(indice, categoria);
+        ObservadorRecurso actual = observador;
+        if (actual != null && anterior != categoria) {
+            actual.categoriaCambiada(this, anterior, categoria);
+        }
+    }
+
+    @Override
+    public void setObservador(ObservadorRecurso observador) {
+        this.observador = observador;
+    }
+
+    /**
+     * Notifica al observador registrado un cambio de estado efectivo.
+     *
+     * @param anterior estado previo
+     * @param nuevo    estado asignado
+     */
+    private void notificarEstado(EstadoRecurso anterior, EstadoRecurso nuevo) {
+        ObservadorRecurso actual = observador;
+        if (actual != null && anterior != nuevo) {
+            actual.estadoCambiado(this, anterior, nuevo);
+        }
+    }
+
+    /**
+     * Vista de un libro: prestable y renovable, como {@link Libro}.
+     */
+    static final class DeLibro extends VistaCatalogo implements Prestable, Renovable {
+        DeLibro(CatalogoFueraDelHeap catalogo, int indice) {
+            super(catalogo, indice);
+        }
+
+        @Override
+        public boolean estaDisponible() {
+            return false;
+        }
+
+        @Override
+        public LocalDateTime getFechaDevolucion() {
+            return null;
+        }
+
+        @Override
+        public void prestar() {
+        }
+
+        @Override
+        public boolean esRenovable() {
+            return false;
+        }
+
+        @Override
+        public int getVecesRenovado() {
+            return 0;
+        }
+
+        @Override
+        public void renovar() {
+        }
+    }
+
+    /**
+     * Vista de una revista, que no es prestable, como {@link Revista}.
+     */
+    static final class DeRevista extends VistaCatalogo {
+        DeRevista(CatalogoFueraDelHeap catalogo, int indice) {
+            super(catalogo, indice);
+        }
+    }
+
+    /**
+     * Vista de un audiolibro: prestable pero no renovable, como {@link Audiolibro}.
+     */
+    static final class DeAudiolibro extends VistaCatalogo implements Prestable {
+        DeAudiolibro(CatalogoFueraDelHeap catalogo, int indice) {
+            super(catalogo, indice);
+        }
+
+        @Override
+        public boolean estaDisponible() {
+            return false;
+        }
+
+        @Override
+        public LocalDateTime getFechaDevolucion() {
+            return null;
+        }
+
+        @Override
+        public void prestar() {
+        }
+    }
+}
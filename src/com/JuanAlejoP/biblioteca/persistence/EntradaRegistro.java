@@ -0,0 +1,63 @@
+package com.JuanAlejoP.biblioteca.persistence;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Entrada del registro de operaciones: el tipo de operación y sus campos en forma de texto.
+ * <p>
+ * El significado y orden de los campos depende del tipo de operación y lo define
+ * quien registra y reproduce las entradas.
+ * </p>
+ */
+public class EntradaRegistro {
+    /**
+     * Tipo de la operación registrada.
+     */
+    private final TipoOperacion tipo;
+
+    /**
+     * Campos de la operación, en el orden definido para su tipo.
+     */
+    private final List<String> campos;
+
+    /**
+     * Construye una entrada con su tipo y campos.
+     *
+     * @param tipo   tipo de la operación
+     * @param campos campos de la operación; se admiten valores {@code null}
+     */
+    public EntradaRegistro(TipoOperacion tipo, String... campos) {
+        this.tipo = tipo;
+        this.campos = Collections.unmodifiableList(Arrays.asList(campos.clone()));
+    }
+
+    /**
+     * Obtiene el tipo de la operación.
+     *
+     * @return tipo de operación
+     */
+    public TipoOperacion getTipo() {
+        return tipo;
+    }
+
+    /**
+     * Obtiene los campos de la operación.
+     *
+     * @return lista no modificable de campos
+     */
+    public List<String> getCampos() {
+        return campos;
+    }
+
+    /**
+     * Obtiene un campo por su posición.
+     *
+     * @param indice posición del campo
+     * @return valor del campo
+     */
+    public String getCampo(int indice) {
+        return campos.get(indice);
+    }
+}
@@ -0,0 +1,958 @@
+package com.JuanAlejoP.biblioteca.persistence;
+
+import com.JuanAlejoP.biblioteca.model.CategoriaRecurso;
+import com.JuanAlejoP.biblioteca.model.EstadoRecurso;
+import com.JuanAlejoP.biblioteca.model.FabricaRecursos;
+import com.JuanAlejoP.biblioteca.model.Frecuencia;
+import com.JuanAlejoP.biblioteca.model.Prestamo;
+import com.JuanAlejoP.biblioteca.model.RecursoDigital;
+import com.JuanAlejoP.biblioteca.model.Reserva;
+import com.JuanAlejoP.biblioteca.model.Usuario;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Instantánea binaria del catálogo, los usuarios y la circulación de la biblioteca,
+ * leída mediante un archivo mapeado en memoria.
+ * <p>
+ * El archivo se compone de una cabecera de tamaño fijo, los registros de recursos, usuarios,
+ * préstamos y reservas, los diccionarios de tipos, estados y categorías, las tablas de
+ * posiciones de recursos y usuarios, los resúmenes de préstamos históricos por recurso y por usuario
+ * y los índices del catálogo. Los recursos y los usuarios se guardan ordenados por ID, de modo que
+ * pueden buscarse por búsqueda binaria sobre el archivo mapeado y la posición de cada recurso sirve
+ * de código denso. Abrir una instantánea sólo valida la cabecera y lee los diccionarios y los conteos
+ * por estado: cada recurso o usuario se decodifica recién cuando se lo solicita.
+ * </p>
+ * <p>
+ * Los índices guardan la cantidad de recursos en cada estado y, para cada categoría, el mapa de bits
+ * de las posiciones de sus recursos, de modo que un gestor puede restaurarlos sin recorrer los recursos.
+ * </p>
+ * <p>
+ * Cada escritura crea una generación nueva, un archivo con la ruta base y un número creciente
+ * como sufijo, que se escribe en un archivo temporal y se renombra atómicamente al terminar: una
+ * interrupción nunca deja una instantánea a medio escribir, y nunca se reemplaza el archivo de
+ * una generación anterior, que puede seguir mapeado por quien la abrió para decodificarla bajo
+ * demanda. Las generaciones anteriores se borran después de escribir la nueva; las que el sistema
+ * no permite borrar mientras están mapeadas se borran en una escritura posterior.
+ * </p>
+ */
+public final class InstantaneaBiblioteca {
+    /**
+     * Número mágico que identifica el formato ("BIBS").
+     */
+    private static final int MAGICO = 0x42494253;
+
+    /**
+     * Versión del formato de la instantánea.
+     */
+    private static final int VERSION = 3;
+
+    /**
+     * Versión anterior del formato, con los recursos en el orden del catálogo y sin índices,
+     * que todavía puede abrirse.
+     */
+    private static final int VERSION_SIN_INDICES = 2;
+
+    /**
+     * Primera versión del formato, sin préstamos históricos ni índices, que todavía puede abrirse.
+     */
+    private static final int VERSION_SIN_HISTORICOS = 1;
+
+    /**
+     * Tamaño de la cabecera: número mágico, versión, cuatro cantidades y siete posiciones.
+     */
+    private static final int TAMANIO_CABECERA = Integer.BYTES * 13;
+
+    /**
+     * Tamaño de la cabecera de la versión 2, sin la posición de los índices.
+     */
+    private static final int TAMANIO_CABECERA_SIN_INDICES = Integer.BYTES * 12;
+
+    /**
+     * Tamaño de la cabecera de la versión 1, sin la posición de los préstamos históricos.
+     */
+    private static final int TAMANIO_CABECERA_SIN_HISTORICOS = Integer.BYTES * 11;
+
+    /**
+     * Tamaño del búfer de escritura.
+     */
+    private static final int TAMANIO_BUFER = 64 * 1024;
+
+    /**
+     * Contenido del archivo mapeado; se lee sólo con accesos absolutos, seguros entre hilos.
+     */
+    private final ByteBuffer datos;
+
+    /**
+     * Cantidad de recursos, usuarios, préstamos y reservas guardados.
+     */
+    private final int cantidadRecursos;
+    private final int cantidadUsuarios;
+    private final int cantidadPrestamos;
+    private final int cantidadReservas;
+
+    /**
+     * Posiciones de las secciones de préstamos y reservas y de las tablas de recursos y usuarios.
+     */
+    private final int inicioPrestamos;
+    private final int inicioReservas;
+    private final int tablaRecursos;
+    private final int tablaUsuarios;
+
+    /**
+     * Posición de la sección de préstamos históricos, o -1 si la instantánea no la tiene.
+     */
+    private final int inicioHistoricos;
+
+    /**
+     * Posición de los mapas de bits de cada categoría, en el orden del diccionario de categorías,
+     * o {@code null} si la instantánea no tiene índices.
+     */
+    private final int[] inicioCategorias;
+
+    /**
+     * Cantidad de recursos en cada estado, indexada por ordinal, o {@code null} si la instantánea
+     * no tiene índices.
+     */
+    private final long[] recursosPorEstado;
+
+    /**
+     * Diccionarios de tipos de recurso, estados y categorías referenciados por índice en los registros.
+     */
+    private final String[] tipos;
+    private final EstadoRecurso[] estados;
+    private final CategoriaRecurso[] categorias;
+
+    /**
+     * Receptor de los préstamos y reservas guardados en la instantánea.
+     */
+    public interface VisitanteCirculacion {
+        /**
+         * Recibe un préstamo o una reserva.
+         *
+         * @param idRecurso ID del recurso
+         * @param idUsuario ID del usuario
+         * @param fecha     fecha del préstamo o de la solicitud de reserva
+         */
+        void visitar(String idRecurso, String idUsuario, LocalDateTime fecha);
+    }
+
+    /**
+     * Receptor de los contadores de préstamos históricos guardados en la instantánea.
+     */
+    public interface VisitanteFrecuencia {
+        /**
+         * Recibe un contador.
+         *
+         * @param id       ID del recurso o usuario
+         * @param cantidad cantidad estimada de préstamos
+         * @param error    sobreestimación máxima de la cantidad
+         */
+        void visitar(String id, long cantidad, long error);
+    }
+
+    private InstantaneaBiblioteca(ByteBuffer datos) throws IOException {
+        this.datos = datos;
+        if (datos.capacity() < TAMANIO_CABECERA_SIN_HISTORICOS || datos.getInt(0) != MAGICO) {
+            throw new IOException("El archivo no es una instantánea de la biblioteca.");
+        }
+        int version = datos.getInt(4);
+        int tamanioCabecera;
+        switch (version) {
+            case VERSION:
+                tamanioCabecera = TAMANIO_CABECERA;
+                break;
+            case VERSION_SIN_INDICES:
+                tamanioCabecera = TAMANIO_CABECERA_SIN_INDICES;
+                break;
+            case VERSION_SIN_HISTORICOS:
+                tamanioCabecera = TAMANIO_CABECERA_SIN_HISTORICOS;
+                break;
+            default:
+                throw new IOException("Versión de instantánea no soportada: " + version);
+        }
+        if (datos.capacity() < tamanioCabecera) {
+            throw new IOException("La instantánea está truncada.");
+        }
+        this.cantidadRecursos = datos.getInt(8);
+        this.cantidadUsuarios = datos.getInt(12);
+        this.cantidadPrestamos = datos.getInt(16);
+        this.cantidadReservas = datos.getInt(20);
+        this.inicioPrestamos = datos.getInt(24);
+        this.inicioReservas = datos.getInt(28);
+        int inicioDiccionarios = datos.getInt(32);
+        this.tablaRecursos = datos.getInt(36);
+        this.tablaUsuarios = datos.getInt(40);
+        this.inicioHistoricos = version != VERSION_SIN_HISTORICOS ? datos.getInt(44) : -1;
+        int inicioIndices = version == VERSION ? datos.getInt(48) : -1;
+        if (tablaUsuarios + (long) cantidadUsuarios * Integer.BYTES > datos.capacity()
+                || tablaRecursos + (long) cantidadRecursos * Integer.BYTES > datos.capacity()) {
+            throw new IOException("La instantánea está truncada.");
+        }
+
+        Lector lector = new Lector(inicioDiccionarios);
+        this.tipos = new String[lector.entero()];
+        for (int i = 0; i < tipos.length; i++) {
+            tipos[i] = lector.texto();
+        }
+        this.estados = new EstadoRecurso[lector.entero()];
+        for (int i = 0; i < estados.length; i++) {
+            estados[i] = EstadoRecurso.valueOf(lector.texto());
+        }
+        this.categorias = new CategoriaRecurso[lector.entero()];
+        for (int i = 0; i < categorias.length; i++) {
+            categorias[i] = CategoriaRecurso.valueOf(lector.texto());
+        }
+
+        if (inicioIndices < 0) {
+            this.inicioCategorias = null;
+            this.recursosPorEstado = null;
+            return;
+        }
+        lector = new Lector(inicioIndices);
+        this.recursosPorEstado = new long[EstadoRecurso.values().length];
+        for (EstadoRecurso estado : estados) {
+            recursosPorEstado[estado.ordinal()] = lector.entero();
+        }
+        this.inicioCategorias = new int[categorias.length];
+        for (int i = 0; i < categorias.length; i++) {
+            inicioCategorias[i] = lector.posicion;
+            lector.posicion += Integer.BYTES + lector.entero() * Long.BYTES;
+        }
+        if (lector.posicion > datos.capacity()) {
+            throw new IOException("La instantánea está truncada.");
+        }
+    }
+
+    /**
+     * Abre una instantánea mapeando el archivo en memoria. Sólo se leen la cabecera y los diccionarios.
+     *
+     * @param archivo archivo de la instantánea
+     * @return instantánea lista para consultar
+     * @throws IOException si el archivo no puede leerse o no tiene el formato esperado
+     */
+    public static InstantaneaBiblioteca abrir(Path archivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            if (canal.size() > Integer.MAX_VALUE) {
+                throw new IOException("La instantánea supera el tamaño máximo mapeable.");
+            }
+            return new InstantaneaBiblioteca(canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size()));
+        }
+    }
+
+    /**
+     * Abre la generación más reciente de una instantánea.
+     *
+     * @param archivo ruta base de la instantánea
+     * @return instantánea lista para consultar, o {@code null} si no hay ninguna generación guardada
+     * @throws IOException si el archivo no puede leerse o no tiene el formato esperado
+     */
+    public static InstantaneaBiblioteca abrirUltima(Path archivo) throws IOException {
+        long ultima = ultimaGeneracion(archivo);
+        return ultima < 0 ? null : abrir(generacion(archivo, ultima));
+    }
+
+    /**
+     * Escribe una instantánea con los datos indicados como una generación nueva de la ruta base, que
+     * pasa a ser la más reciente, y borra las anteriores que sea posible borrar.
+     * <p>
+     * Las colecciones se recorren una sola vez; quien llama debe garantizar que no se modifiquen
+     * de forma incompatible mientras se escriben si necesita una imagen consistente. Los recursos
+     * se ordenan por ID antes de escribirse.
+     * </p>
+     *
+     * @param archivo   ruta base de la instantánea
+     * @param recursos  recursos del catálogo
+     * @param usuarios  usuarios registrados
+     * @param prestamos préstamos activos
+     * @param reservas  reservas pendientes, en el orden de sus colas
+     * @param historicosRecursos contadores de préstamos históricos por recurso, de mayor a menor
+     * @param historicosUsuarios contadores de préstamos históricos por usuario, de mayor a menor
+     * @throws IOException si no se puede escribir el archivo
+     */
+    public static void escribir(Path archivo, Collection<RecursoDigital> recursos, Collection<Usuario> usuarios,
+                                Collection<Prestamo> prestamos, Collection<Reserva> reservas,
+                                Collection<Frecuencia> historicosRecursos,
+                                Collection<Frecuencia> historicosUsuarios) throws IOException {
+        Path directorio = archivo.toAbsolutePath().getParent();
+        if (directorio != null) {
+            Files.createDirectories(directorio);
+        }
+        long numero = Math.max(ultimaGeneracion(archivo), 0) + 1;
+        Path destino = generacion(archivo, numero);
+        Path temporal = destino.resolveSibling(destino.getFileName() + ".tmp");
+        try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            Escritor escritor = new Escritor(canal);
+            escritor.relleno(TAMANIO_CABECERA);
+
+            List<RecursoDigital> recursosOrdenados = new ArrayList<>(recursos);
+            recursosOrdenados.sort(Comparator.comparing(RecursoDigital::getIdentificador));
+            Map<String, Integer> indiceTipos = new LinkedHashMap<>();
+            int[] posicionesRecursos = new int[recursosOrdenados.size()];
+            int[] porEstado = new int[EstadoRecurso.values().length];
+            long[][] bitsPorCategoria = new long[CategoriaRecurso.values().length][(posicionesRecursos.length + 63) >>> 6];
+            for (int i = 0; i < posicionesRecursos.length; i++) {
+                RecursoDigital recurso = recursosOrdenados.get(i);
+                posicionesRecursos[i] = escritor.posicion();
+                // Estado y categoría se leen una sola vez para que el registro y los índices coincidan
+                EstadoRecurso estado = recurso.getEstado();
+                CategoriaRecurso categoria = recurso.getCategoria();
+                porEstado[estado.ordinal()]++;
+                bitsPorCategoria[categoria.ordinal()][i >>> 6] |= 1L << i;
+                String tipo = FabricaRecursos.tipoDe(recurso);
+                Integer indiceTipo = indiceTipos.computeIfAbsent(tipo, t -> indiceTipos.size());
+                escritor.octeto(indiceTipo);
+                escritor.texto(recurso.getIdentificador());
+                escritor.texto(recurso.getTitulo());
+                escritor.octeto(estado.ordinal());
+                escritor.octeto(categoria.ordinal());
+            }
+
+            List<Usuario> ordenados = new ArrayList<>(usuarios);
+            ordenados.sort(Comparator.comparing(Usuario::getId));
+            int[] posicionesUsuarios = new int[ordenados.size()];
+            for (int i = 0; i < posicionesUsuarios.length; i++) {
+                Usuario usuario = ordenados.get(i);
+                posicionesUsuarios[i] = escritor.posicion();
+                escritor.texto(usuario.getId());
+                escritor.texto(usuario.getNombre());
+                escritor.texto(usuario.getEmail());
+                escritor.texto(usuario.getTelefono());
+            }
+
+            int inicioPrestamos = escritor.posicion();
+            int cantidadPrestamos = 0;
+            for (Prestamo prestamo : prestamos) {
+                escritor.circulacion(prestamo.getRecurso().getIdentificador(), prestamo.getUsuario().getId(),
+                        prestamo.getFechaPrestamo());
+                cantidadPrestamos++;
+            }
+
+            int inicioReservas = escritor.posicion();
+            int cantidadReservas = 0;
+            for (Reserva reserva : reservas) {
+                escritor.circulacion(reserva.getRecurso().getIdentificador(), reserva.getUsuario().getId(),
+                        reserva.getFechaSolicitud());
+                cantidadReservas++;
+            }
+
+            int inicioDiccionarios = escritor.posicion();
+            escritor.entero(indiceTipos.size());
+            for (String tipo : indiceTipos.keySet()) {
+                escritor.texto(tipo);
+            }
+            escritor.entero(EstadoRecurso.values().length);
+            for (EstadoRecurso estado : EstadoRecurso.values()) {
+                escritor.texto(estado.name());
+            }
+            escritor.entero(CategoriaRecurso.values().length);
+            for (CategoriaRecurso categoria : CategoriaRecurso.values()) {
+                escritor.texto(categoria.name());
+            }
+
+            int inicioHistoricos = escritor.posicion();
+            escritor.frecuencias(historicosRecursos);
+            escritor.frecuencias(historicosUsuarios);
+
+            int inicioIndices = escritor.posicion();
+            for (int cantidad : porEstado) {
+                escritor.entero(cantidad);
+            }
+            for (long[] bits : bitsPorCategoria) {
+                escritor.entero(bits.length);
+                for (long palabra : bits) {
+                    escritor.largo(palabra);
+                }
+            }
+
+            int tablaRecursos = escritor.posicion();
+            for (int posicion : posicionesRecursos) {
+                escritor.entero(posicion);
+            }
+            int tablaUsuarios = escritor.posicion();
+            for (int posicion : posicionesUsuarios) {
+                escritor.entero(posicion);
+            }
+            escritor.vaciar();
+
+            ByteBuffer cabecera = ByteBuffer.allocate(TAMANIO_CABECERA);
+            cabecera.putInt(MAGICO).putInt(VERSION)
+                    .putInt(posicionesRecursos.length).putInt(posicionesUsuarios.length)
+                    .putInt(cantidadPrestamos).putInt(cantidadReservas)
+                    .putInt(inicioPrestamos).putInt(inicioReservas).putInt(inicioDiccionarios)
+                    .putInt(tablaRecursos).putInt(tablaUsuarios).putInt(inicioHistoricos).putInt(inicioIndices)
+                    .flip();
+            while (cabecera.hasRemaining()) {
+                canal.write(cabecera, cabecera.position());
+            }
+            canal.force(true);
+        }
+        Files.move(temporal, destino, StandardCopyOption.ATOMIC_MOVE);
+        descartarGeneraciones(archivo, numero);
+    }
+
+    /**
+     * Obtiene el archivo de una generación de una instantánea. La generación 0 es el archivo con la
+     * ruta base sin sufijo, que escribían las versiones anteriores.
+     *
+     * @param archivo ruta base de la instantánea
+     * @param numero  número de generación
+     * @return archivo de la generación
+     */
+    private static Path generacion(Path archivo, long numero) {
+        return numero == 0 ? archivo : archivo.resolveSibling(archivo.getFileName() + "." + numero);
+    }
+
+    /**
+     * Busca el número de la generación más reciente de una instantánea.
+     *
+     * @param archivo ruta base de la instantánea
+     * @return número de la generación más reciente, o {@code -1} si no hay ninguna
+     * @throws IOException si no se puede listar el directorio
+     */
+    private static long ultimaGeneracion(Path archivo) throws IOException {
+        long ultima = Files.exists(archivo) ? 0 : -1;
+        for (long numero : generaciones(archivo)) {
+            ultima = Math.max(ultima, numero);
+        }
+        return ultima;
+    }
+
+    /**
+     * Borra las generaciones de una instantánea anteriores a una dada. Las que no pueden borrarse,
+     * por ejemplo porque siguen mapeadas en un sistema que no lo permite, quedan para una escritura
+     * posterior.
+     *
+     * @param archivo ruta base de la instantánea
+     * @param vigente número de la generación que se conserva
+     * @throws IOException si no se puede listar el directorio
+     */
+    private static void descartarGeneraciones(Path archivo, long vigente) throws IOException {
+        List<Long> anteriores = generaciones(archivo);
+        anteriores.add(0L);
+        for (long numero : anteriores) {
+            if (numero < vigente) {
+                try {
+                    Files.deleteIfExists(generacion(archivo, numero));
+                } catch (IOException e) {
+                    // Se reintenta al escribir la próxima generación
+                }
+            }
+        }
+    }
+
+    /**
+     * Lista los números de las generaciones con sufijo de una instantánea, ignorando los temporales.
+     *
+     * @param archivo ruta base de la instantánea
+     * @return números de generación encontrados, sin orden
+     * @throws IOException si no se puede listar el directorio
+     */
+    private static List<Long> generaciones(Path archivo) throws IOException {
+        List<Long> numeros = new ArrayList<>();
+        Path directorio = archivo.toAbsolutePath().getParent();
+        if (directorio == null || !Files.isDirectory(directorio)) {
+            return numeros;
+        }
+        String prefijo = archivo.getFileName() + ".";
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(directorio)) {
+            for (Path candidato : archivos) {
+                String nombre = candidato.getFileName().toString();
+                if (nombre.length() > prefijo.length() && nombre.startsWith(prefijo)
+                        && esNumero(nombre.substring(prefijo.length()))) {
+                    numeros.add(Long.parseLong(nombre.substring(prefijo.length())));
+                }
+            }
+        }
+        return numeros;
+    }
+
+    /**
+     * Indica si un texto es un número decimal sin signo que cabe en un {@code long}.
+     *
+     * @param texto texto a verificar
+     * @return {@code true} si es un número de generación válido
+     */
+    private static boolean esNumero(String texto) {
+        if (texto.length() > 18) {
+            return false;
+        }
+        for (int i = 0; i < texto.length(); i++) {
+            if (texto.charAt(i) < '0' || texto.charAt(i) > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Obtiene la cantidad de recursos guardados.
+     *
+     * @return cantidad de recursos
+     */
+    public int getCantidadRecursos() {
+        return cantidadRecursos;
+    }
+
+    /**
+     * Obtiene la cantidad de usuarios guardados.
+     *
+     * @return cantidad de usuarios
+     */
+    public int getCantidadUsuarios() {
+        return cantidadUsuarios;
+    }
+
+    /**
+     * Decodifica el recurso en la posición indicada, creando una instancia nueva en cada llamada.
+     *
+     * @param indice posición del recurso, entre 0 y {@link #getCantidadRecursos()} exclusive
+     * @return recurso decodificado
+     */
+    public RecursoDigital recurso(int indice) {
+        Lector lector = new Lector(datos.getInt(tablaRecursos + indice * Integer.BYTES));
+        String tipo = tipos[lector.octeto()];
+        String id = lector.texto();
+        String titulo = lector.texto();
+        EstadoRecurso estado = estados[lector.octeto()];
+        CategoriaRecurso categoria = categorias[lector.octeto()];
+        return FabricaRecursos.crear(tipo, id, titulo, estado, categoria);
+    }
+
+    /**
+     * Indica si la instantánea tiene los recursos ordenados por ID y guarda los índices del catálogo.
+     * Las instantáneas de versiones anteriores no los tienen y sus recursos deben cargarse uno por uno.
+     *
+     * @return {@code true} si la instantánea tiene índices
+     */
+    public boolean tieneIndices() {
+        return recursosPorEstado != null;
+    }
+
+    /**
+     * Busca la posición de un recurso por su ID mediante búsqueda binaria, comparando los IDs que
+     * recorre directamente sobre el archivo mapeado, sin crear cadenas. Requiere una instantánea con índices.
+     *
+     * @param id ID del recurso
+     * @return posición del recurso, o {@code -1} si no está en la instantánea
+     */
+    public int buscarRecurso(String id) {
+        int desde = 0;
+        int hasta = cantidadRecursos - 1;
+        while (desde <= hasta) {
+            int medio = (desde + hasta) >>> 1;
+            int comparacion = new Lector(datos.getInt(tablaRecursos + medio * Integer.BYTES) + 1).comparar(id);
+            if (comparacion < 0) {
+                desde = medio + 1;
+            } else if (comparacion > 0) {
+                hasta = medio - 1;
+            } else {
+                return medio;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Decodifica sólo el ID del recurso en la posición indicada.
+     *
+     * @param indice posición del recurso, entre 0 y {@link #getCantidadRecursos()} exclusive
+     * @return ID del recurso
+     */
+    public String idRecurso(int indice) {
+        Lector lector = new Lector(datos.getInt(tablaRecursos + indice * Integer.BYTES) + 1);
+        return lector.texto();
+    }
+
+    /**
+     * Obtiene el estado guardado del recurso en la posición indicada, sin decodificar sus textos.
+     *
+     * @param indice posición del recurso, entre 0 y {@link #getCantidadRecursos()} exclusive
+     * @return estado del recurso
+     */
+    public EstadoRecurso estadoRecurso(int indice) {
+        return estados[new Lector(posicionEstado(indice)).octeto()];
+    }
+
+    /**
+     * Obtiene la categoría guardada del recurso en la posición indicada, sin decodificar sus textos.
+     *
+     * @param indice posición del recurso, entre 0 y {@link #getCantidadRecursos()} exclusive
+     * @return categoría del recurso
+     */
+    public CategoriaRecurso categoriaRecurso(int indice) {
+        return categorias[new Lector(posicionEstado(indice) + 1).octeto()];
+    }
+
+    /**
+     * Obtiene la cantidad de recursos guardados en un estado. Requiere una instantánea con índices.
+     *
+     * @param estado estado a consultar
+     * @return cantidad de recursos en ese estado
+     */
+    public long contarRecursos(EstadoRecurso estado) {
+        return recursosPorEstado[estado.ordinal()];
+    }
+
+    /**
+     * Lee el mapa de bits de las posiciones de los recursos de una categoría, en palabras de 64 bits
+     * donde el bit {@code i % 64} de la palabra {@code i / 64} corresponde a la posición {@code i}.
+     * Requiere una instantánea con índices.
+     *
+     * @param categoria categoría a consultar
+     * @return palabras del mapa de bits; vacío si la categoría no existía al guardar la instantánea
+     */
+    public long[] posicionesCategoria(CategoriaRecurso categoria) {
+        for (int i = 0; i < categorias.length; i++) {
+            if (categorias[i] == categoria) {
+                int inicio = inicioCategorias[i];
+                long[] palabras = new long[datos.getInt(inicio)];
+                datos.slice(inicio + Integer.BYTES, palabras.length * Long.BYTES).asLongBuffer().get(palabras);
+                return palabras;
+            }
+        }
+        return new long[0];
+    }
+
+    /**
+     * Decodifica el usuario en la posición indicada, según el orden por ID.
+     *
+     * @param indice posición del usuario, entre 0 y {@link #getCantidadUsuarios()} exclusive
+     * @return usuario decodificado
+     */
+    public Usuario usuario(int indice) {
+        Lector lector = new Lector(posicionUsuario(indice));
+        String id = lector.texto();
+        String nombre = lector.texto();
+        String email = lector.texto();
+        String telefono = lector.texto();
+        return new Usuario(nombre, id, email, telefono);
+    }
+
+    /**
+     * Busca un usuario por su ID mediante búsqueda binaria, decodificando sólo los IDs
+     * que recorre y el usuario encontrado.
+     *
+     * @param id ID del usuario
+     * @return usuario decodificado, o {@code null} si no está en la instantánea
+     */
+    public Usuario buscarUsuario(String id) {
+        int desde = 0;
+        int hasta = cantidadUsuarios - 1;
+        while (desde <= hasta) {
+            int medio = (desde + hasta) >>> 1;
+            int comparacion = new Lector(posicionUsuario(medio)).texto().compareTo(id);
+            if (comparacion < 0) {
+                desde = medio + 1;
+            } else if (comparacion > 0) {
+                hasta = medio - 1;
+            } else {
+                return usuario(medio);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Recorre los préstamos activos guardados.
+     *
+     * @param visitante receptor de cada préstamo
+     */
+    public void recorrerPrestamos(VisitanteCirculacion visitante) {
+        recorrerCirculacion(inicioPrestamos, cantidadPrestamos, visitante);
+    }
+
+    /**
+     * Recorre las reservas pendientes guardadas, en el orden de sus colas.
+     *
+     * @param visitante receptor de cada reserva
+     */
+    public void recorrerReservas(VisitanteCirculacion visitante) {
+        recorrerCirculacion(inicioReservas, cantidadReservas, visitante);
+    }
+
+    /**
+     * Recorre los contadores de préstamos históricos por recurso, de mayor a menor cantidad.
+     * Una instantánea de la versión anterior no tiene contadores.
+     *
+     * @param visitante receptor de cada contador
+     */
+    public void recorrerHistoricosRecursos(VisitanteFrecuencia visitante) {
+        if (inicioHistoricos >= 0) {
+            recorrerFrecuencias(new Lector(inicioHistoricos), visitante);
+        }
+    }
+
+    /**
+     * Recorre los contadores de préstamos históricos por usuario, de mayor a menor cantidad.
+     * Una instantánea de la versión anterior no tiene contadores.
+     *
+     * @param visitante receptor de cada contador
+     */
+    public void recorrerHistoricosUsuarios(VisitanteFrecuencia visitante) {
+        if (inicioHistoricos >= 0) {
+            Lector lector = new Lector(inicioHistoricos);
+            recorrerFrecuencias(lector, (id, cantidad, error) -> {
+            });
+            recorrerFrecuencias(lector, visitante);
+        }
+    }
+
+    /**
+     * Recorre una lista de contadores desde la posición de un lector, dejándolo al final de la lista.
+     *
+     * @param lector    lector posicionado al comienzo de la lista
+     * @param visitante receptor de cada contador
+     */
+    private static void recorrerFrecuencias(Lector lector, VisitanteFrecuencia visitante) {
+        int cantidad = lector.entero();
+        for (int i = 0; i < cantidad; i++) {
+            String id = lector.texto();
+            long valor = lector.largo();
+            long error = lector.largo();
+            visitante.visitar(id, valor, error);
+        }
+    }
+
+    /**
+     * Recorre una sección de registros de circulación.
+     *
+     * @param inicio    posición del primer registro
+     * @param cantidad  cantidad de registros
+     * @param visitante receptor de cada registro
+     */
+    private void recorrerCirculacion(int inicio, int cantidad, VisitanteCirculacion visitante) {
+        Lector lector = new Lector(inicio);
+        for (int i = 0; i < cantidad; i++) {
+            String idRecurso = lector.texto();
+            String idUsuario = lector.texto();
+            long segundos = lector.largo();
+            int nanos = lector.entero();
+            visitante.visitar(idRecurso, idUsuario, LocalDateTime.ofEpochSecond(segundos, nanos, ZoneOffset.UTC));
+        }
+    }
+
+    /**
+     * Obtiene la posición del octeto de estado de un recurso, que precede al de su categoría,
+     * saltando el tipo, el ID y el título sin decodificarlos.
+     *
+     * @param indice posición del recurso en la tabla
+     * @return posición del octeto de estado en el archivo
+     */
+    private int posicionEstado(int indice) {
+        Lector lector = new Lector(datos.getInt(tablaRecursos + indice * Integer.BYTES) + 1);
+        lector.saltarTexto();
+        lector.saltarTexto();
+        return lector.posicion;
+    }
+
+    /**
+     * Obtiene la posición del registro de un usuario.
+     *
+     * @param indice posición del usuario en la tabla
+     * @return posición del registro en el archivo
+     */
+    private int posicionUsuario(int indice) {
+        return datos.getInt(tablaUsuarios + indice * Integer.BYTES);
+    }
+
+    /**
+     * Cursor de lectura sobre el contenido mapeado que usa sólo accesos absolutos,
+     * por lo que varios lectores pueden recorrer la instantánea en paralelo.
+     */
+    private final class Lector {
+        private int posicion;
+
+        Lector(int posicion) {
+            this.posicion = posicion;
+        }
+
+        int octeto() {
+            return datos.get(posicion++) & 0xFF;
+        }
+
+        int entero() {
+            int valor = datos.getInt(posicion);
+            posicion += Integer.BYTES;
+            return valor;
+        }
+
+        long largo() {
+            long valor = datos.getLong(posicion);
+            posicion += Long.BYTES;
+            return valor;
+        }
+
+        void saltarTexto() {
+            int longitud = entero();
+            if (longitud > 0) {
+                posicion += longitud;
+            }
+        }
+
+        /**
+         * Compara el texto en la posición del lector con otro en el orden de {@link String#compareTo},
+         * decodificando el UTF-8 carácter por carácter sin crear una cadena.
+         *
+         * @param otro texto con el que se compara
+         * @return negativo, cero o positivo si el texto guardado es menor, igual o mayor que el otro
+         */
+        int comparar(String otro) {
+            int longitud = entero();
+            int fin = posicion + longitud;
+            int indice = 0;
+            while (posicion < fin) {
+                int punto = octeto();
+                if (punto >= 0xF0) {
+                    punto = (punto & 0x07) << 18 | (octeto() & 0x3F) << 12 | (octeto() & 0x3F) << 6 | octeto() & 0x3F;
+                } else if (punto >= 0xE0) {
+                    punto = (punto & 0x0F) << 12 | (octeto() & 0x3F) << 6 | octeto() & 0x3F;
+                } else if (punto >= 0x80) {
+                    punto = (punto & 0x1F) << 6 | octeto() & 0x3F;
+                }
+                int diferencia;
+                if (punto >= Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+                    // Fuera del plano básico, la cadena guarda el carácter como un par sustituto
+                    if (indice >= otro.length()) {
+                        return 1;
+                    }
+                    diferencia = Character.highSurrogate(punto) - otro.charAt(indice++);
+                    if (diferencia == 0) {
+                        if (indice >= otro.length()) {
+                            return 1;
+                        }
+                        diferencia = Character.lowSurrogate(punto) - otro.charAt(indice++);
+                    }
+                } else {
+                    if (indice >= otro.length()) {
+                        return 1;
+                    }
+                    diferencia = punto - otro.charAt(indice++);
+                }
+                if (diferencia != 0) {
+                    return diferencia;
+                }
+            }
+            return indice < otro.length() ? -1 : 0;
+        }
+
+        String texto() {
+            int longitud = entero();
+            if (longitud < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[longitud];
+            datos.get(posicion, bytes);
+            posicion += longitud;
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Escritor secuencial con búfer sobre un canal de archivo, que lleva la cuenta de la posición absoluta.
+     */
+    private static final class Escritor {
+        private final FileChannel canal;
+        private final ByteBuffer bufer = ByteBuffer.allocate(TAMANIO_BUFER);
+        private long escritos;
+
+        Escritor(FileChannel canal) {
+            this.canal = canal;
+        }
+
+        int posicion() throws IOException {
+            long posicion = escritos + bufer.position();
+            if (posicion > Integer.MAX_VALUE) {
+                throw new IOException("La instantánea supera el tamaño máximo mapeable.");
+            }
+            return (int) posicion;
+        }
+
+        void relleno(int cantidad) throws IOException {
+            asegurar(cantidad);
+            bufer.put(new byte[cantidad]);
+        }
+
+        void octeto(int valor) throws IOException {
+            asegurar(1);
+            bufer.put((byte) valor);
+        }
+
+        void entero(int valor) throws IOException {
+            asegurar(Integer.BYTES);
+            bufer.putInt(valor);
+        }
+
+        void largo(long valor) throws IOException {
+            asegurar(Long.BYTES);
+            bufer.putLong(valor);
+        }
+
+        void texto(String valor) throws IOException {
+            if (valor == null) {
+                entero(-1);
+                return;
+            }
+            byte[] bytes = valor.getBytes(StandardCharsets.UTF_8);
+            entero(bytes.length);
+            if (bytes.length > bufer.capacity()) {
+                vaciar();
+                escribirCompleto(ByteBuffer.wrap(bytes));
+            } else {
+                asegurar(bytes.length);
+                bufer.put(bytes);
+            }
+        }
+
+        void circulacion(String idRecurso, String idUsuario, LocalDateTime fecha) throws IOException {
+            texto(idRecurso);
+            texto(idUsuario);
+            largo(fecha.toEpochSecond(ZoneOffset.UTC));
+            entero(fecha.getNano());
+        }
+
+        void frecuencias(Collection<Frecuencia> frecuencias) throws IOException {
+            entero(frecuencias.size());
+            for (Frecuencia frecuencia : frecuencias) {
+                texto(frecuencia.getId());
+                largo(frecuencia.getCantidad());
+                largo(frecuencia.getError());
+            }
+        }
+
+        void vaciar() throws IOException {
+            bufer.flip();
+            escribirCompleto(bufer);
+            bufer.clear();
+        }
+
+        private void asegurar(int cantidad) throws IOException {
+            if (bufer.remaining() < cantidad) {
+                vaciar();
+            }
+        }
+
+        private void escribirCompleto(ByteBuffer origen) throws IOException {
+            while (origen.hasRemaining()) {
+                escritos += canal.write(origen);
+            }
+        }
+    }
+}
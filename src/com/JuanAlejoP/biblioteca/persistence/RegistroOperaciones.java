@@ -0,0 +1,442 @@
+package com.JuanAlejoP.biblioteca.persistence;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Registro de escritura anticipada (write-ahead log) de solo anexado para las operaciones
+ * de circulación de la biblioteca.
+ * <p>
+ * Cada entrada se codifica como {@code [longitud][crc32][tipo][campos...]}. Las escrituras
+ * usan confirmación agrupada: los hilos que registran entradas las acumulan en un lote
+ * común y esperan a que un hilo escritor dedicado las escriba y sincronice con el disco
+ * mediante un único {@code force}. Así, la durabilidad de cada operación no limita el
+ * rendimiento a una sincronización por operación.
+ * </p>
+ * <p>
+ * Al abrir el registro se valida su contenido y se descarta una eventual cola incompleta
+ * o corrupta, producto de una interrupción durante la última escritura.
+ * </p>
+ */
+public class RegistroOperaciones implements Closeable {
+    /**
+     * Tamaño de la cabecera de cada entrada: longitud y suma de verificación.
+     */
+    private static final int CABECERA = Integer.BYTES * 2;
+
+    /**
+     * Archivo del registro.
+     */
+    private final Path archivo;
+
+    /**
+     * Canal de escritura del registro, posicionado al final del contenido válido.
+     */
+    private final FileChannel canal;
+
+    /**
+     * Tiempo que el hilo escritor espera para sumar más entradas a un lote antes de sincronizarlo.
+     */
+    private final long ventanaNanos;
+
+    /**
+     * Monitor que protege el lote pendiente y las secuencias de escritura.
+     */
+    private final Object monitor = new Object();
+
+    /**
+     * Entradas codificadas pendientes de escribir.
+     */
+    private ByteArrayOutputStream lote = new ByteArrayOutputStream();
+
+    /**
+     * Secuencia de la última entrada agregada al lote.
+     */
+    private long secuenciaAgregada;
+
+    /**
+     * Secuencia de la última entrada sincronizada con el disco.
+     */
+    private long secuenciaDurable;
+
+    /**
+     * Cantidad de lotes sincronizados con el disco desde que se abrió el registro.
+     */
+    private long lotesSincronizados;
+
+    /**
+     * Error de escritura que invalida el registro, o {@code null} si no hubo fallas.
+     */
+    private IOException error;
+
+    /**
+     * Indica si se solicitó el cierre del registro.
+     */
+    private boolean cerrado;
+
+    /**
+     * Longitud en bytes del contenido válido encontrado al abrir el registro.
+     */
+    private final long longitudValida;
+
+    /**
+     * Hilo escritor que vuelca y sincroniza los lotes.
+     */
+    private final Thread escritor;
+
+    /**
+     * Abre o crea el registro de operaciones en el archivo indicado.
+     *
+     * @param archivo          ruta del archivo del registro
+     * @param ventanaAgrupacion tiempo de espera para agrupar entradas antes de cada sincronización;
+     *                          {@link Duration#ZERO} sincroniza apenas hay entradas pendientes
+     * @throws IOException si no se puede abrir, validar o truncar el archivo
+     */
+    public RegistroOperaciones(Path archivo, Duration ventanaAgrupacion) throws IOException {
+        this.archivo = archivo;
+        this.ventanaNanos = ventanaAgrupacion.toNanos();
+        Path directorio = archivo.toAbsolutePath().getParent();
+        if (directorio != null) {
+            Files.createDirectories(directorio);
+        }
+        this.canal = FileChannel.open(archivo,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.longitudValida = recorrer(null);
+        canal.truncate(longitudValida);
+        canal.position(longitudValida);
+        this.escritor = new Thread(this::escribirLotes, "registro-operaciones");
+        escritor.setDaemon(true);
+        escritor.start();
+    }
+
+    /**
+     * Registra una entrada y espera a que quede sincronizada con el disco.
+     *
+     * @param entrada entrada a registrar
+     * @throws IOException si el registro está cerrado o falló una escritura
+     */
+    public void registrar(EntradaRegistro entrada) throws IOException {
+        esperar(agregar(entrada));
+    }
+
+    /**
+     * Agrega una entrada al lote pendiente sin esperar su sincronización.
+     * <p>
+     * El orden en que se agregan las entradas es el orden en que se escriben y reproducen,
+     * por lo que quien necesite ordenar operaciones relacionadas puede agregar la entrada
+     * mientras mantiene su propia exclusión y esperar la durabilidad fuera de ella.
+     * </p>
+     *
+     * @param entrada entrada a registrar
+     * @return secuencia asignada a la entrada, para usar con {@link #esperar(long)}
+     * @throws IOException si la entrada no puede codificarse, si el registro está cerrado o si falló una
+     *                     escritura previa
+     */
+    public long agregar(EntradaRegistro entrada) throws IOException {
+        byte[] bytes = codificar(entrada);
+        synchronized (monitor) {
+            if (cerrado) {
+                throw new IOException("El registro de operaciones está cerrado.");
+            }
+            if (error != null) {
+                throw new IOException("El registro de operaciones falló previamente.", error);
+            }
+            lote.write(bytes, 0, bytes.length);
+            monitor.notifyAll();
+            return ++secuenciaAgregada;
+        }
+    }
+
+    /**
+     * Espera a que la entrada con la secuencia indicada quede sincronizada con el disco,
+     * junto con el resto de su lote.
+     *
+     * @param secuencia secuencia devuelta por {@link #agregar(EntradaRegistro)}
+     * @throws IOException si la escritura del lote falló
+     */
+    public void esperar(long secuencia) throws IOException {
+        synchronized (monitor) {
+            boolean interrumpido = false;
+            while (secuenciaDurable < secuencia && error == null) {
+                try {
+                    monitor.wait();
+                } catch (InterruptedException e) {
+                    interrumpido = true;
+                }
+            }
+            if (interrumpido) {
+                Thread.currentThread().interrupt();
+            }
+            if (secuenciaDurable < secuencia) {
+                throw new IOException("No se pudo sincronizar el registro de operaciones.", error);
+            }
+        }
+    }
+
+    /**
+     * Reproduce en orden las entradas válidas que contenía el registro al abrirse.
+     *
+     * @param consumidor destino de cada entrada reproducida
+     * @return cantidad de entradas reproducidas
+     * @throws IOException si no se puede leer el archivo
+     */
+    public long reproducir(Consumer<EntradaRegistro> consumidor) throws IOException {
+        long[] cantidad = new long[1];
+        recorrer(entrada -> {
+            consumidor.accept(entrada);
+            cantidad[0]++;
+        });
+        return cantidad[0];
+    }
+
+    /**
+     * Espera a que todas las entradas agregadas hasta el momento queden sincronizadas con el disco.
+     *
+     * @throws IOException si el registro falló, antes o durante la espera, o si la espera se interrumpe
+     */
+    public void sincronizar() throws IOException {
+        synchronized (monitor) {
+            while (secuenciaDurable < secuenciaAgregada && error == null) {
+                try {
+                    monitor.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Sincronización del registro interrumpida.", e);
+                }
+            }
+            if (error != null) {
+                throw new IOException("El registro de operaciones falló previamente.", error);
+            }
+        }
+    }
+
+    /**
+     * Descarta todo el contenido del registro, por ejemplo luego de persistir una instantánea
+     * que ya refleja todas las operaciones registradas. Espera a que se sincronicen las
+     * entradas pendientes antes de truncar.
+     * <p>
+     * Si el registro falló, no se trunca: su contenido puede ser la única copia durable de
+     * las entradas anteriores a la falla.
+     * </p>
+     *
+     * @throws IOException si el registro falló o no se puede truncar el archivo
+     */
+    public void vaciar() throws IOException {
+        synchronized (monitor) {
+            sincronizar();
+            canal.truncate(0);
+            canal.position(0);
+            canal.force(true);
+        }
+    }
+
+    /**
+     * Obtiene la ruta del archivo del registro.
+     *
+     * @return ruta del archivo
+     */
+    public Path getArchivo() {
+        return archivo;
+    }
+
+    /**
+     * Obtiene la cantidad de lotes sincronizados con el disco desde que se abrió el registro.
+     * Junto con la cantidad de entradas agregadas indica el tamaño medio de los lotes.
+     *
+     * @return cantidad de sincronizaciones de lotes
+     */
+    public long getLotesSincronizados() {
+        synchronized (monitor) {
+            return lotesSincronizados;
+        }
+    }
+
+    /**
+     * Cierra el registro luego de sincronizar las entradas pendientes y detener el hilo escritor.
+     *
+     * @throws IOException si falla el cierre del canal
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (monitor) {
+            cerrado = true;
+            monitor.notifyAll();
+        }
+        try {
+            escritor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        canal.close();
+    }
+
+    /**
+     * Bucle del hilo escritor: espera entradas pendientes, deja pasar la ventana de agrupación,
+     * toma el lote completo y lo escribe con una única sincronización.
+     * <p>
+     * Si el hilo se interrumpe, deja de esperar la ventana, escribe y sincroniza las entradas que ya
+     * estaban agregadas y termina marcando el registro como fallido, de modo que quienes esperan una
+     * entrada posterior o un vaciado reciben un error en lugar de bloquearse para siempre.
+     * </p>
+     */
+    private void escribirLotes() {
+        boolean interrumpido = false;
+        while (true) {
+            synchronized (monitor) {
+                while (lote.size() == 0 && !cerrado && !interrumpido) {
+                    try {
+                        monitor.wait();
+                    } catch (InterruptedException e) {
+                        interrumpido = true;
+                    }
+                }
+                if (lote.size() == 0) {
+                    if (interrumpido) {
+                        error = new IOException("El hilo escritor del registro de operaciones fue interrumpido.");
+                        monitor.notifyAll();
+                    }
+                    return;
+                }
+            }
+            if (ventanaNanos > 0 && !interrumpido) {
+                try {
+                    Thread.sleep(ventanaNanos / 1_000_000, (int) (ventanaNanos % 1_000_000));
+                } catch (InterruptedException e) {
+                    interrumpido = true;
+                }
+            }
+            // El canal se cierra si se escribe con la interrupción pendiente, por lo que se consume antes
+            interrumpido |= Thread.interrupted();
+            byte[] datos;
+            long hasta;
+            synchronized (monitor) {
+                datos = lote.toByteArray();
+                lote = new ByteArrayOutputStream(Math.max(32, datos.length));
+                hasta = secuenciaAgregada;
+            }
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(datos);
+                while (buffer.hasRemaining()) {
+                    canal.write(buffer);
+                }
+                canal.force(false);
+            } catch (IOException e) {
+                synchronized (monitor) {
+                    error = e;
+                    monitor.notifyAll();
+                }
+                return;
+            }
+            synchronized (monitor) {
+                secuenciaDurable = hasta;
+                lotesSincronizados++;
+                monitor.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Recorre las entradas válidas del archivo desde el inicio, deteniéndose ante la primera
+     * entrada incompleta o con suma de verificación incorrecta.
+     *
+     * @param consumidor destino de cada entrada válida, o {@code null} para sólo validar
+     * @return posición en bytes del final del contenido válido
+     * @throws IOException si no se puede leer el archivo
+     */
+    private long recorrer(Consumer<EntradaRegistro> consumidor) throws IOException {
+        long posicion = 0;
+        long limite = consumidor == null ? Files.size(archivo) : longitudValida;
+        CRC32 crc = new CRC32();
+        try (DataInputStream entrada = new DataInputStream(new BufferedInputStream(Files.newInputStream(archivo)))) {
+            while (posicion + CABECERA <= limite) {
+                int longitud;
+                int suma;
+                byte[] datos;
+                try {
+                    longitud = entrada.readInt();
+                    suma = entrada.readInt();
+                    if (longitud <= 0 || posicion + CABECERA + longitud > limite) {
+                        break;
+                    }
+                    datos = new byte[longitud];
+                    entrada.readFully(datos);
+                } catch (EOFException e) {
+                    break;
+                }
+                crc.reset();
+                crc.update(datos, 0, datos.length);
+                if ((int) crc.getValue() != suma) {
+                    break;
+                }
+                if (consumidor != null) {
+                    consumidor.accept(decodificar(datos));
+                }
+                posicion += CABECERA + longitud;
+            }
+        }
+        return posicion;
+    }
+
+    /**
+     * Codifica una entrada con su cabecera de longitud y suma de verificación.
+     *
+     * @param entrada entrada a codificar
+     * @return bytes de la entrada
+     * @throws IOException si algún campo supera los 65535 bytes codificado en UTF-8
+     */
+    private static byte[] codificar(EntradaRegistro entrada) throws IOException {
+        ByteArrayOutputStream cuerpo = new ByteArrayOutputStream();
+        try (DataOutputStream salida = new DataOutputStream(cuerpo)) {
+            salida.writeByte(entrada.getTipo().getCodigo());
+            salida.writeShort(entrada.getCampos().size());
+            for (String campo : entrada.getCampos()) {
+                salida.writeBoolean(campo != null);
+                if (campo != null) {
+                    salida.writeUTF(campo);
+                }
+            }
+        }
+        byte[] datos = cuerpo.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(datos, 0, datos.length);
+        return ByteBuffer.allocate(CABECERA + datos.length)
+                .putInt(datos.length)
+                .putInt((int) crc.getValue())
+                .put(datos)
+                .array();
+    }
+
+    /**
+     * Decodifica el cuerpo de una entrada ya validado.
+     *
+     * @param datos bytes del cuerpo de la entrada
+     * @return entrada decodificada
+     * @throws IOException si el contenido no respeta el formato
+     */
+    private static EntradaRegistro decodificar(byte[] datos) throws IOException {
+        DataInputStream entrada = new DataInputStream(new ByteArrayInputStream(datos));
+        TipoOperacion tipo = TipoOperacion.desdeCodigo(entrada.readByte());
+        if (tipo == null) {
+            throw new IOException("Tipo de operación desconocido en el registro.");
+        }
+        String[] campos = new String[entrada.readUnsignedShort()];
+        for (int i = 0; i < campos.length; i++) {
+            campos[i] = entrada.readBoolean() ? entrada.readUTF() : null;
+        }
+        return new EntradaRegistro(tipo, campos);
+    }
+}
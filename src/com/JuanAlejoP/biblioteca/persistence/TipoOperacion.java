@@ -0,0 +1,84 @@
+package com.JuanAlejoP.biblioteca.persistence;
+
+/**
+ * Enumeración de las operaciones que modifican el estado de circulación y se registran
+ * en el registro de operaciones.
+ * <p>
+ * Cada tipo tiene un código fijo que se persiste en disco, independiente del orden
+ * de declaración, para que los registros existentes sigan siendo legibles.
+ * </p>
+ */
+public enum TipoOperacion {
+    /**
+     * Alta o reemplazo de un recurso en el catálogo.
+     */
+    ALTA_RECURSO((byte) 1),
+
+    /**
+     * Préstamo de un recurso a un usuario.
+     */
+    PRESTAMO((byte) 2),
+
+    /**
+     * Devolución de un recurso prestado.
+     */
+    DEVOLUCION((byte) 3),
+
+    /**
+     * Reserva de un recurso por parte de un usuario.
+     */
+    RESERVA((byte) 4),
+
+    /**
+     * Renovación del préstamo de un recurso.
+     */
+    RENOVACION((byte) 5),
+
+    /**
+     * Cambio de categoría de un recurso ya registrado.
+     */
+    CAMBIO_CATEGORIA((byte) 6),
+
+    /**
+     * Cesión del turno de quien encabeza la cola de reservas de un recurso retenido.
+     */
+    CESION_RESERVA((byte) 7);
+
+    /**
+     * Código persistido del tipo de operación.
+     */
+    private final byte codigo;
+
+    /**
+     * Construye un tipo de operación con su código persistido.
+     *
+     * @param codigo código que identifica al tipo en disco
+     */
+    TipoOperacion(byte codigo) {
+        this.codigo = codigo;
+    }
+
+    /**
+     * Obtiene el código persistido del tipo de operación.
+     *
+     * @return código del tipo
+     */
+    public byte getCodigo() {
+        return codigo;
+    }
+
+    /**
+     * Obtiene el tipo de operación correspondiente a un código persistido.
+     *
+     * @param codigo código leído del disco
+     * @return tipo de operación, o {@code null} si el código es desconocido
+     */
+    public static TipoOperacion desdeCodigo(byte codigo) {
+        for (TipoOperacion tipo : values()) {
+            if (tipo.codigo == codigo) {
+                return tipo;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,220 @@
+package com.JuanAlejoP.biblioteca.reports;
+
+import com.JuanAlejoP.biblioteca.manager.EstadisticasCatalogo;
+import com.JuanAlejoP.biblioteca.manager.ObservadorGestor;
+import com.JuanAlejoP.biblioteca.manager.VersionCatalogo;
+import com.JuanAlejoP.biblioteca.model.CategoriaRecurso;
+import com.JuanAlejoP.biblioteca.model.EstadoRecurso;
+import com.JuanAlejoP.biblioteca.model.Prestamo;
+import com.JuanAlejoP.biblioteca.model.RecursoDigital;
+import com.JuanAlejoP.biblioteca.model.Reserva;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Vista materializada con los agregados de todos los reportes de la biblioteca.
+ * <p>
+ * Se suscribe a las mutaciones de un {@link com.JuanAlejoP.biblioteca.manager.GestorRecursos} y
+ * ajusta cada agregado en el momento en que ocurre la mutación: conteos por estado y por categoría y
+ * cantidad de reservas de cada recurso. Generar un reporte se reduce a leer este estado, sin recorrer
+ * el catálogo ni las colas de reservas. Las clasificaciones por préstamos se leen de los resúmenes de
+ * préstamos históricos del gestor, que se guardan con sus instantáneas.
+ * </p>
+ * <p>
+ * Los agregados se guardan como copia por escritura por épocas: las mutaciones suman sus variaciones
+ * a las de su época, sin tocar la base, y al cerrarse una época sus variaciones se incorporan a la base.
+ * La base sólo cambia al leer una versión del gestor, y los conteos de reservas son un mapa persistente
+ * que se reemplaza en lugar de modificarse: incorporar una época copia sólo los caminos de los recursos
+ * que cambiaron, y cada {@link VistaReportes} queda fija aunque el catálogo siga cambiando.
+ * </p>
+ */
+class AgregadosReportes implements ObservadorGestor {
+    /**
+     * Cantidad de recursos en cada estado y de cada categoría según las épocas cerradas, indexadas por ordinal.
+     */
+    private final long[] porEstado = new long[EstadoRecurso.values().length];
+    private final long[] porCategoria = new long[CategoriaRecurso.values().length];
+
+    /**
+     * Cantidad de reservas pendientes de cada recurso que tiene alguna según las épocas cerradas,
+     * ordenadas por ID de recurso. No se modifica: al incorporar una época se reemplaza.
+     */
+    private ConteosOrdenados reservasPorRecurso = ConteosOrdenados.VACIO;
+
+    /**
+     * Variaciones de la época en curso y de la anterior, que puede tener mutaciones sin terminar
+     * hasta que se cierra.
+     */
+    private volatile Variaciones actuales;
+    private volatile Variaciones anteriores;
+
+    /**
+     * Suma a la base las estadísticas del catálogo calculadas al suscribirse. Todos los agregados
+     * son aditivos, por lo que la base puede sumarse después de las notificaciones posteriores.
+     *
+     * @param base estadísticas del catálogo en el momento de la suscripción
+     */
+    synchronized void inicializar(EstadisticasCatalogo base) {
+        for (EstadoRecurso estado : EstadoRecurso.values()) {
+            porEstado[estado.ordinal()] += base.contarPorEstado(estado);
+        }
+        for (CategoriaRecurso categoria : CategoriaRecurso.values()) {
+            porCategoria[categoria.ordinal()] += base.contarPorCategoria(categoria);
+        }
+        reservasPorRecurso = combinar(reservasPorRecurso, base.getReservasPorRecurso());
+    }
+
+    /**
+     * Toma una vista fija de los agregados y de los tops de préstamos de una versión. Debe invocarse
+     * desde la lectura de esa versión, cuando la base incluye todas sus épocas y ninguna posterior.
+     *
+     * @param version  versión que se lee
+     * @param cantidad cantidad de puestos de cada top
+     * @return vista de la versión
+     */
+    synchronized VistaReportes vista(VersionCatalogo version, int cantidad) {
+        return new VistaReportes(porEstado.clone(), porCategoria.clone(), reservasPorRecurso,
+                version.getRecursosMasPrestados(cantidad), version.getUsuariosMasActivos(cantidad));
+    }
+
+    @Override
+    public void recursoAgregado(RecursoDigital recurso, RecursoDigital anterior, long epoca) {
+        Variaciones variaciones = variaciones(epoca);
+        if (anterior != null) {
+            variaciones.porEstado[anterior.getEstado().ordinal()].decrement();
+            variaciones.porCategoria[anterior.getCategoria().ordinal()].decrement();
+        }
+        variaciones.porEstado[recurso.getEstado().ordinal()].increment();
+        variaciones.porCategoria[recurso.getCategoria().ordinal()].increment();
+    }
+
+    @Override
+    public void estadoCambiado(RecursoDigital recurso, EstadoRecurso anterior, EstadoRecurso nuevo, long epoca) {
+        Variaciones variaciones = variaciones(epoca);
+        variaciones.porEstado[anterior.ordinal()].decrement();
+        variaciones.porEstado[nuevo.ordinal()].increment();
+    }
+
+    @Override
+    public void categoriaCambiada(RecursoDigital recurso, CategoriaRecurso anterior, CategoriaRecurso nueva,
+                                  long epoca) {
+        Variaciones variaciones = variaciones(epoca);
+        variaciones.porCategoria[anterior.ordinal()].decrement();
+        variaciones.porCategoria[nueva.ordinal()].increment();
+    }
+
+    @Override
+    public void prestamoIniciado(Prestamo prestamo, long epoca) {
+        // Los préstamos sólo intervienen en los estados, que se notifican por separado
+    }
+
+    @Override
+    public void prestamoTerminado(Prestamo prestamo, long epoca) {
+        // Los préstamos sólo intervienen en los estados, que se notifican por separado
+    }
+
+    @Override
+    public void reservaAgregada(Reserva reserva, long epoca) {
+        sumar(variaciones(epoca).reservas, reserva.getRecurso().getIdentificador(), 1);
+    }
+
+    @Override
+    public void reservaQuitada(Reserva reserva, long epoca) {
+        sumar(variaciones(epoca).reservas, reserva.getRecurso().getIdentificador(), -1);
+    }
+
+    @Override
+    public void epocaIniciada(long epoca) {
+        anteriores = actuales;
+        actuales = new Variaciones(epoca);
+    }
+
+    @Override
+    public synchronized void epocaCerrada(long epoca) {
+        Variaciones cerradas = anteriores;
+        if (cerradas == null || cerradas.epoca != epoca) {
+            return;
+        }
+        anteriores = null;
+        for (int i = 0; i < porEstado.length; i++) {
+            porEstado[i] += cerradas.porEstado[i].sum();
+        }
+        for (int i = 0; i < porCategoria.length; i++) {
+            porCategoria[i] += cerradas.porCategoria[i].sum();
+        }
+        if (!cerradas.reservas.isEmpty()) {
+            reservasPorRecurso = combinar(reservasPorRecurso, cerradas.reservas);
+        }
+    }
+
+    /**
+     * Obtiene las variaciones de una época, que es la en curso o, si una lectura acaba de iniciar
+     * otra, la anterior.
+     *
+     * @param epoca época de la mutación
+     * @return variaciones de la época
+     */
+    private Variaciones variaciones(long epoca) {
+        Variaciones variaciones = actuales;
+        return variaciones.epoca == epoca ? variaciones : anteriores;
+    }
+
+    /**
+     * Obtiene los conteos de reservas con las variaciones sumadas, descartando los recursos que quedan
+     * sin reservas. Cuesta O(log n) por recurso que varió, sin copiar los conteos de los demás.
+     *
+     * @param base        conteos de reservas
+     * @param variaciones variaciones a sumar
+     * @return conteos con las variaciones sumadas; la base no se modifica
+     */
+    private static ConteosOrdenados combinar(ConteosOrdenados base, Map<String, Integer> variaciones) {
+        ConteosOrdenados combinado = base;
+        for (Map.Entry<String, Integer> entry : variaciones.entrySet()) {
+            combinado = combinado.sumar(entry.getKey(), entry.getValue());
+        }
+        return combinado;
+    }
+
+    /**
+     * Ajusta la cantidad de reservas de un recurso, descartándolo al llegar a cero. Dentro de una
+     * época, una notificación de quita puede adelantarse a la del alta correspondiente, por lo que la
+     * variación puede quedar negativa hasta que llegue la otra.
+     *
+     * @param reservas conteos a ajustar
+     * @param id       ID del recurso
+     * @param delta    cantidad a sumar
+     */
+    private static void sumar(Map<String, Integer> reservas, String id, int delta) {
+        reservas.merge(id, delta, (actual, suma) -> actual + suma == 0 ? null : actual + suma);
+    }
+
+    /**
+     * Crea un arreglo de contadores en cero.
+     *
+     * @param cantidad cantidad de contadores
+     * @return contadores creados
+     */
+    private static LongAdder[] contadores(int cantidad) {
+        LongAdder[] contadores = new LongAdder[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            contadores[i] = new LongAdder();
+        }
+        return contadores;
+    }
+
+    /**
+     * Variaciones de los agregados producidas por las mutaciones de una época.
+     */
+    private static final class Variaciones {
+        private final long epoca;
+        private final LongAdder[] porEstado = contadores(EstadoRecurso.values().length);
+        private final LongAdder[] porCategoria = contadores(CategoriaRecurso.values().length);
+        private final Map<String, Integer> reservas = new ConcurrentHashMap<>();
+
+        Variaciones(long epoca) {
+            this.epoca = epoca;
+        }
+    }
+}
@@ -1,26 +1,73 @@
 package com.JuanAlejoP.biblioteca.reports;
 
-import java.util.List;
-import java.util.Arrays;
-import java.util.concurrent.Callable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * Generador de reportes en segundo plano utilizando un pool de hilos.
+ * Generador de reportes en segundo plano que no bloquea a quien los solicita.
  * <p>
- * Esta clase delega la generación de diferentes tipos de reportes a un objeto
- * {@link GeneradorReportes} y ejecuta dichas tareas de forma asíncrona,
- * imprimiendo el progreso y los resultados por consola.
+ * Al imprimirlos por consola, cada reporte de un {@link GeneradorReportes} se genera en paralelo en
+ * su propio hilo del pool, sobre una {@link SalidaDiferida}, y se escribe completo en cuanto termina,
+ * sin esperar a los demás ni intercalar sus filas. Cada uno tiene un tiempo máximo contado desde que
+ * se lanza; al agotarse, o al cancelar la ejecución, el reporte se interrumpe en su próxima fila y se
+ * descarta. Estos reportes se guardan en memoria hasta escribirse, por lo que sólo conviene para
+ * la salida interactiva.
+ * </p>
+ * <p>
+ * Al exportarlos a otra salida, como un archivo, los reportes se generan uno tras otro en un mismo
+ * hilo del pool y sus filas se escriben directamente en la salida a medida que se producen, con
+ * memoria constante sea cual sea el tamaño del catálogo. Las exportaciones no tienen tiempo máximo:
+ * sólo se interrumpen al cancelarlas, y el reporte interrumpido queda truncado en la salida.
+ * En ambos casos el avance se informa una vez por reporte terminado.
+ * </p>
+ * <p>
+ * Cada ejecución toma primero, en el pool, una única {@link VistaReportes} de una versión consistente
+ * del catálogo, y todos sus reportes se escriben sobre ella: los préstamos y devoluciones que ocurren
+ * mientras se generan no hacen que los conteos de un reporte discrepen de los tops de otro.
+ * </p>
+ * <p>
+ * Los hilos del pool son demonios; {@link #close()} cancela las ejecuciones en curso y detiene el
+ * pool, y debe invocarse al cerrar la aplicación. Los reportes lanzados después de cerrarlo se
+ * informan como fallidos.
  * </p>
  */
-public class AsyncReportGenerator {
+public class AsyncReportGenerator implements AutoCloseable {
+
+    /**
+     * Tiempo máximo predeterminado de cada reporte impreso por consola.
+     */
+    private static final Duration TIEMPO_MAXIMO = Duration.ofSeconds(30);
+
+    /**
+     * Cantidad de hilos del pool: uno por reporte, para que los reportes de una ejecución
+     * comiencen a la vez.
+     */
+    private static final int HILOS = 5;
 
     /**
-     * Pool de hilos fijo con dos hilos para ejecutar tareas concurrentes.
+     * Tiempo de espera a que terminen los hilos del pool al cerrarlo.
      */
-    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private static final long ESPERA_CIERRE_SEGUNDOS = 5;
+
+    /**
+     * Pool de hilos demonio en el que se generan los reportes.
+     */
+    private final ExecutorService executor;
 
     /**
      * Encargado de generar los reportes solicitados.
@@ -28,45 +75,307 @@ public class AsyncReportGenerator {
     private final GeneradorReportes generator;
 
     /**
-     * Construye una instancia de AsyncReportGenerator con un generador de reportes.
+     * Tiempo máximo de cada reporte impreso por consola.
+     */
+    private final Duration tiempoMaximo;
+
+    /**
+     * Ejecuciones lanzadas que aún no terminaron, canceladas al cerrar el generador.
+     */
+    private final Set<EjecucionReportes> enCurso = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Construye una instancia de AsyncReportGenerator con un generador de reportes y el tiempo
+     * máximo predeterminado por reporte impreso por consola.
      *
      * @param generator Objeto responsable de la creación de cada reporte.
      */
     public AsyncReportGenerator(GeneradorReportes generator) {
+        this(generator, TIEMPO_MAXIMO);
+    }
+
+    /**
+     * Construye una instancia de AsyncReportGenerator con un generador de reportes y un tiempo
+     * máximo por reporte impreso por consola. Las exportaciones no tienen tiempo máximo.
+     *
+     * @param generator    Objeto responsable de la creación de cada reporte.
+     * @param tiempoMaximo tiempo máximo de cada reporte impreso por consola, contado desde que se lanza
+     */
+    public AsyncReportGenerator(GeneradorReportes generator, Duration tiempoMaximo) {
         this.generator = generator;
+        this.tiempoMaximo = tiempoMaximo;
+        AtomicInteger numero = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(HILOS, tarea -> {
+            Thread hilo = new Thread(tarea, "reportes-" + numero.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
     }
 
     /**
-     * Inicia la generación de una serie de reportes en segundo plano.
+     * Inicia la generación de todos los reportes en segundo plano y vuelve de inmediato.
      * <p>
-     * Se crea una lista de tareas {@code Callable<String>} que invocan distintos
-     * métodos de {@code GeneradorReportes} y muestran el avance de forma secuencial
-     * (20%, 40%, 60%, 80%, 100%).
+     * Cada reporte se imprime por consola en cuanto termina, seguido de una línea de avance con la
+     * cantidad de reportes terminados; los reportes fallidos, cancelados o con el tiempo agotado
+     * sólo informan su avance.
      * </p>
+     *
+     * @return ejecución en curso, que permite cancelarla
+     */
+    public EjecucionReportes generarReportesEnSegundoPlano() {
+        // La salida estándar pertenece a la aplicación, por lo que el escritor no se cierra
+        SalidaReporte salida = new SalidaTexto(new OutputStreamWriter(System.out));
+        Map<String, GeneradorReportes.EscrituraReporte> reportes = reportes();
+        EjecucionReportes ejecucion = iniciar(reportes.size());
+        CompletableFuture<VistaReportes> vista;
+        try {
+            vista = CompletableFuture.supplyAsync(generator::capturarVista, executor);
+        } catch (RejectedExecutionException e) {
+            // El generador ya fue cerrado: cada reporte se informará como fallido al lanzarlo
+            vista = CompletableFuture.failedFuture(e);
+        }
+        for (Map.Entry<String, GeneradorReportes.EscrituraReporte> reporte : reportes.entrySet()) {
+            lanzar(reporte.getKey(), reporte.getValue(), vista, salida, ejecucion,
+                    AsyncReportGenerator::informarAvance);
+        }
+        return ejecucion;
+    }
+
+    /**
+     * Escribe todos los reportes en segundo plano sobre la salida indicada, por ejemplo un archivo CSV,
+     * uno tras otro y a medida que producen sus filas.
+     *
+     * @param salida destino de los reportes; quien lo crea es responsable de cerrar el destino subyacente,
+     *               luego de la finalización de la ejecución
+     * @return ejecución en curso
+     */
+    public EjecucionReportes exportarReportes(SalidaReporte salida) {
+        return exportarReportes(salida, null);
+    }
+
+    /**
+     * Escribe todos los reportes en segundo plano sobre la salida indicada, uno tras otro y a medida
+     * que producen sus filas, notificando el avance luego de cada uno.
      * <p>
-     * Todas las tareas se envían al executor y se espera a su finalización con
-     * Los resultados se imprimen en consola.
-     * En caso de error, se captura la excepción y se muestra un mensaje de fallo.
+     * Ningún reporte se guarda en memoria, por lo que la salida recibe las filas desde el hilo del pool
+     * mientras se generan. Los reportes no tienen tiempo máximo; al cancelar la ejecución, el reporte en
+     * curso se interrumpe en su próxima fila, truncado, y los siguientes no se escriben.
      * </p>
+     *
+     * @param salida destino de los reportes; quien lo crea es responsable de cerrar el destino subyacente,
+     *               luego de la finalización de la ejecución
+     * @param avance receptor del avance, o {@code null}
+     * @return ejecución en curso
+     */
+    public EjecucionReportes exportarReportes(SalidaReporte salida, AvanceReportes avance) {
+        Map<String, GeneradorReportes.EscrituraReporte> reportes = reportes();
+        EjecucionReportes ejecucion = iniciar(reportes.size());
+        Map<String, CompletableFuture<Void>> generaciones = new LinkedHashMap<>();
+        for (String nombre : reportes.keySet()) {
+            CompletableFuture<Void> generacion = new CompletableFuture<>();
+            ejecucion.agregar(generacion);
+            generaciones.put(nombre, generacion);
+        }
+        try {
+            executor.execute(() -> escribirEnSecuencia(reportes, generaciones, salida, ejecucion, avance));
+        } catch (RejectedExecutionException e) {
+            // El generador ya fue cerrado: todos los reportes se informan como fallidos
+            for (Map.Entry<String, CompletableFuture<Void>> generacion : generaciones.entrySet()) {
+                generacion.getValue().completeExceptionally(e);
+                ejecucion.registrar(generacion.getKey(), e, avance);
+            }
+        }
+        return ejecucion;
+    }
+
+    /**
+     * Obtiene las escrituras de todos los reportes, en el orden en que se generan.
+     *
+     * @return escrituras por nombre de reporte
+     */
+    private Map<String, GeneradorReportes.EscrituraReporte> reportes() {
+        Map<String, GeneradorReportes.EscrituraReporte> reportes = new LinkedHashMap<>();
+        reportes.put("Recursos por estado", generator::escribirReporteRecursosPorEstado);
+        reportes.put("Recursos más prestados", generator::escribirReporteRecursosConMasPrestamos);
+        reportes.put("Usuarios más activos", generator::escribirReporteUsuariosActivos);
+        reportes.put("Recursos con reservas", generator::escribirReporteRecursosConReservas);
+        reportes.put("Estadísticas por categoría", generator::escribirEstadisticasPorCategoria);
+        return reportes;
+    }
+
+    /**
+     * Crea una ejecución y la mantiene entre las ejecuciones en curso hasta que termine.
+     *
+     * @param total cantidad de reportes de la ejecución
+     * @return ejecución creada
+     */
+    private EjecucionReportes iniciar(int total) {
+        EjecucionReportes ejecucion = new EjecucionReportes(total);
+        enCurso.add(ejecucion);
+        ejecucion.getFinalizacion().whenComplete((resultado, error) -> enCurso.remove(ejecucion));
+        return ejecucion;
+    }
+
+    /**
+     * Captura la vista de la ejecución y escribe en la salida cada reporte a continuación del anterior,
+     * sin guardar sus filas. Se ejecuta en un hilo del pool.
+     *
+     * @param reportes     escrituras de los reportes
+     * @param generaciones generación de cada reporte, que se cancela para interrumpirlo
+     * @param salida       salida de la exportación
+     * @param ejecucion    ejecución a la que pertenecen los reportes
+     * @param avance       receptor del avance, o {@code null}
      */
-    public void generarReportesEnSegundoPlano() {
-        List<Callable<String>> tasks = Arrays.asList(
-                () -> { String r = generator.generarReporteRecursosPorEstado(); System.out.println("20% completado"); return r; },
-                () -> { String r = generator.generarReporteRecursosConMasPrestamos(); System.out.println("40% completado"); return r; },
-                () -> { String r = generator.generarReporteUsuariosActivos(); System.out.println("60% completado"); return r; },
-                () -> { String r = generator.generarReporteRecursosConReservas(); System.out.println("80% completado"); return r; },
-                () -> { String r = generator.generarEstadisticasPorCategoria(); System.out.println("100% completado"); return r; }
-        );
+    private void escribirEnSecuencia(Map<String, GeneradorReportes.EscrituraReporte> reportes,
+                                     Map<String, CompletableFuture<Void>> generaciones, SalidaReporte salida,
+                                     EjecucionReportes ejecucion, AvanceReportes avance) {
+        VistaReportes vista = null;
+        Throwable errorVista = null;
+        try {
+            vista = generator.capturarVista();
+        } catch (Throwable e) {
+            errorVista = e;
+        }
+        for (Map.Entry<String, CompletableFuture<Void>> entrada : generaciones.entrySet()) {
+            String nombre = entrada.getKey();
+            CompletableFuture<Void> generacion = entrada.getValue();
+            Throwable causa = errorVista;
+            if (causa == null && generacion.isDone()) {
+                causa = new CancellationException("Generación del reporte abandonada.");
+            } else if (causa == null) {
+                try {
+                    reportes.get(nombre).escribir(vista, new SalidaCancelable(salida, generacion::isDone));
+                    salida.flush();
+                } catch (Throwable e) {
+                    causa = e;
+                }
+            }
+            // Un reporte escrito por completo cuenta como escrito aunque se haya cancelado al terminar
+            if (causa == null) {
+                generacion.complete(null);
+            } else {
+                generacion.completeExceptionally(causa);
+            }
+            ejecucion.registrar(nombre, causa, avance);
+        }
+    }
 
+    /**
+     * Lanza la generación diferida de un reporte y programa su escritura en la salida al terminar.
+     *
+     * @param nombre    nombre del reporte
+     * @param escritura escritura del reporte
+     * @param vista     vista compartida por los reportes de la ejecución
+     * @param salida    salida compartida por los reportes de la ejecución
+     * @param ejecucion ejecución a la que pertenece el reporte
+     * @param avance    receptor del avance, o {@code null}
+     */
+    private void lanzar(String nombre, GeneradorReportes.EscrituraReporte escritura,
+                        CompletableFuture<VistaReportes> vista, SalidaReporte salida,
+                        EjecucionReportes ejecucion, AvanceReportes avance) {
+        CompletableFuture<SalidaDiferida> generacion = new CompletableFuture<>();
+        ejecucion.agregar(generacion);
+        Future<?> tarea;
         try {
-            List<Future<String>> futures = executor.invokeAll(tasks);
-            for (Future<String> future : futures) {
-                // Imprime cada reporte una vez completado
-                System.out.println(future.get());
+            tarea = executor.submit(() -> {
+                // La generación se abandona en cuanto su resultado quedó decidido por cancelación o tiempo
+                SalidaDiferida diferida = new SalidaDiferida(generacion::isDone);
+                try {
+                    escritura.escribir(vista.get(), diferida);
+                    generacion.complete(diferida);
+                } catch (ExecutionException e) {
+                    generacion.completeExceptionally(e.getCause());
+                } catch (Throwable e) {
+                    generacion.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // El generador ya fue cerrado: el reporte se informa como fallido
+            generacion.completeExceptionally(e);
+            ejecucion.registrar(nombre, e, avance);
+            return;
+        }
+        generacion.orTimeout(tiempoMaximo.toMillis(), TimeUnit.MILLISECONDS);
+        generacion.whenComplete((diferida, error) -> {
+            Throwable causa = error;
+            if (causa != null) {
+                tarea.cancel(true);
+            } else {
+                causa = escribir(diferida, salida);
             }
-        } catch (Exception e) {
-            // Muestra un mensaje genérico ante cualquier fallo en la generación
-            System.out.println("Error en generación de reportes: " + e.getMessage());
+            ejecucion.registrar(nombre, causa, avance);
+        });
+    }
+
+    /**
+     * Escribe un reporte terminado en la salida compartida, sin intercalarlo con otros.
+     *
+     * @param diferida reporte terminado
+     * @param salida   salida compartida
+     * @return error de escritura, o {@code null} si se escribió
+     */
+    private static IOException escribir(SalidaDiferida diferida, SalidaReporte salida) {
+        synchronized (salida) {
+            try {
+                diferida.volcar(salida);
+                salida.flush();
+                return null;
+            } catch (IOException e) {
+                return e;
+            }
+        }
+    }
+
+    /**
+     * Imprime por consola el avance de la generación luego de cada reporte.
+     *
+     * @param reporte    nombre del reporte
+     * @param error      causa por la que no se escribió, o {@code null}
+     * @param terminados reportes terminados
+     * @param total      total de reportes
+     */
+    private static void informarAvance(String reporte, Throwable error, int terminados, int total) {
+        String estado;
+        if (error == null) {
+            estado = "listo";
+        } else if (error instanceof TimeoutException) {
+            estado = "tiempo agotado";
+        } else if (error instanceof CancellationException) {
+            estado = "cancelado";
+        } else {
+            estado = "error: " + error.getMessage();
+        }
+        System.out.println("[" + terminados + "/" + total + "] " + reporte + ": " + estado
+                + " (" + terminados * 100 / total + "% completado)");
+    }
+
+    /**
+     * Cancela todas las ejecuciones en curso.
+     *
+     * @return cantidad de ejecuciones en las que se canceló al menos un reporte
+     */
+    public int cancelarEjecuciones() {
+        int canceladas = 0;
+        for (EjecucionReportes ejecucion : enCurso) {
+            if (ejecucion.cancelar()) {
+                canceladas++;
+            }
+        }
+        return canceladas;
+    }
+
+    /**
+     * Cancela las ejecuciones en curso y detiene el pool, esperando brevemente a que sus hilos terminen.
+     * Luego de cerrarlo, el generador rechaza nuevas ejecuciones.
+     */
+    @Override
+    public void close() {
+        cancelarEjecuciones();
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(ESPERA_CIERRE_SEGUNDOS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
     }
-}
\ No newline at end of file
+}
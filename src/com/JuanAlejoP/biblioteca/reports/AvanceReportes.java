@@ -0,0 +1,20 @@
+package com.JuanAlejoP.biblioteca.reports;
+
+/**
+ * Receptor del avance de una ejecución de reportes, notificado una vez por reporte al terminar,
+ * ya sea escrito en la salida, fallido, cancelado o con el tiempo agotado.
+ */
+@FunctionalInterface
+public interface AvanceReportes {
+    /**
+     * Recibe la finalización de un reporte. Puede invocarse desde cualquier hilo.
+     *
+     * @param reporte    nombre del reporte
+     * @param error      causa por la que el reporte no se escribió: {@link java.util.concurrent.TimeoutException}
+     *                   si se agotó su tiempo, {@link java.util.concurrent.CancellationException} si se canceló
+     *                   o el error de la generación o la escritura; {@code null} si se escribió
+     * @param terminados cantidad de reportes de la ejecución terminados hasta el momento, incluido éste
+     * @param total      cantidad de reportes de la ejecución
+     */
+    void reporteTerminado(String reporte, Throwable error, int terminados, int total);
+}
@@ -0,0 +1,207 @@
+package com.JuanAlejoP.biblioteca.reports;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Mapa inmutable de IDs a cantidades positivas, recorrido en orden de ID.
+ * <p>
+ * Es un treap persistente: sumar una cantidad no modifica el mapa sino que devuelve otro que
+ * comparte con él todos los nodos salvo los del camino hasta el ID, por lo que cuesta O(log n) en
+ * lugar de copiar el mapa entero, y los mapas anteriores siguen siendo válidos. La prioridad de cada
+ * nodo se deriva del hash de su ID, de modo que la forma del árbol no depende del orden de las sumas.
+ * </p>
+ */
+final class ConteosOrdenados extends AbstractMap<String, Integer> {
+    /**
+     * Mapa sin entradas.
+     */
+    static final ConteosOrdenados VACIO = new ConteosOrdenados(null, 0);
+
+    /**
+     * Raíz del árbol, o {@code null} si el mapa está vacío.
+     */
+    private final Nodo raiz;
+
+    /**
+     * Cantidad de entradas.
+     */
+    private final int tamanio;
+
+    private ConteosOrdenados(Nodo raiz, int tamanio) {
+        this.raiz = raiz;
+        this.tamanio = tamanio;
+    }
+
+    /**
+     * Obtiene un mapa con una cantidad sumada a la de un ID, descartando el ID si queda en cero.
+     *
+     * @param id    ID cuya cantidad se ajusta
+     * @param delta cantidad a sumar
+     * @return mapa con la suma aplicada; éste no se modifica
+     */
+    ConteosOrdenados sumar(String id, int delta) {
+        if (delta == 0) {
+            return this;
+        }
+        Integer actual = get(id);
+        int valor = (actual != null ? actual : 0) + delta;
+        int nuevoTamanio = tamanio + (actual == null ? 1 : 0) - (valor == 0 ? 1 : 0);
+        return new ConteosOrdenados(sumar(raiz, id, delta), nuevoTamanio);
+    }
+
+    @Override
+    public Integer get(Object clave) {
+        if (!(clave instanceof String)) {
+            return null;
+        }
+        String id = (String) clave;
+        Nodo nodo = raiz;
+        while (nodo != null) {
+            int comparacion = id.compareTo(nodo.id);
+            if (comparacion == 0) {
+                return nodo.valor;
+            }
+            nodo = comparacion < 0 ? nodo.menor : nodo.mayor;
+        }
+        return null;
+    }
+
+    @Override
+    public boolean containsKey(Object clave) {
+        return get(clave) != null;
+    }
+
+    @Override
+    public int size() {
+        return tamanio;
+    }
+
+    @Override
+    public Set<Map.Entry<String, Integer>> entrySet() {
+        return new AbstractSet<Map.Entry<String, Integer>>() {
+            @Override
+            public Iterator<Map.Entry<String, Integer>> iterator() {
+                return new Recorrido(raiz);
+            }
+
+            @Override
+            public int size() {
+                return tamanio;
+            }
+        };
+    }
+
+    /**
+     * Suma una cantidad a la de un ID en un subárbol, copiando sólo el camino hasta el ID.
+     *
+     * @param nodo  raíz del subárbol, o {@code null}
+     * @param id    ID cuya cantidad se ajusta
+     * @param delta cantidad a sumar, distinta de cero
+     * @return raíz del subárbol resultante
+     */
+    private static Nodo sumar(Nodo nodo, String id, int delta) {
+        if (nodo == null) {
+            return new Nodo(id, delta, null, null);
+        }
+        int comparacion = id.compareTo(nodo.id);
+        if (comparacion == 0) {
+            int valor = nodo.valor + delta;
+            return valor == 0 ? unir(nodo.menor, nodo.mayor) : new Nodo(id, valor, nodo.menor, nodo.mayor);
+        }
+        if (comparacion < 0) {
+            Nodo menor = sumar(nodo.menor, id, delta);
+            if (menor != null && menor.prioridad > nodo.prioridad) {
+                // Rotación a derecha: el nodo nuevo sube por encima del actual
+                return new Nodo(menor.id, menor.valor, menor.menor,
+                        new Nodo(nodo.id, nodo.valor, menor.mayor, nodo.mayor));
+            }
+            return new Nodo(nodo.id, nodo.valor, menor, nodo.mayor);
+        }
+        Nodo mayor = sumar(nodo.mayor, id, delta);
+        if (mayor != null && mayor.prioridad > nodo.prioridad) {
+            // Rotación a izquierda
+            return new Nodo(mayor.id, mayor.valor,
+                    new Nodo(nodo.id, nodo.valor, nodo.menor, mayor.menor), mayor.mayor);
+        }
+        return new Nodo(nodo.id, nodo.valor, nodo.menor, mayor);
+    }
+
+    /**
+     * Une dos subárboles cuyas claves están ordenadas entre sí, respetando las prioridades.
+     *
+     * @param menor subárbol de claves menores, o {@code null}
+     * @param mayor subárbol de claves mayores, o {@code null}
+     * @return raíz de la unión
+     */
+    private static Nodo unir(Nodo menor, Nodo mayor) {
+        if (menor == null) {
+            return mayor;
+        }
+        if (mayor == null) {
+            return menor;
+        }
+        if (menor.prioridad > mayor.prioridad) {
+            return new Nodo(menor.id, menor.valor, menor.menor, unir(menor.mayor, mayor));
+        }
+        return new Nodo(mayor.id, mayor.valor, unir(menor, mayor.menor), mayor.mayor);
+    }
+
+    /**
+     * Nodo inmutable del treap.
+     */
+    private static final class Nodo {
+        private final String id;
+        private final int valor;
+        private final int prioridad;
+        private final Nodo menor;
+        private final Nodo mayor;
+
+        Nodo(String id, int valor, Nodo menor, Nodo mayor) {
+            this.id = id;
+            this.valor = valor;
+            int h = id.hashCode() * 0x9E3779B9;
+            this.prioridad = h ^ (h >>> 16);
+            this.menor = menor;
+            this.mayor = mayor;
+        }
+    }
+
+    /**
+     * Recorrido en orden de ID con una pila de los nodos pendientes.
+     */
+    private static final class Recorrido implements Iterator<Map.Entry<String, Integer>> {
+        private final Deque<Nodo> pendientes = new ArrayDeque<>();
+
+        Recorrido(Nodo raiz) {
+            descender(raiz);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !pendientes.isEmpty();
+        }
+
+        @Override
+        public Map.Entry<String, Integer> next() {
+            Nodo nodo = pendientes.pollFirst();
+            if (nodo == null) {
+                throw new NoSuchElementException();
+            }
+            descender(nodo.mayor);
+            return new AbstractMap.SimpleImmutableEntry<>(nodo.id, nodo.valor);
+        }
+
+        private void descender(Nodo nodo) {
+            for (; nodo != null; nodo = nodo.menor) {
+                pendientes.addFirst(nodo);
+            }
+        }
+    }
+}
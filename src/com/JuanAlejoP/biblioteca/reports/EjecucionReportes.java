@@ -0,0 +1,143 @@
+package com.JuanAlejoP.biblioteca.reports;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ejecución en curso de un conjunto de reportes lanzada por un {@link AsyncReportGenerator}.
+ * <p>
+ * Permite consultar el avance real, cuántos reportes terminaron y cuántos fallaron, cancelar los
+ * que aún no terminaron y encadenar acciones a la finalización de todos, sin bloquear a quien la lanzó.
+ * </p>
+ */
+public class EjecucionReportes {
+    /**
+     * Cantidad de reportes de la ejecución.
+     */
+    private final int total;
+
+    /**
+     * Generación de cada reporte; se completa al escribirse, con un error o al cancelarse.
+     */
+    private final List<CompletableFuture<?>> generaciones = new CopyOnWriteArrayList<>();
+
+    /**
+     * Cantidad de reportes terminados, se hayan escrito o no.
+     */
+    private final AtomicInteger terminados = new AtomicInteger();
+
+    /**
+     * Cantidad de reportes que no se escribieron.
+     */
+    private final AtomicInteger fallidos = new AtomicInteger();
+
+    /**
+     * Finalización de todos los reportes, escritos o descartados.
+     */
+    private final CompletableFuture<Void> finalizacion = new CompletableFuture<>();
+
+    /**
+     * Construye una ejecución sin reportes lanzados.
+     *
+     * @param total cantidad de reportes que se lanzarán
+     */
+    EjecucionReportes(int total) {
+        this.total = total;
+    }
+
+    /**
+     * Agrega la generación de un reporte lanzado.
+     *
+     * @param generacion generación del reporte
+     */
+    void agregar(CompletableFuture<?> generacion) {
+        generaciones.add(generacion);
+    }
+
+    /**
+     * Registra que un reporte terminó, notifica el avance y, si era el último, completa la ejecución.
+     * Los registros se serializan, de modo que el avance se notifica en orden creciente y la ejecución
+     * se completa después de notificar el avance de todos los reportes.
+     *
+     * @param reporte nombre del reporte
+     * @param error   causa por la que no se escribió, o {@code null} si se escribió
+     * @param avance  receptor del avance, o {@code null}
+     */
+    synchronized void registrar(String reporte, Throwable error, AvanceReportes avance) {
+        if (error != null) {
+            fallidos.incrementAndGet();
+        }
+        int cantidad = terminados.incrementAndGet();
+        try {
+            if (avance != null) {
+                avance.reporteTerminado(reporte, error, cantidad, total);
+            }
+        } finally {
+            if (cantidad == total) {
+                finalizacion.complete(null);
+            }
+        }
+    }
+
+    /**
+     * Cancela los reportes que aún no terminaron. Los que están generándose se interrumpen en su
+     * próxima fila: los impresos por consola no se escriben y el de una exportación queda truncado.
+     *
+     * @return {@code true} si se canceló al menos un reporte
+     */
+    public boolean cancelar() {
+        boolean cancelado = false;
+        for (CompletableFuture<?> generacion : generaciones) {
+            cancelado |= generacion.cancel(false);
+        }
+        return cancelado;
+    }
+
+    /**
+     * Obtiene la finalización de la ejecución, que se completa normalmente cuando todos los reportes
+     * terminaron, aunque alguno haya fallado o se haya cancelado.
+     *
+     * @return finalización de la ejecución
+     */
+    public CompletableFuture<Void> getFinalizacion() {
+        return finalizacion;
+    }
+
+    /**
+     * Indica si todos los reportes terminaron.
+     *
+     * @return {@code true} si la ejecución terminó
+     */
+    public boolean estaTerminada() {
+        return finalizacion.isDone();
+    }
+
+    /**
+     * Obtiene la cantidad de reportes terminados, se hayan escrito o no.
+     *
+     * @return reportes terminados
+     */
+    public int getTerminados() {
+        return terminados.get();
+    }
+
+    /**
+     * Obtiene la cantidad de reportes que fallaron, se cancelaron o agotaron su tiempo.
+     *
+     * @return reportes no escritos
+     */
+    public int getFallidos() {
+        return fallidos.get();
+    }
+
+    /**
+     * Obtiene la cantidad de reportes de la ejecución.
+     *
+     * @return total de reportes
+     */
+    public int getTotal() {
+        return total;
+    }
+}
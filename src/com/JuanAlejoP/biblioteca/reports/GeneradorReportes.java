@@ -4,15 +4,15 @@ import com.JuanAlejoP.biblioteca.manager.GestorRecursos;
 import com.JuanAlejoP.biblioteca.manager.GestorUsuarios;
 import com.JuanAlejoP.biblioteca.model.CategoriaRecurso;
 import com.JuanAlejoP.biblioteca.model.EstadoRecurso;
-import com.JuanAlejoP.biblioteca.model.Prestamo;
+import com.JuanAlejoP.biblioteca.model.Frecuencia;
 import com.JuanAlejoP.biblioteca.model.RecursoDigital;
 import com.JuanAlejoP.biblioteca.model.Usuario;
-import com.JuanAlejoP.biblioteca.model.RecursoNoDisponibleException;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
 import java.util.Map;
-import java.util.HashMap;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Generador de distintos reportes basados en los recursos y usuarios de la biblioteca.
@@ -20,15 +20,35 @@ import java.util.stream.Collectors;
  * Esta clase agrupa lógica para compilar estadísticas y listados:
  * <ul>
  *     <li>Recursos por estado (disponibles, prestados, reservados).</li>
- *     <li>Top de recursos más prestados.</li>
- *     <li>Top de usuarios más activos.</li>
+ *     <li>Top de recursos más prestados desde la creación del catálogo.</li>
+ *     <li>Top de usuarios con más préstamos desde la creación del catálogo.</li>
  *     <li>Recursos con reservas activas.</li>
  *     <li>Estadísticas por categoría de recurso.</li>
  * </ul>
  * </p>
+ * <p>
+ * Los conteos por estado, por categoría y de reservas se mantienen materializados en un
+ * {@link AgregadosReportes} suscripto al gestor de recursos, que los actualiza con cada mutación, y los
+ * tops se leen de los resúmenes de préstamos históricos del gestor; generar un reporte sólo lee ese
+ * estado y resuelve títulos y nombres de las filas que se escriben.
+ * </p>
+ * <p>
+ * Los reportes se escriben sobre una {@link VistaReportes} tomada de una versión consistente del
+ * gestor, sin detener las operaciones concurrentes: cada reporte suelto toma la suya y los reportes
+ * escritos juntos comparten una, de modo que sus conteos y tops coinciden entre sí.
+ * </p>
+ * <p>
+ * Cada reporte puede escribirse fila por fila en una {@link SalidaReporte}, sin construirlo
+ * completo en memoria, o generarse como texto mediante los métodos que devuelven {@code String}.
+ * </p>
  */
 public class GeneradorReportes {
 
+    /**
+     * Cantidad de puestos de los tops de recursos y usuarios.
+     */
+    private static final int PUESTOS_TOP = 5;
+
     /**
      * Gestor encargado de las operaciones sobre recursos.
      */
@@ -40,95 +60,169 @@ public class GeneradorReportes {
     private final GestorUsuarios gestorUsuarios;
 
     /**
-     * Construye un GeneradorReportes con los gestores de recursos y usuarios.
+     * Agregados de los reportes, actualizados con cada mutación del gestor de recursos.
+     */
+    private final AgregadosReportes agregados;
+
+    /**
+     * Construye un GeneradorReportes con los gestores de recursos y usuarios y suscribe
+     * sus agregados al gestor de recursos, calculándolos a partir del estado actual en una
+     * pasada paralela sobre el pool común.
+     * Sin registro de operaciones, debe construirse antes de que comiencen las operaciones
+     * concurrentes sobre el gestor.
      *
      * @param gestorRecursos Gestor para acceder y consultar recursos.
      * @param gestorUsuarios Gestor para acceder y consultar usuarios.
      */
     public GeneradorReportes(GestorRecursos gestorRecursos, GestorUsuarios gestorUsuarios) {
+        this(gestorRecursos, gestorUsuarios, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Construye un GeneradorReportes que calcula sus agregados iniciales con la cantidad de hilos
+     * indicada, en un pool propio que se detiene al terminar la pasada.
+     *
+     * @param gestorRecursos Gestor para acceder y consultar recursos.
+     * @param gestorUsuarios Gestor para acceder y consultar usuarios.
+     * @param paralelismo    cantidad de hilos de la pasada inicial; con 1 el catálogo se recorre
+     *                       en un único hilo
+     */
+    public GeneradorReportes(GestorRecursos gestorRecursos, GestorUsuarios gestorUsuarios, int paralelismo) {
+        this(gestorRecursos, gestorUsuarios, new ForkJoinPool(paralelismo));
+    }
+
+    /**
+     * Construye el generador calculando sus agregados iniciales sobre el pool indicado.
+     * Los pools distintos del común se detienen al terminar la pasada.
+     *
+     * @param gestorRecursos Gestor para acceder y consultar recursos.
+     * @param gestorUsuarios Gestor para acceder y consultar usuarios.
+     * @param pool           pool de la pasada inicial
+     */
+    private GeneradorReportes(GestorRecursos gestorRecursos, GestorUsuarios gestorUsuarios, ForkJoinPool pool) {
         this.gestorRecursos = gestorRecursos;
         this.gestorUsuarios = gestorUsuarios;
+        this.agregados = new AgregadosReportes();
+        try {
+            agregados.inicializar(gestorRecursos.agregarObservador(agregados, pool));
+        } finally {
+            if (pool != ForkJoinPool.commonPool()) {
+                pool.shutdown();
+            }
+        }
     }
 
     /**
      * Genera un reporte con el conteo de recursos por su estado.
+     * Los conteos se leen de los agregados, en tiempo constante.
      *
      * @return Texto con las cantidades de recursos disponibles, prestados y reservados.
      */
     public String generarReporteRecursosPorEstado() {
-        long disponibles = gestorRecursos.listAllResources().stream()
-                .filter(r -> r.getEstado() == EstadoRecurso.DISPONIBLE)
-                .count();
-        long prestados = gestorRecursos.listAllResources().stream()
-                .filter(r -> r.getEstado() == EstadoRecurso.PRESTADO)
-                .count();
-        long reservados = gestorRecursos.listAllResources().stream()
-                .filter(r -> r.getEstado() == EstadoRecurso.RESERVADO)
-                .count();
+        return comoTexto(capturarVista(), this::escribirReporteRecursosPorEstado);
+    }
+
+    /**
+     * Escribe el conteo de recursos por estado en la salida indicada.
+     *
+     * @param salida destino del reporte
+     * @throws IOException si falla la escritura
+     */
+    public void escribirReporteRecursosPorEstado(SalidaReporte salida) throws IOException {
+        escribirReporteRecursosPorEstado(capturarVista(), salida);
+    }
 
-        return "Reporte de Recursos por Estado:\n" +
-                "Disponibles: " + disponibles + "\n" +
-                "Prestados: " + prestados + "\n" +
-                "Reservados: " + reservados + "\n";
+    /**
+     * Escribe el conteo de recursos por estado de una vista.
+     *
+     * @param vista  versión de los agregados
+     * @param salida destino del reporte
+     * @throws IOException si falla la escritura
+     */
+    void escribirReporteRecursosPorEstado(VistaReportes vista, SalidaReporte salida) throws IOException {
+        salida.iniciarTabla("Reporte de Recursos por Estado", "%s: %s", "estado", "cantidad");
+        salida.fila("Disponibles", vista.contarPorEstado(EstadoRecurso.DISPONIBLE));
+        salida.fila("Prestados", vista.contarPorEstado(EstadoRecurso.PRESTADO));
+        salida.fila("Reservados", vista.contarPorEstado(EstadoRecurso.RESERVADO));
+        salida.terminarTabla();
     }
 
     /**
      * Genera el listado de los 5 recursos más prestados.
      *
      * @return Texto con título y las veces que cada recurso fue prestado.
-     * @throws RecursoNoDisponibleException Si falla la búsqueda de un recurso por ID.
      */
-    public String generarReporteRecursosConMasPrestamos() throws RecursoNoDisponibleException {
-        Map<String, Integer> conteoPrestamos = new HashMap<>();
+    public String generarReporteRecursosConMasPrestamos() {
+        return comoTexto(capturarVista(), this::escribirReporteRecursosConMasPrestamos);
+    }
 
-        for (Prestamo prestamo : gestorRecursos.getTodosLosPrestamos()) {
-            String id = prestamo.getRecurso().getIdentificador();
-            conteoPrestamos.put(id, conteoPrestamos.getOrDefault(id, 0) + 1);
-        }
+    /**
+     * Escribe el listado de los 5 recursos más prestados en la salida indicada, según los préstamos
+     * históricos del gestor, en tiempo proporcional al tamaño del top.
+     * Los recursos que dejaron de existir se omiten.
+     *
+     * @param salida destino del reporte
+     * @throws IOException si falla la escritura
+     */
+    public void escribirReporteRecursosConMasPrestamos(SalidaReporte salida) throws IOException {
+        escribirReporteRecursosConMasPrestamos(capturarVista(), salida);
+    }
 
-        List<Map.Entry<String, Integer>> top = conteoPrestamos.entrySet().stream()
-                .sorted((e1, e2) -> Integer.compare(e2.getValue(), e1.getValue()))
-                .limit(5)
-                .collect(Collectors.toList());
-
-        StringBuilder sb = new StringBuilder("Top 5 Recursos más Prestados:\n");
-        for (Map.Entry<String, Integer> entry : top) {
-            RecursoDigital recurso = gestorRecursos.searchResourceById(entry.getKey());
-            sb.append(recurso.getTitulo())
-                    .append(" - ")
-                    .append(entry.getValue())
-                    .append(" veces\n");
+    /**
+     * Escribe el listado de los 5 recursos más prestados de una vista.
+     *
+     * @param vista  versión de los agregados
+     * @param salida destino del reporte
+     * @throws IOException si falla la escritura
+     */
+    void escribirReporteRecursosConMasPrestamos(VistaReportes vista, SalidaReporte salida) throws IOException {
+        salida.iniciarTabla("Top 5 Recursos más Prestados", "%s - %s veces", "titulo", "prestamos");
+        for (Frecuencia frecuencia : vista.getRecursosMasPrestados()) {
+            RecursoDigital recurso = gestorRecursos.buscarRecurso(frecuencia.getId()).orElse(null);
+            if (recurso != null) {
+                salida.fila(recurso.getTitulo(), frecuencia.getCantidad());
+            }
         }
-        return sb.toString();
+        salida.terminarTabla();
     }
 
     /**
      * Genera el listado de los 5 usuarios con más préstamos.
+     * Los conteos se obtienen de los préstamos históricos por usuario del gestor.
      *
      * @return Texto con nombre de usuario y cantidad de préstamos realizados.
      */
     public String generarReporteUsuariosActivos() {
-        Map<String, Integer> prestamosPorUsuario = new HashMap<>();
+        return comoTexto(capturarVista(), this::escribirReporteUsuariosActivos);
+    }
 
-        for (Prestamo prestamo : gestorRecursos.getTodosLosPrestamos()) {
-            String idUsuario = prestamo.getUsuario().getId();
-            prestamosPorUsuario.put(idUsuario, prestamosPorUsuario.getOrDefault(idUsuario, 0) + 1);
-        }
+    /**
+     * Escribe el listado de los 5 usuarios con más préstamos en la salida indicada, en tiempo
+     * proporcional al tamaño del top. Los usuarios que ya no están registrados se omiten.
+     *
+     * @param salida destino del reporte
+     * @throws IOException si falla la escritura
+     */
+    public void escribirReporteUsuariosActivos(SalidaReporte salida) throws IOException {
+        escribirReporteUsuariosActivos(capturarVista(), salida);
+    }
 
-        List<Map.Entry<String, Integer>> top = prestamosPorUsuario.entrySet().stream()
-                .sorted((e1, e2) -> Integer.compare(e2.getValue(), e1.getValue()))
-                .limit(5)
-                .collect(Collectors.toList());
-
-        StringBuilder sb = new StringBuilder("Top 5 Usuarios más Activos:\n");
-        for (Map.Entry<String, Integer> entry : top) {
-            Usuario usuario = gestorUsuarios.searchUserById(entry.getKey());
-            sb.append(usuario.getNombre())
-                    .append(" - ")
-                    .append(entry.getValue())
-                    .append(" préstamos\n");
+    /**
+     * Escribe el listado de los 5 usuarios con más préstamos de una vista.
+     *
+     * @param vista  versión de los agregados
+     * @param salida destino del reporte
+     * @throws IOException si falla la escritura
+     */
+    void escribirReporteUsuariosActivos(VistaReportes vista, SalidaReporte salida) throws IOException {
+        salida.iniciarTabla("Top 5 Usuarios más Activos", "%s - %s préstamos", "usuario", "prestamos");
+        for (Frecuencia frecuencia : vista.getUsuariosMasActivos()) {
+            Usuario usuario = gestorUsuarios.searchUserById(frecuencia.getId());
+            if (usuario != null) {
+                salida.fila(usuario.getNombre(), frecuencia.getCantidad());
+            }
         }
-        return sb.toString();
+        salida.terminarTabla();
     }
 
     /**
@@ -137,37 +231,133 @@ public class GeneradorReportes {
      * @return Texto con título y cada recurso junto a su número de reservas.
      */
     public String generarReporteRecursosConReservas() {
-        List<RecursoDigital> recursosConReservas = gestorRecursos.listAllResources().stream()
-                .filter(r -> !gestorRecursos.getReservas(r.getIdentificador()).isEmpty())
-                .collect(Collectors.toList());
-
-        StringBuilder sb = new StringBuilder("Recursos con Reservas Activas:\n");
-        for (RecursoDigital recurso : recursosConReservas) {
-            int cantidadReservas = gestorRecursos.getReservas(recurso.getIdentificador()).size();
-            sb.append(recurso.getTitulo())
-                    .append(" - ")
-                    .append(cantidadReservas)
-                    .append(" reservas\n");
+        return comoTexto(capturarVista(), this::escribirReporteRecursosConReservas);
+    }
+
+    /**
+     * Escribe los recursos con reservas activas en la salida indicada, ordenados por ID, a medida que
+     * se recorren los conteos de reservas de los agregados y sin acumular el listado.
+     *
+     * @param salida destino del reporte
+     * @throws IOException si falla la escritura
+     */
+    public void escribirReporteRecursosConReservas(SalidaReporte salida) throws IOException {
+        escribirReporteRecursosConReservas(capturarVista(), salida);
+    }
+
+    /**
+     * Escribe los recursos con reservas activas de una vista, ordenados por ID.
+     *
+     * @param vista  versión de los agregados
+     * @param salida destino del reporte
+     * @throws IOException si falla la escritura
+     */
+    void escribirReporteRecursosConReservas(VistaReportes vista, SalidaReporte salida) throws IOException {
+        salida.iniciarTabla("Recursos con Reservas Activas", "%s - %s reservas", "titulo", "reservas");
+        for (Map.Entry<String, Integer> entry : vista.getReservasPorRecurso().entrySet()) {
+            RecursoDigital recurso = gestorRecursos.buscarRecurso(entry.getKey()).orElse(null);
+            if (recurso != null && entry.getValue() > 0) {
+                salida.fila(recurso.getTitulo(), entry.getValue());
+            }
         }
-        return sb.toString();
+        salida.terminarTabla();
     }
 
     /**
      * Genera estadísticas de la cantidad de recursos por categoría.
+     * Los conteos se leen de los agregados, sin recorrer el catálogo.
      *
      * @return Texto con cada categoría y el número de recursos asociados.
      */
     public String generarEstadisticasPorCategoria() {
-        Map<CategoriaRecurso, Long> conteoPorCategoria = gestorRecursos.listAllResources().stream()
-                .collect(Collectors.groupingBy(RecursoDigital::getCategoria, Collectors.counting()));
-
-        StringBuilder sb = new StringBuilder("Estadísticas por Categoría:\n");
-        for (Map.Entry<CategoriaRecurso, Long> entry : conteoPorCategoria.entrySet()) {
-            sb.append(entry.getKey())
-                    .append(": ")
-                    .append(entry.getValue())
-                    .append(" recursos\n");
+        return comoTexto(capturarVista(), this::escribirEstadisticasPorCategoria);
+    }
+
+    /**
+     * Escribe la cantidad de recursos de cada categoría con al menos un recurso en la salida indicada.
+     *
+     * @param salida destino del reporte
+     * @throws IOException si falla la escritura
+     */
+    public void escribirEstadisticasPorCategoria(SalidaReporte salida) throws IOException {
+        escribirEstadisticasPorCategoria(capturarVista(), salida);
+    }
+
+    /**
+     * Escribe la cantidad de recursos de cada categoría con al menos un recurso de una vista.
+     *
+     * @param vista  versión de los agregados
+     * @param salida destino del reporte
+     * @throws IOException si falla la escritura
+     */
+    void escribirEstadisticasPorCategoria(VistaReportes vista, SalidaReporte salida) throws IOException {
+        salida.iniciarTabla("Estadísticas por Categoría", "%s: %s recursos", "categoria", "cantidad");
+        for (CategoriaRecurso categoria : CategoriaRecurso.values()) {
+            long cantidad = vista.contarPorCategoria(categoria);
+            if (cantidad > 0) {
+                salida.fila(categoria, cantidad);
+            }
+        }
+        salida.terminarTabla();
+    }
+
+    /**
+     * Escribe todos los reportes, uno tras otro, en la salida indicada, sobre una misma versión.
+     *
+     * @param salida destino de los reportes
+     * @throws IOException si falla la escritura
+     */
+    public void escribirTodos(SalidaReporte salida) throws IOException {
+        VistaReportes vista = capturarVista();
+        escribirReporteRecursosPorEstado(vista, salida);
+        escribirReporteRecursosConMasPrestamos(vista, salida);
+        escribirReporteUsuariosActivos(vista, salida);
+        escribirReporteRecursosConReservas(vista, salida);
+        escribirEstadisticasPorCategoria(vista, salida);
+        salida.flush();
+    }
+
+    /**
+     * Toma una vista de los agregados en una versión consistente del gestor de recursos, que los
+     * reportes de un mismo lote comparten. Espera sólo a las operaciones ya en curso y copia los
+     * conteos de reservas si cambiaron desde la vista anterior.
+     *
+     * @return vista de la versión actual
+     */
+    VistaReportes capturarVista() {
+        return gestorRecursos.leerVersion(version -> agregados.vista(version, PUESTOS_TOP));
+    }
+
+    /**
+     * Escritura de un reporte de una vista sobre una salida.
+     */
+    @FunctionalInterface
+    interface EscrituraReporte {
+        /**
+         * Escribe el reporte.
+         *
+         * @param vista  versión de los agregados
+         * @param salida destino del reporte
+         * @throws IOException si falla la escritura
+         */
+        void escribir(VistaReportes vista, SalidaReporte salida) throws IOException;
+    }
+
+    /**
+     * Genera un reporte como texto, escribiéndolo en una salida de texto sobre memoria.
+     *
+     * @param vista     versión de los agregados
+     * @param escritura escritura del reporte
+     * @return texto del reporte
+     */
+    private static String comoTexto(VistaReportes vista, EscrituraReporte escritura) {
+        StringWriter texto = new StringWriter();
+        try {
+            escritura.escribir(vista, new SalidaTexto(texto));
+        } catch (IOException e) {
+            // Un StringWriter no produce errores de escritura
+            throw new UncheckedIOException(e);
         }
-        return sb.toString();
+        return texto.toString();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,70 @@
+package com.JuanAlejoP.biblioteca.reports;
+
+import java.io.IOException;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Salida que reenvía cada escritura a otra salida mientras la generación no haya sido abandonada.
+ * <p>
+ * A diferencia de {@link SalidaDiferida}, no guarda nada en memoria: las filas llegan al destino a
+ * medida que se producen. Antes de cada escritura consulta si la generación fue cancelada y en ese
+ * caso la interrumpe, dejando en el destino la tabla escrita hasta ese momento.
+ * </p>
+ */
+class SalidaCancelable implements SalidaReporte {
+    /**
+     * Salida a la que se reenvían las escrituras.
+     */
+    private final SalidaReporte destino;
+
+    /**
+     * Condición que indica que la generación fue abandonada.
+     */
+    private final BooleanSupplier abandonada;
+
+    /**
+     * Construye una salida que reenvía a otra.
+     *
+     * @param destino    salida a la que se reenvían las escrituras
+     * @param abandonada condición consultada antes de cada escritura
+     */
+    SalidaCancelable(SalidaReporte destino, BooleanSupplier abandonada) {
+        this.destino = destino;
+        this.abandonada = abandonada;
+    }
+
+    @Override
+    public void iniciarTabla(String titulo, String formatoTexto, String... columnas) throws IOException {
+        verificar();
+        destino.iniciarTabla(titulo, formatoTexto, columnas);
+    }
+
+    @Override
+    public void fila(Object... valores) throws IOException {
+        verificar();
+        destino.fila(valores);
+    }
+
+    @Override
+    public void terminarTabla() throws IOException {
+        verificar();
+        destino.terminarTabla();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        destino.flush();
+    }
+
+    /**
+     * Interrumpe la generación si fue abandonada.
+     *
+     * @throws CancellationException si la generación fue abandonada
+     */
+    private void verificar() {
+        if (abandonada.getAsBoolean()) {
+            throw new CancellationException("Generación del reporte abandonada.");
+        }
+    }
+}
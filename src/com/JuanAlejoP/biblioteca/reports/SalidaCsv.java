@@ -0,0 +1,93 @@
+package com.JuanAlejoP.biblioteca.reports;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Salida de reportes en formato CSV: una línea de encabezado con los nombres de las columnas
+ * y una línea por fila, con los valores entre comillas cuando contienen separadores.
+ * Las tablas sucesivas se separan con una línea vacía; el título no se escribe.
+ */
+public class SalidaCsv implements SalidaReporte {
+    /**
+     * Destino de la escritura.
+     */
+    private final Writer destino;
+
+    /**
+     * Indica si ya se escribió alguna tabla, para separar la siguiente.
+     */
+    private boolean hayTablaPrevia;
+
+    /**
+     * Construye una salida CSV sobre un {@link Writer}.
+     *
+     * @param destino destino de la escritura; no se cierra al terminar
+     */
+    public SalidaCsv(Writer destino) {
+        this.destino = destino;
+    }
+
+    /**
+     * Construye una salida CSV UTF-8 sobre un canal de bytes.
+     *
+     * @param canal canal de destino; no se cierra al terminar
+     */
+    public SalidaCsv(WritableByteChannel canal) {
+        this(Channels.newWriter(canal, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void iniciarTabla(String titulo, String formatoTexto, String... columnas) throws IOException {
+        if (hayTablaPrevia) {
+            destino.write('\n');
+        }
+        hayTablaPrevia = true;
+        fila((Object[]) columnas);
+    }
+
+    @Override
+    public void fila(Object... valores) throws IOException {
+        for (int i = 0; i < valores.length; i++) {
+            if (i > 0) {
+                destino.write(',');
+            }
+            escribirCampo(valores[i] == null ? "" : valores[i].toString());
+        }
+        destino.write('\n');
+    }
+
+    @Override
+    public void terminarTabla() {
+    }
+
+    @Override
+    public void flush() throws IOException {
+        destino.flush();
+    }
+
+    /**
+     * Escribe un campo, entre comillas y con las comillas internas duplicadas si contiene
+     * comas, comillas o saltos de línea.
+     *
+     * @param valor valor del campo
+     * @throws IOException si falla la escritura
+     */
+    private void escribirCampo(String valor) throws IOException {
+        boolean requiereComillas = false;
+        for (int i = 0; i < valor.length() && !requiereComillas; i++) {
+            char c = valor.charAt(i);
+            requiereComillas = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!requiereComillas) {
+            destino.write(valor);
+            return;
+        }
+        destino.write('"');
+        destino.write(valor.replace("\"", "\"\""));
+        destino.write('"');
+    }
+}
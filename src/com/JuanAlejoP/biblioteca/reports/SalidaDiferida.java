@@ -0,0 +1,111 @@
+package com.JuanAlejoP.biblioteca.reports;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Salida que conserva en memoria las tablas de un reporte para volcarlas después, completas,
+ * sobre otra salida.
+ * <p>
+ * Permite generar varios reportes en paralelo y escribir cada uno en el destino compartido recién
+ * al terminar, sin intercalar sus filas. Sólo guarda las referencias a los valores de cada fila; la
+ * codificación en el formato del destino se hace al volcar. Antes de cada escritura consulta si la
+ * generación fue abandonada, por cancelación o tiempo agotado, y en ese caso la interrumpe.
+ * </p>
+ */
+class SalidaDiferida implements SalidaReporte {
+    /**
+     * Marca del final de una tabla en la lista de operaciones.
+     */
+    private static final Object FIN_TABLA = new Object();
+
+    /**
+     * Condición que indica que la generación fue abandonada.
+     */
+    private final BooleanSupplier abandonada;
+
+    /**
+     * Operaciones recibidas, en orden: comienzos de tabla, filas y finales de tabla.
+     */
+    private final List<Object> operaciones = new ArrayList<>();
+
+    /**
+     * Construye una salida diferida vacía.
+     *
+     * @param abandonada condición consultada antes de cada escritura
+     */
+    SalidaDiferida(BooleanSupplier abandonada) {
+        this.abandonada = abandonada;
+    }
+
+    @Override
+    public void iniciarTabla(String titulo, String formatoTexto, String... columnas) {
+        verificar();
+        operaciones.add(new Tabla(titulo, formatoTexto, columnas));
+    }
+
+    @Override
+    public void fila(Object... valores) {
+        verificar();
+        operaciones.add(valores);
+    }
+
+    @Override
+    public void terminarTabla() {
+        verificar();
+        operaciones.add(FIN_TABLA);
+    }
+
+    @Override
+    public void flush() {
+        verificar();
+    }
+
+    /**
+     * Escribe en otra salida todas las tablas recibidas, en el mismo orden.
+     *
+     * @param destino salida destino
+     * @throws IOException si falla la escritura
+     */
+    void volcar(SalidaReporte destino) throws IOException {
+        for (Object operacion : operaciones) {
+            if (operacion == FIN_TABLA) {
+                destino.terminarTabla();
+            } else if (operacion instanceof Tabla) {
+                Tabla tabla = (Tabla) operacion;
+                destino.iniciarTabla(tabla.titulo, tabla.formatoTexto, tabla.columnas);
+            } else {
+                destino.fila((Object[]) operacion);
+            }
+        }
+    }
+
+    /**
+     * Interrumpe la generación si fue abandonada.
+     *
+     * @throws CancellationException si la generación fue abandonada
+     */
+    private void verificar() {
+        if (abandonada.getAsBoolean()) {
+            throw new CancellationException("Generación del reporte abandonada.");
+        }
+    }
+
+    /**
+     * Comienzo de una tabla.
+     */
+    private static final class Tabla {
+        private final String titulo;
+        private final String formatoTexto;
+        private final String[] columnas;
+
+        Tabla(String titulo, String formatoTexto, String[] columnas) {
+            this.titulo = titulo;
+            this.formatoTexto = formatoTexto;
+            this.columnas = columnas;
+        }
+    }
+}
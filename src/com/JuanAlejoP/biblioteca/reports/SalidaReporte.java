@@ -0,0 +1,42 @@
+package com.JuanAlejoP.biblioteca.reports;
+
+import java.io.Flushable;
+import java.io.IOException;
+
+/**
+ * Destino al que un reporte escribe sus filas a medida que las produce.
+ * <p>
+ * Un reporte se escribe como una tabla: un título, una lista de columnas y sus filas.
+ * Cada implementación codifica las tablas en un formato concreto y las envía a un
+ * {@link java.io.Writer} o canal sin acumularlas, de modo que el tamaño del reporte
+ * no está limitado por la memoria disponible. Una misma salida puede recibir varias
+ * tablas seguidas. Las salidas no cierran el destino subyacente, que pertenece a quien las crea.
+ * </p>
+ */
+public interface SalidaReporte extends Flushable {
+    /**
+     * Comienza una tabla nueva.
+     *
+     * @param titulo       título del reporte
+     * @param formatoTexto formato de cada fila para salidas de texto legible, con un {@code %s}
+     *                     por columna, según {@link String#format}
+     * @param columnas     nombres de las columnas
+     * @throws IOException si falla la escritura
+     */
+    void iniciarTabla(String titulo, String formatoTexto, String... columnas) throws IOException;
+
+    /**
+     * Escribe una fila de la tabla actual.
+     *
+     * @param valores valores de la fila, en el orden de las columnas
+     * @throws IOException si falla la escritura
+     */
+    void fila(Object... valores) throws IOException;
+
+    /**
+     * Termina la tabla actual.
+     *
+     * @throws IOException si falla la escritura
+     */
+    void terminarTabla() throws IOException;
+}
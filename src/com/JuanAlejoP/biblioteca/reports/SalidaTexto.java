@@ -0,0 +1,72 @@
+package com.JuanAlejoP.biblioteca.reports;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Salida de reportes en texto legible: el título seguido de dos puntos y una línea por fila,
+ * con el formato de texto indicado por cada reporte. Las tablas sucesivas se separan con una línea vacía.
+ */
+public class SalidaTexto implements SalidaReporte {
+    /**
+     * Destino de la escritura.
+     */
+    private final Writer destino;
+
+    /**
+     * Formato de las filas de la tabla actual.
+     */
+    private String formato;
+
+    /**
+     * Indica si ya se escribió alguna tabla, para separar la siguiente.
+     */
+    private boolean hayTablaPrevia;
+
+    /**
+     * Construye una salida de texto sobre un {@link Writer}.
+     *
+     * @param destino destino de la escritura; no se cierra al terminar
+     */
+    public SalidaTexto(Writer destino) {
+        this.destino = destino;
+    }
+
+    /**
+     * Construye una salida de texto UTF-8 sobre un canal de bytes.
+     *
+     * @param canal canal de destino; no se cierra al terminar
+     */
+    public SalidaTexto(WritableByteChannel canal) {
+        this(Channels.newWriter(canal, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void iniciarTabla(String titulo, String formatoTexto, String... columnas) throws IOException {
+        if (hayTablaPrevia) {
+            destino.write('\n');
+        }
+        hayTablaPrevia = true;
+        this.formato = formatoTexto;
+        destino.write(titulo);
+        destino.write(":\n");
+    }
+
+    @Override
+    public void fila(Object... valores) throws IOException {
+        destino.write(String.format(formato, valores));
+        destino.write('\n');
+    }
+
+    @Override
+    public void terminarTabla() {
+    }
+
+    @Override
+    public void flush() throws IOException {
+        destino.flush();
+    }
+}
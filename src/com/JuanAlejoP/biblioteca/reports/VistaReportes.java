@@ -0,0 +1,97 @@
+package com.JuanAlejoP.biblioteca.reports;
+
+import com.JuanAlejoP.biblioteca.model.CategoriaRecurso;
+import com.JuanAlejoP.biblioteca.model.EstadoRecurso;
+import com.JuanAlejoP.biblioteca.model.Frecuencia;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Agregados de los reportes en una versión del catálogo, fijos aunque el catálogo siga cambiando.
+ * Todos los reportes escritos con la misma vista son consistentes entre sí.
+ */
+final class VistaReportes {
+    /**
+     * Cantidad de recursos en cada estado y de cada categoría, indexadas por ordinal.
+     */
+    private final long[] porEstado;
+    private final long[] porCategoria;
+
+    /**
+     * Cantidad de reservas pendientes de cada recurso que tiene alguna, ordenadas por ID de recurso.
+     */
+    private final Map<String, Integer> reservasPorRecurso;
+
+    /**
+     * Recursos más prestados y usuarios más activos de la versión.
+     */
+    private final List<Frecuencia> recursosMasPrestados;
+    private final List<Frecuencia> usuariosMasActivos;
+
+    /**
+     * Construye una vista; los argumentos no deben modificarse después.
+     *
+     * @param porEstado            cantidad de recursos por ordinal de estado
+     * @param porCategoria         cantidad de recursos por ordinal de categoría
+     * @param reservasPorRecurso   reservas pendientes por ID de recurso, de sólo lectura y recorridas
+     *                             en orden de ID
+     * @param recursosMasPrestados recursos más prestados, de mayor a menor
+     * @param usuariosMasActivos   usuarios más activos, de mayor a menor
+     */
+    VistaReportes(long[] porEstado, long[] porCategoria, Map<String, Integer> reservasPorRecurso,
+                  List<Frecuencia> recursosMasPrestados, List<Frecuencia> usuariosMasActivos) {
+        this.porEstado = porEstado;
+        this.porCategoria = porCategoria;
+        this.reservasPorRecurso = reservasPorRecurso;
+        this.recursosMasPrestados = recursosMasPrestados;
+        this.usuariosMasActivos = usuariosMasActivos;
+    }
+
+    /**
+     * Obtiene la cantidad de recursos en un estado.
+     *
+     * @param estado estado a consultar
+     * @return cantidad de recursos
+     */
+    long contarPorEstado(EstadoRecurso estado) {
+        return porEstado[estado.ordinal()];
+    }
+
+    /**
+     * Obtiene la cantidad de recursos de una categoría.
+     *
+     * @param categoria categoría a consultar
+     * @return cantidad de recursos
+     */
+    long contarPorCategoria(CategoriaRecurso categoria) {
+        return porCategoria[categoria.ordinal()];
+    }
+
+    /**
+     * Obtiene la cantidad de reservas pendientes de cada recurso que tiene alguna.
+     *
+     * @return mapa de sólo lectura de ID de recurso a cantidad de reservas, recorrido en orden de ID
+     */
+    Map<String, Integer> getReservasPorRecurso() {
+        return reservasPorRecurso;
+    }
+
+    /**
+     * Obtiene los recursos más prestados.
+     *
+     * @return frecuencias por ID de recurso, de mayor a menor
+     */
+    List<Frecuencia> getRecursosMasPrestados() {
+        return recursosMasPrestados;
+    }
+
+    /**
+     * Obtiene los usuarios con más préstamos.
+     *
+     * @return frecuencias por ID de usuario, de mayor a menor
+     */
+    List<Frecuencia> getUsuariosMasActivos() {
+        return usuariosMasActivos;
+    }
+}
@@ -1,46 +1,58 @@
 package com.JuanAlejoP.biblioteca.service;
 
 import com.JuanAlejoP.biblioteca.alerts.AlertType;
+import com.JuanAlejoP.biblioteca.manager.DiccionarioIds;
 
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.EnumMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 /**
  * Administrador de preferencias de notificación por usuario y tipo de alerta.
  * <p>
  * Permite habilitar o deshabilitar distintos tipos de notificaciones
- * de forma concurrente, asegurando hilos seguros mediante
- * {@link ConcurrentHashMap} y mapas de enums.
+ * de forma concurrente. Cada usuario se traduce a un código entero denso y sus
+ * preferencias se guardan como una máscara de bits de los tipos deshabilitados,
+ * de modo que consultar una preferencia es una lectura atómica de un arreglo
+ * sin mapas ni valores encapsulados.
  * </p>
  */
 public class PreferencesManager {
 
     /**
-     * Mapa concurrente que almacena por cada usuario un mapa de preferencias
-     * para cada {@link AlertType}.
+     * Diccionario de códigos de los usuarios con alguna preferencia registrada.
      */
-    private final ConcurrentHashMap<String, EnumMap<AlertType, Boolean>> prefs = new ConcurrentHashMap<>();
+    private final DiccionarioIds usuarios = new DiccionarioIds();
+
+    /**
+     * Máscaras de tipos de alerta deshabilitados, indexadas por código de usuario;
+     * el bit de cada tipo es su ordinal.
+     */
+    private volatile AtomicIntegerArray deshabilitados = new AtomicIntegerArray(16);
 
     /**
      * Establece la preferencia de notificación de un usuario para un tipo de alerta.
      * <p>
-     * Si el usuario no existía en el mapa, inicializa sus preferencias
-     * con todos los tipos habilitados por defecto.
+     * Si el usuario no tenía preferencias, todos los demás tipos quedan habilitados por defecto.
+     * Las modificaciones se serializan porque pueden reemplazar el arreglo de máscaras al crecer;
+     * las consultas no se bloquean.
      * </p>
      *
      * @param userId  Identificador del usuario.
      * @param type    Tipo de alerta cuya preferencia se modifica.
      * @param enabled Valor {@code true} para habilitar o {@code false} para deshabilitar.
      */
-    public void setPreference(String userId, AlertType type, boolean enabled) {
-        prefs.computeIfAbsent(userId, k -> {
-            EnumMap<AlertType, Boolean> map = new EnumMap<>(AlertType.class);
-            // Inicializar todas las alertas como habilitadas
-            for (AlertType t : AlertType.values()) {
-                map.put(t, true);
+    public synchronized void setPreference(String userId, AlertType type, boolean enabled) {
+        int codigo = usuarios.registrar(userId);
+        AtomicIntegerArray mascaras = deshabilitados;
+        if (codigo >= mascaras.length()) {
+            AtomicIntegerArray mayor = new AtomicIntegerArray(Math.max(codigo + 1, mascaras.length() * 2));
+            for (int i = 0; i < mascaras.length(); i++) {
+                mayor.set(i, mascaras.get(i));
             }
-            return map;
-        }).put(type, enabled);
+            mascaras = mayor;
+            deshabilitados = mascaras;
+        }
+        int bit = 1 << type.ordinal();
+        mascaras.set(codigo, enabled ? mascaras.get(codigo) & ~bit : mascaras.get(codigo) | bit);
     }
 
     /**
@@ -55,8 +67,8 @@ public class PreferencesManager {
      * @return {@code true} si está habilitado, {@code false} en caso contrario.
      */
     public boolean isEnabled(String userId, AlertType type) {
-        // Devuelve true si no existen preferencias previas para usuario o tipo
-        return prefs.getOrDefault(userId, new EnumMap<>(AlertType.class))
-                .getOrDefault(type, true);
+        int codigo = usuarios.codigo(userId);
+        AtomicIntegerArray mascaras = deshabilitados;
+        return codigo < 0 || codigo >= mascaras.length() || (mascaras.get(codigo) & (1 << type.ordinal())) == 0;
     }
-}
\ No newline at end of file
+}
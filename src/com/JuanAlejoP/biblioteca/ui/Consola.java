@@ -3,19 +3,39 @@ package com.JuanAlejoP.biblioteca.ui;
 import com.JuanAlejoP.biblioteca.Prestable;
 import com.JuanAlejoP.biblioteca.Renovable;
 import com.JuanAlejoP.biblioteca.alerts.*;
+import com.JuanAlejoP.biblioteca.importer.ImportadorMasivo;
+import com.JuanAlejoP.biblioteca.importer.ResultadoImportacion;
 import com.JuanAlejoP.biblioteca.manager.GestorRecursos;
 import com.JuanAlejoP.biblioteca.manager.GestorUsuarios;
+import com.JuanAlejoP.biblioteca.manager.Pagina;
 import com.JuanAlejoP.biblioteca.model.*;
+import com.JuanAlejoP.biblioteca.persistence.InstantaneaBiblioteca;
+import com.JuanAlejoP.biblioteca.persistence.RegistroOperaciones;
 import com.JuanAlejoP.biblioteca.reports.AsyncReportGenerator;
+import com.JuanAlejoP.biblioteca.reports.EjecucionReportes;
 import com.JuanAlejoP.biblioteca.reports.GeneradorReportes;
+import com.JuanAlejoP.biblioteca.reports.SalidaCsv;
+import com.JuanAlejoP.biblioteca.reports.SalidaReporte;
+import com.JuanAlejoP.biblioteca.reports.SalidaTexto;
 import com.JuanAlejoP.biblioteca.service.NotificadorConsola;
 import com.JuanAlejoP.biblioteca.service.PreferencesManager;
 import com.JuanAlejoP.biblioteca.service.ServicioNotificaciones;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
 import java.util.Scanner;
 import java.util.InputMismatchException;
 import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 import java.time.format.DateTimeFormatter;
 
@@ -29,6 +49,46 @@ import java.time.format.DateTimeFormatter;
  */
 public class Consola {
 
+    /**
+     * Cantidad de filas que se muestran por página en los listados.
+     */
+    private static final int TAMANIO_PAGINA = 20;
+
+    /**
+     * Directorio de datos persistentes, configurable con la propiedad del sistema {@code biblioteca.datos}.
+     */
+    private static final Path DIRECTORIO_DATOS = Paths.get(System.getProperty("biblioteca.datos", "datos"));
+
+    /**
+     * Cantidad de hilos con que se calculan los agregados de los reportes al iniciar, configurable con
+     * la propiedad del sistema {@code biblioteca.paralelismo}; por omisión, uno por procesador.
+     */
+    private static final int PARALELISMO_REPORTES = Integer.getInteger("biblioteca.paralelismo",
+            Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Ventana de agrupación de escrituras del registro de operaciones, en microsegundos, configurable con
+     * la propiedad del sistema {@code biblioteca.ventanaRegistro}; por omisión, ninguna.
+     * <p>
+     * Sin ventana, las entradas que llegan mientras el escritor sincroniza ya forman el lote siguiente,
+     * y con pocos hilos escribiendo, como en la consola, cualquier espera sólo suma latencia. Una ventana
+     * de alrededor de 1 ms (1000) conviene con decenas de escritores concurrentes sobre un disco de
+     * sincronización lenta.
+     * </p>
+     */
+    private static final Duration VENTANA_REGISTRO =
+            Duration.ofNanos(Long.getLong("biblioteca.ventanaRegistro", 0) * 1000);
+
+    /**
+     * Indica si el catálogo se guarda fuera del heap, según la propiedad {@code biblioteca.fueraDelHeap}.
+     */
+    private static final boolean CATALOGO_FUERA_DEL_HEAP = Boolean.getBoolean("biblioteca.fueraDelHeap");
+
+    /**
+     * Archivo de la instantánea de la biblioteca, guardada al salir.
+     */
+    private static final Path ARCHIVO_INSTANTANEA = DIRECTORIO_DATOS.resolve("biblioteca.snap");
+
     private final Scanner scanner;
     private final PreferencesManager preferences;
     private final ServicioNotificaciones notifications;
@@ -36,26 +96,74 @@ public class Consola {
     private final GestorRecursos resourceManager;
     private final AsyncReportGenerator asyncGenerator;
     private final AlertScheduler alertScheduler;
+    private final AlertaDisponibilidad availabilityAlert;
+    private final RegistroOperaciones operationLog;
+    private final ImportadorMasivo importer;
+    private final RegistroAlertas alertLog;
 
     /**
      * Construye la consola inicializando gestores, servicios y programador de alertas.
+     * El estado se recupera de la instantánea y del registro de operaciones del directorio de datos;
+     * si no pueden abrirse, la consola trabaja sólo en memoria.
      */
     public Consola() {
         this.scanner = new Scanner(System.in);
         this.preferences = new PreferencesManager();
         this.notifications = new NotificadorConsola(preferences);
-        this.userManager = new GestorUsuarios(notifications);
-        this.resourceManager = new GestorRecursos();
+        if (CATALOGO_FUERA_DEL_HEAP) {
+            FabricaRecursos.usarCatalogo(new CatalogoFueraDelHeap());
+        }
+        InstantaneaBiblioteca instantanea = null;
+        RegistroOperaciones registro = null;
+        GestorUsuarios usuarios;
+        GestorRecursos gestor;
+        try {
+            instantanea = InstantaneaBiblioteca.abrirUltima(ARCHIVO_INSTANTANEA);
+            registro = new RegistroOperaciones(DIRECTORIO_DATOS.resolve("operaciones.wal"), VENTANA_REGISTRO);
+            usuarios = new GestorUsuarios(notifications, instantanea);
+            gestor = GestorRecursos.restaurar(instantanea, registro, usuarios);
+        } catch (IOException e) {
+            System.out.println("No se pudieron cargar los datos guardados: " + e.getMessage()
+                    + ". Los cambios no se conservarán.");
+            closeQuietly(registro);
+            registro = null;
+            usuarios = new GestorUsuarios(notifications);
+            gestor = new GestorRecursos();
+        }
+        this.operationLog = registro;
+        this.userManager = usuarios;
+        this.resourceManager = gestor;
+        this.importer = new ImportadorMasivo(resourceManager, userManager);
         this.asyncGenerator = new AsyncReportGenerator(
-                new GeneradorReportes(resourceManager, userManager)
+                new GeneradorReportes(resourceManager, userManager, PARALELISMO_REPORTES)
         );
+        // Una única alerta de disponibilidad recuerda los avisos con que se vencen los turnos de retiro
+        this.availabilityAlert = new AlertaDisponibilidad(resourceManager, userManager, notifications);
         this.alertScheduler = new AlertScheduler(
                 new AlertaVencimiento(resourceManager, userManager, notifications),
-                new AlertaDisponibilidad(resourceManager, userManager, notifications)
+                availabilityAlert
         );
+        this.alertLog = openAlertLog();
         alertScheduler.start();
     }
 
+    /**
+     * Abre el registro persistente de alertas del directorio de datos y lo asocia al historial.
+     *
+     * @return registro abierto, o {@code null} si no pudo abrirse y las alertas quedan sólo en memoria
+     */
+    private static RegistroAlertas openAlertLog() {
+        try {
+            RegistroAlertas registro = new RegistroAlertas(DIRECTORIO_DATOS.resolve("alertas"));
+            AlertHistory.setLog(registro);
+            return registro;
+        } catch (IOException e) {
+            System.out.println("No se pudo abrir el registro de alertas: " + e.getMessage()
+                    + ". Las alertas no se conservarán.");
+            return null;
+        }
+    }
+
     /**
      * Muestra las opciones principales del menú.
      */
@@ -65,6 +173,8 @@ public class Consola {
         System.out.println("2. Gestionar recursos");
         System.out.println("3. Generar reportes");
         System.out.println("4. Ver alertas");
+        System.out.println("5. Exportar reportes a archivo");
+        System.out.println("6. Cancelar reportes en curso");
         System.out.println("0. Salir");
         System.out.print("Ingrese una opción: ");
     }
@@ -81,11 +191,17 @@ public class Consola {
                 switch (option) {
                     case 1: manageUsers(); break;
                     case 2: manageResources(); break;
-                    case 3: asyncGenerator.generarReportesEnSegundoPlano(); break;
+                    case 3: generateReports(); break;
                     case 4: viewAlerts(); break;
+                    case 5: exportReports(); break;
+                    case 6: cancelReports(); break;
                     case 0:
                         System.out.println("Saliendo...");
+                        asyncGenerator.close();
                         alertScheduler.shutdown();
+                        saveSnapshot();
+                        closeQuietly(operationLog);
+                        closeAlertLog();
                         return;
                     default: System.out.println("Opción inválida");
                 }
@@ -96,6 +212,104 @@ public class Consola {
         }
     }
 
+    /**
+     * Inicia la generación de los reportes en segundo plano y vuelve al menú sin esperarla;
+     * cada reporte se imprime en cuanto termina.
+     */
+    private void generateReports() {
+        asyncGenerator.generarReportesEnSegundoPlano();
+        System.out.println("Generando reportes en segundo plano...");
+    }
+
+    /**
+     * Exporta todos los reportes a un archivo en segundo plano: en CSV si su extensión es {@code .csv}
+     * y en texto legible en caso contrario. El archivo se cierra al terminar la exportación.
+     */
+    private void exportReports() {
+        System.out.println("Ingrese la ruta del archivo de destino (.csv o .txt): ");
+        Path destino = Paths.get(scanner.nextLine().trim());
+        Writer writer;
+        try {
+            writer = Files.newBufferedWriter(destino, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            System.out.println("Error al exportar reportes: " + e.getMessage());
+            return;
+        }
+        SalidaReporte salida = destino.toString().toLowerCase().endsWith(".csv")
+                ? new SalidaCsv(writer)
+                : new SalidaTexto(writer);
+        EjecucionReportes ejecucion = asyncGenerator.exportarReportes(salida);
+        ejecucion.getFinalizacion().whenComplete((resultado, error) -> {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                System.out.println("Error al exportar reportes: " + e.getMessage());
+                return;
+            }
+            if (ejecucion.getFallidos() == 0) {
+                System.out.println("Reportes exportados a " + destino.toAbsolutePath());
+            } else {
+                System.out.println("Exportación incompleta a " + destino.toAbsolutePath() + ": "
+                        + ejecucion.getFallidos() + " de " + ejecucion.getTotal() + " reportes no se escribieron.");
+            }
+        });
+        System.out.println("Exportando reportes en segundo plano...");
+    }
+
+    /**
+     * Cancela las generaciones y exportaciones de reportes en curso.
+     */
+    private void cancelReports() {
+        int canceladas = asyncGenerator.cancelarEjecuciones();
+        System.out.println(canceladas > 0 ? "Reportes en curso cancelados." : "No hay reportes en curso.");
+    }
+
+    /**
+     * Guarda la instantánea de la biblioteca y vacía el registro de operaciones,
+     * para que el próximo inicio no tenga que reproducirlo.
+     */
+    private void saveSnapshot() {
+        if (operationLog == null) {
+            return;
+        }
+        try {
+            resourceManager.guardarInstantanea(ARCHIVO_INSTANTANEA, userManager);
+        } catch (IOException e) {
+            System.out.println("Error al guardar la instantánea: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Cierra el registro de operaciones, si existe, informando el error sin interrumpir la salida.
+     *
+     * @param registro registro a cerrar, o {@code null}
+     */
+    private static void closeQuietly(RegistroOperaciones registro) {
+        if (registro == null) {
+            return;
+        }
+        try {
+            registro.close();
+        } catch (IOException e) {
+            System.out.println("Error al cerrar el registro de operaciones: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Desasocia y cierra el registro de alertas, si existe, escribiendo antes las entradas pendientes.
+     */
+    private void closeAlertLog() {
+        if (alertLog == null) {
+            return;
+        }
+        AlertHistory.setLog(null);
+        try {
+            alertLog.close();
+        } catch (IOException e) {
+            System.out.println("Error al cerrar el registro de alertas: " + e.getMessage());
+        }
+    }
+
     /**
      * Gestiona menú de usuarios: agregar, buscar o listar.
      */
@@ -106,6 +320,7 @@ public class Consola {
                 case 1: addUser(); break;
                 case 2: searchUser(); break;
                 case 3: listUsers(); break;
+                case 4: importUsers(); break;
                 case 0: return;
                 default: System.out.println("Opción inválida.");
             }
@@ -122,6 +337,7 @@ public class Consola {
         System.out.println("1. Agregar nuevo usuario");
         System.out.println("2. Buscar usuario por ID");
         System.out.println("3. Listar todos los usuarios");
+        System.out.println("4. Importar usuarios desde archivo");
         System.out.println("0. Volver al menú principal");
         System.out.print("Ingrese una opción: ");
         try {
@@ -157,7 +373,11 @@ public class Consola {
     private void searchUser() {
         System.out.println("Ingrese ID del usuario a buscar: ");
         String id = scanner.nextLine();
-        Usuario usuario = userManager.searchUserById(id);
+        Usuario usuario = userManager.buscarUsuario(id).orElse(null);
+        if (usuario == null) {
+            System.out.println("Usuario no encontrado.");
+            return;
+        }
         System.out.println("--- Datos del Usuario ---");
         System.out.println("Nombre: " + usuario.getNombre());
         System.out.println("ID: " + usuario.getId());
@@ -195,6 +415,7 @@ public class Consola {
                 case 4: searchByTitle(); break;
                 case 5: filterByCategoria(); break;
                 case 6: showCategoriasDisponibles(); break;
+                case 7: importResources(); break;
                 case 0: return;
                 default: System.out.println("Opción inválida.");
             }
@@ -214,6 +435,7 @@ public class Consola {
         System.out.println("4. Buscar recursos por título");
         System.out.println("5. Filtrar recursos por categoría");
         System.out.println("6. Ver categorías disponibles");
+        System.out.println("7. Importar recursos desde archivo");
         System.out.println("0. Volver al menú principal");
         System.out.print("Ingrese una opción: ");
         try {
@@ -242,11 +464,11 @@ public class Consola {
         int tipoRecurso = scanner.nextInt();
         scanner.nextLine();
 
-        RecursoDigital recurso;
+        String tipo;
         switch (tipoRecurso) {
-            case 1: recurso = new Libro(id, title, EstadoRecurso.DISPONIBLE); break;
-            case 2: recurso = new Revista(id, title, EstadoRecurso.DISPONIBLE); break;
-            case 3: recurso = new Audiolibro(id, title, EstadoRecurso.DISPONIBLE); break;
+            case 1: tipo = "Libro"; break;
+            case 2: tipo = "Revista"; break;
+            case 3: tipo = "Audiolibro"; break;
             default:
                 System.out.println("Opción inválida, no se creó el recurso.");
                 return;
@@ -258,26 +480,68 @@ public class Consola {
         }
         int catIndex = scanner.nextInt();
         scanner.nextLine();
+        CategoriaRecurso categoria;
         if (catIndex >= 1 && catIndex <= CategoriaRecurso.values().length) {
-            recurso.setCategoria(CategoriaRecurso.values()[catIndex - 1]);
+            categoria = CategoriaRecurso.values()[catIndex - 1];
         } else {
             System.out.println("Categoría inválida. Se asignará OTRO por defecto.");
-            recurso.setCategoria(CategoriaRecurso.OTRO);
+            categoria = CategoriaRecurso.OTRO;
         }
 
-        resourceManager.addNewResource(recurso);
+        // La fábrica crea el recurso en el almacén fuera del heap cuando está activo
+        resourceManager.addNewResource(FabricaRecursos.crear(tipo, id, title, EstadoRecurso.DISPONIBLE, categoria));
         System.out.println("Recurso agregado exitosamente.");
     }
 
     /**
-     * Solicita ID y muestra datos del recurso, luego presenta opciones específicas.
+     * Importa recursos desde un archivo CSV o JSONL indicado por el usuario.
+     */
+    private void importResources() {
+        System.out.println("Ingrese la ruta del archivo de recursos (.csv o .jsonl): ");
+        String ruta = scanner.nextLine().trim();
+        try {
+            printImportResult(importer.importarRecursos(Paths.get(ruta)));
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("No se pudo importar el archivo: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Importa usuarios desde un archivo CSV o JSONL indicado por el usuario.
+     */
+    private void importUsers() {
+        System.out.println("Ingrese la ruta del archivo de usuarios (.csv o .jsonl): ");
+        String ruta = scanner.nextLine().trim();
+        try {
+            printImportResult(importer.importarUsuarios(Paths.get(ruta)));
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("No se pudo importar el archivo: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Muestra el resumen de una importación y los primeros rechazos.
      *
-     * @throws RecursoNoDisponibleException si no encuentra el recurso.
+     * @param resultado resultado de la importación
      */
-    private void searchResource() throws RecursoNoDisponibleException {
+    private void printImportResult(ResultadoImportacion resultado) {
+        System.out.println("Importación finalizada: " + resultado);
+        for (String error : resultado.getErrores()) {
+            System.out.println("  " + error);
+        }
+    }
+
+    /**
+     * Solicita ID y muestra datos del recurso, luego presenta opciones específicas.
+     */
+    private void searchResource() {
         System.out.println("Ingrese ID del recurso a buscar: ");
         String id = scanner.nextLine();
-        RecursoDigital recurso = resourceManager.searchResourceById(id);
+        RecursoDigital recurso = resourceManager.buscarRecurso(id).orElse(null);
+        if (recurso == null) {
+            System.out.println("Recurso no encontrado.");
+            return;
+        }
         System.out.println("--- Datos del Recurso ---");
         System.out.println("ID: " + recurso.getIdentificador());
         System.out.println("Título: " + recurso.getTitulo());
@@ -286,7 +550,8 @@ public class Consola {
     }
 
     /**
-     * Lista todos los recursos en formato tabular.
+     * Lista todos los recursos ordenados por título en formato tabular,
+     * de a una página por vez.
      */
     private void listResources() {
         Collection<RecursoDigital> recursos = resourceManager.listAllResources();
@@ -297,9 +562,20 @@ public class Consola {
         }
         System.out.printf("%-3s %-12s %-15s %-25s%n", "#", "ID", "Título", "Estado");
         int i = 1;
-        for (RecursoDigital recurso : recursos) {
-            System.out.printf("%-3d %-12s %-15s %-25s%n", i++,
-                    recurso.getIdentificador(), recurso.getTitulo(), recurso.getEstado());
+        Pagina<RecursoDigital> pagina = resourceManager.pageByTitulo(null, TAMANIO_PAGINA);
+        while (true) {
+            for (RecursoDigital recurso : pagina.getElementos()) {
+                System.out.printf("%-3d %-12s %-15s %-25s%n", i++,
+                        recurso.getIdentificador(), recurso.getTitulo(), recurso.getEstado());
+            }
+            if (!pagina.haySiguiente()) {
+                break;
+            }
+            System.out.print("Presione Enter para ver más o ingrese 0 para terminar: ");
+            if (scanner.nextLine().equals("0")) {
+                break;
+            }
+            pagina = resourceManager.pageByTitulo(pagina.getSiguienteCursor(), TAMANIO_PAGINA);
         }
         System.out.println("Total de recursos: " + recursos.size());
     }
@@ -390,7 +666,7 @@ public class Consola {
                     case "0": return;
                     default: System.out.println("Opción no válida. Intente de nuevo.");
                 }
-            } catch (RecursoNoDisponibleException e) {
+            } catch (RecursoNoDisponibleException | UsuarioNoEncontradoException e) {
                 System.out.println("Error: " + e.getMessage());
             } catch (Exception e) {
                 System.out.println("Error inesperado: " + e.getMessage());
@@ -403,10 +679,11 @@ public class Consola {
      *
      * @param recurso Recurso a prestar.
      * @throws RecursoNoDisponibleException si no está disponible.
+     * @throws UsuarioNoEncontradoException si el ID de usuario ingresado no existe.
      */
-    private void handlePrestamo(RecursoDigital recurso) throws RecursoNoDisponibleException {
+    private void handlePrestamo(RecursoDigital recurso) throws RecursoNoDisponibleException, UsuarioNoEncontradoException {
         System.out.println("Ingrese el ID del usuario que solicita el préstamo:");
-        var usuario = userManager.searchUserById(scanner.nextLine());
+        var usuario = userManager.obtenerUsuario(scanner.nextLine());
         resourceManager.prestarRecurso(recurso.getIdentificador(), usuario);
         System.out.println("Préstamo registrado con éxito.");
     }
@@ -416,10 +693,11 @@ public class Consola {
      *
      * @param recurso Recurso a reservar.
      * @throws RecursoNoDisponibleException si no se pudo reservar.
+     * @throws UsuarioNoEncontradoException si el ID de usuario ingresado no existe.
      */
-    private void handleReserva(RecursoDigital recurso) throws RecursoNoDisponibleException {
+    private void handleReserva(RecursoDigital recurso) throws RecursoNoDisponibleException, UsuarioNoEncontradoException {
         System.out.println("Ingrese el ID del usuario que desea reservar:");
-        var usuario = userManager.searchUserById(scanner.nextLine());
+        var usuario = userManager.obtenerUsuario(scanner.nextLine());
         resourceManager.reservarRecurso(recurso.getIdentificador(), usuario);
         System.out.println("Reserva registrada con éxito.");
     }
@@ -429,10 +707,11 @@ public class Consola {
      *
      * @param recurso Recurso a renovar.
      * @throws RecursoNoDisponibleException si no es renovable.
+     * @throws UsuarioNoEncontradoException si el ID de usuario ingresado no existe.
      */
-    private void handleRenovacion(RecursoDigital recurso) throws RecursoNoDisponibleException {
+    private void handleRenovacion(RecursoDigital recurso) throws RecursoNoDisponibleException, UsuarioNoEncontradoException {
         System.out.println("Ingrese el ID del usuario que desea renovar:");
-        var usuario = userManager.searchUserById(scanner.nextLine());
+        var usuario = userManager.obtenerUsuario(scanner.nextLine());
         resourceManager.renovarRecurso(recurso.getIdentificador(), usuario);
         System.out.println("Recurso renovado exitosamente.");
     }
@@ -446,13 +725,14 @@ public class Consola {
             System.out.println("1. Mostrar alertas actuales");
             System.out.println("2. Ver historial de alertas");
             System.out.println("3. Configurar preferencias de notificación");
+            System.out.println("4. Buscar alertas por usuario, tipo y fecha");
             System.out.println("0. Volver");
             System.out.print("Ingrese una opción: ");
             String opt = scanner.nextLine();
             switch (opt) {
                 case "1":
                     new AlertaVencimiento(resourceManager, userManager, notifications).revisarVencimientos();
-                    new AlertaDisponibilidad(resourceManager, userManager, notifications).revisarDisponibilidad();
+                    availabilityAlert.revisarDisponibilidad();
                     break;
                 case "2":
                     showAlertHistory();
@@ -460,6 +740,9 @@ public class Consola {
                 case "3":
                     configureAlertPreferences();
                     break;
+                case "4":
+                    searchAlerts();
+                    break;
                 case "0": return;
                 default: System.out.println("Opción inválida.");
             }
@@ -470,12 +753,62 @@ public class Consola {
      * Muestra el historial de notificaciones con timestamp.
      */
     private void showAlertHistory() {
-        List<NotificacionEntry> history = AlertHistory.getHistory();
         DateTimeFormatter fmt = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
-        history.forEach(e -> System.out.printf(
-                "[%s] %s - %s (Usuario: %s)%n",
-                e.getTimestamp().format(fmt), e.getType(), e.getMensaje(), e.getUsuarioId()
-        ));
+        Pagina<NotificacionEntry> pagina = AlertHistory.getPage(null, TAMANIO_PAGINA);
+        while (true) {
+            pagina.getElementos().forEach(e -> System.out.printf(
+                    "[%s] %s - %s (Usuario: %s)%n",
+                    e.getTimestamp().format(fmt), e.getType(), e.getMensaje(), e.getUsuarioId()
+            ));
+            if (!pagina.haySiguiente()) {
+                break;
+            }
+            System.out.print("Presione Enter para ver más o ingrese 0 para terminar: ");
+            if (scanner.nextLine().equals("0")) {
+                break;
+            }
+            pagina = AlertHistory.getPage(pagina.getSiguienteCursor(), TAMANIO_PAGINA);
+        }
+        long descartadas = AlertHistory.getOverflowCount();
+        if (descartadas > 0) {
+            System.out.println("(" + descartadas + " alertas antiguas descartadas del historial)");
+        }
+    }
+
+    /**
+     * Busca alertas de los últimos días, opcionalmente de un usuario y de un tipo, incluyendo las de
+     * sesiones anteriores conservadas en el registro persistente.
+     */
+    private void searchAlerts() {
+        System.out.print("ID de usuario (vacío para todos): ");
+        String usuario = scanner.nextLine().trim();
+        System.out.print("Tipo de alerta (INFO, WARNING, ERROR o vacío para todos): ");
+        String tipo = scanner.nextLine().trim();
+        System.out.print("Cantidad de días hacia atrás: ");
+        String dias = scanner.nextLine().trim();
+        Set<AlertType> tipos = EnumSet.noneOf(AlertType.class);
+        LocalDateTime desde;
+        try {
+            if (!tipo.isEmpty()) {
+                tipos.add(AlertType.valueOf(tipo.toUpperCase()));
+            }
+            desde = LocalDate.now().minusDays(Long.parseLong(dias)).atStartOfDay();
+        } catch (IllegalArgumentException e) {
+            System.out.println("Criterio inválido.");
+            return;
+        }
+        DateTimeFormatter fmt = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+        try {
+            List<NotificacionEntry> alertas = AlertHistory.search(
+                    usuario.isEmpty() ? null : usuario, tipos, desde, null, TAMANIO_PAGINA * 50);
+            alertas.forEach(e -> System.out.printf(
+                    "[%s] %s - %s (Usuario: %s)%n",
+                    e.getTimestamp().format(fmt), e.getType(), e.getMensaje(), e.getUsuarioId()
+            ));
+            System.out.println(alertas.size() + " alertas encontradas.");
+        } catch (IOException e) {
+            System.out.println("Error al buscar alertas: " + e.getMessage());
+        }
     }
 
     /**